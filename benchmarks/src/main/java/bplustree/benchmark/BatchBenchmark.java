@@ -0,0 +1,135 @@
+package bplustree.benchmark;
+
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import bplustree.BPlusTree;
+
+/**
+ * Insert then delete size random keys split in batches of batchSize keys, one
+ * operation per key and with insertAll() and deleteAll(), which sort a batch and
+ * apply the keys falling in the same leaf together. The "keys" counter reports
+ * the keys inserted or deleted per second.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgs = { "-Xms2g", "-Xmx2g" })
+public class BatchBenchmark {
+    @Param({ "1000000" })
+    public int size;
+
+    @Param({ "1000" })
+    public int batchSize;
+
+    @Param({ "64" })
+    public int order;
+
+    private List<List<Map.Entry<Integer, Integer>>> entryBatches;
+    private List<List<Integer>> keyBatches;
+
+    @AuxCounters(AuxCounters.Type.OPERATIONS)
+    @State(Scope.Thread)
+    public static class Counters {
+        public long keys;
+    }
+
+    /**
+     * A tree holding every key, filled again before every invocation.
+     */
+    @State(Scope.Thread)
+    public static class Filled {
+        BPlusTree<Integer, Integer> tree;
+
+        @Setup(Level.Invocation)
+        public void setUp(BatchBenchmark benchmark) {
+            this.tree = benchmark.insertEach();
+        }
+    }
+
+    @Setup
+    public void setUp() {
+        int[] keys = Keys.Order.RANDOM.keys(this.size);
+
+        this.entryBatches = new ArrayList<>();
+        this.keyBatches = new ArrayList<>();
+        for (int begin = 0; begin < this.size; begin += this.batchSize) {
+            List<Map.Entry<Integer, Integer>> entries = new ArrayList<>();
+            List<Integer> batchKeys = new ArrayList<>();
+            for (int i = begin; i < Math.min(this.size, begin + this.batchSize); i++) {
+                entries.add(new AbstractMap.SimpleImmutableEntry<>(keys[i], SortedIndex.VALUE));
+                batchKeys.add(keys[i]);
+            }
+            this.entryBatches.add(entries);
+            this.keyBatches.add(batchKeys);
+        }
+    }
+
+    BPlusTree<Integer, Integer> insertEach() {
+        BPlusTree<Integer, Integer> tree = new BPlusTree<>(this.order);
+
+        for (List<Map.Entry<Integer, Integer>> batch : this.entryBatches) {
+            for (Map.Entry<Integer, Integer> entry : batch) {
+                tree.insert(entry.getKey(), entry.getValue());
+            }
+        }
+
+        return tree;
+    }
+
+    @Benchmark
+    public BPlusTree<Integer, Integer> insert(Counters counters) {
+        counters.keys += this.size;
+        return this.insertEach();
+    }
+
+    @Benchmark
+    public BPlusTree<Integer, Integer> insertAll(Counters counters) {
+        BPlusTree<Integer, Integer> tree = new BPlusTree<>(this.order);
+        for (List<Map.Entry<Integer, Integer>> batch : this.entryBatches) {
+            tree.insertAll(batch);
+        }
+
+        counters.keys += this.size;
+        return tree;
+    }
+
+    @Benchmark
+    public void delete(Filled filled, Counters counters) {
+        for (List<Integer> batch : this.keyBatches) {
+            for (Integer key : batch) {
+                filled.tree.delete(key);
+            }
+        }
+
+        counters.keys += this.size;
+    }
+
+    @Benchmark
+    public void deleteAll(Filled filled, Counters counters) {
+        for (List<Integer> batch : this.keyBatches) {
+            filled.tree.deleteAll(batch);
+        }
+
+        counters.keys += this.size;
+    }
+}
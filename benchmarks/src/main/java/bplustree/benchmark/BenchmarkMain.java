@@ -0,0 +1,31 @@
+package bplustree.benchmark;
+
+import org.openjdk.jmh.Main;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Run the JMH benchmarks with the GC profiler, which reports the allocation rate
+ * next to the throughput. Build and run them with
+ * <pre>
+ * mvn -B package -DskipTests
+ * java -jar benchmarks/target/benchmarks.jar [JMH options] [benchmark regexp ...]
+ * </pre>
+ * e.g. "-p size=100000 -p index=BPLUSTREE,TREEMAP Search" only searches trees and
+ * TreeMaps of 100000 keys. "-rf json" saves the results to compare two versions.
+ */
+public class BenchmarkMain {
+    public static void main(String[] args) throws Exception {
+        CommandLineOptions options = new CommandLineOptions(args);
+
+        if (options.shouldHelp() || options.shouldList() || options.shouldListWithParams()
+                || options.shouldListProfilers() || options.shouldListResultFormats()) {
+            Main.main(args);
+            return;
+        }
+
+        new Runner(new OptionsBuilder().parent(options).addProfiler(GCProfiler.class).build()).run();
+    }
+}
@@ -0,0 +1,137 @@
+package bplustree.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import bplustree.BPlusTree;
+import bplustree.BinaryBPlusTree;
+import bplustree.BinaryKey;
+
+/**
+ * Composite (tenant, timestamp, id) keys in a plain tree of tuples compared field
+ * by field, and the same keys normalized into bytes in a BinaryBPlusTree. Every
+ * key holds its own tenant string, as keys decoded from requests do. A tree
+ * holding size keys is replaced by an empty one, so the insert throughput is the
+ * average over every size up to the given one.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgs = { "-Xms2g", "-Xmx2g" })
+public class BinaryKeyBenchmark {
+    @Param({ "100000", "1000000" })
+    public int size;
+
+    @Param({ "64" })
+    public int order;
+
+    private CompositeKey[] tuples;
+    private BinaryKey[] binaryKeys;
+    private BPlusTree<CompositeKey, Integer> tupleTree;
+    private BinaryBPlusTree<Integer> binaryTree;
+    private int next;
+
+    /**
+     * A composite key compared field by field, as the tuples of a plain tree.
+     */
+    private static final class CompositeKey implements Comparable<CompositeKey> {
+        final String tenant;
+        final long timestamp;
+        final long id;
+
+        CompositeKey(String tenant, long timestamp, long id) {
+            this.tenant = tenant;
+            this.timestamp = timestamp;
+            this.id = id;
+        }
+
+        @Override
+        public int compareTo(CompositeKey other) {
+            int result = this.tenant.compareTo(other.tenant);
+            if (result == 0) {
+                result = Long.compare(this.timestamp, other.timestamp);
+            }
+            return (result != 0) ? result : Long.compare(this.id, other.id);
+        }
+    }
+
+    @Setup
+    public void setUp() {
+        String[] tenants = new String[64];
+        for (int i = 0; i < tenants.length; i++) {
+            tenants[i] = "tenant-" + i;
+        }
+
+        int[] ids = Keys.shuffle(Keys.ascending(this.size, 0, 1));
+        BinaryKey.Encoder encoder = new BinaryKey.Encoder();
+        this.tuples = new CompositeKey[this.size];
+        this.binaryKeys = new BinaryKey[this.size];
+        for (int i = 0; i < this.size; i++) {
+            int id = ids[i];
+            CompositeKey tuple = new CompositeKey(new String(tenants[id % tenants.length]),
+                    1_600_000_000_000L + id / 64, id);
+
+            this.tuples[i] = tuple;
+            this.binaryKeys[i] = encoder.reset().writeString(tuple.tenant).writeLong(tuple.timestamp)
+                    .writeLong(tuple.id).toKey();
+        }
+
+        // the search benchmarks search full trees, the insert benchmarks replace them
+        this.tupleTree = new BPlusTree<>(this.order);
+        this.binaryTree = new BinaryBPlusTree<>(this.order);
+        for (int i = 0; i < this.size; i++) {
+            this.tupleTree.insert(this.tuples[i], SortedIndex.VALUE);
+            this.binaryTree.insert(this.binaryKeys[i], SortedIndex.VALUE);
+        }
+        this.next = 0;
+    }
+
+    private int nextIndex() {
+        int index = this.next;
+        this.next = (this.next + 1 == this.size) ? 0 : this.next + 1;
+        return index;
+    }
+
+    @Benchmark
+    public void insertTuples() {
+        int index = this.nextIndex();
+        if (index == 0) {
+            this.tupleTree = new BPlusTree<>(this.order);
+        }
+
+        this.tupleTree.insert(this.tuples[index], SortedIndex.VALUE);
+    }
+
+    @Benchmark
+    public void insertBinary() {
+        int index = this.nextIndex();
+        if (index == 0) {
+            this.binaryTree = new BinaryBPlusTree<>(this.order);
+        }
+
+        this.binaryTree.insert(this.binaryKeys[index], SortedIndex.VALUE);
+    }
+
+    @Benchmark
+    public Integer searchTuples() {
+        return this.tupleTree.search(this.tuples[this.nextIndex()]);
+    }
+
+    @Benchmark
+    public Integer searchBinary() {
+        return this.binaryTree.search(this.binaryKeys[this.nextIndex()]);
+    }
+}
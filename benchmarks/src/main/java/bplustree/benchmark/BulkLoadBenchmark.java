@@ -0,0 +1,72 @@
+package bplustree.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Build a tree of size ascending keys by inserting them one by one, which
+ * splits the rightmost leaf whenever it is full, and by bulkLoad(), which fills
+ * the leaves to fillFactor and builds the internal nodes above them. The
+ * "entries" counter reports the entries loaded per second.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgs = { "-Xms2g", "-Xmx2g" })
+public class BulkLoadBenchmark {
+    @Param({ "1000000" })
+    public int size;
+
+    @Param({ "64" })
+    public int order;
+
+    @Param({ "1.0" })
+    public double fillFactor;
+
+    private int[] keys;
+
+    @AuxCounters(AuxCounters.Type.OPERATIONS)
+    @State(Scope.Thread)
+    public static class Counters {
+        public long entries;
+    }
+
+    @Setup
+    public void setUp() {
+        this.keys = Keys.Order.SEQUENTIAL.keys(this.size);
+    }
+
+    @Benchmark
+    public SortedIndex insertSorted(Counters counters) {
+        SortedIndex index = SortedIndex.Kind.BPLUSTREE.create(this.order);
+        for (int key : this.keys) {
+            index.insert(key);
+        }
+
+        counters.entries += this.size;
+        return index;
+    }
+
+    @Benchmark
+    public SortedIndex bulkLoad(Counters counters) {
+        SortedIndex index = SortedIndex.Kind.BPLUSTREE.create(this.order);
+        index.load(this.keys, this.fillFactor);
+
+        counters.entries += this.size;
+        return index;
+    }
+}
@@ -0,0 +1,82 @@
+package bplustree.benchmark;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import bplustree.BPlusTree;
+import bplustree.BPlusTreeCodec;
+
+/**
+ * Save a tree of size random keys with writeTo() and restore it with
+ * readFrom(), against rebuilding it by inserting its keys. The "kilobytes"
+ * counter of write() reports the size of the checkpoint.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgs = { "-Xms2g", "-Xmx2g" })
+public class CheckpointBenchmark {
+    @Param({ "1000000" })
+    public int size;
+
+    @Param({ "64" })
+    public int order;
+
+    private int[] keys;
+    private BPlusTree<Integer, Integer> tree;
+    private Path directory;
+    private Path file;
+
+    @Setup
+    public void setUp() throws IOException {
+        this.keys = Keys.Order.RANDOM.keys(this.size);
+        this.tree = this.rebuild();
+        this.directory = TempFiles.createDirectory();
+        this.file = this.directory.resolve("checkpoint");
+        this.tree.writeTo(this.file, BPlusTreeCodec.INTEGER, BPlusTreeCodec.INTEGER);
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        TempFiles.delete(this.directory);
+    }
+
+    @Benchmark
+    public BPlusTree<Integer, Integer> rebuild() {
+        BPlusTree<Integer, Integer> tree = new BPlusTree<>(this.order);
+
+        for (int key : this.keys) {
+            tree.insert(key, SortedIndex.VALUE);
+        }
+
+        return tree;
+    }
+
+    @Benchmark
+    @Measurement(iterations = 1)
+    public void write(FileSize fileSize) throws IOException {
+        this.tree.writeTo(this.file, BPlusTreeCodec.INTEGER, BPlusTreeCodec.INTEGER);
+        fileSize.measure(this.file);
+    }
+
+    @Benchmark
+    public BPlusTree<Integer, Integer> read() throws IOException {
+        return BPlusTree.readFrom(this.file, BPlusTreeCodec.INTEGER, BPlusTreeCodec.INTEGER);
+    }
+}
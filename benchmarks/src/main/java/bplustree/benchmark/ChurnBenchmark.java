@@ -0,0 +1,88 @@
+package bplustree.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import bplustree.BPlusTree;
+
+/**
+ * Steady-state churn: every operation deletes a random key of the tree and
+ * inserts a random key absent from it, so the tree keeps size keys while its
+ * leaves keep splitting and fusing. The keys are boxed once up front, run with
+ * "-prof gc" to compare the allocation rate with and without the node pool.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgs = { "-Xms2g", "-Xmx2g" })
+public class ChurnBenchmark {
+    @Param({ "0", "64" })
+    public int poolCapacity;
+
+    @Param({ "100000", "1000000" })
+    public int size;
+
+    @Param({ "16" })
+    public int order;
+
+    private BPlusTree<Integer, Integer> tree;
+    private Integer[] present;
+    private Integer[] absent;
+    private Integer value;
+    private long random;
+
+    @Setup
+    public void setUp() {
+        int[] keys = Keys.shuffle(Keys.ascending(2 * this.size, 0, 1));
+
+        this.present = new Integer[this.size];
+        this.absent = new Integer[this.size];
+        for (int i = 0; i < this.size; i++) {
+            this.present[i] = keys[i];
+            this.absent[i] = keys[this.size + i];
+        }
+
+        this.tree = new BPlusTree<>(this.order);
+        this.tree.setNodePoolCapacity(this.poolCapacity);
+        this.value = 0;
+        for (Integer key : this.present) {
+            this.tree.insert(key, this.value);
+        }
+
+        this.random = 42;
+    }
+
+    private int nextIndex() {
+        // xorshift, java.util.Random would be the only other allocation
+        this.random ^= this.random << 13;
+        this.random ^= this.random >>> 7;
+        this.random ^= this.random << 17;
+        return (int) ((this.random >>> 1) % this.size);
+    }
+
+    @Benchmark
+    public void churn() {
+        int i = this.nextIndex();
+        int j = this.nextIndex();
+        Integer deleted = this.present[i];
+
+        this.tree.delete(deleted);
+        this.tree.insert(this.absent[j], this.value);
+
+        this.present[i] = this.absent[j];
+        this.absent[j] = deleted;
+    }
+}
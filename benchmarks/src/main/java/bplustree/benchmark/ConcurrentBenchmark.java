@@ -0,0 +1,199 @@
+package bplustree.benchmark;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.ThreadParams;
+
+import bplustree.BPlusTree;
+import bplustree.ConcurrentBPlusTree;
+
+/**
+ * A mixed workload of 90% searches and 10% writes shared by 1, 2, 4 and 8
+ * threads, on the concurrent tree with optimistic lock coupling, in B-link mode,
+ * and on a BPlusTree behind a global lock. The tree holds the even keys, a
+ * write inserts an odd key of the thread and the next one deletes it, so the
+ * size stays the same. The scores are the operations per second of all threads.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgs = { "-Xms2g", "-Xmx2g" })
+public class ConcurrentBenchmark {
+    public enum Kind {
+        CONCURRENT, BLINK, GLOBAL_LOCK;
+
+        SortedIndex create(int order) {
+            switch (this) {
+            case CONCURRENT:
+                return new ConcurrentIndex(new ConcurrentBPlusTree<>(order));
+            case BLINK:
+                return new ConcurrentIndex(new ConcurrentBPlusTree<>(order, order, true));
+            default:
+                return new LockedIndex(order);
+            }
+        }
+    }
+
+    @Param({ "CONCURRENT", "BLINK", "GLOBAL_LOCK" })
+    public Kind kind;
+
+    @Param({ "1000000" })
+    public int size;
+
+    @Param({ "64" })
+    public int order;
+
+    private SortedIndex index;
+
+    /**
+     * The random keys of a thread, and the odd key it inserted last if any.
+     */
+    @State(Scope.Thread)
+    public static class Worker {
+        private Random random;
+        private int threadIndex;
+        private int threadCount;
+        private int inserted = -1;
+
+        @Setup
+        public void setUp(ThreadParams params) {
+            this.threadIndex = params.getThreadIndex();
+            this.threadCount = params.getThreadCount();
+            this.random = new Random(this.threadIndex);
+        }
+
+        Integer apply(SortedIndex index, int size) {
+            if (this.random.nextInt(10) != 0) {
+                return index.search(2 * this.random.nextInt(size));
+            }
+
+            if (this.inserted == -1) {
+                // 线程之间的奇数 key 不重叠
+                int slot = this.random.nextInt(size / this.threadCount);
+                this.inserted = 2 * (slot * this.threadCount + this.threadIndex) + 1;
+                index.insert(this.inserted);
+            } else {
+                index.delete(this.inserted);
+                this.inserted = -1;
+            }
+            return null;
+        }
+    }
+
+    @Setup
+    public void setUp() {
+        this.index = this.kind.create(this.order);
+
+        for (int key : Keys.shuffle(Keys.ascending(this.size, 0, 2))) {
+            this.index.insert(key);
+        }
+    }
+
+    @Benchmark
+    @Threads(1)
+    public Integer threads1(Worker worker) {
+        return worker.apply(this.index, this.size);
+    }
+
+    @Benchmark
+    @Threads(2)
+    public Integer threads2(Worker worker) {
+        return worker.apply(this.index, this.size);
+    }
+
+    @Benchmark
+    @Threads(4)
+    public Integer threads4(Worker worker) {
+        return worker.apply(this.index, this.size);
+    }
+
+    @Benchmark
+    @Threads(8)
+    public Integer threads8(Worker worker) {
+        return worker.apply(this.index, this.size);
+    }
+
+    private static class ConcurrentIndex extends SortedIndex {
+        private final ConcurrentBPlusTree<Integer, Integer> tree;
+
+        ConcurrentIndex(ConcurrentBPlusTree<Integer, Integer> tree) {
+            this.tree = tree;
+        }
+
+        @Override
+        void insert(int key) {
+            this.tree.insert(key, VALUE);
+        }
+
+        @Override
+        Integer search(int key) {
+            return this.tree.search(key);
+        }
+
+        @Override
+        void delete(int key) {
+            this.tree.delete(key);
+        }
+
+        @Override
+        void load(int[] sortedKeys, double fillFactor) {
+            for (int key : sortedKeys) {
+                this.tree.insert(key, VALUE);
+            }
+        }
+    }
+
+    /**
+     * A BPlusTree whose every operation holds the lock of the tree.
+     */
+    private static class LockedIndex extends SortedIndex {
+        private final BPlusTree<Integer, Integer> tree;
+
+        LockedIndex(int order) {
+            this.tree = new BPlusTree<>(order);
+        }
+
+        @Override
+        void insert(int key) {
+            synchronized (this.tree) {
+                this.tree.insert(key, VALUE);
+            }
+        }
+
+        @Override
+        Integer search(int key) {
+            synchronized (this.tree) {
+                return this.tree.search(key);
+            }
+        }
+
+        @Override
+        void delete(int key) {
+            synchronized (this.tree) {
+                this.tree.delete(key);
+            }
+        }
+
+        @Override
+        void load(int[] sortedKeys, double fillFactor) {
+            synchronized (this.tree) {
+                this.tree.bulkLoad(entries(sortedKeys), fillFactor);
+            }
+        }
+    }
+}
@@ -0,0 +1,34 @@
+package bplustree.benchmark;
+
+import java.io.Writer;
+
+/**
+ * A writer which only counts the characters written, so writing a picture or a
+ * log measures the writing and not the disk.
+ */
+final class CountingWriter extends Writer {
+    long count;
+
+    @Override
+    public void write(char[] buffer, int offset, int length) {
+        this.count += length;
+    }
+
+    @Override
+    public void write(String text) {
+        this.count += text.length();
+    }
+
+    @Override
+    public void write(int c) {
+        this.count += 1;
+    }
+
+    @Override
+    public void flush() {
+    }
+
+    @Override
+    public void close() {
+    }
+}
@@ -0,0 +1,105 @@
+package bplustree.benchmark;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Delete keys in patterns which make the leaves of the B Plus Tree underflow.
+ * Every invocation rebuilds the index and deletes the keys of the pattern, the
+ * "deletes" counter reports the deletions per second.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgs = { "-Xms2g", "-Xmx2g" })
+public class DeleteBenchmark {
+    /**
+     * The deletion patterns.
+     */
+    public enum Pattern {
+        /*
+         * The nodes are half full and keys are deleted at random, so an underflowing
+         * leaf finds no sibling to borrow from and merges with it.
+         */
+        MERGE_HEAVY,
+
+        /*
+         * The nodes are full and the keys of every other leaf are deleted, so an
+         * underflowing leaf borrows from the full siblings around it.
+         */
+        BORROW_HEAVY;
+    }
+
+    @Param({ "BPLUSTREE", "TREEMAP", "CONCURRENTSKIPLISTMAP" })
+    public SortedIndex.Kind index;
+
+    @Param({ "MERGE_HEAVY", "BORROW_HEAVY" })
+    public Pattern pattern;
+
+    @Param({ "1000", "100000", "1000000" })
+    public int size;
+
+    @Param({ "64" })
+    public int order;
+
+    private int[] keys;
+    private int[] deletedKeys;
+    private SortedIndex sortedIndex;
+
+    @AuxCounters(AuxCounters.Type.OPERATIONS)
+    @State(Scope.Thread)
+    public static class Counters {
+        public long deletes;
+    }
+
+    @Setup(Level.Trial)
+    public void setUpKeys() {
+        this.keys = Keys.ascending(this.size, 0, 1);
+
+        if (this.pattern == Pattern.MERGE_HEAVY) {
+            this.deletedKeys = Keys.shuffle(this.keys.clone());
+        } else {
+            int[] deletedKeys = new int[this.size];
+            int count = 0;
+
+            // key k lives in the leaf k / order of the full tree
+            for (int key : this.keys) {
+                if ((key / this.order) % 2 == 0) {
+                    deletedKeys[count++] = key;
+                }
+            }
+            this.deletedKeys = Arrays.copyOf(deletedKeys, count);
+        }
+    }
+
+    @Setup(Level.Invocation)
+    public void setUpIndex() {
+        this.sortedIndex = this.index.create(this.order);
+        this.sortedIndex.load(this.keys, this.pattern == Pattern.MERGE_HEAVY ? 0.5 : 1.0);
+    }
+
+    @Benchmark
+    public void delete(Counters counters) {
+        for (int key : this.deletedKeys) {
+            this.sortedIndex.delete(key);
+        }
+
+        counters.deletes += this.deletedKeys.length;
+    }
+}
@@ -0,0 +1,72 @@
+package bplustree.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Insert and search random keys in trees of orders 4 to 512. A higher fanout
+ * makes the tree lower but the nodes longer to search and to shift. The insert
+ * benchmark replaces a tree holding size keys by an empty one, the search
+ * benchmark searches a full tree.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgs = { "-Xms2g", "-Xmx2g" })
+public class FanoutBenchmark {
+    @Param({ "4", "8", "16", "32", "64", "128", "256", "512" })
+    public int order;
+
+    @Param({ "1000000" })
+    public int size;
+
+    private int[] keys;
+    private SortedIndex inserted;
+    private SortedIndex full;
+    private int nextInsert;
+    private int nextSearch;
+
+    @Setup
+    public void setUp() {
+        this.keys = Keys.Order.RANDOM.keys(this.size);
+
+        this.full = SortedIndex.Kind.BPLUSTREE.create(this.order);
+        for (int key : this.keys) {
+            this.full.insert(key);
+        }
+
+        this.inserted = SortedIndex.Kind.BPLUSTREE.create(this.order);
+        this.nextInsert = 0;
+        this.nextSearch = 0;
+    }
+
+    @Benchmark
+    public void insert() {
+        if (this.nextInsert == this.size) {
+            this.inserted = SortedIndex.Kind.BPLUSTREE.create(this.order);
+            this.nextInsert = 0;
+        }
+
+        this.inserted.insert(this.keys[this.nextInsert++]);
+    }
+
+    @Benchmark
+    public Integer search() {
+        int key = this.keys[this.nextSearch];
+        this.nextSearch = (this.nextSearch + 1 == this.size) ? 0 : this.nextSearch + 1;
+        return this.full.search(key);
+    }
+}
@@ -0,0 +1,24 @@
+package bplustree.benchmark;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * The size of a file written by a benchmark, reported by the "kilobytes"
+ * counter. JMH sums the counter over the iterations, as Footprint does, such a
+ * benchmark runs a single invocation in a single measured iteration.
+ */
+@AuxCounters(AuxCounters.Type.EVENTS)
+@State(Scope.Thread)
+public class FileSize {
+    public double kilobytes;
+
+    void measure(Path file) throws IOException {
+        this.kilobytes = Files.size(file) / 1024.0;
+    }
+}
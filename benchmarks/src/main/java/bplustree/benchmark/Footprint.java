@@ -0,0 +1,45 @@
+package bplustree.benchmark;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * The heap held by what a benchmark built, reported by the "bytesPerEntry"
+ * counter. The heap is measured after collecting the garbage, so the time of a
+ * benchmark measuring it tells nothing. JMH sums the counter over the
+ * iterations, such a benchmark runs a single invocation in a single measured
+ * iteration, see StringKeyBenchmark.footprint().
+ */
+@AuxCounters(AuxCounters.Type.EVENTS)
+@State(Scope.Thread)
+public class Footprint {
+    public double bytesPerEntry;
+
+    private long before;
+
+    @Setup(Level.Invocation)
+    public void measureBefore() {
+        this.before = usedMemory();
+    }
+
+    /**
+     * Measure the heap held by the entries built since the invocation started,
+     * which must still be reachable.
+     */
+    void measure(int entries) {
+        this.bytesPerEntry = (usedMemory() - this.before) / (double) entries;
+    }
+
+    private static long usedMemory() {
+        Runtime runtime = Runtime.getRuntime();
+
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
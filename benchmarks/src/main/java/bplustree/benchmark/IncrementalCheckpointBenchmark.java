@@ -0,0 +1,111 @@
+package bplustree.benchmark;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import bplustree.BPlusTree;
+import bplustree.BPlusTreeCheckpointer;
+import bplustree.BPlusTreeCodec;
+
+/**
+ * Update updates random keys of a tree of size keys, then save a delta
+ * checkpoint holding the dirty leaves, against a full checkpoint of the tree.
+ * The "kilobytes" counter reports the size of the file written. restore() loads
+ * the base and the deltas written by the setup.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 1)
+@Fork(value = 1, jvmArgs = { "-Xms2g", "-Xmx2g" })
+public class IncrementalCheckpointBenchmark {
+    private final static int DELTAS = 4;
+
+    @Param({ "100", "1000", "10000", "100000" })
+    public int updates;
+
+    @Param({ "1000000" })
+    public int size;
+
+    @Param({ "64" })
+    public int order;
+
+    private BPlusTree<Integer, Integer> tree;
+    private Path directory;
+    private BPlusTreeCheckpointer<Integer, Integer> checkpointer;
+    private Random random;
+
+    @Setup
+    public void setUp() throws IOException {
+        this.tree = new BPlusTree<>(this.order);
+        for (int key : Keys.Order.RANDOM.keys(this.size)) {
+            this.tree.insert(key, key);
+        }
+
+        // the deltas of the measured invocations must not start a new base
+        this.directory = TempFiles.createDirectory();
+        this.checkpointer = new BPlusTreeCheckpointer<>(this.directory, BPlusTreeCodec.INTEGER,
+                BPlusTreeCodec.INTEGER, Integer.MAX_VALUE);
+        this.random = new Random(7);
+
+        this.checkpointer.checkpoint(this.tree);
+        for (int i = 0; i < DELTAS; i++) {
+            this.update();
+            this.checkpointer.checkpoint(this.tree);
+        }
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        TempFiles.delete(this.directory);
+    }
+
+    /**
+     * Update updates keys since the last checkpoint, which restore() does not
+     * depend on.
+     */
+    @Setup(Level.Invocation)
+    public void update() {
+        // deleting and inserting a key again updates its leaf, without duplicates
+        for (int i = 0; i < this.updates; i++) {
+            Integer key = this.random.nextInt(this.size);
+            this.tree.delete(key);
+            this.tree.insert(key, -key);
+        }
+    }
+
+    @Benchmark
+    public void full(FileSize fileSize) throws IOException {
+        Path file = this.directory.resolve("full");
+        this.tree.writeTo(file, BPlusTreeCodec.INTEGER, BPlusTreeCodec.INTEGER);
+        fileSize.measure(file);
+    }
+
+    @Benchmark
+    public void delta(FileSize fileSize) throws IOException {
+        fileSize.measure(this.directory.resolve(this.checkpointer.checkpoint(this.tree)));
+    }
+
+    @Benchmark
+    @Measurement(iterations = 5)
+    public BPlusTree<Integer, Integer> restore() throws IOException {
+        return this.checkpointer.restore();
+    }
+}
@@ -0,0 +1,61 @@
+package bplustree.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Insert sequential, random and reverse ordered keys. An index is filled up to
+ * size keys, then replaced by an empty one, so the throughput is the average over
+ * every size up to the given one.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgs = { "-Xms2g", "-Xmx2g" })
+public class InsertBenchmark {
+    @Param({ "BPLUSTREE", "TREEMAP", "CONCURRENTSKIPLISTMAP" })
+    public SortedIndex.Kind index;
+
+    @Param({ "SEQUENTIAL", "RANDOM", "REVERSE" })
+    public Keys.Order keyOrder;
+
+    @Param({ "1000", "100000", "1000000" })
+    public int size;
+
+    @Param({ "64" })
+    public int order;
+
+    private int[] keys;
+    private SortedIndex sortedIndex;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        this.keys = this.keyOrder.keys(this.size);
+        this.sortedIndex = this.index.create(this.order);
+        this.next = 0;
+    }
+
+    @Benchmark
+    public void insert() {
+        if (this.next == this.keys.length) {
+            this.sortedIndex = this.index.create(this.order);
+            this.next = 0;
+        }
+
+        this.sortedIndex.insert(this.keys[this.next++]);
+    }
+}
@@ -0,0 +1,62 @@
+package bplustree.benchmark;
+
+import java.util.Random;
+
+/**
+ * Key sequences of the benchmarks, seeded so every run sees the same keys.
+ */
+public final class Keys {
+    private final static long SEED = 42;
+
+    private Keys() {
+    }
+
+    /**
+     * The orders in which keys are inserted.
+     */
+    public enum Order {
+        SEQUENTIAL, RANDOM, REVERSE;
+
+        int[] keys(int count) {
+            int[] keys = ascending(count, 0, 1);
+
+            if (this == RANDOM) {
+                shuffle(keys);
+            } else if (this == REVERSE) {
+                for (int i = 0, j = count - 1; i < j; i++, j--) {
+                    int swap = keys[i];
+                    keys[i] = keys[j];
+                    keys[j] = swap;
+                }
+            }
+
+            return keys;
+        }
+    }
+
+    /**
+     * Return from, from + step, ... count keys in total.
+     */
+    static int[] ascending(int count, int from, int step) {
+        int[] keys = new int[count];
+
+        for (int i = 0; i < count; i++) {
+            keys[i] = from + i * step;
+        }
+
+        return keys;
+    }
+
+    static int[] shuffle(int[] keys) {
+        Random random = new Random(SEED);
+
+        for (int i = keys.length - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            int swap = keys[i];
+            keys[i] = keys[j];
+            keys[j] = swap;
+        }
+
+        return keys;
+    }
+}
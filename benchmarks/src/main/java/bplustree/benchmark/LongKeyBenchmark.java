@@ -0,0 +1,138 @@
+package bplustree.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import bplustree.BPlusTree;
+import bplustree.BPlusTreeCursor;
+import bplustree.LongBPlusTreeCursor;
+import bplustree.LongLongBPlusTree;
+
+/**
+ * Boxed Long keys and values in a plain tree against primitive longs in a
+ * LongLongBPlusTree: the searches, the full scans, whose "entries" counter
+ * reports the entries read per second, and the heap held by a tree of size
+ * entries, reported by the "bytesPerEntry" counter.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgs = { "-Xms2g", "-Xmx2g" })
+public class LongKeyBenchmark {
+    @Param({ "1000000" })
+    public int size;
+
+    @Param({ "64" })
+    public int order;
+
+    private int[] keys;
+    private BPlusTree<Long, Long> boxedTree;
+    private LongLongBPlusTree primitiveTree;
+    private int next;
+
+    @AuxCounters(AuxCounters.Type.OPERATIONS)
+    @State(Scope.Thread)
+    public static class Counters {
+        public long entries;
+    }
+
+    @Setup
+    public void setUp() {
+        this.keys = Keys.Order.RANDOM.keys(this.size);
+        this.boxedTree = this.buildBoxed();
+        this.primitiveTree = this.buildPrimitive();
+        this.next = 0;
+    }
+
+    private BPlusTree<Long, Long> buildBoxed() {
+        BPlusTree<Long, Long> tree = new BPlusTree<>(this.order);
+
+        for (int key : this.keys) {
+            tree.insert((long) key, (long) key);
+        }
+
+        return tree;
+    }
+
+    private LongLongBPlusTree buildPrimitive() {
+        LongLongBPlusTree tree = new LongLongBPlusTree(this.order);
+
+        for (int key : this.keys) {
+            tree.insert(key, key);
+        }
+
+        return tree;
+    }
+
+    private int nextKey() {
+        int key = this.keys[this.next];
+        this.next = (this.next + 1 == this.size) ? 0 : this.next + 1;
+        return key;
+    }
+
+    @Benchmark
+    public Long searchBoxed() {
+        return this.boxedTree.search((long) this.nextKey());
+    }
+
+    @Benchmark
+    public long searchPrimitive() {
+        return this.primitiveTree.search(this.nextKey(), 0);
+    }
+
+    @Benchmark
+    public long scanBoxed(Counters counters) {
+        long sum = 0;
+        BPlusTreeCursor<Long, Long> cursor = this.boxedTree.scan(null, null);
+        while (cursor.hasNext()) {
+            sum += cursor.next();
+        }
+
+        counters.entries += this.size;
+        return sum;
+    }
+
+    @Benchmark
+    public long scanPrimitive(Counters counters) {
+        long sum = 0;
+        LongBPlusTreeCursor<Long> cursor = this.primitiveTree.scan();
+        while (cursor.hasNext()) {
+            sum += cursor.nextKey();
+        }
+
+        counters.entries += this.size;
+        return sum;
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @Measurement(iterations = 1)
+    public BPlusTree<Long, Long> footprintBoxed(Footprint footprint) {
+        BPlusTree<Long, Long> tree = this.buildBoxed();
+        footprint.measure(this.size);
+        return tree;
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @Measurement(iterations = 1)
+    public LongLongBPlusTree footprintPrimitive(Footprint footprint) {
+        LongLongBPlusTree tree = this.buildPrimitive();
+        footprint.measure(this.size);
+        return tree;
+    }
+}
@@ -0,0 +1,102 @@
+package bplustree.benchmark;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import bplustree.BPlusTree;
+import bplustree.BPlusTreeMetrics;
+
+/**
+ * Delete a range of keys then insert them again, every other range only
+ * deleting every other key, in strict mode, the default merge threshold of order
+ * 16 being 8, and with relaxed merge thresholds. The counters report the
+ * deletes, inserts and structural operations per second.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgs = { "-Xms2g", "-Xmx2g" })
+public class MergeThresholdBenchmark {
+    @Param({ "8", "4", "1" })
+    public int mergeThreshold;
+
+    @Param({ "1000000" })
+    public int size;
+
+    @Param({ "16" })
+    public int order;
+
+    @Param({ "200" })
+    public int rangeSize;
+
+    private BPlusTree<Integer, Integer> tree;
+    private BPlusTreeMetrics metrics;
+    private Random random;
+    private int round;
+
+    @AuxCounters(AuxCounters.Type.OPERATIONS)
+    @State(Scope.Thread)
+    public static class Counters {
+        public long deletes;
+        public long inserts;
+        public long splits;
+        public long borrows;
+        public long fusions;
+        public long deferred;
+    }
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        this.tree = new BPlusTree<>(this.order);
+        this.tree.setMergeThreshold(this.mergeThreshold);
+        for (int key = 0; key < this.size; key++) {
+            this.tree.insert(key, SortedIndex.VALUE);
+        }
+
+        this.metrics = new BPlusTreeMetrics(this.tree);
+        this.random = new Random(11);
+        this.round = 0;
+    }
+
+    @Setup(Level.Iteration)
+    public void resetMetrics() {
+        this.metrics.reset();
+    }
+
+    @Benchmark
+    public void churn(Counters counters) {
+        int from = this.random.nextInt(this.size - this.rangeSize);
+        int step = (this.round++ % 2 == 0) ? 1 : 2;
+
+        for (int key = from; key < from + this.rangeSize; key += step) {
+            this.tree.delete(key);
+        }
+        for (int key = from; key < from + this.rangeSize; key += step) {
+            this.tree.insert(key, SortedIndex.VALUE);
+        }
+
+        // the metrics were reset when the iteration started
+        counters.deletes = this.metrics.getDeleteCount();
+        counters.inserts = this.metrics.getInsertCount();
+        counters.splits = this.metrics.getLeafSplits();
+        counters.borrows = this.metrics.getBorrows();
+        counters.fusions = this.metrics.getFusions();
+        counters.deferred = this.metrics.getDeferredRebalances();
+    }
+}
@@ -0,0 +1,88 @@
+package bplustree.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import bplustree.BPlusTree;
+import bplustree.BPlusTreeMetrics;
+
+/**
+ * The cost of recording the metrics: search and insert with the metrics never
+ * created, created then switched off, and recording.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgs = { "-Xms2g", "-Xmx2g" })
+public class MetricsBenchmark {
+    public enum Recording {
+        NONE, DISABLED, ENABLED;
+    }
+
+    @Param({ "NONE", "DISABLED", "ENABLED" })
+    public Recording recording;
+
+    @Param({ "100000" })
+    public int size;
+
+    @Param({ "64" })
+    public int order;
+
+    private int[] keys;
+    private BPlusTree<Integer, Integer> tree;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        this.keys = Keys.shuffle(Keys.ascending(this.size, 0, 1));
+        this.tree = this.createTree();
+        this.next = 0;
+
+        for (int key : this.keys) {
+            this.tree.insert(key, SortedIndex.VALUE);
+        }
+    }
+
+    private BPlusTree<Integer, Integer> createTree() {
+        BPlusTree<Integer, Integer> tree = new BPlusTree<>(this.order);
+
+        if (this.recording != Recording.NONE) {
+            new BPlusTreeMetrics(tree).setEnabled(this.recording == Recording.ENABLED);
+        }
+
+        return tree;
+    }
+
+    private int nextKey() {
+        int key = this.keys[this.next];
+        this.next = (this.next + 1 == this.keys.length) ? 0 : this.next + 1;
+        return key;
+    }
+
+    @Benchmark
+    public Integer search() {
+        return this.tree.search(this.nextKey());
+    }
+
+    @Benchmark
+    public void insert() {
+        if (this.next == 0) {
+            this.tree = this.createTree();
+        }
+
+        this.tree.insert(this.nextKey(), SortedIndex.VALUE);
+    }
+}
@@ -0,0 +1,173 @@
+package bplustree.benchmark;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongConsumer;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import bplustree.BPlusTree;
+import bplustree.BPlusTreeMultimap;
+
+/**
+ * Index the row ids 0..rows over a few distinct keys, as a secondary index on a
+ * column of low cardinality, once as duplicate entries of a plain tree and once
+ * as the posting lists of a multimap. The put benchmarks insert a row each, an
+ * index holding every row being replaced by an empty one, the footprint
+ * benchmarks report the heap held per row by the "bytesPerEntry" counter. The
+ * multimap is then read and emptied, which the duplicates spread over many
+ * leaves do not allow, search() only finding one of them.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgs = { "-Xms2g", "-Xmx2g" })
+public class MultimapBenchmark {
+    @Param({ "1000000" })
+    public int rows;
+
+    @Param({ "100" })
+    public int distinctKeys;
+
+    @Param({ "64" })
+    public int order;
+
+    private Integer[] columns;
+    private BPlusTree<Integer, Long> duplicates;
+    private BPlusTreeMultimap<Integer> multimap;
+    private BPlusTreeMultimap<Integer> full;
+    private int nextRow;
+    private int nextKey;
+    private long sum;
+    private final LongConsumer summer = value -> this.sum += value;
+
+    @AuxCounters(AuxCounters.Type.OPERATIONS)
+    @State(Scope.Thread)
+    public static class Counters {
+        public long values;
+        public long removes;
+    }
+
+    /**
+     * A multimap holding every row, filled again before every invocation.
+     */
+    @State(Scope.Thread)
+    public static class Filled {
+        BPlusTreeMultimap<Integer> multimap;
+
+        @Setup(Level.Invocation)
+        public void setUp(MultimapBenchmark benchmark) {
+            this.multimap = benchmark.fill();
+        }
+    }
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(5);
+
+        this.columns = new Integer[this.rows];
+        for (int row = 0; row < this.rows; row++) {
+            this.columns[row] = random.nextInt(this.distinctKeys);
+        }
+
+        this.duplicates = new BPlusTree<>(this.order);
+        this.multimap = new BPlusTreeMultimap<>(this.order);
+        this.full = this.fill();
+        this.nextRow = 0;
+        this.nextKey = 0;
+    }
+
+    BPlusTreeMultimap<Integer> fill() {
+        BPlusTreeMultimap<Integer> multimap = new BPlusTreeMultimap<>(this.order);
+
+        for (int row = 0; row < this.rows; row++) {
+            multimap.put(this.columns[row], row);
+        }
+
+        return multimap;
+    }
+
+    private int nextRow() {
+        if (this.nextRow == this.rows) {
+            this.duplicates = new BPlusTree<>(this.order);
+            this.multimap = new BPlusTreeMultimap<>(this.order);
+            this.nextRow = 0;
+        }
+
+        return this.nextRow++;
+    }
+
+    @Benchmark
+    public void putDuplicates() {
+        int row = this.nextRow();
+        this.duplicates.insert(this.columns[row], (long) row);
+    }
+
+    @Benchmark
+    public void putMultimap() {
+        int row = this.nextRow();
+        this.multimap.put(this.columns[row], row);
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @Measurement(iterations = 1)
+    public BPlusTree<Integer, Long> footprintDuplicates(Footprint footprint) {
+        BPlusTree<Integer, Long> tree = new BPlusTree<>(this.order);
+
+        for (int row = 0; row < this.rows; row++) {
+            tree.insert(this.columns[row], (long) row);
+        }
+
+        footprint.measure(this.rows);
+        return tree;
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @Measurement(iterations = 1)
+    public BPlusTreeMultimap<Integer> footprintMultimap(Footprint footprint) {
+        BPlusTreeMultimap<Integer> multimap = this.fill();
+        footprint.measure(this.rows);
+        return multimap;
+    }
+
+    /**
+     * Read the values of a key, the "values" counter reports the values read per second.
+     */
+    @Benchmark
+    public long fetch(Counters counters) {
+        this.sum = 0;
+        this.full.forEach(this.nextKey, this.summer);
+        counters.values += this.full.count(this.nextKey);
+        this.nextKey = (this.nextKey + 1 == this.distinctKeys) ? 0 : this.nextKey + 1;
+
+        return this.sum;
+    }
+
+    /**
+     * Remove every row, the "removes" counter reports the removals per second.
+     */
+    @Benchmark
+    public void remove(Filled filled, Counters counters) {
+        for (int row = 0; row < this.rows; row++) {
+            filled.multimap.remove(this.columns[row], row);
+        }
+
+        counters.removes += this.rows;
+    }
+}
@@ -0,0 +1,90 @@
+package bplustree.benchmark;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import bplustree.LongKeySearch;
+
+/**
+ * Search random keys inside a single node of size sorted long keys with each of
+ * the strategies of LongKeySearch. UNIFORM keys are evenly spread, SKEWED keys
+ * crowd at the start of the range, which defeats interpolation.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgs = { "-Xms2g", "-Xmx2g" })
+public class NodeSearchBenchmark {
+    public enum Strategy {
+        BINARY, BRANCHLESS, LINEAR, INTERPOLATION, SEARCH
+    }
+
+    public enum Distribution {
+        UNIFORM, SKEWED
+    }
+
+    @Param({ "BINARY", "BRANCHLESS", "LINEAR", "INTERPOLATION", "SEARCH" })
+    public Strategy strategy;
+
+    @Param({ "8", "32", "128", "512" })
+    public int size;
+
+    @Param({ "UNIFORM", "SKEWED" })
+    public Distribution distribution;
+
+    private long[] keys;
+    private long[] probes;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+
+        this.keys = new long[this.size];
+        for (int i = 0; i < this.size; i++) {
+            double x = (double) i / this.size;
+            // the skewed keys grow with the cube of the position
+            this.keys[i] = (long) (1e12 * (this.distribution == Distribution.UNIFORM ? x : x * x * x)) + i;
+        }
+
+        // hits and misses spread over the whole node, more than fit in the branch predictor
+        this.probes = new long[4096];
+        for (int i = 0; i < this.probes.length; i++) {
+            this.probes[i] = this.keys[random.nextInt(this.size)] + random.nextInt(2);
+        }
+        this.next = 0;
+    }
+
+    @Benchmark
+    public int search() {
+        long key = this.probes[this.next];
+        this.next = (this.next + 1) & (this.probes.length - 1);
+
+        switch (this.strategy) {
+            case BINARY:
+                return LongKeySearch.binarySearch(this.keys, this.size, key);
+            case BRANCHLESS:
+                return LongKeySearch.branchlessSearch(this.keys, this.size, key);
+            case LINEAR:
+                return LongKeySearch.linearSearch(this.keys, this.size, key);
+            case INTERPOLATION:
+                return LongKeySearch.interpolationSearch(this.keys, this.size, key);
+            default:
+                return LongKeySearch.search(this.keys, this.size, key);
+        }
+    }
+}
@@ -0,0 +1,117 @@
+package bplustree.benchmark;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import bplustree.LongLongBPlusTree;
+import bplustree.OffHeapBPlusTree;
+
+/**
+ * Insert random keys in a LongLongBPlusTree on the heap and in an
+ * OffHeapBPlusTree, whose nodes live in pages the garbage collector neither
+ * traces nor copies, both of the order of a 4KB page. A tree holding size keys
+ * is replaced by an empty one. The GC profiler of BenchmarkMain reports the
+ * collection time next to the throughput, the footprint benchmarks report the
+ * heap held per entry by the "bytesPerEntry" counter.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgs = { "-Xms2g", "-Xmx2g" })
+public class OffHeapBenchmark {
+    @Param({ "1000000" })
+    public int size;
+
+    private int[] keys;
+    private LongLongBPlusTree heapTree;
+    private OffHeapBPlusTree offHeapTree;
+    private OffHeapBPlusTree built;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        this.keys = Keys.Order.RANDOM.keys(this.size);
+        this.heapTree = new LongLongBPlusTree(254);
+        this.offHeapTree = new OffHeapBPlusTree();
+        this.next = 0;
+    }
+
+    @TearDown(Level.Iteration)
+    public void closeBuilt() throws IOException {
+        if (this.built != null) {
+            this.built.close();
+            this.built = null;
+        }
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        this.offHeapTree.close();
+    }
+
+    @Benchmark
+    public void insertHeap() {
+        if (this.next == this.size) {
+            this.heapTree = new LongLongBPlusTree(254);
+            this.next = 0;
+        }
+
+        int key = this.keys[this.next++];
+        this.heapTree.insert(key, key);
+    }
+
+    @Benchmark
+    public void insertOffHeap() throws IOException {
+        if (this.next == this.size) {
+            // 释放旧树的页
+            this.offHeapTree.close();
+            this.offHeapTree = new OffHeapBPlusTree();
+            this.next = 0;
+        }
+
+        int key = this.keys[this.next++];
+        this.offHeapTree.insert(key, key);
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @Measurement(iterations = 1)
+    public LongLongBPlusTree footprintHeap(Footprint footprint) {
+        LongLongBPlusTree tree = new LongLongBPlusTree(254);
+        for (int key : this.keys) {
+            tree.insert(key, key);
+        }
+
+        footprint.measure(this.size);
+        return tree;
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @Measurement(iterations = 1)
+    public OffHeapBPlusTree footprintOffHeap(Footprint footprint) {
+        this.built = new OffHeapBPlusTree();
+        for (int key : this.keys) {
+            this.built.insert(key, key);
+        }
+
+        footprint.measure(this.size);
+        return this.built;
+    }
+}
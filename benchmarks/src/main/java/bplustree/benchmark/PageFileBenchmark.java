@@ -0,0 +1,107 @@
+package bplustree.benchmark;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import bplustree.OffHeapBPlusTree;
+
+/**
+ * Build an OffHeapBPlusTree of size random keys in a page file and close it,
+ * against reopening the file and searching the first searches keys, which only
+ * reads the pages they reach instead of rebuilding the tree. The "kilobytes" counter of
+ * build() reports the size of the file.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgs = { "-Xms2g", "-Xmx2g" })
+public class PageFileBenchmark {
+    @Param({ "1000000" })
+    public int size;
+
+    @Param({ "1000" })
+    public int searches;
+
+    private int[] keys;
+    private Path directory;
+    private Path file;
+
+    /**
+     * A page file which does not exist yet, in a directory of its own deleted
+     * after every invocation.
+     */
+    @State(Scope.Thread)
+    public static class Empty {
+        Path directory;
+        Path file;
+
+        @Setup(Level.Invocation)
+        public void setUp() throws IOException {
+            this.directory = TempFiles.createDirectory();
+            this.file = this.directory.resolve("pages");
+        }
+
+        @TearDown(Level.Invocation)
+        public void tearDown() throws IOException {
+            TempFiles.delete(this.directory);
+        }
+    }
+
+    @Setup
+    public void setUp() throws IOException {
+        this.keys = Keys.Order.RANDOM.keys(this.size);
+        this.directory = TempFiles.createDirectory();
+        this.file = this.directory.resolve("pages");
+        this.fill(this.file);
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        TempFiles.delete(this.directory);
+    }
+
+    private void fill(Path file) throws IOException {
+        try (OffHeapBPlusTree tree = OffHeapBPlusTree.open(file)) {
+            for (int key : this.keys) {
+                tree.insert(key, key);
+            }
+        }
+    }
+
+    @Benchmark
+    @Measurement(iterations = 1)
+    public void build(Empty empty, FileSize fileSize) throws IOException {
+        this.fill(empty.file);
+        fileSize.measure(empty.file);
+    }
+
+    @Benchmark
+    public long reopen() throws IOException {
+        long sum = 0;
+
+        try (OffHeapBPlusTree tree = OffHeapBPlusTree.open(this.file)) {
+            for (int i = 0; i < this.searches; i++) {
+                sum += tree.search(this.keys[i], 0);
+            }
+        }
+
+        return sum;
+    }
+}
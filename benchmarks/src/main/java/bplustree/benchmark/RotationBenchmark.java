@@ -0,0 +1,71 @@
+package bplustree.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Insert the odd keys into an index holding the even ones. The leaves of the B
+ * Plus Tree are loaded three quarters full, so an overflowing leaf usually rotates
+ * a key to a sibling instead of splitting. The "inserts" counter reports the
+ * insertions per second.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgs = { "-Xms2g", "-Xmx2g" })
+public class RotationBenchmark {
+    @Param({ "BPLUSTREE", "TREEMAP", "CONCURRENTSKIPLISTMAP" })
+    public SortedIndex.Kind index;
+
+    @Param({ "1000", "100000", "1000000" })
+    public int size;
+
+    @Param({ "64" })
+    public int order;
+
+    private int[] loadedKeys;
+    private int[] insertedKeys;
+    private SortedIndex sortedIndex;
+
+    @AuxCounters(AuxCounters.Type.OPERATIONS)
+    @State(Scope.Thread)
+    public static class Counters {
+        public long inserts;
+    }
+
+    @Setup(Level.Trial)
+    public void setUpKeys() {
+        this.loadedKeys = Keys.ascending(this.size, 0, 2);
+        this.insertedKeys = Keys.shuffle(Keys.ascending(this.size / 4, 1, 8));
+    }
+
+    @Setup(Level.Invocation)
+    public void setUpIndex() {
+        this.sortedIndex = this.index.create(this.order);
+        this.sortedIndex.load(this.loadedKeys, 0.75);
+    }
+
+    @Benchmark
+    public void insert(Counters counters) {
+        for (int key : this.insertedKeys) {
+            this.sortedIndex.insert(key);
+        }
+
+        counters.inserts += this.insertedKeys.length;
+    }
+}
@@ -0,0 +1,77 @@
+package bplustree.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import bplustree.BPlusTree;
+import bplustree.BPlusTreeCursor;
+
+/**
+ * Read every entry of a tree through a cursor, which follows the leaf sibling
+ * links, and by one search per key in ascending order. The "entries" counter
+ * reports the entries read per second.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgs = { "-Xms2g", "-Xmx2g" })
+public class ScanBenchmark {
+    @Param({ "1000000" })
+    public int size;
+
+    @Param({ "64" })
+    public int order;
+
+    private BPlusTree<Integer, Integer> tree;
+
+    @AuxCounters(AuxCounters.Type.OPERATIONS)
+    @State(Scope.Thread)
+    public static class Counters {
+        public long entries;
+    }
+
+    @Setup
+    public void setUp() {
+        this.tree = new BPlusTree<>(this.order);
+        for (int key : Keys.Order.RANDOM.keys(this.size)) {
+            this.tree.insert(key, key);
+        }
+    }
+
+    @Benchmark
+    public long scan(Counters counters) {
+        long sum = 0;
+        BPlusTreeCursor<Integer, Integer> cursor = this.tree.scan(null, null);
+        while (cursor.hasNext()) {
+            sum += cursor.next();
+        }
+
+        counters.entries += this.size;
+        return sum;
+    }
+
+    @Benchmark
+    public long searchEach(Counters counters) {
+        long sum = 0;
+        for (int key = 0; key < this.size; key++) {
+            sum += this.tree.search(key);
+        }
+
+        counters.entries += this.size;
+        return sum;
+    }
+}
@@ -0,0 +1,69 @@
+package bplustree.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Search the even keys 0, 2, ... of an index holding size keys, in random order.
+ * A hit searches an existing key, a miss the odd key right after it.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgs = { "-Xms2g", "-Xmx2g" })
+public class SearchBenchmark {
+    @Param({ "BPLUSTREE", "TREEMAP", "CONCURRENTSKIPLISTMAP" })
+    public SortedIndex.Kind index;
+
+    @Param({ "1000", "100000", "1000000" })
+    public int size;
+
+    @Param({ "64" })
+    public int order;
+
+    private int[] probes;
+    private SortedIndex sortedIndex;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        int[] keys = Keys.ascending(this.size, 0, 2);
+
+        this.sortedIndex = this.index.create(this.order);
+        for (int key : Keys.shuffle(keys.clone())) {
+            this.sortedIndex.insert(key);
+        }
+
+        this.probes = Keys.shuffle(keys);
+        this.next = 0;
+    }
+
+    private int nextProbe() {
+        int probe = this.probes[this.next];
+        this.next = (this.next + 1 == this.probes.length) ? 0 : this.next + 1;
+        return probe;
+    }
+
+    @Benchmark
+    public Integer searchHit() {
+        return this.sortedIndex.search(this.nextProbe());
+    }
+
+    @Benchmark
+    public Integer searchMiss() {
+        return this.sortedIndex.search(this.nextProbe() + 1);
+    }
+}
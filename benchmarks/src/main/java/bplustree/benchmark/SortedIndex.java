@@ -0,0 +1,123 @@
+package bplustree.benchmark;
+
+import java.util.AbstractMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+import bplustree.BPlusTree;
+
+/**
+ * The operations measured by the benchmarks, implemented by the B Plus Tree and
+ * by the sorted maps of the JDK used as baselines.
+ */
+public abstract class SortedIndex {
+    final static Integer VALUE = 0;
+
+    /**
+     * The index implementations, selected by the "index" parameter of a benchmark.
+     */
+    public enum Kind {
+        BPLUSTREE, TREEMAP, CONCURRENTSKIPLISTMAP;
+
+        SortedIndex create(int order) {
+            switch (this) {
+            case BPLUSTREE:
+                return new BPlusTreeIndex(order);
+            case TREEMAP:
+                return new MapIndex(new TreeMap<>());
+            default:
+                return new MapIndex(new ConcurrentSkipListMap<>());
+            }
+        }
+    }
+
+    abstract void insert(int key);
+
+    abstract Integer search(int key);
+
+    abstract void delete(int key);
+
+    /**
+     * Replace the content with the given ascending keys, the B Plus Tree fills its
+     * nodes to fillFactor, which decides whether deletions borrow or merge.
+     */
+    abstract void load(int[] sortedKeys, double fillFactor);
+
+    static Iterator<Map.Entry<Integer, Integer>> entries(final int[] sortedKeys) {
+        return new Iterator<Map.Entry<Integer, Integer>>() {
+            private int next = 0;
+
+            @Override
+            public boolean hasNext() {
+                return this.next < sortedKeys.length;
+            }
+
+            @Override
+            public Map.Entry<Integer, Integer> next() {
+                return new AbstractMap.SimpleImmutableEntry<>(sortedKeys[this.next++], VALUE);
+            }
+        };
+    }
+
+    private static class BPlusTreeIndex extends SortedIndex {
+        private final BPlusTree<Integer, Integer> tree;
+
+        BPlusTreeIndex(int order) {
+            this.tree = new BPlusTree<>(order);
+        }
+
+        @Override
+        void insert(int key) {
+            this.tree.insert(key, VALUE);
+        }
+
+        @Override
+        Integer search(int key) {
+            return this.tree.search(key);
+        }
+
+        @Override
+        void delete(int key) {
+            this.tree.delete(key);
+        }
+
+        @Override
+        void load(int[] sortedKeys, double fillFactor) {
+            this.tree.bulkLoad(entries(sortedKeys), fillFactor);
+        }
+    }
+
+    private static class MapIndex extends SortedIndex {
+        private final NavigableMap<Integer, Integer> map;
+
+        MapIndex(NavigableMap<Integer, Integer> map) {
+            this.map = map;
+        }
+
+        @Override
+        void insert(int key) {
+            this.map.put(key, VALUE);
+        }
+
+        @Override
+        Integer search(int key) {
+            return this.map.get(key);
+        }
+
+        @Override
+        void delete(int key) {
+            this.map.remove(key);
+        }
+
+        @Override
+        void load(int[] sortedKeys, double fillFactor) {
+            this.map.clear();
+            for (int key : sortedKeys) {
+                this.map.put(key, VALUE);
+            }
+        }
+    }
+}
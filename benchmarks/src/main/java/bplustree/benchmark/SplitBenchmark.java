@@ -0,0 +1,65 @@
+package bplustree.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import bplustree.BPlusTree;
+
+/**
+ * The heap held by the nodes of a tree filled in sequential order, where every
+ * insertion lands in the rightmost leaf which is split once full, and in random
+ * order, reported by the "bytesPerEntry" counter. The keys are boxed up front
+ * and shared, so only the nodes are measured. InsertBenchmark measures the
+ * throughput of the same insertions.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 1)
+@Fork(value = 1, jvmArgs = { "-Xms2g", "-Xmx2g" })
+public class SplitBenchmark {
+    @Param({ "SEQUENTIAL", "RANDOM" })
+    public Keys.Order keyOrder;
+
+    @Param({ "1000000" })
+    public int size;
+
+    @Param({ "4", "16", "64" })
+    public int order;
+
+    private Integer[] keys;
+
+    @Setup
+    public void setUp() {
+        int[] keys = this.keyOrder.keys(this.size);
+
+        this.keys = new Integer[this.size];
+        for (int i = 0; i < this.size; i++) {
+            this.keys[i] = keys[i];
+        }
+    }
+
+    @Benchmark
+    public BPlusTree<Integer, Integer> footprint(Footprint footprint) {
+        BPlusTree<Integer, Integer> tree = new BPlusTree<>(this.order);
+
+        for (Integer key : this.keys) {
+            tree.insert(key, SortedIndex.VALUE);
+        }
+
+        footprint.measure(this.size);
+        return tree;
+    }
+}
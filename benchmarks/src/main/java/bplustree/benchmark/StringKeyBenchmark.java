@@ -0,0 +1,96 @@
+package bplustree.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import bplustree.BPlusTree;
+import bplustree.StringBPlusTree;
+
+/**
+ * URL-like keys in a plain tree and in a prefix compressed StringBPlusTree:
+ * search() measures the throughput of searches, footprint() the heap held by a
+ * tree of size keys, keys included, reported by the "bytesPerEntry" counter.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgs = { "-Xms2g", "-Xmx2g" })
+public class StringKeyBenchmark {
+    public enum Layout {
+        PLAIN, COMPRESSED;
+
+        BPlusTree<String, Integer> create(int order) {
+            return (this == PLAIN) ? new BPlusTree<>(order) : new StringBPlusTree<>(order);
+        }
+    }
+
+    @Param({ "PLAIN", "COMPRESSED" })
+    public Layout layout;
+
+    @Param({ "100000", "1000000" })
+    public int size;
+
+    @Param({ "64" })
+    public int order;
+
+    private int[] keys;
+    private String[] probes;
+    private BPlusTree<String, Integer> tree;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        this.keys = Keys.shuffle(Keys.ascending(this.size, 0, 1));
+        this.tree = this.build();
+
+        // the probes are other instances than the keys held by the tree
+        this.probes = new String[this.size];
+        for (int i = 0; i < this.size; i++) {
+            this.probes[i] = urlOf(this.keys[i]);
+        }
+        this.next = 0;
+    }
+
+    private static String urlOf(int key) {
+        return "https://www.example.com/catalog/products/category-" + (key % 100) + "/item-" + key;
+    }
+
+    private BPlusTree<String, Integer> build() {
+        BPlusTree<String, Integer> tree = this.layout.create(this.order);
+
+        for (int key : this.keys) {
+            tree.insert(urlOf(key), SortedIndex.VALUE);
+        }
+
+        return tree;
+    }
+
+    @Benchmark
+    public Integer search() {
+        String probe = this.probes[this.next];
+        this.next = (this.next + 1 == this.probes.length) ? 0 : this.next + 1;
+        return this.tree.search(probe);
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @Measurement(iterations = 1)
+    public BPlusTree<String, Integer> footprint(Footprint footprint) {
+        BPlusTree<String, Integer> tree = this.build();
+        footprint.measure(this.size);
+        return tree;
+    }
+}
@@ -0,0 +1,28 @@
+package bplustree.benchmark;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.stream.Stream;
+
+/**
+ * The temporary directories holding the files of the benchmarks which write to disk.
+ */
+final class TempFiles {
+    private TempFiles() {
+    }
+
+    static Path createDirectory() throws IOException {
+        return Files.createTempDirectory("bplustree");
+    }
+
+    /**
+     * Delete the directory and everything in it.
+     */
+    static void delete(Path directory) throws IOException {
+        try (Stream<Path> files = Files.walk(directory)) {
+            files.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+        }
+    }
+}
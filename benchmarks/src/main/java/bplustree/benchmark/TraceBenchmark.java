@@ -0,0 +1,89 @@
+package bplustree.benchmark;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import bplustree.BPlusTree;
+import bplustree.BPlusTreeRecorder;
+
+/**
+ * Replay inserts of size random keys followed by deletes of every other key on a
+ * tree of order 4, without and with tracing its structural changes, then write
+ * the events kept by the recorder as a log and as an animated SVG picture into a
+ * writer which only counts the characters.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgs = { "-Xms2g", "-Xmx2g" })
+public class TraceBenchmark {
+    @Param({ "100000" })
+    public int size;
+
+    @Param({ "4" })
+    public int order;
+
+    private int[] keys;
+    private BPlusTreeRecorder recorder;
+
+    @Setup
+    public void setUp() {
+        this.keys = Keys.shuffle(Keys.ascending(this.size, 0, 1));
+
+        BPlusTree<Integer, Integer> tree = new BPlusTree<>(this.order);
+        this.recorder = new BPlusTreeRecorder(tree);
+        this.replay(tree);
+    }
+
+    private BPlusTree<Integer, Integer> replay(BPlusTree<Integer, Integer> tree) {
+        for (int key : this.keys) {
+            tree.insert(key, SortedIndex.VALUE);
+        }
+        for (int i = 0; i < this.keys.length; i += 2) {
+            tree.delete(this.keys[i]);
+        }
+
+        return tree;
+    }
+
+    @Benchmark
+    public BPlusTree<Integer, Integer> replay() {
+        return this.replay(new BPlusTree<Integer, Integer>(this.order));
+    }
+
+    @Benchmark
+    public BPlusTreeRecorder replayTraced() {
+        BPlusTree<Integer, Integer> tree = new BPlusTree<>(this.order);
+        BPlusTreeRecorder recorder = new BPlusTreeRecorder(tree);
+        this.replay(tree);
+        return recorder;
+    }
+
+    @Benchmark
+    public long writeLog() throws IOException {
+        CountingWriter writer = new CountingWriter();
+        this.recorder.writeLog(writer);
+        return writer.count;
+    }
+
+    @Benchmark
+    public long writeAnimatedSvg() throws IOException {
+        CountingWriter writer = new CountingWriter();
+        this.recorder.writeAnimatedSvg(writer, 200);
+        return writer.count;
+    }
+}
@@ -0,0 +1,75 @@
+package bplustree.benchmark;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import bplustree.BPlusTree;
+import bplustree.BPlusTreeVisualizer;
+
+/**
+ * Draw a tree of order 4 holding size random keys as DOT and SVG, as a whole and
+ * cut down to a few sampled levels, into a writer which only counts the
+ * characters.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgs = { "-Xms2g", "-Xmx2g" })
+public class VisualizeBenchmark {
+    public enum View {
+        WHOLE, SAMPLED;
+    }
+
+    @Param({ "WHOLE", "SAMPLED" })
+    public View view;
+
+    @Param({ "100000", "1000000" })
+    public int size;
+
+    @Param({ "4" })
+    public int order;
+
+    private BPlusTreeVisualizer<Integer, Integer> visualizer;
+
+    @Setup
+    public void setUp() {
+        BPlusTree<Integer, Integer> tree = new BPlusTree<>(this.order);
+        for (int key : Keys.shuffle(Keys.ascending(this.size, 0, 1))) {
+            tree.insert(key, SortedIndex.VALUE);
+        }
+
+        this.visualizer = new BPlusTreeVisualizer<>(tree);
+        if (this.view == View.SAMPLED) {
+            this.visualizer.setMaxDepth(4);
+            this.visualizer.setMaxChildren(3);
+        }
+    }
+
+    @Benchmark
+    public long writeDot() throws IOException {
+        CountingWriter writer = new CountingWriter();
+        this.visualizer.writeDot(writer);
+        return writer.count;
+    }
+
+    @Benchmark
+    public long writeSvg() throws IOException {
+        CountingWriter writer = new CountingWriter();
+        this.visualizer.writeSvg(writer);
+        return writer.count;
+    }
+}
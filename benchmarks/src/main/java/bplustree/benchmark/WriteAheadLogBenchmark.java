@@ -0,0 +1,122 @@
+package bplustree.benchmark;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import bplustree.BPlusTree;
+import bplustree.BPlusTreeCodec;
+import bplustree.DurableBPlusTree;
+
+/**
+ * Insert ascending keys in a plain tree, without a log, and in a
+ * DurableBPlusTree, which returns once the insertion is durable: one writer pays
+ * one fsync per insert, several writers share the fsyncs through the group
+ * commit. recover() reopens a log of records inserts and replays it.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgs = { "-Xms2g", "-Xmx2g" })
+public class WriteAheadLogBenchmark {
+    @Param({ "64" })
+    public int order;
+
+    private Path directory;
+    private BPlusTree<Integer, Integer> plainTree;
+    private DurableBPlusTree<Integer, Integer> durableTree;
+    private final AtomicInteger next = new AtomicInteger();
+
+    /**
+     * A log of records inserts, written once and replayed by every invocation.
+     */
+    @State(Scope.Benchmark)
+    public static class RecoveryLog {
+        @Param({ "20000" })
+        public int records;
+
+        Path directory;
+        Path log;
+
+        @Setup
+        public void setUp(WriteAheadLogBenchmark benchmark) throws IOException {
+            this.directory = TempFiles.createDirectory();
+            this.log = this.directory.resolve("wal");
+
+            try (DurableBPlusTree<Integer, Integer> tree = new DurableBPlusTree<>(this.log, benchmark.order,
+                    BPlusTreeCodec.INTEGER, BPlusTreeCodec.INTEGER)) {
+                for (int key = 0; key < this.records; key++) {
+                    tree.insert(key, SortedIndex.VALUE);
+                }
+            }
+        }
+
+        @TearDown
+        public void tearDown() throws IOException {
+            TempFiles.delete(this.directory);
+        }
+    }
+
+    @Setup
+    public void setUp() throws IOException {
+        this.directory = TempFiles.createDirectory();
+        this.plainTree = new BPlusTree<>(this.order);
+        this.durableTree = new DurableBPlusTree<>(this.directory.resolve("wal"), this.order, BPlusTreeCodec.INTEGER,
+                BPlusTreeCodec.INTEGER);
+        this.next.set(0);
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        this.durableTree.close();
+        TempFiles.delete(this.directory);
+    }
+
+    @Benchmark
+    @Threads(1)
+    public void noLog() {
+        this.plainTree.insert(this.next.getAndIncrement(), SortedIndex.VALUE);
+    }
+
+    @Benchmark
+    @Threads(1)
+    public void writers1() throws IOException {
+        this.durableTree.insert(this.next.getAndIncrement(), SortedIndex.VALUE);
+    }
+
+    @Benchmark
+    @Threads(4)
+    public void writers4() throws IOException {
+        this.durableTree.insert(this.next.getAndIncrement(), SortedIndex.VALUE);
+    }
+
+    @Benchmark
+    @Threads(16)
+    public void writers16() throws IOException {
+        this.durableTree.insert(this.next.getAndIncrement(), SortedIndex.VALUE);
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public void recover(RecoveryLog recoveryLog) throws IOException {
+        new DurableBPlusTree<>(recoveryLog.log, this.order, BPlusTreeCodec.INTEGER, BPlusTreeCodec.INTEGER).close();
+    }
+}
@@ -0,0 +1,136 @@
+package bplustree;
+
+/**
+ * The structure shared by the B+ trees specialized for primitive long keys.
+ * It follows the same insert, rotate, split, borrow and fusion rules as BPlusTree,
+ * the subclasses only decide how values are stored in the leaf nodes.
+ *
+ * @param <TValue>
+ *            the data type of the value, boxed if the values are primitives
+ */
+public abstract class AbstractLongBPlusTree<TValue> {
+    protected LongBPlusTreeNode root;
+    private final int leafOrder;
+    private final int internalOrder;
+
+    protected AbstractLongBPlusTree(int leafOrder, int internalOrder) {
+        if (leafOrder < BPlusTree.MIN_ORDER || internalOrder < BPlusTree.MIN_ORDER) {
+            throw new IllegalArgumentException("order must be at least " + BPlusTree.MIN_ORDER + ": leafOrder="
+                    + leafOrder + ", internalOrder=" + internalOrder);
+        }
+
+        this.leafOrder = leafOrder;
+        this.internalOrder = internalOrder;
+
+        // The root node starts as a leaf node with zero key/value pairs
+        this.root = this.createLeafNode();
+    }
+
+    public int getLeafOrder() {
+        return leafOrder;
+    }
+
+    public int getInternalOrder() {
+        return internalOrder;
+    }
+
+    /**
+     * Return the number of levels of the tree, a tree with a single leaf has height 1.
+     */
+    public int getHeight() {
+        int height = 1;
+
+        for (LongBPlusTreeNode node = this.root; node.getNodeType() != BPlusTreeNodeType.LeafNode; height++) {
+            node = ((LongBPlusTreeInternalNode) node).getChild(0);
+        }
+
+        return height;
+    }
+
+    abstract LongBPlusTreeLeafNode createLeafNode();
+
+    LongBPlusTreeInternalNode createInternalNode() {
+        return new LongBPlusTreeInternalNode(this);
+    }
+
+    protected LongBPlusTreeLeafNode findLeafNode(long key) {
+        // 找到包含该 key 的叶节点
+        LongBPlusTreeNode node = this.root;
+
+        while (node.getNodeType() != BPlusTreeNodeType.LeafNode) {
+            node = ((LongBPlusTreeInternalNode) node).getChild(node.find(key));
+        }
+
+        return (LongBPlusTreeLeafNode) node;
+    }
+
+    private LongBPlusTreeLeafNode findFirstLeafNode() {
+        LongBPlusTreeNode node = this.root;
+
+        while (node.getNodeType() != BPlusTreeNodeType.LeafNode) {
+            node = ((LongBPlusTreeInternalNode) node).getChild(0);
+        }
+
+        return (LongBPlusTreeLeafNode) node;
+    }
+
+    /**
+     * Rotate or split a leaf node after a key was inserted into it.
+     */
+    protected void afterInsert(LongBPlusTreeLeafNode leafNode) {
+        if (leafNode.isOverflow() && leafNode.getParentNode() != null) {
+            // Support rotate function
+            leafNode.getParentNode().rotate(leafNode);
+        }
+
+        if (leafNode.isOverflow()) {
+            LongBPlusTreeNode node = leafNode.handleOverflow();
+            if (node != null) {
+                this.root = node;
+            }
+        }
+    }
+
+    public boolean containsKey(long key) {
+        return findLeafNode(key).find(key) != -1;
+    }
+
+    /**
+     * Delete a key and its associated value from the tree.
+     */
+    public void delete(long key) {
+        LongBPlusTreeLeafNode leafNode = findLeafNode(key);
+
+        if (leafNode.delete(key) && leafNode.isUnderflow()) {
+            LongBPlusTreeNode node = leafNode.handleUnderflow();
+
+            if (node != null) {
+                this.root = node;
+            }
+        }
+    }
+
+    /**
+     * Scan the keys between from and to in ascending order,
+     * the cursor walks the leaf sibling links without boxing keys.
+     */
+    public LongBPlusTreeCursor<TValue> scan(long from, boolean fromInclusive, long to, boolean toInclusive) {
+        LongBPlusTreeLeafNode leaf = findLeafNode(from);
+        int index = leaf.bsearch(from);
+
+        if (!fromInclusive) {
+            while (index < leaf.getKeyCount() && leaf.getKey(index) == from) {
+                index += 1;
+            }
+        }
+
+        return new LongBPlusTreeCursor<>(leaf, index, to, toInclusive);
+    }
+
+    /**
+     * Scan all the keys of the tree in ascending order.
+     */
+    public LongBPlusTreeCursor<TValue> scan() {
+        return new LongBPlusTreeCursor<>(findFirstLeafNode(), 0, Long.MAX_VALUE, true);
+    }
+}
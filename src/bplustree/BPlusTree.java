@@ -1,11 +1,25 @@
 package bplustree;
 
-import java.io.BufferedWriter;
-import java.io.FileOutputStream;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
 import java.io.IOException;
-import java.io.OutputStreamWriter;
-import java.io.Writer;
+import java.io.UncheckedIOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
 import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
 import java.util.Queue;
 
 /**
@@ -21,12 +35,250 @@ import java.util.Queue;
  */
 
 public class BPlusTree<TKey extends Comparable<TKey>, TValue> {
+    public final static int DEFAULT_ORDER = 4;
+    public final static int MIN_ORDER = 3;
+
+    /* Typical target node sizes for the auto-tuned constructor */
+    public final static int CACHE_LINE_BYTES = 64;
+    public final static int PAGE_BYTES = 4096;
+
+    /* Nodes of each kind kept for reuse, see setNodePoolCapacity() */
+    public final static int DEFAULT_NODE_POOL_CAPACITY = 64;
+
     private BPlusTreeNode<TKey> root;
-    private final static int ORDER = 4;
+    private final int leafOrder;
+    private final int internalOrder;
+
+    // a leaf is rebalanced once it holds less keys, leafOrder / 2 unless relaxed
+    private int mergeThreshold;
+
+    // the descent of the current update, reused by every update
+    private final BPlusTreePath<TKey> path;
+
+    // nodes abandoned by fusions, reused by splits
+    private final BPlusTreeNodePool<TKey> nodePool;
+
+    // null while the metrics are not recorded, so they cost a single check
+    BPlusTreeMetrics metrics;
+
+    // null while the structural changes are not traced
+    BPlusTreeRecorder recorder;
 
     public BPlusTree() {
+        this(DEFAULT_ORDER);
+    }
+
+    public BPlusTree(int order) {
+        this(order, order);
+    }
+
+    /**
+     * Create a B Plus Tree whose leaf nodes hold at most leafOrder keys
+     * and whose internal nodes hold at most internalOrder keys.
+     */
+    public BPlusTree(int leafOrder, int internalOrder) {
+        if (leafOrder < MIN_ORDER || internalOrder < MIN_ORDER) {
+            throw new IllegalArgumentException("order must be at least " + MIN_ORDER + ": leafOrder=" + leafOrder
+                    + ", internalOrder=" + internalOrder);
+        }
+
+        this.leafOrder = leafOrder;
+        this.internalOrder = internalOrder;
+        this.mergeThreshold = leafOrder / 2;
+        this.path = new BPlusTreePath<>();
+        this.nodePool = new BPlusTreeNodePool<>(DEFAULT_NODE_POOL_CAPACITY);
+
         // The root node starts as a leaf node with zero key/value pairs
-        this.root = new BPlusTreeLeafNode<TKey, TValue>();
+        this.root = this.createLeafNode();
+    }
+
+    /**
+     * Create a B Plus Tree whose fanout is picked so that the key/value slots of
+     * a node, plus the key objects touched by a search, fit in targetNodeBytes,
+     * e.g. {@link #CACHE_LINE_BYTES} or {@link #PAGE_BYTES}.
+     */
+    public static <TKey extends Comparable<TKey>, TValue> BPlusTree<TKey, TValue> autoTuned(Class<TKey> keyType,
+            int targetNodeBytes) {
+        int referenceBytes = referenceBytes();
+        int keyBytes = referenceBytes + keyFootprint(keyType);
+
+        // a leaf slot holds a key and a value reference, an internal slot a key and a child reference
+        int order = orderFor(targetNodeBytes, keyBytes + referenceBytes);
+
+        return new BPlusTree<>(order, order);
+    }
+
+    private static int orderFor(int targetNodeBytes, int entryBytes) {
+        // node object header and fields plus the headers of its arrays
+        final int nodeOverheadBytes = 64;
+
+        return Math.max(MIN_ORDER, (targetNodeBytes - nodeOverheadBytes) / entryBytes);
+    }
+
+    private static int referenceBytes() {
+        // compressed oops are in use on 64-bit JVMs with heaps below 32 GB
+        boolean is64Bit = "64".equals(System.getProperty("sun.arch.data.model"));
+        boolean compressed = Runtime.getRuntime().maxMemory() < (32L << 30);
+
+        return (is64Bit && !compressed) ? 8 : 4;
+    }
+
+    private static int keyFootprint(Class<?> keyType) {
+        if (keyType == Byte.class || keyType == Short.class || keyType == Character.class
+                || keyType == Integer.class || keyType == Float.class || keyType == Long.class
+                || keyType == Double.class) {
+            // object header plus the boxed primitive, padded to 8 bytes
+            return 16;
+        } else if (keyType == String.class) {
+            // String object plus a short backing byte array
+            return 48;
+        } else {
+            return 32;
+        }
+    }
+
+    public int getLeafOrder() {
+        return leafOrder;
+    }
+
+    public int getInternalOrder() {
+        return internalOrder;
+    }
+
+    public int getMergeThreshold() {
+        return mergeThreshold;
+    }
+
+    /**
+     * Switch to relaxed rebalancing: a leaf is only refilled from or fused with a
+     * sibling once it holds less than mergeThreshold keys, instead of less than
+     * half of leafOrder. A workload deleting and inserting the same keys again
+     * then stops fusing leaves only to split them again, at the cost of emptier
+     * leaves. Internal nodes keep the usual minimum.
+     *
+     * @param mergeThreshold
+     *            in [1, leafOrder / 2], 1 merges empty leaves only and leafOrder / 2
+     *            is the default, strict mode. Leaves which are already less full
+     *            are rebalanced by their next deletion.
+     */
+    public void setMergeThreshold(int mergeThreshold) {
+        if (mergeThreshold < 1 || mergeThreshold > this.leafOrder / 2) {
+            throw new IllegalArgumentException("mergeThreshold must be in [1, " + this.leafOrder / 2 + "]: "
+                    + mergeThreshold);
+        }
+
+        this.mergeThreshold = mergeThreshold;
+    }
+
+    /**
+     * Return the number of levels of the tree, a tree with a single leaf has height 1.
+     */
+    public int getHeight() {
+        int height = 1;
+
+        for (BPlusTreeNode<TKey> node = this.root; node.getNodeType() != BPlusTreeNodeType.LeafNode; height++) {
+            node = ((BPlusTreeInternalNode<TKey>) node).getChild(0);
+        }
+
+        return height;
+    }
+
+    void setRoot(BPlusTreeNode<TKey> root) {
+        BPlusTreeMetrics metrics = this.metrics;
+        if (metrics != null && root != this.root) {
+            metrics.recordRootChange();
+        }
+        BPlusTreeRecorder recorder = this.recorder;
+        if (recorder != null && root != this.root) {
+            recorder.recordRootChange(root);
+        }
+
+        this.root = root;
+    }
+
+    BPlusTreeNode<TKey> getRoot() {
+        return this.root;
+    }
+
+    /**
+     * Return the metrics recorded for this tree, or null if they are disabled.
+     *
+     * @see BPlusTreeMetrics
+     */
+    public BPlusTreeMetrics getMetrics() {
+        return this.metrics;
+    }
+
+    /**
+     * Return the recorder tracing the structural changes of this tree, or null if it is disabled.
+     *
+     * @see BPlusTreeRecorder
+     */
+    public BPlusTreeRecorder getRecorder() {
+        return this.recorder;
+    }
+
+    BPlusTreeLeafNode<TKey, TValue> createLeafNode() {
+        return new BPlusTreeLeafNode<TKey, TValue>(this);
+    }
+
+    BPlusTreeInternalNode<TKey> createInternalNode() {
+        return new BPlusTreeInternalNode<TKey>(this);
+    }
+
+    /**
+     * Return an empty leaf, reusing a pooled one if any.
+     */
+    @SuppressWarnings("unchecked")
+    BPlusTreeLeafNode<TKey, TValue> allocateLeafNode() {
+        BPlusTreeNode<TKey> node = this.nodePool.pollLeaf();
+        return (node != null) ? (BPlusTreeLeafNode<TKey, TValue>) node : this.createLeafNode();
+    }
+
+    /**
+     * Return an empty internal node, reusing a pooled one if any.
+     */
+    BPlusTreeInternalNode<TKey> allocateInternalNode() {
+        BPlusTreeNode<TKey> node = this.nodePool.pollInternalNode();
+        return (node != null) ? (BPlusTreeInternalNode<TKey>) node : this.createInternalNode();
+    }
+
+    /**
+     * Hand a node removed from the tree over to the pool, the caller must not use it anymore.
+     */
+    void releaseNode(BPlusTreeNode<TKey> node) {
+        this.nodePool.release(node);
+    }
+
+    BPlusTreeNodePool<TKey> getNodePool() {
+        return this.nodePool;
+    }
+
+    public int getNodePoolCapacity() {
+        return this.nodePool.getCapacity();
+    }
+
+    /**
+     * Set how many nodes of each kind, leaf or internal, are kept for reuse once
+     * fusions remove them from the tree, 0 disables the reuse. Splits take their
+     * new node from the pool, so a steady mix of inserts and deletes does not
+     * allocate nodes, while a larger pool holds more memory after mass deletions.
+     */
+    public void setNodePoolCapacity(int capacity) {
+        if (capacity < 0) {
+            throw new IllegalArgumentException("capacity must not be negative: " + capacity);
+        }
+
+        this.nodePool.setCapacity(capacity);
+    }
+
+    /**
+     * Return the separator pushed up when a leaf is split between leftKey, its last
+     * key, and rightKey, the first key of the new leaf. Any key in (leftKey,
+     * rightKey] routes both halves correctly.
+     */
+    TKey separatorBetween(TKey leftKey, TKey rightKey) {
+        return rightKey;
     }
 
     @SuppressWarnings("unchecked")
@@ -42,25 +294,52 @@ public class BPlusTree<TKey extends Comparable<TKey>, TValue> {
         return (BPlusTreeLeafNode<TKey, TValue>) node;
     }
 
-    private BPlusTreeInternalNode<TKey> findInternalNode(TKey key) {
-        // 找到包含该 key 的内节点
-        BPlusTreeNode<TKey> node = this.root;
+    /**
+     * Find the leaf which should contain the key for an update, recording the
+     * internal nodes on the way and the children taken in path. The update may
+     * modify any of them, so they are marked dirty as well.
+     */
+    private BPlusTreeLeafNode<TKey, TValue> findLeafNode(TKey key, BPlusTreePath<TKey> path) {
+        return findLeafNode(this.root, key, path);
+    }
+
+    /**
+     * Same as findLeafNode(key, path), starting from root, which may not be
+     * the root of the tree yet while a batch is split.
+     */
+    @SuppressWarnings("unchecked")
+    BPlusTreeLeafNode<TKey, TValue> findLeafNode(BPlusTreeNode<TKey> root, TKey key, BPlusTreePath<TKey> path) {
+        BPlusTreeNode<TKey> node = root;
+        path.clear();
 
         while (node.getNodeType() != BPlusTreeNodeType.LeafNode) {
             int target = node.find(key);
-
-            if (target != 0 && node.getKey(target - 1).compareTo(key) == 0) {
-                return (BPlusTreeInternalNode<TKey>) node;
+            if (!node.dirty) {
+                node.dirty = true;
             }
-
+            path.push((BPlusTreeInternalNode<TKey>) node, target);
             node = ((BPlusTreeInternalNode<TKey>) node).getChild(target);
         }
 
-        return null;
+        return (BPlusTreeLeafNode<TKey, TValue>) node;
+    }
+
+    @SuppressWarnings("unchecked")
+    private BPlusTreeLeafNode<TKey, TValue> findFirstLeafNode() {
+        // 找到最左边的叶节点
+        BPlusTreeNode<TKey> node = this.root;
+
+        while (node.getNodeType() != BPlusTreeNodeType.LeafNode) {
+            node = ((BPlusTreeInternalNode<TKey>) node).getChild(0);
+        }
+
+        return (BPlusTreeLeafNode<TKey, TValue>) node;
     }
 
     /**
-     * Insert a key and value pair to the B Plus Tree
+     * Insert a key and value pair to the B Plus Tree.
+     * A key inserted again is stored as another entry, which search() may not
+     * find, keys with several values belong in a {@link BPlusTreeMultimap}.
      *
      * @param key
      *            the key to be inserted
@@ -68,371 +347,755 @@ public class BPlusTree<TKey extends Comparable<TKey>, TValue> {
      *            the value to be inserted
      */
     public void insert(TKey key, TValue value) {
+        BPlusTreeMetrics metrics = this.metrics;
+        long begin = (metrics == null) ? 0 : System.nanoTime();
+        if (this.recorder != null) {
+            this.recorder.beginOperation("insert", key);
+        }
+
         // 先添加到叶子节点中，然后判断该叶子是否满
-        BPlusTreeLeafNode<TKey, TValue> leafNode = findLeafNode(key);
+        BPlusTreeLeafNode<TKey, TValue> leafNode = findLeafNode(key, this.path);
         leafNode.insert(key, value);
 
-        if (leafNode.isOverflow() && leafNode.getParentNode() != null) {
+        if (leafNode.isOverflow() && !this.path.isEmpty()) {
             // Support rotate function
-            BPlusTreeInternalNode<TKey> parentNode = (BPlusTreeInternalNode<TKey>) leafNode.getParentNode();
-            parentNode.rotate(leafNode);
+            this.path.getParent().rotate(this.path.getChildIndex(), leafNode);
         }
 
         if (leafNode.isOverflow()) {
-            BPlusTreeNode<TKey> node = leafNode.handleOverflow();
+            BPlusTreeNode<TKey> node = leafNode.handleOverflow(this.path);
             if (node != null) {
-                this.root = node;
+                this.setRoot(node);
             }
         }
+
+        if (metrics != null) {
+            metrics.recordInsert(System.nanoTime() - begin);
+        }
     }
 
     /**
      * Search a key value on the tree and return its associated value.
      */
     public TValue search(TKey key) {
+        BPlusTreeMetrics metrics = this.metrics;
+        long begin = (metrics == null) ? 0 : System.nanoTime();
+
         BPlusTreeLeafNode<TKey, TValue> leaf = findLeafNode(key);
 
         int index = leaf.find(key);
+        TValue value = (index == -1) ? null : leaf.getValue(index);
+
+        if (metrics != null) {
+            metrics.recordSearch(System.nanoTime() - begin);
+        }
+
+        return value;
+    }
 
-        return (index == -1) ? null : leaf.getValue(index);
+    /**
+     * Scan the keys in the half-open range [from, to) in ascending order.
+     *
+     * @see #scan(Comparable, boolean, Comparable, boolean)
+     */
+    public BPlusTreeCursor<TKey, TValue> scan(TKey from, TKey to) {
+        return scan(from, true, to, false);
     }
 
     /**
-     * Delete a key and its associated value from the tree.
+     * Scan the keys between from and to in ascending order.
+     * The tree is descended once, then the cursor follows the leaf sibling links
+     * lazily, so the result is never materialized.
+     *
+     * @param from
+     *            the lower bound, null to scan from the first key
+     * @param fromInclusive
+     *            whether a key equal to from is part of the range
+     * @param to
+     *            the upper bound, null to scan to the last key
+     * @param toInclusive
+     *            whether a key equal to to is part of the range
      */
-    @SuppressWarnings("unchecked")
-    public void delete(TKey key) {
-        BPlusTreeLeafNode<TKey, TValue> leafNode = findLeafNode(key);
+    public BPlusTreeCursor<TKey, TValue> scan(TKey from, boolean fromInclusive, TKey to, boolean toInclusive) {
+        if (from == null) {
+            return new BPlusTreeCursor<>(findFirstLeafNode(), 0, to, toInclusive);
+        }
 
-        if (leafNode.delete(key) && leafNode.isUnderflow()) {
-            BPlusTreeNode<TKey> node = leafNode.handleUnderflow();
+        BPlusTreeLeafNode<TKey, TValue> leaf = findLeafNode(from);
+        int index = leaf.bsearch(from);
 
-            if (node != null) {
-                this.root = node;
+        if (!fromInclusive) {
+            while (index < leaf.getKeyCount() && leaf.compareKey(index, from) == 0) {
+                index += 1;
             }
         }
 
-        /* 检查 key 是否在索引中出现 */
-        BPlusTreeInternalNode<TKey> internalNode = findInternalNode(key);
-
-        if (internalNode != null) {
-            int index = internalNode.find(key) - 1;
+        return new BPlusTreeCursor<>(leaf, index, to, toInclusive);
+    }
 
-            // 将待删除索引节点的右孩子合并到左孩子中
-            if (internalNode.getChild(index).getNodeType() == BPlusTreeNodeType.InternalNode) {
-                BPlusTreeInternalNode<TKey> leftSiblingNode = (BPlusTreeInternalNode<TKey>) internalNode
-                        .getChild(index);
-                BPlusTreeInternalNode<TKey> rightSiblingNode = (BPlusTreeInternalNode<TKey>) internalNode
-                        .getChild(index + 1);
+    /**
+     * Delete a key and its associated value from the tree, return whether the key was found.
+     * The tree is descended once, a separator equal to the deleted key is replaced
+     * by the next key and the leaf is rebalanced along the recorded path.
+     */
+    public boolean delete(TKey key) {
+        BPlusTreeMetrics metrics = this.metrics;
+        long begin = (metrics == null) ? 0 : System.nanoTime();
+        if (this.recorder != null) {
+            this.recorder.beginOperation("delete", key);
+        }
 
-                int j = leftSiblingNode.getKeyCount();
+        BPlusTreeLeafNode<TKey, TValue> leafNode = findLeafNode(key, this.path);
+        int index = leafNode.find(key);
 
-                for (int i = 0; i < rightSiblingNode.getKeyCount(); i++) {
-                    leftSiblingNode.setKey(j + i, rightSiblingNode.getKey(i));
-                }
+        if (index != -1) {
+            leafNode.deleteAt(index);
 
-                for (int i = 0; i < rightSiblingNode.getKeyCount() + 1; i++) {
-                    leftSiblingNode.setChild(j + i, rightSiblingNode.getChild(i));
-                }
+            if (index == 0 && leafNode.getKeyCount() > 0) {
+                // 被删除的 key 可能是该叶节点在索引中的下界，用新的最小 key 替换
+                this.path.replaceLowerBound(key, leafNode);
+            }
 
-                leftSiblingNode.keyCount += rightSiblingNode.getKeyCount();
+            if (leafNode.isUnderflow()) {
+                BPlusTreeNode<TKey> node = leafNode.handleUnderflow(this.path);
 
-                leftSiblingNode.setRightSibling(rightSiblingNode.rightSibling);
-                if (rightSiblingNode.rightSibling != null) {
-                    rightSiblingNode.rightSibling.setLeftSibling(leftSiblingNode);
+                if (node != null) {
+                    this.setRoot(node);
                 }
-            } else {
-                BPlusTreeLeafNode<TKey, TValue> leftSiblingNode = (BPlusTreeLeafNode<TKey, TValue>) internalNode
-                        .getChild(index);
-                BPlusTreeLeafNode<TKey, TValue> rightSiblingNode = (BPlusTreeLeafNode<TKey, TValue>) internalNode
-                        .getChild(index + 1);
+            } else if (metrics != null && leafNode.getKeyCount() < this.leafOrder / 2) {
+                metrics.recordDeferredRebalance();
+            }
+        }
 
-                // 简化
-                // leftSiblingNode.fuseWithSibling(null, rightSiblingNode);
+        if (metrics != null) {
+            metrics.recordDelete(System.nanoTime() - begin);
+        }
 
-                int j = leftSiblingNode.getKeyCount();
+        return index != -1;
+    }
 
-                for (int i = 0; i < rightSiblingNode.getKeyCount(); i++) {
-                    leftSiblingNode.setKey(j + i, rightSiblingNode.getKey(i));
-                    leftSiblingNode.setValue(j + i, rightSiblingNode.getValue(i));
-                }
+    /**
+     * Insert a batch of key and value pairs.
+     * The batch is sorted first, then all the keys landing in the same leaf node
+     * are merged into it under a single descent, and the leaf is split at most once.
+     */
+    public void insertAll(Collection<? extends Map.Entry<TKey, TValue>> entries) {
+        BPlusTreeMetrics metrics = this.metrics;
+        long begin = (metrics == null) ? 0 : System.nanoTime();
+
+        List<Map.Entry<TKey, TValue>> sorted = new ArrayList<>(entries);
+        sorted.sort(Map.Entry.comparingByKey());
+
+        int from = 0;
+        while (from < sorted.size()) {
+            TKey key = sorted.get(from).getKey();
+            if (this.recorder != null) {
+                this.recorder.beginOperation("insertAll", key);
+            }
+            BPlusTreeLeafNode<TKey, TValue> leafNode = findLeafNode(key, this.path);
+            int to = from + 1;
+            while (to < sorted.size() && this.path.isBelowUpperBound(sorted.get(to).getKey())) {
+                to += 1;
+            }
 
-                leftSiblingNode.keyCount += rightSiblingNode.getKeyCount();
+            leafNode.insertAll(sorted, from, to, this.path);
 
-                leftSiblingNode.setRightSibling(rightSiblingNode.rightSibling);
-                if (rightSiblingNode.rightSibling != null) {
-                    rightSiblingNode.rightSibling.setLeftSibling(leftSiblingNode);
-                }
-            }
+            from = to;
+        }
 
-            /*
-             * 以下可以化简成：
-             * 1. 如果被删除 key 的叶节点没有 underflow
-             * 1.1 用该叶节点的最小 key 替换索引节点待删除的 key
-             * 2. 如果被删除 key 的叶节点 underflow，再合并两个子节点
-             */
+        if (metrics != null) {
+            metrics.recordInsertAll(System.nanoTime() - begin);
+        }
+    }
 
-            // 删除索引节点
-            internalNode.deleteAt(index);
+    /**
+     * Delete a batch of keys and their associated values.
+     * The batch is sorted first, then all the keys landing in the same leaf node
+     * are removed from it under a single descent, and the leaf is rebalanced once.
+     */
+    public void deleteAll(Collection<TKey> keys) {
+        BPlusTreeMetrics metrics = this.metrics;
+        long begin = (metrics == null) ? 0 : System.nanoTime();
+
+        List<TKey> sorted = new ArrayList<>(keys);
+        sorted.sort(null);
+
+        int from = 0;
+        while (from < sorted.size()) {
+            TKey key = sorted.get(from);
+            if (this.recorder != null) {
+                this.recorder.beginOperation("deleteAll", key);
+            }
+            BPlusTreeLeafNode<TKey, TValue> leafNode = findLeafNode(key, this.path);
+            int to = from + 1;
+            while (to < sorted.size() && this.path.isBelowUpperBound(sorted.get(to))) {
+                to += 1;
+            }
 
-            if (internalNode.getChild(index).isOverflow()) {
-                // 因为合并了，所以判断合并后的叶节点是否溢出
-                BPlusTreeNode<TKey> node = internalNode.getChild(index).handleOverflow();
-                if (node != null) {
-                    this.root = node;
+            if (leafNode.deleteAll(sorted, from, to) > 0) {
+                if (metrics != null && !leafNode.isUnderflow() && leafNode.getKeyCount() < this.leafOrder / 2) {
+                    metrics.recordDeferredRebalance();
                 }
-            }
 
-            if (internalNode.isUnderflow()) {
-                // 因为索引节点删除了一个键，判断索引节点是否不满
+                // borrow keys until the leaf is refilled, or stop once it is fused with a sibling:
+                // a borrow keeps the path to the leaf, a fusion pops its parent, even when the
+                // fused leaf still underflows, e.g. after the merge threshold was raised
+                while (leafNode.isUnderflow() && !this.path.isEmpty()) {
+                    int depth = this.path.getDepth();
 
-                if (internalNode.getParentNode() == null) {
-                    // current node is root, only remove keys or delete the whole root node
-                    if (internalNode.getKeyCount() == 0) {
-                        internalNode.getChild(0).setParentNode(null);
-                        this.root = internalNode.getChild(0);
+                    BPlusTreeNode<TKey> node = leafNode.handleUnderflow(this.path);
+                    if (node != null) {
+                        this.setRoot(node);
                     }
-                } else {
-                    BPlusTreeNode<TKey> node = internalNode.handleUnderflow();
 
-                    if (node != null) {
-                        this.root = node;
+                    if (this.path.getDepth() < depth) {
+                        break;
                     }
                 }
             }
+
+            from = to;
+        }
+
+        if (metrics != null) {
+            metrics.recordDeleteAll(System.nanoTime() - begin);
         }
     }
 
-    @SuppressWarnings("unchecked")
-    public void print() {
-        BPlusTreeNode<TKey> node = this.root;
+    /**
+     * Replace the content of the tree with the given entries, which must be sorted
+     * by strictly ascending keys.
+     * Instead of inserting the entries one by one, the leaf nodes are packed from
+     * left to right and the internal levels are built bottom-up, so every node
+     * except the last one of each level holds fillFactor * order keys.
+     *
+     * @param sorted
+     *            the entries in ascending key order
+     * @param fillFactor
+     *            the fraction of each node to fill, in (0, 1]
+     */
+    public void bulkLoad(Iterator<? extends Map.Entry<TKey, TValue>> sorted, double fillFactor) {
+        if (!(fillFactor > 0 && fillFactor <= 1)) {
+            throw new IllegalArgumentException("fillFactor must be in (0, 1]: " + fillFactor);
+        }
+        if (this.recorder != null) {
+            this.recorder.beginOperation("bulkLoad", null);
+        }
 
-        if (node.getNodeType() == BPlusTreeNodeType.LeafNode) {
-            for (int i = 0; i < node.getKeyCount(); i++) {
-                System.out.print(node.getKey(i) + " ");
+        // 从左到右填满叶节点
+        int leafFill = fillCount(this.leafOrder, fillFactor);
+        List<BPlusTreeNode<TKey>> level = new ArrayList<>();
+        BPlusTreeLeafNode<TKey, TValue> leaf = null;
+        TKey previousKey = null;
+
+        while (sorted.hasNext()) {
+            Map.Entry<TKey, TValue> entry = sorted.next();
+            TKey key = entry.getKey();
+
+            if (previousKey != null && previousKey.compareTo(key) >= 0) {
+                throw new IllegalArgumentException("keys are not strictly ascending: " + previousKey + ", " + key);
             }
-        } else {
-            Queue<BPlusTreeInternalNode<TKey>> curlist = new LinkedList<>();
-            Queue<BPlusTreeLeafNode<TKey, TValue>> leaflist = new LinkedList<>();
+            previousKey = key;
 
-            if (node != null) {
-                curlist.add((BPlusTreeInternalNode<TKey>) node);
+            if (leaf == null || leaf.getKeyCount() == leafFill) {
+                leaf = this.allocateLeafNode();
+                level.add(leaf);
             }
 
-            while (!curlist.isEmpty()) {
-                Queue<BPlusTreeInternalNode<TKey>> next = new LinkedList<>();
+            leaf.setKey(leaf.keyCount, key);
+            leaf.setValue(leaf.keyCount, entry.getValue());
+            leaf.keyCount += 1;
+        }
 
-                while (!curlist.isEmpty()) {
-                    BPlusTreeInternalNode<TKey> curNode = curlist.remove();
+        if (level.isEmpty()) {
+            this.setRoot(this.allocateLeafNode());
+            return;
+        }
 
-                    for (int i = 0; i < curNode.getKeyCount(); i++) {
-                        System.out.print(curNode.getKey(i) + " ");
-                    }
-                    System.out.print("\t");
+        balanceLastLeaves(level);
+        linkSiblings(level);
 
-                    if (curNode.getChild(0).getNodeType() == BPlusTreeNodeType.InternalNode) {
-                        for (int i = 0; i < curNode.getKeyCount() + 1; i++) {
-                            next.add((BPlusTreeInternalNode<TKey>) curNode.getChild(i));
-                        }
-                    } else {
-                        for (int i = 0; i < curNode.getKeyCount() + 1; i++) {
-                            leaflist.add((BPlusTreeLeafNode<TKey, TValue>) curNode.getChild(i));
-                        }
-                    }
-                }
-                System.out.println();
+        // 自底向上逐层构建内节点
+        int internalFill = fillCount(this.internalOrder, fillFactor);
 
-                curlist = next;
+        while (level.size() > 1) {
+            level = buildParentLevel(level, internalFill);
+            linkSiblings(level);
+        }
+
+        this.setRoot(level.get(0));
+    }
+
+    private static int fillCount(int order, double fillFactor) {
+        return Math.max(order / 2, Math.min(order, (int) Math.round(order * fillFactor)));
+    }
+
+    /**
+     * The last leaf may hold less than the minimum number of keys,
+     * in which case it is fused with or borrows keys from its left neighbour.
+     */
+    @SuppressWarnings("unchecked")
+    private void balanceLastLeaves(List<BPlusTreeNode<TKey>> leaves) {
+        int size = leaves.size();
+        BPlusTreeLeafNode<TKey, TValue> last = (BPlusTreeLeafNode<TKey, TValue>) leaves.get(size - 1);
+
+        if (size == 1 || !last.isUnderflow()) {
+            return;
+        }
+
+        BPlusTreeLeafNode<TKey, TValue> previous = (BPlusTreeLeafNode<TKey, TValue>) leaves.get(size - 2);
+        int total = previous.getKeyCount() + last.getKeyCount();
+
+        if (total <= this.leafOrder) {
+            previous.fuseWithSibling(null, last);
+            leaves.remove(size - 1);
+            this.releaseNode(last);
+        } else {
+            while (last.getKeyCount() < total / 2) {
+                last.transferFromSibling(null, previous, previous.getKeyCount() - 1);
             }
+        }
+    }
 
-            for (BPlusTreeLeafNode<TKey, TValue> curNode : leaflist) {
-                for (int i = 0; i < curNode.getKeyCount(); i++) {
-                    System.out.print(curNode.getKey(i) + " ");
-                }
+    /**
+     * Group the nodes of a level under new internal nodes, each internal node
+     * holds internalFill keys except for the last two, which share the rest.
+     */
+    private List<BPlusTreeNode<TKey>> buildParentLevel(List<BPlusTreeNode<TKey>> children, int internalFill) {
+        int childrenCount = children.size();
+        int groupCount = (childrenCount + internalFill) / (internalFill + 1);
+        int[] groupSizes = new int[groupCount];
 
-                System.out.print("\t");
+        for (int i = 0; i < groupCount; i++) {
+            groupSizes[i] = Math.min(internalFill + 1, childrenCount - i * (internalFill + 1));
+        }
+
+        int minKeyCount = this.internalOrder / 2;
+        if (groupCount > 1 && groupSizes[groupCount - 1] - 1 < minKeyCount) {
+            int total = groupSizes[groupCount - 2] + groupSizes[groupCount - 1];
+
+            if (total - 1 <= this.internalOrder) {
+                groupCount -= 1;
+                groupSizes[groupCount - 1] = total;
+            } else {
+                groupSizes[groupCount - 2] = total - total / 2;
+                groupSizes[groupCount - 1] = total / 2;
             }
         }
 
-        System.out.println();
+        List<BPlusTreeNode<TKey>> parents = new ArrayList<>(groupCount);
+        int childIndex = 0;
+
+        for (int i = 0; i < groupCount; i++) {
+            BPlusTreeInternalNode<TKey> parent = this.allocateInternalNode();
+
+            for (int j = 0; j < groupSizes[i]; j++) {
+                BPlusTreeNode<TKey> child = children.get(childIndex++);
+
+                if (j > 0) {
+                    // the separator is the smallest key of the right subtree
+                    parent.setKey(j - 1, firstKey(child));
+                }
+                parent.setChild(j, child);
+            }
+
+            parent.keyCount = groupSizes[i] - 1;
+            parents.add(parent);
+        }
+
+        return parents;
     }
 
-    public void visualize() {
-        visualize("bplustree");
+    private void linkSiblings(List<BPlusTreeNode<TKey>> level) {
+        for (int i = 0; i < level.size(); i++) {
+            level.get(i).setRightSibling(i < level.size() - 1 ? level.get(i + 1) : null);
+        }
     }
 
-    public void visualize(String pictureName) {
-        Writer writer = null;
+    private TKey firstKey(BPlusTreeNode<TKey> node) {
+        while (node.getNodeType() != BPlusTreeNodeType.LeafNode) {
+            node = ((BPlusTreeInternalNode<TKey>) node).getChild(0);
+        }
 
-        String filePath = ".\\test\\" + pictureName;
+        return node.getKey(0);
+    }
 
-        try {
-            writer = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(filePath + ".dot"), "utf-8"));
-            writer.write("digraph G {\nnode [shape = record];\n\n");
-            write2dot(writer);
-            writer.write("}");
+    /* The codes below implement the binary checkpoint */
 
-            String dot2png = "dot -Tpng " + filePath + ".dot -o " + filePath + ".png";
-            Runtime.getRuntime().exec(dot2png);
+    private final static long CHECKPOINT_MAGIC = 0x42504c5343484b31L;
+    private final static int CHECKPOINT_BUFFER_BYTES = 1 << 16;
 
-        } catch (IOException ex) {
-            ex.printStackTrace();
-        } finally {
-            try {
-                writer.close();
-            } catch (Exception ex) {
-                ex.printStackTrace();
-            }
+    /**
+     * Save the entries of the tree to a binary checkpoint file.
+     *
+     * @see #writeTo(WritableByteChannel, BPlusTreeCodec, BPlusTreeCodec)
+     */
+    public void writeTo(Path file, BPlusTreeCodec<TKey> keyCodec, BPlusTreeCodec<TValue> valueCodec)
+            throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            this.writeTo(channel, keyCodec, valueCodec);
+            channel.force(true);
         }
     }
 
+    /**
+     * Stream the leaves of the tree in key order to the channel.
+     * Only the entries are written, readFrom() rebuilds the internal nodes bottom-up:
+     * <pre>
+     * | magic (long) | leaf order (int) | internal order (int) |
+     * | key count (int) | keys and values | ... | 0 (int) | entry count (long) |
+     * </pre>
+     *
+     * @throws IllegalStateException
+     *             if the tree holds duplicate keys, which can not be bulk loaded
+     */
     @SuppressWarnings("unchecked")
-    private void write2dot(Writer writer) throws IOException {
-        BPlusTreeNode<TKey> node = this.root;
-        int nodeID = 0;
+    public void writeTo(WritableByteChannel channel, BPlusTreeCodec<TKey> keyCodec, BPlusTreeCodec<TValue> valueCodec)
+            throws IOException {
+        DataOutputStream out = new DataOutputStream(
+                new BufferedOutputStream(Channels.newOutputStream(channel), CHECKPOINT_BUFFER_BYTES));
+        out.writeLong(CHECKPOINT_MAGIC);
+        out.writeInt(this.leafOrder);
+        out.writeInt(this.internalOrder);
 
-        // 横向遍历一遍 B+ 树
-        if (node.getNodeType() == BPlusTreeNodeType.LeafNode) {
-            writeLeafNode(writer, (BPlusTreeLeafNode<TKey, TValue>) node, nodeID);
-            nodeID++;
-        } else {
-            Queue<BPlusTreeInternalNode<TKey>> curNodelist = new LinkedList<>();
-            Queue<BPlusTreeLeafNode<TKey, TValue>> leaflist = new LinkedList<>();
+        long entryCount = 0;
+        TKey previousKey = null;
 
-            if (node != null) {
-                curNodelist.add((BPlusTreeInternalNode<TKey>) node);
+        BPlusTreeLeafNode<TKey, TValue> leaf = findFirstLeafNode();
+
+        for (; leaf != null; leaf = (BPlusTreeLeafNode<TKey, TValue>) leaf.rightSibling) {
+            if (leaf.getKeyCount() == 0) {
+                continue;
             }
 
-            while (!curNodelist.isEmpty()) {
-                Queue<BPlusTreeInternalNode<TKey>> next = new LinkedList<>();
+            out.writeInt(leaf.getKeyCount());
+            for (int i = 0; i < leaf.getKeyCount(); i++) {
+                TKey key = leaf.getKey(i);
+                if (previousKey != null && previousKey.compareTo(key) >= 0) {
+                    throw new IllegalStateException("duplicate key " + key + " can not be checkpointed");
+                }
 
-                connectInternalWithLeaf(writer, curNodelist, nodeID);
+                keyCodec.write(key, out);
+                valueCodec.write(leaf.getValue(i), out);
+                previousKey = key;
+            }
+            entryCount += leaf.getKeyCount();
+        }
 
-                int beginID = nodeID;
-                while (!curNodelist.isEmpty()) {
-                    BPlusTreeInternalNode<TKey> curNode = curNodelist.remove();
+        out.writeInt(0);
+        out.writeLong(entryCount);
+        out.flush();
+    }
 
-                    writeInternalNode(writer, curNode, nodeID);
-                    nodeID += 1;
+    /**
+     * Create an empty tree of the given orders, e.g. StringBPlusTree::new, so that
+     * readFrom() restores a checkpoint into the kind of tree which saved it.
+     */
+    public interface Factory<TTree> {
+        TTree create(int leafOrder, int internalOrder);
+    }
 
-                    if (curNode.getChild(0).getNodeType() == BPlusTreeNodeType.InternalNode) {
-                        for (int i = 0; i < curNode.getKeyCount() + 1; i++) {
-                            next.add((BPlusTreeInternalNode<TKey>) curNode.getChild(i));
-                        }
-                    } else {
-                        for (int i = 0; i < curNode.getKeyCount() + 1; i++) {
-                            leaflist.add((BPlusTreeLeafNode<TKey, TValue>) curNode.getChild(i));
-                        }
-                    }
-                }
-                writeSameRank(writer, beginID, nodeID);
+    /**
+     * Load a tree from a binary checkpoint file.
+     *
+     * @see #readFrom(ReadableByteChannel, BPlusTreeCodec, BPlusTreeCodec)
+     */
+    public static <TKey extends Comparable<TKey>, TValue> BPlusTree<TKey, TValue> readFrom(Path file,
+            BPlusTreeCodec<TKey> keyCodec, BPlusTreeCodec<TValue> valueCodec) throws IOException {
+        return readFrom(file, keyCodec, valueCodec, BPlusTree<TKey, TValue>::new);
+    }
 
-                curNodelist = next;
-            }
+    /**
+     * Load a tree from a binary checkpoint file into a tree created by factory.
+     *
+     * @see #readFrom(ReadableByteChannel, BPlusTreeCodec, BPlusTreeCodec, Factory)
+     */
+    public static <TKey extends Comparable<TKey>, TValue, TTree extends BPlusTree<TKey, TValue>> TTree readFrom(
+            Path file, BPlusTreeCodec<TKey> keyCodec, BPlusTreeCodec<TValue> valueCodec, Factory<TTree> factory)
+            throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            return readFrom(channel, keyCodec, valueCodec, factory);
+        }
+    }
 
-            int beginID = nodeID;
-            for (BPlusTreeLeafNode<TKey, TValue> curNode : leaflist) {
-                writeLeafNode(writer, curNode, nodeID);
-                nodeID += 1;
-            }
+    /**
+     * Load a tree written by writeTo() into a plain BPlusTree.
+     *
+     * @see #readFrom(ReadableByteChannel, BPlusTreeCodec, BPlusTreeCodec, Factory)
+     */
+    public static <TKey extends Comparable<TKey>, TValue> BPlusTree<TKey, TValue> readFrom(ReadableByteChannel channel,
+            BPlusTreeCodec<TKey> keyCodec, BPlusTreeCodec<TValue> valueCodec) throws IOException {
+        return readFrom(channel, keyCodec, valueCodec, BPlusTree<TKey, TValue>::new);
+    }
+
+    /**
+     * Load a tree written by writeTo() into a tree created by factory with the same
+     * orders, e.g. BinaryBPlusTree::new for a tree of binary keys. The entries are
+     * bulk loaded into full nodes instead of being inserted one by one, and the
+     * loaded tree is clean, see writeDirtyTo().
+     */
+    public static <TKey extends Comparable<TKey>, TValue, TTree extends BPlusTree<TKey, TValue>> TTree readFrom(
+            ReadableByteChannel channel, BPlusTreeCodec<TKey> keyCodec, BPlusTreeCodec<TValue> valueCodec,
+            Factory<TTree> factory) throws IOException {
+        CheckpointReader<TKey, TValue> reader = new CheckpointReader<>(channel, keyCodec, valueCodec);
+        TTree tree = factory.create(reader.leafOrder, reader.internalOrder);
+
+        tree.bulkLoadEntries(reader);
+        reader.checkEntryCount();
+        tree.markClean();
 
-            writeSameRank(writer, beginID, nodeID);
-            connectLeafNode(writer, beginID, nodeID);
-            // connectLeafWithValue(writer, leaflist, beginID);
+        return tree;
+    }
+
+    /**
+     * Bulk load full nodes from entries whose iterator may fail with an UncheckedIOException.
+     */
+    void bulkLoadEntries(Iterator<? extends Map.Entry<TKey, TValue>> entries) throws IOException {
+        try {
+            this.bulkLoad(entries, 1.0);
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
         }
     }
 
-    private void writeInternalNode(Writer writer, BPlusTreeInternalNode<TKey> node, int nodeID) throws IOException {
-        // int bound = node.getKeyCount();
-        int bound = node.getOrder();
+    /**
+     * Read the entries of a checkpoint lazily, so they are bulk loaded while streaming.
+     */
+    static class CheckpointReader<TKey, TValue> implements Iterator<Map.Entry<TKey, TValue>> {
+        final int leafOrder;
+        final int internalOrder;
+        private final DataInputStream in;
+        private final BPlusTreeCodec<TKey> keyCodec;
+        private final BPlusTreeCodec<TValue> valueCodec;
+        private int remaining;
+        private long entryCount;
+
+        CheckpointReader(ReadableByteChannel channel, BPlusTreeCodec<TKey> keyCodec, BPlusTreeCodec<TValue> valueCodec)
+                throws IOException {
+            this.in = new DataInputStream(
+                    new BufferedInputStream(Channels.newInputStream(channel), CHECKPOINT_BUFFER_BYTES));
+
+            if (this.in.readLong() != CHECKPOINT_MAGIC) {
+                throw new IOException("not a B+ tree checkpoint");
+            }
 
-        String keyStr = "{";
-        for (int i = 0; i < bound; i++) {
-            String port = " <" + "key" + i + ">";
-            keyStr += port + node.getKey(i) + " |";
+            this.leafOrder = this.in.readInt();
+            this.internalOrder = this.in.readInt();
+            this.keyCodec = keyCodec;
+            this.valueCodec = valueCodec;
+            this.remaining = this.in.readInt();
+            this.entryCount = 0;
         }
-        keyStr = keyStr.substring(0, keyStr.length() - 1) + "}";
 
-        String childStr = "{";
-        for (int i = 0; i < bound + 1; i++) {
-            String port = " <" + "ptr" + i + ">";
-            childStr += port + " |";
+        @Override
+        public boolean hasNext() {
+            return this.remaining > 0;
         }
-        childStr = childStr.substring(0, childStr.length() - 1) + "}";
 
-        String nodeStr = nodeID + " [label=\"{";
-        nodeStr += keyStr + "|" + childStr + "}\"]\n";
+        @Override
+        public Map.Entry<TKey, TValue> next() {
+            if (!this.hasNext()) {
+                throw new NoSuchElementException();
+            }
+
+            try {
+                TKey key = this.keyCodec.read(this.in);
+                TValue value = this.valueCodec.read(this.in);
+
+                this.entryCount += 1;
+                this.remaining -= 1;
+                if (this.remaining == 0) {
+                    // the key count of the next leaf, 0 after the last one
+                    this.remaining = this.in.readInt();
+                }
+
+                return new AbstractMap.SimpleImmutableEntry<>(key, value);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
 
-        writer.write(nodeStr);
+        /**
+         * Check the entry count written after the last leaf, once every entry was read.
+         */
+        void checkEntryCount() throws IOException {
+            if (this.in.readLong() != this.entryCount) {
+                throw new IOException("truncated B+ tree checkpoint");
+            }
+        }
     }
 
-    private void writeLeafNode(Writer writer, BPlusTreeLeafNode<TKey, TValue> node, int nodeID) throws IOException {
-        // int bound = node.getKeyCount();
-        int bound = node.getOrder();
+    /* The codes below implement the incremental checkpoint */
+
+    final static long DELTA_MAGIC = 0x42504c5344454c31L;
 
-        String keyStr = "";
-        for (int i = 0; i < bound; i++) {
-            String port = " <" + "key" + i + ">";
-            keyStr += port + node.getKey(i) + " |";
+    /**
+     * Return whether the tree was modified since it was loaded or marked clean.
+     */
+    public boolean isDirty() {
+        return this.root.isDirty();
+    }
+
+    /**
+     * Forget which nodes were modified, e.g. after a full checkpoint was written.
+     */
+    public void markClean() {
+        try {
+            this.writeDirty(this.root, null, null, null);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
         }
-        keyStr = keyStr.substring(0, keyStr.length() - 1);
+    }
 
-        String nodeStr = nodeID + " [label=\"";
-        nodeStr += keyStr + "\"]\n";
+    /**
+     * Stream the entries of the leaves modified since the tree was last marked
+     * clean, then mark it clean. Every dirty leaf is written with the key range it
+     * covers, so the delta replaces that whole range of the previous image, which
+     * accounts for the deleted keys as well:
+     * <pre>
+     * | magic (long) |
+     * | 1 (byte) | has lower bound (boolean) | lower bound | has upper bound (boolean) | upper bound |
+     * | key count (int) | keys and values | ... | 0 (byte) |
+     * </pre>
+     * Only the dirty subtrees are visited.
+     */
+    public void writeDirtyTo(WritableByteChannel channel, BPlusTreeCodec<TKey> keyCodec,
+            BPlusTreeCodec<TValue> valueCodec) throws IOException {
+        DataOutputStream out = new DataOutputStream(
+                new BufferedOutputStream(Channels.newOutputStream(channel), CHECKPOINT_BUFFER_BYTES));
+        out.writeLong(DELTA_MAGIC);
+
+        this.writeDirty(this.root, null, null, new DeltaWriter<>(out, keyCodec, valueCodec));
 
-        writer.write(nodeStr);
+        out.writeByte(0);
+        out.flush();
     }
 
-    private void writeSameRank(Writer writer, int beginID, int endID) throws IOException {
-        String rankStr = "{rank = same;";
+    /**
+     * Write the dirty leaves below node, whose keys are in [lower, upper), and clear
+     * the dirty flags on the way back.
+     */
+    @SuppressWarnings("unchecked")
+    private void writeDirty(BPlusTreeNode<TKey> node, TKey lower, TKey upper, DeltaWriter<TKey, TValue> writer)
+            throws IOException {
+        if (!node.dirty) {
+            return;
+        }
 
-        for (int i = beginID; i < endID; i++) {
-            rankStr += " " + i + ";";
+        if (node.getNodeType() == BPlusTreeNodeType.LeafNode) {
+            if (writer != null) {
+                writer.write((BPlusTreeLeafNode<TKey, TValue>) node, lower, upper);
+            }
+        } else {
+            BPlusTreeInternalNode<TKey> internalNode = (BPlusTreeInternalNode<TKey>) node;
+
+            for (int i = 0; i <= internalNode.getKeyCount(); i++) {
+                TKey childLower = (i == 0) ? lower : internalNode.getKey(i - 1);
+                TKey childUpper = (i == internalNode.getKeyCount()) ? upper : internalNode.getKey(i);
+                this.writeDirty(internalNode.getChild(i), childLower, childUpper, writer);
+            }
         }
-        rankStr += "}\n\n";
 
-        writer.write(rankStr);
+        node.dirty = false;
     }
 
-    private void connectLeafNode(Writer writer, int beginID, int endID) throws IOException {
-        for (int i = beginID; i < endID - 1; i++) {
-            String connectStr = i + "->" + (i + 1) + " [dir=both];\n";
-            writer.write(connectStr);
+    private static class DeltaWriter<TKey extends Comparable<TKey>, TValue> {
+        private final DataOutputStream out;
+        private final BPlusTreeCodec<TKey> keyCodec;
+        private final BPlusTreeCodec<TValue> valueCodec;
+
+        DeltaWriter(DataOutputStream out, BPlusTreeCodec<TKey> keyCodec, BPlusTreeCodec<TValue> valueCodec) {
+            this.out = out;
+            this.keyCodec = keyCodec;
+            this.valueCodec = valueCodec;
         }
-    }
 
-    @SuppressWarnings("unused")
-    private void connectLeafWithValue(Writer writer, Queue<BPlusTreeLeafNode<TKey, TValue>> leaflist, int curNodeID)
-            throws IOException {
-        for (BPlusTreeLeafNode<TKey, TValue> curNode : leaflist) {
-            for (int j = 0; j < curNode.getKeyCount(); j++) {
-                String valueNodeName = "\"" + curNode.getKey(j) + "val" + curNode.getValue(j) + "\"";
-                String createValueNodeStr = valueNodeName + " [shape=oval, label=" + curNode.getValue(j) + "];\n";
-                writer.write(createValueNodeStr);
-
-                String port = "key" + j + ":s";
-                String connectStr = curNodeID + ":" + port + "->" + valueNodeName + ";\n";
-                writer.write(connectStr);
+        void write(BPlusTreeLeafNode<TKey, TValue> leaf, TKey lower, TKey upper) throws IOException {
+            this.out.writeByte(1);
+            this.writeBound(lower);
+            this.writeBound(upper);
+
+            this.out.writeInt(leaf.getKeyCount());
+            for (int i = 0; i < leaf.getKeyCount(); i++) {
+                this.keyCodec.write(leaf.getKey(i), this.out);
+                this.valueCodec.write(leaf.getValue(i), this.out);
+            }
+        }
+
+        private void writeBound(TKey bound) throws IOException {
+            this.out.writeBoolean(bound != null);
+            if (bound != null) {
+                this.keyCodec.write(bound, this.out);
             }
-            curNodeID += 1;
         }
     }
 
-    private void connectInternalWithLeaf(Writer writer, Queue<BPlusTreeInternalNode<TKey>> curNodelist, int curNodeID)
-            throws IOException {
-        int previousChildrenNum = 0;
-        int i = 0;
-        for (BPlusTreeInternalNode<TKey> curNode : curNodelist) {
-            for (int j = 0; j < curNode.getKeyCount() + 1; j++) {
-                String port = "ptr" + j + ":s";
-                int childID = curNodeID + curNodelist.size() - i + j + previousChildrenNum;
-                String connectStr = curNodeID + ":" + port + "->" + childID + ";\n";
-                writer.write(connectStr);
+    @SuppressWarnings("unchecked")
+    public void print() {
+        BPlusTreeNode<TKey> node = this.root;
+
+        if (node.getNodeType() == BPlusTreeNodeType.LeafNode) {
+            for (int i = 0; i < node.getKeyCount(); i++) {
+                System.out.print(node.getKey(i) + " ");
             }
+        } else {
+            Queue<BPlusTreeInternalNode<TKey>> curlist = new LinkedList<>();
+            Queue<BPlusTreeLeafNode<TKey, TValue>> leaflist = new LinkedList<>();
+
+            if (node != null) {
+                curlist.add((BPlusTreeInternalNode<TKey>) node);
+            }
+
+            while (!curlist.isEmpty()) {
+                Queue<BPlusTreeInternalNode<TKey>> next = new LinkedList<>();
+
+                while (!curlist.isEmpty()) {
+                    BPlusTreeInternalNode<TKey> curNode = curlist.remove();
+
+                    for (int i = 0; i < curNode.getKeyCount(); i++) {
+                        System.out.print(curNode.getKey(i) + " ");
+                    }
+                    System.out.print("\t");
 
-            previousChildrenNum += curNode.getKeyCount() + 1;
-            curNodeID += 1;
-            i += 1;
+                    if (curNode.getChild(0).getNodeType() == BPlusTreeNodeType.InternalNode) {
+                        for (int i = 0; i < curNode.getKeyCount() + 1; i++) {
+                            next.add((BPlusTreeInternalNode<TKey>) curNode.getChild(i));
+                        }
+                    } else {
+                        for (int i = 0; i < curNode.getKeyCount() + 1; i++) {
+                            leaflist.add((BPlusTreeLeafNode<TKey, TValue>) curNode.getChild(i));
+                        }
+                    }
+                }
+                System.out.println();
+
+                curlist = next;
+            }
+
+            for (BPlusTreeLeafNode<TKey, TValue> curNode : leaflist) {
+                for (int i = 0; i < curNode.getKeyCount(); i++) {
+                    System.out.print(curNode.getKey(i) + " ");
+                }
+
+                System.out.print("\t");
+            }
+        }
+
+        System.out.println();
+    }
+
+    /**
+     * Draw the tree into file, as an SVG picture if its name ends with ".svg", as a
+     * Graphviz DOT graph otherwise. BPlusTreeVisualizer draws parts of large trees.
+     */
+    public void visualize(Path file) throws IOException {
+        BPlusTreeVisualizer<TKey, TValue> visualizer = new BPlusTreeVisualizer<>(this);
+
+        if (file.getFileName().toString().endsWith(".svg")) {
+            visualizer.writeSvg(file);
+        } else {
+            visualizer.writeDot(file);
         }
     }
 }
@@ -0,0 +1,323 @@
+package bplustree;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.TreeMap;
+
+/**
+ * Incremental checkpoints of a BPlusTree in a directory.
+ *
+ * The first checkpoint saves the whole tree with writeTo() into a base file, the
+ * following ones only save the leaves modified since the previous checkpoint with
+ * writeDirtyTo() into delta files, so their cost is proportional to the updates
+ * instead of the size of the tree. Once there are more than maxDeltas deltas, the
+ * next checkpoint writes a new base and drops the old files.
+ *
+ * The MANIFEST file lists the base then the deltas, oldest first, and is replaced
+ * atomically once a new file is durable. restore() loads the base and overlays the
+ * key ranges of the deltas, a newer range replacing the older ones.
+ */
+public class BPlusTreeCheckpointer<TKey extends Comparable<TKey>, TValue> {
+    private final static String MANIFEST = "MANIFEST";
+    private final static String BASE_PREFIX = "base-";
+    private final static String DELTA_PREFIX = "delta-";
+
+    private final Path directory;
+    private final BPlusTreeCodec<TKey> keyCodec;
+    private final BPlusTreeCodec<TValue> valueCodec;
+    private final int maxDeltas;
+
+    public BPlusTreeCheckpointer(Path directory, BPlusTreeCodec<TKey> keyCodec, BPlusTreeCodec<TValue> valueCodec,
+            int maxDeltas) throws IOException {
+        this.directory = Files.createDirectories(directory);
+        this.keyCodec = keyCodec;
+        this.valueCodec = valueCodec;
+        this.maxDeltas = maxDeltas;
+    }
+
+    /**
+     * Save the tree, which must be the one checkpointed or restored last by this
+     * checkpointer, since only its dirty leaves are written. Return the name of
+     * the new file.
+     */
+    public String checkpoint(BPlusTree<TKey, TValue> tree) throws IOException {
+        List<String> files = this.readManifest();
+        long sequence = files.isEmpty() ? 0 : sequenceOf(files.get(files.size() - 1)) + 1;
+        boolean full = files.isEmpty() || files.size() > this.maxDeltas;
+        String name = (full ? BASE_PREFIX : DELTA_PREFIX) + sequence;
+
+        try (FileChannel channel = FileChannel.open(this.directory.resolve(name), StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            if (full) {
+                tree.writeTo(channel, this.keyCodec, this.valueCodec);
+                tree.markClean();
+            } else {
+                tree.writeDirtyTo(channel, this.keyCodec, this.valueCodec);
+            }
+            channel.force(true);
+        }
+
+        List<String> obsoleteFiles = new ArrayList<>();
+        if (full) {
+            obsoleteFiles.addAll(files);
+            files.clear();
+        }
+        files.add(name);
+        this.writeManifest(files);
+
+        // the new manifest is durable, the files it dropped are useless
+        for (String file : obsoleteFiles) {
+            Files.deleteIfExists(this.directory.resolve(file));
+        }
+
+        return name;
+    }
+
+    /**
+     * Rebuild the tree saved by the last checkpoint, return null if there is none.
+     */
+    public BPlusTree<TKey, TValue> restore() throws IOException {
+        return this.restore(BPlusTree<TKey, TValue>::new);
+    }
+
+    /**
+     * Rebuild the tree saved by the last checkpoint into a tree created by factory,
+     * e.g. StringBPlusTree::new, return null if there is none.
+     */
+    public <TTree extends BPlusTree<TKey, TValue>> TTree restore(BPlusTree.Factory<TTree> factory) throws IOException {
+        List<String> files = this.readManifest();
+
+        if (files.isEmpty()) {
+            return null;
+        }
+
+        // key ranges replaced by the deltas, disjoint and ordered by lower bound
+        TreeMap<TKey, DeltaRange<TKey, TValue>> ranges = new TreeMap<>(Comparator.nullsFirst(Comparator.naturalOrder()));
+        for (String file : files.subList(1, files.size())) {
+            for (DeltaRange<TKey, TValue> range : this.readDelta(this.directory.resolve(file))) {
+                overlay(ranges, range);
+            }
+        }
+
+        try (FileChannel channel = FileChannel.open(this.directory.resolve(files.get(0)), StandardOpenOption.READ)) {
+            BPlusTree.CheckpointReader<TKey, TValue> base = new BPlusTree.CheckpointReader<>(channel, this.keyCodec,
+                    this.valueCodec);
+            TTree tree = factory.create(base.leafOrder, base.internalOrder);
+
+            tree.bulkLoadEntries(new MergeIterator<>(base, ranges.values().iterator()));
+            base.checkEntryCount();
+            tree.markClean();
+
+            return tree;
+        }
+    }
+
+    private List<String> readManifest() throws IOException {
+        Path manifest = this.directory.resolve(MANIFEST);
+
+        if (!Files.exists(manifest)) {
+            return new ArrayList<>();
+        }
+
+        List<String> files = new ArrayList<>();
+        for (String line : Files.readAllLines(manifest, StandardCharsets.UTF_8)) {
+            if (!line.isEmpty()) {
+                files.add(line);
+            }
+        }
+
+        return files;
+    }
+
+    private void writeManifest(List<String> files) throws IOException {
+        Path temporaryFile = this.directory.resolve(MANIFEST + ".tmp");
+
+        try (FileChannel channel = FileChannel.open(temporaryFile, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            channel.write(ByteBuffer.wrap((String.join("\n", files) + "\n").getBytes(StandardCharsets.UTF_8)));
+            channel.force(true);
+        }
+
+        Files.move(temporaryFile, this.directory.resolve(MANIFEST), StandardCopyOption.REPLACE_EXISTING,
+                StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private static long sequenceOf(String file) {
+        return Long.parseLong(file.substring(file.indexOf('-') + 1));
+    }
+
+    /**
+     * Read the ranges of a delta written by BPlusTree.writeDirtyTo().
+     */
+    private List<DeltaRange<TKey, TValue>> readDelta(Path file) throws IOException {
+        List<DeltaRange<TKey, TValue>> ranges = new ArrayList<>();
+
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+            if (in.readLong() != BPlusTree.DELTA_MAGIC) {
+                throw new IOException(file + " is not a B+ tree delta");
+            }
+
+            while (in.readByte() != 0) {
+                TKey lower = in.readBoolean() ? this.keyCodec.read(in) : null;
+                TKey upper = in.readBoolean() ? this.keyCodec.read(in) : null;
+                DeltaRange<TKey, TValue> range = new DeltaRange<>(lower, upper);
+
+                int keyCount = in.readInt();
+                for (int i = 0; i < keyCount; i++) {
+                    range.keys.add(this.keyCodec.read(in));
+                    range.values.add(this.valueCodec.read(in));
+                }
+                ranges.add(range);
+            }
+        }
+
+        return ranges;
+    }
+
+    /**
+     * Add a newer range, cutting the parts of the older ranges it overlaps.
+     */
+    private static <TKey extends Comparable<TKey>, TValue> void overlay(TreeMap<TKey, DeltaRange<TKey, TValue>> ranges,
+            DeltaRange<TKey, TValue> range) {
+        List<DeltaRange<TKey, TValue>> remains = new ArrayList<>();
+
+        // the first older range which may overlap is the one starting at or before the lower bound
+        TKey from = range.lower == null ? null : ranges.floorKey(range.lower);
+        Iterator<DeltaRange<TKey, TValue>> iterator = (from == null ? ranges : ranges.tailMap(from, true)).values()
+                .iterator();
+
+        while (iterator.hasNext()) {
+            DeltaRange<TKey, TValue> older = iterator.next();
+
+            if (range.upper != null && older.lower != null && older.lower.compareTo(range.upper) >= 0) {
+                break;
+            }
+            if (range.lower != null && older.upper != null && older.upper.compareTo(range.lower) <= 0) {
+                continue;
+            }
+
+            iterator.remove();
+            if (range.lower != null && (older.lower == null || older.lower.compareTo(range.lower) < 0)) {
+                remains.add(older.slice(older.lower, range.lower));
+            }
+            if (range.upper != null && (older.upper == null || older.upper.compareTo(range.upper) > 0)) {
+                remains.add(older.slice(range.upper, older.upper));
+            }
+        }
+
+        for (DeltaRange<TKey, TValue> remain : remains) {
+            ranges.put(remain.lower, remain);
+        }
+        ranges.put(range.lower, range);
+    }
+
+    /**
+     * The entries of the key range [lower, upper) of a delta, a null bound is unbounded.
+     */
+    private static class DeltaRange<TKey extends Comparable<TKey>, TValue> {
+        final TKey lower;
+        final TKey upper;
+        final List<TKey> keys;
+        final List<TValue> values;
+
+        DeltaRange(TKey lower, TKey upper) {
+            this.lower = lower;
+            this.upper = upper;
+            this.keys = new ArrayList<>();
+            this.values = new ArrayList<>();
+        }
+
+        boolean isBelowUpper(TKey key) {
+            return this.upper == null || key.compareTo(this.upper) < 0;
+        }
+
+        DeltaRange<TKey, TValue> slice(TKey lower, TKey upper) {
+            DeltaRange<TKey, TValue> range = new DeltaRange<>(lower, upper);
+
+            for (int i = 0; i < this.keys.size(); i++) {
+                TKey key = this.keys.get(i);
+                if ((lower == null || key.compareTo(lower) >= 0) && range.isBelowUpper(key)) {
+                    range.keys.add(key);
+                    range.values.add(this.values.get(i));
+                }
+            }
+
+            return range;
+        }
+    }
+
+    /**
+     * Merge the sorted entries of the base with the ranges of the deltas, the base
+     * entries inside a range are replaced by the entries of the range.
+     */
+    private static class MergeIterator<TKey extends Comparable<TKey>, TValue>
+            implements Iterator<Map.Entry<TKey, TValue>> {
+        private final Iterator<Map.Entry<TKey, TValue>> base;
+        private final Iterator<DeltaRange<TKey, TValue>> ranges;
+        private Map.Entry<TKey, TValue> nextBaseEntry;
+        private DeltaRange<TKey, TValue> nextRange;
+        private DeltaRange<TKey, TValue> range;
+        private int rangeIndex;
+
+        MergeIterator(Iterator<Map.Entry<TKey, TValue>> base, Iterator<DeltaRange<TKey, TValue>> ranges) {
+            this.base = base;
+            this.ranges = ranges;
+            this.nextBaseEntry = base.hasNext() ? base.next() : null;
+            this.nextRange = ranges.hasNext() ? ranges.next() : null;
+        }
+
+        @Override
+        public boolean hasNext() {
+            while (this.range == null || this.rangeIndex == this.range.keys.size()) {
+                if (this.nextRange != null && (this.nextBaseEntry == null || this.nextRange.lower == null
+                        || this.nextRange.lower.compareTo(this.nextBaseEntry.getKey()) <= 0)) {
+                    // enter the next range, skipping the base entries it replaces
+                    this.range = this.nextRange;
+                    this.rangeIndex = 0;
+                    this.nextRange = this.ranges.hasNext() ? this.ranges.next() : null;
+
+                    while (this.nextBaseEntry != null && this.range.isBelowUpper(this.nextBaseEntry.getKey())) {
+                        this.nextBaseEntry = this.base.hasNext() ? this.base.next() : null;
+                    }
+                } else {
+                    this.range = null;
+                    return this.nextBaseEntry != null;
+                }
+            }
+
+            return true;
+        }
+
+        @Override
+        public Map.Entry<TKey, TValue> next() {
+            if (!this.hasNext()) {
+                throw new NoSuchElementException();
+            }
+
+            if (this.range == null) {
+                Map.Entry<TKey, TValue> entry = this.nextBaseEntry;
+                this.nextBaseEntry = this.base.hasNext() ? this.base.next() : null;
+                return entry;
+            }
+
+            int index = this.rangeIndex++;
+            return new AbstractMap.SimpleImmutableEntry<>(this.range.keys.get(index),
+                    this.range.values.get(index));
+        }
+    }
+}
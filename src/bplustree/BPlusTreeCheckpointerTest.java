@@ -0,0 +1,106 @@
+package bplustree;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.Random;
+import java.util.TreeMap;
+import java.util.stream.Stream;
+
+import org.junit.Test;
+
+public class BPlusTreeCheckpointerTest {
+    @Test
+    public void testIncrementalCheckpoint() throws IOException {
+        Path directory = Files.createTempDirectory("bplustree");
+
+        try {
+            BPlusTreeCheckpointer<Integer, String> checkpointer = new BPlusTreeCheckpointer<>(directory,
+                    BPlusTreeCodec.INTEGER, BPlusTreeCodec.STRING, 3);
+            assertNull(checkpointer.restore());
+
+            BPlusTree<Integer, String> tree = new BPlusTree<>(4);
+            TreeMap<Integer, String> expected = new TreeMap<>();
+            Random random = new Random(0);
+
+            for (int round = 0; round < 12; round++) {
+                // inserts and deletes split, borrow and merge some of the nodes
+                for (int i = 0; i < 300; i++) {
+                    int key = random.nextInt(2000);
+
+                    if (expected.containsKey(key)) {
+                        tree.delete(key);
+                        expected.remove(key);
+                    }
+                    if (random.nextInt(3) != 0) {
+                        tree.insert(key, round + ":" + i);
+                        expected.put(key, round + ":" + i);
+                    }
+                }
+
+                assertTrue(tree.isDirty());
+                String file = checkpointer.checkpoint(tree);
+                assertEquals(round % 4 == 0, file.startsWith("base-"));
+                assertFalse(tree.isDirty());
+
+                tree = checkpointer.restore();
+                assertEquals(expected, toMap(tree));
+                assertFalse(tree.isDirty());
+            }
+
+            // the files dropped by the last base are deleted, the manifest, base-8 and delta-9 to 11 remain
+            try (Stream<Path> files = Files.list(directory)) {
+                assertEquals(5, files.count());
+            }
+        } finally {
+            try (Stream<Path> files = Files.walk(directory)) {
+                files.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+            }
+        }
+    }
+
+    @Test
+    public void testDeltaOnlyHoldsDirtyLeaves() throws IOException {
+        Path directory = Files.createTempDirectory("bplustree");
+
+        try {
+            BPlusTreeCheckpointer<Integer, String> checkpointer = new BPlusTreeCheckpointer<>(directory,
+                    BPlusTreeCodec.INTEGER, BPlusTreeCodec.STRING, 8);
+            BPlusTree<Integer, String> tree = new BPlusTree<>(16);
+            for (int key = 0; key < 100000; key++) {
+                tree.insert(key, String.valueOf(key));
+            }
+
+            String base = checkpointer.checkpoint(tree);
+            tree.insert(100000, "100000");
+            tree.delete(50000);
+            String delta = checkpointer.checkpoint(tree);
+
+            assertTrue(Files.size(directory.resolve(delta)) * 100 < Files.size(directory.resolve(base)));
+
+            BPlusTree<Integer, String> restored = checkpointer.restore();
+            assertEquals("100000", restored.search(100000));
+            assertNull(restored.search(50000));
+            assertEquals("49999", restored.search(49999));
+        } finally {
+            try (Stream<Path> files = Files.walk(directory)) {
+                files.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+            }
+        }
+    }
+
+    private static TreeMap<Integer, String> toMap(BPlusTree<Integer, String> tree) {
+        TreeMap<Integer, String> map = new TreeMap<>();
+
+        for (BPlusTreeCursor<Integer, String> cursor = tree.scan(null, null); cursor.hasNext();) {
+            map.put(cursor.next(), cursor.getValue());
+        }
+
+        return map;
+    }
+}
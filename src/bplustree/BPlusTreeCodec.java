@@ -0,0 +1,70 @@
+package bplustree;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+/**
+ * Converts the keys or the values of a tree to and from bytes, so the tree can be
+ * logged or saved to a file.
+ *
+ * @param <T>
+ *            the data type of the keys or the values
+ */
+public interface BPlusTreeCodec<T> {
+    void write(T value, DataOutput out) throws IOException;
+
+    T read(DataInput in) throws IOException;
+
+    BPlusTreeCodec<Integer> INTEGER = new BPlusTreeCodec<Integer>() {
+        @Override
+        public void write(Integer value, DataOutput out) throws IOException {
+            out.writeInt(value);
+        }
+
+        @Override
+        public Integer read(DataInput in) throws IOException {
+            return in.readInt();
+        }
+    };
+
+    BPlusTreeCodec<Long> LONG = new BPlusTreeCodec<Long>() {
+        @Override
+        public void write(Long value, DataOutput out) throws IOException {
+            out.writeLong(value);
+        }
+
+        @Override
+        public Long read(DataInput in) throws IOException {
+            return in.readLong();
+        }
+    };
+
+    BPlusTreeCodec<String> STRING = new BPlusTreeCodec<String>() {
+        @Override
+        public void write(String value, DataOutput out) throws IOException {
+            out.writeUTF(value);
+        }
+
+        @Override
+        public String read(DataInput in) throws IOException {
+            return in.readUTF();
+        }
+    };
+
+    BPlusTreeCodec<BinaryKey> BINARY_KEY = new BPlusTreeCodec<BinaryKey>() {
+        @Override
+        public void write(BinaryKey value, DataOutput out) throws IOException {
+            byte[] bytes = value.getBytes();
+            out.writeInt(bytes.length);
+            out.write(bytes);
+        }
+
+        @Override
+        public BinaryKey read(DataInput in) throws IOException {
+            byte[] bytes = new byte[in.readInt()];
+            in.readFully(bytes);
+            return BinaryKey.of(bytes);
+        }
+    };
+}
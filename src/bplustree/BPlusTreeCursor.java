@@ -0,0 +1,123 @@
+package bplustree;
+
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * A lazy cursor over a key range of a B Plus Tree.
+ * It walks the right sibling links of the leaf nodes, so a scan descends the
+ * tree only once and allocates nothing per entry: next() returns the key
+ * already stored in the leaf and getValue() the value associated with it.
+ * A StringBPlusTree only stores the suffixes of its keys, so its next() builds
+ * every key, a scan which does not need them moves on with advance() instead.
+ *
+ * The cursor must not be used after the tree is modified.
+ *
+ * @param <TKey>
+ *            the data type of the key
+ * @param <TValue>
+ *            the data type of the value
+ */
+public class BPlusTreeCursor<TKey extends Comparable<TKey>, TValue> implements Iterator<TKey> {
+    private BPlusTreeLeafNode<TKey, TValue> leaf;
+    private int index;
+    private final TKey to;
+    private final boolean toInclusive;
+
+    private BPlusTreeLeafNode<TKey, TValue> currentLeaf;
+    private int currentIndex;
+
+    /**
+     * Create a cursor positioned before the entry at index of leaf.
+     * A null upper bound scans to the end of the tree.
+     */
+    BPlusTreeCursor(BPlusTreeLeafNode<TKey, TValue> leaf, int index, TKey to, boolean toInclusive) {
+        this.leaf = leaf;
+        this.index = index;
+        this.to = to;
+        this.toInclusive = toInclusive;
+        this.currentLeaf = null;
+        this.currentIndex = -1;
+
+        this.skipExhaustedLeaves();
+    }
+
+    @SuppressWarnings("unchecked")
+    private void skipExhaustedLeaves() {
+        while (this.leaf != null && this.index >= this.leaf.getKeyCount()) {
+            this.leaf = (BPlusTreeLeafNode<TKey, TValue>) this.leaf.rightSibling;
+            this.index = 0;
+        }
+    }
+
+    @Override
+    public boolean hasNext() {
+        if (this.leaf == null) {
+            return false;
+        }
+
+        if (this.to != null) {
+            int cmp = this.leaf.compareKey(this.index, this.to);
+
+            if (cmp > 0 || (cmp == 0 && !this.toInclusive)) {
+                // past the upper bound, no need to look at the remaining leaves
+                this.leaf = null;
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    /**
+     * Move to the next entry of the range and return its key.
+     */
+    @Override
+    public TKey next() {
+        if (!this.advance()) {
+            throw new NoSuchElementException();
+        }
+
+        return this.currentLeaf.getKey(this.currentIndex);
+    }
+
+    /**
+     * Move to the next entry of the range without reading its key, return false
+     * if the range is exhausted.
+     */
+    public boolean advance() {
+        if (!this.hasNext()) {
+            return false;
+        }
+
+        this.currentLeaf = this.leaf;
+        this.currentIndex = this.index;
+
+        this.index += 1;
+        this.skipExhaustedLeaves();
+
+        return true;
+    }
+
+    /**
+     * Return the key of the entry returned by the last call to next().
+     */
+    public TKey getKey() {
+        this.checkCurrent();
+        return this.currentLeaf.getKey(this.currentIndex);
+    }
+
+    /**
+     * Return the value of the entry returned by the last call to next().
+     */
+    public TValue getValue() {
+        this.checkCurrent();
+        return this.currentLeaf.getValue(this.currentIndex);
+    }
+
+    private void checkCurrent() {
+        if (this.currentLeaf == null) {
+            throw new IllegalStateException("next() has not been called");
+        }
+    }
+}
@@ -1,11 +1,21 @@
 package bplustree;
 
+import java.util.Arrays;
+
 public class BPlusTreeInternalNode<TKey extends Comparable<TKey>> extends BPlusTreeNode<TKey> {
     protected Object[] children;
 
-    public BPlusTreeInternalNode() {
-        this.keys = new Object[ORDER + 1];
-        this.children = new Object[ORDER + 2];
+    public BPlusTreeInternalNode(BPlusTree<TKey, ?> tree) {
+        super(tree, tree.getInternalOrder());
+        this.keys = new Object[this.order + 1];
+        this.children = new Object[this.order + 2];
+    }
+
+    @Override
+    protected void clear() {
+        super.clear();
+        Arrays.fill(this.keys, null);
+        Arrays.fill(this.children, null);
     }
 
     @SuppressWarnings("unchecked")
@@ -15,8 +25,42 @@ public class BPlusTreeInternalNode<TKey extends Comparable<TKey>> extends BPlusT
 
     public void setChild(int index, BPlusTreeNode<TKey> child) {
         this.children[index] = child;
-        if (child != null) {
-            child.setParentNode(this);
+        this.markDirty();
+    }
+
+    /**
+     * A key bounds the key ranges of the children around it, so the leaves next to
+     * it are marked dirty as well, an incremental checkpoint then writes their new
+     * ranges.
+     */
+    @Override
+    public void setKey(int index, TKey key) {
+        super.setKey(index, key);
+        this.markBorderDirty(this.getChild(index), true);
+        this.markBorderDirty(this.getChild(index + 1), false);
+    }
+
+    @Override
+    protected void markKeysDirty(int index, int length) {
+        super.markKeysDirty(index, length);
+
+        for (int i = index; i < index + length; i++) {
+            this.markBorderDirty(this.getChild(i), true);
+            this.markBorderDirty(this.getChild(i + 1), false);
+        }
+    }
+
+    private void markBorderDirty(BPlusTreeNode<TKey> node, boolean rightmost) {
+        // 从当前节点向下标记，不依赖于子节点的父指针
+        while (node != null) {
+            node.dirty = true;
+
+            if (node.getNodeType() == BPlusTreeNodeType.LeafNode) {
+                break;
+            }
+
+            BPlusTreeInternalNode<TKey> internalNode = (BPlusTreeInternalNode<TKey>) node;
+            node = internalNode.getChild(rightmost ? internalNode.getKeyCount() : 0);
         }
     }
 
@@ -33,7 +77,7 @@ public class BPlusTreeInternalNode<TKey extends Comparable<TKey>> extends BPlusT
 
         if (index >= this.getKeyCount()) {
             return index;
-        } else if (this.getKey(index).compareTo(key) == 0) {
+        } else if (this.compareKey(index, key) == 0) {
             // 当 key 恰好为索引值时，key 应该在右孩子的节点上
             return index + 1;
         } else {
@@ -54,9 +98,7 @@ public class BPlusTreeInternalNode<TKey extends Comparable<TKey>> extends BPlusT
             this.setChild(i, this.getChild(i - 1));
         }
 
-        for (int i = this.getKeyCount(); i > index; i--) {
-            this.setKey(i, this.getKey(i - 1));
-        }
+        this.moveKeys(index, index + 1, this.getKeyCount() - index);
 
         // insert the new key
         this.setKey(index, key);
@@ -74,19 +116,18 @@ public class BPlusTreeInternalNode<TKey extends Comparable<TKey>> extends BPlusT
         // TODO Auto-generated method stub
         int midIndex = this.getKeyCount() / 2;
 
-        BPlusTreeInternalNode<TKey> newNode = new BPlusTreeInternalNode<>();
-
-        for (int i = midIndex + 1; i < this.getKeyCount(); i++) {
-            newNode.setKey(i - midIndex - 1, this.getKey(i));
-            this.setKey(i, null);
-        }
+        BPlusTreeInternalNode<TKey> newNode = this.tree.allocateInternalNode();
 
         for (int i = midIndex + 1; i <= this.getKeyCount(); i++) {
             newNode.setChild(i - midIndex - 1, this.getChild(i));
-            newNode.getChild(i - midIndex - 1).setParentNode(newNode);
             this.setChild(i, null);
         }
 
+        newNode.copyKeysFrom(this, midIndex + 1, 0, this.getKeyCount() - midIndex - 1);
+        for (int i = midIndex + 1; i < this.getKeyCount(); i++) {
+            this.setKey(i, null);
+        }
+
         this.setKey(midIndex, null);
         newNode.keyCount = this.getKeyCount() - midIndex - 1;
         this.keyCount = midIndex;
@@ -95,83 +136,94 @@ public class BPlusTreeInternalNode<TKey extends Comparable<TKey>> extends BPlusT
     }
 
     @Override
-    protected BPlusTreeNode<TKey> mergePushUpKey(TKey key, BPlusTreeNode<TKey> leftChild,
-            BPlusTreeNode<TKey> rightChild) {
-        // find the target position of the new key
-        int index = this.bsearch(key);
-
-        // insert the new key
+    protected BPlusTreeNode<TKey> mergePushUpKey(int index, TKey key, BPlusTreeNode<TKey> leftChild,
+            BPlusTreeNode<TKey> rightChild, BPlusTreePath<TKey> path) {
+        // insert the new key next to the split child, at index
         this.insertAt(index, key, leftChild, rightChild);
 
         // check whether current node need to be split
         if (this.isOverflow()) {
-            return this.handleOverflow();
+            return this.handleOverflow(path);
         } else {
-            return this.getParentNode() == null ? this : null;
+            return path.isEmpty() ? this : null;
         }
     }
 
     /* The codes below are used to support delete operation */
     protected void deleteAt(int index) {
-        int i = index;
-        for (i = index; i < this.getKeyCount() - 1; i++) {
-            this.setKey(i, this.getKey(i + 1));
+        int last = this.getKeyCount() - 1;
+
+        for (int i = index; i < last; i++) {
             this.setChild(i + 1, this.getChild(i + 2));
         }
+        this.moveKeys(index + 1, index, last - index);
 
-        this.setKey(i, null);
-        this.setChild(i + 1, null);
+        this.setKey(last, null);
+        this.setChild(last + 1, null);
         this.keyCount -= 1;
     }
 
     @Override
-    protected void transferChildren(BPlusTreeNode<TKey> borrower, BPlusTreeNode<TKey> lender, int borrowIndex) {
+    protected void transferChildren(int borrowerChildIndex, BPlusTreeNode<TKey> borrower, BPlusTreeNode<TKey> lender,
+            int borrowIndex) {
         // TODO Auto-generated method stub
-        int borrowerChildIndex = 0;
-
-        while (borrowerChildIndex < this.getKeyCount() + 1 && this.getChild(borrowerChildIndex) != borrower) {
-            borrowerChildIndex += 1;
-        }
-
-        if (borrowerChildIndex == 0) {
+        // the separator between the borrower and the lender
+        int index = borrowerChildIndex;
+        if (borrowerChildIndex == 0 || this.getChild(borrowerChildIndex - 1) != lender) {
             // borrow a key from right sibling
-            TKey upKey = borrower.transferFromSibling(this.getKey(borrowerChildIndex), lender, borrowIndex);
-            this.setKey(borrowerChildIndex, upKey);
+            TKey upKey = borrower.transferFromSibling(this.getKey(index), lender, borrowIndex);
+            this.setKey(index, upKey);
         } else {
             // borrow a key from left sibling
-            TKey upKey = borrower.transferFromSibling(this.getKey(borrowerChildIndex - 1), lender, borrowIndex);
-            this.setKey(borrowerChildIndex - 1, upKey);
+            index -= 1;
+            TKey upKey = borrower.transferFromSibling(this.getKey(index), lender, borrowIndex);
+            this.setKey(index, upKey);
+        }
+
+        BPlusTreeMetrics metrics = this.tree.metrics;
+        if (metrics != null) {
+            metrics.recordBorrow();
+        }
+        BPlusTreeRecorder recorder = this.tree.recorder;
+        if (recorder != null) {
+            recorder.recordTransfer(BPlusTreeRecorder.Kind.BORROW, this, index);
         }
     }
 
     @Override
-    protected BPlusTreeNode<TKey> fuseChildren(BPlusTreeNode<TKey> leftChild, BPlusTreeNode<TKey> rightChild) {
+    protected BPlusTreeNode<TKey> fuseChildren(int index, BPlusTreeNode<TKey> leftChild,
+            BPlusTreeNode<TKey> rightChild, BPlusTreePath<TKey> path) {
         // TODO Auto-generated method stub
-        int index = 0;
-
-        while (index < this.getKeyCount() && this.getChild(index) != leftChild) {
-            index += 1;
-        }
         TKey sinkKey = this.getKey(index);
 
         // merge two children and the sink key into the left child node
         leftChild.fuseWithSibling(sinkKey, rightChild);
 
-        // remove the sink key, keep the left child and abandon the right child
+        BPlusTreeMetrics metrics = this.tree.metrics;
+        if (metrics != null) {
+            metrics.recordFusion();
+        }
+        BPlusTreeRecorder recorder = this.tree.recorder;
+        if (recorder != null) {
+            recorder.recordFusion(sinkKey, leftChild);
+        }
+
+        // remove the sink key, keep the left child and recycle the right child
         this.deleteAt(index);
+        this.tree.releaseNode(rightChild);
 
         // check whether need to propagate borrow or fusion to parent
         if (this.isUnderflow()) {
-            if (this.getParentNode() == null) {
+            if (path.isEmpty()) {
                 // current node is root, only remove keys or delete the whole root node
                 if (this.getKeyCount() == 0) {
-                    leftChild.setParentNode(null);
+                    this.tree.releaseNode(this);
                     return leftChild;
                 } else {
                     return null;
                 }
             } else {
-                return this.handleUnderflow();
+                return this.handleUnderflow(path);
             }
         }
 
@@ -192,7 +244,9 @@ public class BPlusTreeInternalNode<TKey extends Comparable<TKey>> extends BPlusT
             this.setChild(index + 1, siblingNode.getChild(borrowIndex));
             this.keyCount += 1;
 
+            // remove the first key and the first child of the right sibling
             upKey = siblingNode.getKey(0);
+            siblingNode.setChild(0, siblingNode.getChild(1));
             siblingNode.deleteAt(borrowIndex);
         } else {
             // borrow the last key from left sibling, insert it to head
@@ -212,20 +266,14 @@ public class BPlusTreeInternalNode<TKey extends Comparable<TKey>> extends BPlusT
         int j = this.getKeyCount();
         this.setKey(j++, sinkKey);
 
-        for (int i = 0; i < rightSiblingNode.getKeyCount(); i++) {
-            this.setKey(j + i, rightSiblingNode.getKey(i));
-        }
-
         for (int i = 0; i < rightSiblingNode.getKeyCount() + 1; i++) {
             this.setChild(j + i, rightSiblingNode.getChild(i));
         }
+        this.copyKeysFrom(rightSiblingNode, 0, j, rightSiblingNode.getKeyCount());
 
         this.keyCount += 1 + rightSiblingNode.getKeyCount();
 
         this.setRightSibling(rightSiblingNode.rightSibling);
-        if (rightSiblingNode.rightSibling != null) {
-            rightSiblingNode.rightSibling.setLeftSibling(this);
-        }
     }
 
     /*
@@ -236,26 +284,32 @@ public class BPlusTreeInternalNode<TKey extends Comparable<TKey>> extends BPlusT
      * Typically, the left sibling is checked first (if it exists) and then the
      * right sibling.
      */
-    protected void rotate(BPlusTreeNode<TKey> leafNode) {
-        BPlusTreeNode<TKey> leftSibling = leafNode.getLeftSibling();
-        BPlusTreeNode<TKey> rightSibling = leafNode.getRightSibling();
-
-        int index = 0;
-        while (index < this.getKeyCount() + 1 && this.getChild(index) != leafNode) {
-            index += 1;
-        }
+    protected void rotate(int index, BPlusTreeNode<TKey> leafNode) {
+        // only the siblings under this node can take a key
+        BPlusTreeNode<TKey> leftSibling = (index > 0) ? this.getChild(index - 1) : null;
+        BPlusTreeNode<TKey> rightSibling = (index < this.getKeyCount()) ? this.getChild(index + 1) : null;
 
-        if (leftSibling != null && leftSibling.getParentNode() == this && (!leftSibling.isFull())) {
+        if (leftSibling != null && (!leftSibling.isFull())) {
             // Rotate a key to the left
             leafNode.rotateToSibling(leftSibling);
-            this.setKey(index - 1, this.getChild(index).getKey(0));
-        } else if (rightSibling != null && rightSibling.getParentNode() == this && (!rightSibling.isFull())) {
+            index -= 1;
+        } else if (rightSibling != null && (!rightSibling.isFull())) {
             // Rotate a key to the right
             leafNode.rotateToSibling(rightSibling);
-            this.setKey(index, this.getChild(index + 1).getKey(0));
         } else {
             return;
         }
+        // the separator of the two leaves is the new first key of the right one
+        this.setKey(index, this.getChild(index + 1).getKey(0));
+
+        BPlusTreeMetrics metrics = this.tree.metrics;
+        if (metrics != null) {
+            metrics.recordRotation();
+        }
+        BPlusTreeRecorder recorder = this.tree.recorder;
+        if (recorder != null) {
+            recorder.recordTransfer(BPlusTreeRecorder.Kind.ROTATION, this, index);
+        }
     }
 
     @Override
@@ -267,6 +321,6 @@ public class BPlusTreeInternalNode<TKey extends Comparable<TKey>> extends BPlusT
     @Override
     protected boolean isFull() {
         // TODO Auto-generated method stub
-        return this.getKeyCount() == ORDER;
+        return this.getKeyCount() == this.order;
     }
 }
@@ -1,10 +1,41 @@
 package bplustree;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
 public class BPlusTreeLeafNode<TKey extends Comparable<TKey>, TValue> extends BPlusTreeNode<TKey> {
     private Object[] values;
 
-    public BPlusTreeLeafNode() {
-        this.keys = new Object[ORDER + 1];
-        this.values = new Object[ORDER + 1];
+    public BPlusTreeLeafNode(BPlusTree<TKey, TValue> tree) {
+        super(tree, tree.getLeafOrder());
+        this.keys = new Object[this.order + 1];
+        this.values = new Object[this.order + 1];
+    }
+
+    /**
+     * A leaf may stay less than half full in the relaxed mode,
+     * see BPlusTree.setMergeThreshold().
+     */
+    @Override
+    protected int getMinKeyCount() {
+        return this.tree.getMergeThreshold();
+    }
+
+    /**
+     * A relaxed leaf underflows when it is nearly empty, a key borrowed from a
+     * sibling would only delay the fusion by one deletion.
+     */
+    @Override
+    protected boolean prefersFusion() {
+        return this.getMinKeyCount() < this.order / 2;
+    }
+
+    @Override
+    protected void clear() {
+        super.clear();
+        Arrays.fill(this.keys, null);
+        Arrays.fill(this.values, null);
     }
 
     @SuppressWarnings("unchecked")
@@ -14,6 +45,7 @@ public class BPlusTreeLeafNode<TKey extends Comparable<TKey>, TValue> extends BP
 
     public void setValue(int index, TValue value) {
         this.values[index] = value;
+        this.markDirty();
     }
 
     @Override
@@ -27,7 +59,7 @@ public class BPlusTreeLeafNode<TKey extends Comparable<TKey>, TValue> extends BP
         // TODO Auto-generated method stub
         int index = this.bsearch(key);
 
-        if (this.getKey(index).compareTo(key) == 0) {
+        if (index < this.getKeyCount() && this.compareKey(index, key) == 0) {
             return index;
         } else {
             return -1;
@@ -43,11 +75,9 @@ public class BPlusTreeLeafNode<TKey extends Comparable<TKey>, TValue> extends BP
     public void insert(TKey key, TValue value) {
         int index = this.bsearch(key);
 
-        for (int i = this.getKeyCount() - 1; i >= index; i--) {
-            // move space for the new key
-            this.setKey(i + 1, this.getKey(i));
-            this.setValue(i + 1, this.getValue(i));
-        }
+        // move space for the new key
+        this.moveKeys(index, index + 1, this.getKeyCount() - index);
+        System.arraycopy(this.values, index, this.values, index + 1, this.getKeyCount() - index);
 
         // insert new key and value
         this.setKey(index, key);
@@ -55,20 +85,31 @@ public class BPlusTreeLeafNode<TKey extends Comparable<TKey>, TValue> extends BP
         this.keyCount += 1;
     }
 
+    /**
+     * Any key greater than the last key of the left half and not greater than the
+     * first key of the right half separates them, the tree picks it.
+     */
+    @Override
+    protected TKey getUpKey(int midIndex) {
+        return this.tree.separatorBetween(this.getKey(midIndex - 1), this.getKey(midIndex));
+    }
+
     /**
      * When splits a leaf node, the middle key is kept on new node
      * and be pushed to parent node.
      */
+    @SuppressWarnings("unchecked")
     @Override
     protected BPlusTreeNode<TKey> split() {
         // 分裂当前叶节点
         int midIndex = this.getKeyCount() / 2;
 
-        BPlusTreeLeafNode<TKey, TValue> newNode = new BPlusTreeLeafNode<>();
+        BPlusTreeLeafNode<TKey, TValue> newNode = (BPlusTreeLeafNode<TKey, TValue>) this.tree.allocateLeafNode();
+
+        newNode.copyKeysFrom(this, midIndex, 0, this.getKeyCount() - midIndex);
+        System.arraycopy(this.values, midIndex, newNode.values, 0, this.getKeyCount() - midIndex);
 
         for (int i = midIndex; i < this.getKeyCount(); i++) {
-            newNode.setKey(i - midIndex, this.getKey(i));
-            newNode.setValue(i - midIndex, this.getValue(i));
             this.setKey(i, null);
             this.setValue(i, null);
         }
@@ -79,9 +120,105 @@ public class BPlusTreeLeafNode<TKey extends Comparable<TKey>, TValue> extends BP
         return newNode;
     }
 
+    /**
+     * Merge a run of sorted entries into this leaf, then split it once into as many
+     * leaf nodes as needed instead of splitting on every overflowing key.
+     * The path leads from the root to the parent of this leaf, every root grown
+     * by a push-up is set on the tree at once.
+     */
+    @SuppressWarnings("unchecked")
+    protected void insertAll(List<? extends Map.Entry<TKey, TValue>> entries, int from, int to,
+            BPlusTreePath<TKey> path) {
+        int total = this.getKeyCount() + (to - from);
+
+        if (total <= this.order) {
+            // merge from the tail, every key moves at most once
+            int i = this.getKeyCount() - 1;
+            int j = to - 1;
+
+            for (int w = total - 1; j >= from; w--) {
+                Map.Entry<TKey, TValue> entry = entries.get(j);
+
+                if (i >= 0 && this.compareKey(i, entry.getKey()) > 0) {
+                    this.moveKeys(i, w, 1);
+                    this.setValue(w, this.getValue(i));
+                    i -= 1;
+                } else {
+                    this.setKey(w, entry.getKey());
+                    this.setValue(w, entry.getValue());
+                    j -= 1;
+                }
+            }
+
+            this.keyCount = total;
+            return;
+        }
+
+        Object[] mergedKeys = new Object[total];
+        Object[] mergedValues = new Object[total];
+
+        for (int i = 0, j = from, w = 0; w < total; w++) {
+            if (j >= to || (i < this.getKeyCount() && this.compareKey(i, entries.get(j).getKey()) <= 0)) {
+                mergedKeys[w] = this.getKey(i);
+                mergedValues[w] = this.getValue(i);
+                i += 1;
+            } else {
+                mergedKeys[w] = entries.get(j).getKey();
+                mergedValues[w] = entries.get(j).getValue();
+                j += 1;
+            }
+        }
+
+        // spread the merged entries evenly, so that no new node underflows
+        int nodeCount = (total + this.order - 1) / this.order;
+        BPlusTreeLeafNode<TKey, TValue> node = this;
+        int begin = 0;
+
+        for (int n = 0; n < nodeCount; n++) {
+            int end = begin + total / nodeCount + (n < total % nodeCount ? 1 : 0);
+
+            if (n > 0) {
+                BPlusTreeLeafNode<TKey, TValue> newNode = (BPlusTreeLeafNode<TKey, TValue>) this.tree.allocateLeafNode();
+                newNode.fill(mergedKeys, mergedValues, begin, end);
+
+                if (n > 1) {
+                    // the previous push-up may have split the ancestors, descend again to the node
+                    this.tree.findLeafNode(this.tree.getRoot(), node.getKey(0), path);
+                }
+
+                TKey upKey = this.tree.separatorBetween((TKey) mergedKeys[begin - 1], (TKey) mergedKeys[begin]);
+                node.recordSplit(upKey, newNode);
+                BPlusTreeNode<TKey> root = node.pushUpSibling(upKey, newNode, path);
+                if (root != null) {
+                    this.tree.setRoot(root);
+                }
+                node = newNode;
+            } else {
+                this.fill(mergedKeys, mergedValues, begin, end);
+            }
+
+            begin = end;
+        }
+    }
+
+    protected void fill(Object[] keys, Object[] values, int from, int to) {
+        int count = to - from;
+
+        System.arraycopy(keys, from, this.keys, 0, count);
+        System.arraycopy(values, from, this.values, 0, count);
+        this.markDirty();
+
+        for (int i = count; i < this.getKeyCount(); i++) {
+            this.setKey(i, null);
+            this.setValue(i, null);
+        }
+
+        this.keyCount = count;
+    }
+
     @Override
-    protected BPlusTreeNode<TKey> mergePushUpKey(TKey key, BPlusTreeNode<TKey> leftChild,
-            BPlusTreeNode<TKey> rightNode) {
+    protected BPlusTreeNode<TKey> mergePushUpKey(int index, TKey key, BPlusTreeNode<TKey> leftChild,
+            BPlusTreeNode<TKey> rightNode, BPlusTreePath<TKey> path) {
         throw new UnsupportedOperationException();
     }
 
@@ -98,25 +235,61 @@ public class BPlusTreeLeafNode<TKey extends Comparable<TKey>, TValue> extends BP
         return true;
     }
 
-    private void deleteAt(int index) {
-        int i = index;
-        for (i = index; i < this.getKeyCount() - 1; i++) {
-            this.setKey(i, this.getKey(i + 1));
-            this.setValue(i, this.getValue(i + 1));
+    /**
+     * Delete a run of sorted keys from this leaf in a single compaction pass.
+     * Return the number of deleted keys.
+     */
+    protected int deleteAll(List<TKey> keys, int from, int to) {
+        int w = 0;
+        int j = from;
+
+        for (int i = 0; i < this.getKeyCount(); i++) {
+            while (j < to && this.compareKey(i, keys.get(j)) > 0) {
+                j += 1;
+            }
+
+            if (j < to && this.compareKey(i, keys.get(j)) == 0) {
+                // each key of the batch deletes one entry
+                j += 1;
+            } else {
+                if (w < i) {
+                    this.moveKeys(i, w, 1);
+                    this.setValue(w, this.getValue(i));
+                }
+                w += 1;
+            }
+        }
+
+        int deleted = this.getKeyCount() - w;
+        for (int i = w; i < this.getKeyCount(); i++) {
+            this.setKey(i, null);
+            this.setValue(i, null);
         }
+        this.keyCount = w;
 
-        this.setKey(i, null);
-        this.setValue(i, null);
+        return deleted;
+    }
+
+    protected void deleteAt(int index) {
+        int last = this.getKeyCount() - 1;
+
+        this.moveKeys(index + 1, index, last - index);
+        System.arraycopy(this.values, index + 1, this.values, index, last - index);
+
+        this.setKey(last, null);
+        this.setValue(last, null);
         this.keyCount -= 1;
     }
 
     @Override
-    protected void transferChildren(BPlusTreeNode<TKey> borrower, BPlusTreeNode<TKey> lender, int borrowIndex) {
+    protected void transferChildren(int borrowerIndex, BPlusTreeNode<TKey> borrower, BPlusTreeNode<TKey> lender,
+            int borrowIndex) {
         throw new UnsupportedOperationException();
     }
 
     @Override
-    protected BPlusTreeNode<TKey> fuseChildren(BPlusTreeNode<TKey> leftChild, BPlusTreeNode<TKey> rightChild) {
+    protected BPlusTreeNode<TKey> fuseChildren(int leftIndex, BPlusTreeNode<TKey> leftChild,
+            BPlusTreeNode<TKey> rightChild, BPlusTreePath<TKey> path) {
         throw new UnsupportedOperationException();
     }
 
@@ -141,20 +314,15 @@ public class BPlusTreeLeafNode<TKey extends Comparable<TKey>, TValue> extends BP
 
         int j = this.getKeyCount();
 
-        for (int i = 0; i < siblingLeaf.getKeyCount(); i++) {
-            this.setKey(j + i, siblingLeaf.getKey(i));
-            this.setValue(j + i, siblingLeaf.getValue(i));
-        }
+        this.copyKeysFrom(siblingLeaf, 0, j, siblingLeaf.getKeyCount());
+        System.arraycopy(siblingLeaf.values, 0, this.values, j, siblingLeaf.getKeyCount());
         this.keyCount += siblingLeaf.getKeyCount();
 
         this.setRightSibling(siblingLeaf.rightSibling);
-        if (siblingLeaf.rightSibling != null) {
-            siblingLeaf.rightSibling.setLeftSibling(this);
-        }
     }
 
     @Override
-    protected void rotate(BPlusTreeNode<TKey> leaf) {
+    protected void rotate(int index, BPlusTreeNode<TKey> leaf) {
         // TODO Auto-generated method stub
         throw new UnsupportedOperationException();
     }
@@ -165,7 +333,7 @@ public class BPlusTreeLeafNode<TKey extends Comparable<TKey>, TValue> extends BP
         // TODO Auto-generated method stub
         BPlusTreeLeafNode<TKey, TValue> target = (BPlusTreeLeafNode<TKey, TValue>) to;
 
-        if (this.getKey(0).compareTo(target.getKey(0)) > 0) {
+        if (this.compareKey(0, target.getKey(0)) > 0) {
             // 移到左节点
             target.insert(this.getKey(0), this.getValue(0));
             this.deleteAt(0);
@@ -179,6 +347,6 @@ public class BPlusTreeLeafNode<TKey extends Comparable<TKey>, TValue> extends BP
     @Override
     protected boolean isFull() {
         // TODO Auto-generated method stub
-        return this.getKeyCount() == ORDER;
+        return this.getKeyCount() == this.order;
     }
 }
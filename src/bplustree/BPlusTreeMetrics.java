@@ -0,0 +1,389 @@
+package bplustree;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.atomic.LongAdder;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+/**
+ * Metrics of a BPlusTree: counters of the structural operations, gauges of its
+ * shape and latency histograms of insert(), search() and delete(), and of whole
+ * insertAll() and deleteAll() batches.
+ *
+ * Creating the metrics of a tree starts recording, setEnabled(false) stops it
+ * again, after which the tree only checks a null field per operation.
+ * register() exposes them through the platform MBean server, e.g. to jconsole:
+ * <pre>
+ * BPlusTreeMetrics metrics = new BPlusTreeMetrics(tree);
+ * metrics.register("orders");
+ * </pre>
+ * The gauges walk the tree when they are read, so they are only approximate
+ * while another thread modifies it.
+ */
+public class BPlusTreeMetrics implements BPlusTreeMetricsMBean {
+    private final BPlusTree<?, ?> tree;
+
+    private final LongAdder leafSplits = new LongAdder();
+    private final LongAdder internalSplits = new LongAdder();
+    private final LongAdder rotations = new LongAdder();
+    private final LongAdder borrows = new LongAdder();
+    private final LongAdder fusions = new LongAdder();
+    private final LongAdder deferredRebalances = new LongAdder();
+    private final LongAdder rootChanges = new LongAdder();
+
+    private final LatencyHistogram insertLatency = new LatencyHistogram();
+    private final LatencyHistogram searchLatency = new LatencyHistogram();
+    private final LatencyHistogram deleteLatency = new LatencyHistogram();
+    private final LatencyHistogram insertAllLatency = new LatencyHistogram();
+    private final LatencyHistogram deleteAllLatency = new LatencyHistogram();
+
+    private ObjectName objectName;
+
+    /**
+     * Attach metrics to the tree and start recording.
+     */
+    public BPlusTreeMetrics(BPlusTree<?, ?> tree) {
+        this.tree = tree;
+        this.setEnabled(true);
+    }
+
+    @Override
+    public boolean isEnabled() {
+        return this.tree.metrics == this;
+    }
+
+    @Override
+    public void setEnabled(boolean enabled) {
+        // a plain field, the tree sees the change at its next operations
+        this.tree.metrics = enabled ? this : null;
+    }
+
+    @Override
+    public void reset() {
+        this.leafSplits.reset();
+        this.internalSplits.reset();
+        this.rotations.reset();
+        this.borrows.reset();
+        this.fusions.reset();
+        this.deferredRebalances.reset();
+        this.rootChanges.reset();
+        this.insertLatency.reset();
+        this.searchLatency.reset();
+        this.deleteLatency.reset();
+        this.insertAllLatency.reset();
+        this.deleteAllLatency.reset();
+    }
+
+    /**
+     * Register the metrics in the platform MBean server as
+     * bplustree:type=BPlusTree,name=&lt;name&gt;.
+     */
+    public synchronized ObjectName register(String name) throws JMException {
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+
+        this.unregister();
+        this.objectName = new ObjectName("bplustree:type=BPlusTree,name=" + ObjectName.quote(name));
+        server.registerMBean(this, this.objectName);
+
+        return this.objectName;
+    }
+
+    public synchronized void unregister() throws JMException {
+        if (this.objectName != null) {
+            ManagementFactory.getPlatformMBeanServer().unregisterMBean(this.objectName);
+            this.objectName = null;
+        }
+    }
+
+    /* The codes below are called by the tree while recording */
+
+    void recordSplit(BPlusTreeNodeType nodeType) {
+        if (nodeType == BPlusTreeNodeType.LeafNode) {
+            this.leafSplits.increment();
+        } else {
+            this.internalSplits.increment();
+        }
+    }
+
+    void recordRotation() {
+        this.rotations.increment();
+    }
+
+    void recordBorrow() {
+        this.borrows.increment();
+    }
+
+    void recordFusion() {
+        this.fusions.increment();
+    }
+
+    void recordDeferredRebalance() {
+        this.deferredRebalances.increment();
+    }
+
+    void recordRootChange() {
+        this.rootChanges.increment();
+    }
+
+    void recordInsert(long nanos) {
+        this.insertLatency.record(nanos);
+    }
+
+    void recordSearch(long nanos) {
+        this.searchLatency.record(nanos);
+    }
+
+    void recordDelete(long nanos) {
+        this.deleteLatency.record(nanos);
+    }
+
+    void recordInsertAll(long nanos) {
+        this.insertAllLatency.record(nanos);
+    }
+
+    void recordDeleteAll(long nanos) {
+        this.deleteAllLatency.record(nanos);
+    }
+
+    public LatencyHistogram getInsertLatency() {
+        return this.insertLatency;
+    }
+
+    public LatencyHistogram getSearchLatency() {
+        return this.searchLatency;
+    }
+
+    public LatencyHistogram getDeleteLatency() {
+        return this.deleteLatency;
+    }
+
+    /**
+     * Return the latencies of whole insertAll() batches, whatever their size.
+     */
+    public LatencyHistogram getInsertAllLatency() {
+        return this.insertAllLatency;
+    }
+
+    public LatencyHistogram getDeleteAllLatency() {
+        return this.deleteAllLatency;
+    }
+
+    @Override
+    public long getLeafSplits() {
+        return this.leafSplits.sum();
+    }
+
+    @Override
+    public long getInternalSplits() {
+        return this.internalSplits.sum();
+    }
+
+    @Override
+    public long getRotations() {
+        return this.rotations.sum();
+    }
+
+    @Override
+    public long getBorrows() {
+        return this.borrows.sum();
+    }
+
+    @Override
+    public long getFusions() {
+        return this.fusions.sum();
+    }
+
+    /**
+     * Return the number of deletions which left a leaf less than half full
+     * without borrowing or fusing, see BPlusTree.setMergeThreshold().
+     */
+    @Override
+    public long getDeferredRebalances() {
+        return this.deferredRebalances.sum();
+    }
+
+    @Override
+    public long getRootChanges() {
+        return this.rootChanges.sum();
+    }
+
+    @Override
+    public int getHeight() {
+        return this.tree.getHeight();
+    }
+
+    @Override
+    public long getNodeCount() {
+        return this.walk()[0];
+    }
+
+    /**
+     * Return the number of keys over the number of key slots of every node.
+     */
+    @Override
+    public double getAverageFillFactor() {
+        long[] statistics = this.walk();
+        return statistics[2] == 0 ? 0 : (double) statistics[1] / statistics[2];
+    }
+
+    /**
+     * Return the number of nodes, keys and key slots of the tree.
+     */
+    private long[] walk() {
+        long[] statistics = new long[3];
+        Deque<BPlusTreeNode<?>> stack = new ArrayDeque<>();
+        stack.push(this.tree.getRoot());
+
+        while (!stack.isEmpty()) {
+            BPlusTreeNode<?> node = stack.pop();
+            int keyCount = node.getKeyCount();
+
+            statistics[0] += 1;
+            statistics[1] += keyCount;
+            statistics[2] += node.getOrder();
+
+            if (node.getNodeType() == BPlusTreeNodeType.InternalNode) {
+                BPlusTreeInternalNode<?> internalNode = (BPlusTreeInternalNode<?>) node;
+
+                for (int i = 0; i <= keyCount; i++) {
+                    BPlusTreeNode<?> child = internalNode.getChild(i);
+                    // a concurrent modification may leave a hole
+                    if (child != null) {
+                        stack.push(child);
+                    }
+                }
+            }
+        }
+
+        return statistics;
+    }
+
+    @Override
+    public long getInsertCount() {
+        return this.insertLatency.getCount();
+    }
+
+    @Override
+    public double getInsertMeanNanos() {
+        return this.insertLatency.getMeanNanos();
+    }
+
+    @Override
+    public long getInsertP50Nanos() {
+        return this.insertLatency.getPercentileNanos(50);
+    }
+
+    @Override
+    public long getInsertP99Nanos() {
+        return this.insertLatency.getPercentileNanos(99);
+    }
+
+    @Override
+    public long getInsertMaxNanos() {
+        return this.insertLatency.getMaxNanos();
+    }
+
+    @Override
+    public long getSearchCount() {
+        return this.searchLatency.getCount();
+    }
+
+    @Override
+    public double getSearchMeanNanos() {
+        return this.searchLatency.getMeanNanos();
+    }
+
+    @Override
+    public long getSearchP50Nanos() {
+        return this.searchLatency.getPercentileNanos(50);
+    }
+
+    @Override
+    public long getSearchP99Nanos() {
+        return this.searchLatency.getPercentileNanos(99);
+    }
+
+    @Override
+    public long getSearchMaxNanos() {
+        return this.searchLatency.getMaxNanos();
+    }
+
+    @Override
+    public long getDeleteCount() {
+        return this.deleteLatency.getCount();
+    }
+
+    @Override
+    public double getDeleteMeanNanos() {
+        return this.deleteLatency.getMeanNanos();
+    }
+
+    @Override
+    public long getDeleteP50Nanos() {
+        return this.deleteLatency.getPercentileNanos(50);
+    }
+
+    @Override
+    public long getDeleteP99Nanos() {
+        return this.deleteLatency.getPercentileNanos(99);
+    }
+
+    @Override
+    public long getDeleteMaxNanos() {
+        return this.deleteLatency.getMaxNanos();
+    }
+
+    @Override
+    public long getInsertAllCount() {
+        return this.insertAllLatency.getCount();
+    }
+
+    @Override
+    public double getInsertAllMeanNanos() {
+        return this.insertAllLatency.getMeanNanos();
+    }
+
+    @Override
+    public long getInsertAllP50Nanos() {
+        return this.insertAllLatency.getPercentileNanos(50);
+    }
+
+    @Override
+    public long getInsertAllP99Nanos() {
+        return this.insertAllLatency.getPercentileNanos(99);
+    }
+
+    @Override
+    public long getInsertAllMaxNanos() {
+        return this.insertAllLatency.getMaxNanos();
+    }
+
+    @Override
+    public long getDeleteAllCount() {
+        return this.deleteAllLatency.getCount();
+    }
+
+    @Override
+    public double getDeleteAllMeanNanos() {
+        return this.deleteAllLatency.getMeanNanos();
+    }
+
+    @Override
+    public long getDeleteAllP50Nanos() {
+        return this.deleteAllLatency.getPercentileNanos(50);
+    }
+
+    @Override
+    public long getDeleteAllP99Nanos() {
+        return this.deleteAllLatency.getPercentileNanos(99);
+    }
+
+    @Override
+    public long getDeleteAllMaxNanos() {
+        return this.deleteAllLatency.getMaxNanos();
+    }
+}
@@ -0,0 +1,86 @@
+package bplustree;
+
+/**
+ * The management interface of BPlusTreeMetrics.
+ */
+public interface BPlusTreeMetricsMBean {
+    boolean isEnabled();
+
+    void setEnabled(boolean enabled);
+
+    void reset();
+
+    /* Structural operations */
+    long getLeafSplits();
+
+    long getInternalSplits();
+
+    long getRotations();
+
+    long getBorrows();
+
+    long getFusions();
+
+    long getDeferredRebalances();
+
+    long getRootChanges();
+
+    /* Gauges, computed on demand */
+    int getHeight();
+
+    long getNodeCount();
+
+    double getAverageFillFactor();
+
+    /* Latencies of the operations */
+    long getInsertCount();
+
+    double getInsertMeanNanos();
+
+    long getInsertP50Nanos();
+
+    long getInsertP99Nanos();
+
+    long getInsertMaxNanos();
+
+    long getSearchCount();
+
+    double getSearchMeanNanos();
+
+    long getSearchP50Nanos();
+
+    long getSearchP99Nanos();
+
+    long getSearchMaxNanos();
+
+    long getDeleteCount();
+
+    double getDeleteMeanNanos();
+
+    long getDeleteP50Nanos();
+
+    long getDeleteP99Nanos();
+
+    long getDeleteMaxNanos();
+
+    /* Latencies of whole batches */
+    long getInsertAllCount();
+
+    double getInsertAllMeanNanos();
+
+    long getInsertAllP50Nanos();
+
+    long getInsertAllP99Nanos();
+
+    long getInsertAllMaxNanos();
+
+    long getDeleteAllCount();
+
+    double getDeleteAllMeanNanos();
+
+    long getDeleteAllP50Nanos();
+
+    long getDeleteAllP99Nanos();
+
+    long getDeleteAllMaxNanos();
+}
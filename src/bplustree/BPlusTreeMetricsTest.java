@@ -0,0 +1,201 @@
+package bplustree;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+import org.junit.Test;
+
+public class BPlusTreeMetricsTest {
+    @Test
+    public void testStructuralCounters() {
+        BPlusTree<Integer, Integer> tree = new BPlusTree<>(4);
+        BPlusTreeMetrics metrics = new BPlusTreeMetrics(tree);
+        assertTrue(metrics.isEnabled());
+
+        for (int key = 0; key < 1000; key++) {
+            tree.insert(key, key);
+        }
+        assertTrue(metrics.getLeafSplits() > 0);
+        assertTrue(metrics.getInternalSplits() > 0);
+        // every root split adds a level
+        assertEquals(tree.getHeight() - 1, metrics.getRootChanges());
+        assertEquals(tree.getHeight(), metrics.getHeight());
+
+        // filling the holes of the right halves rotates keys to the left siblings
+        BPlusTree<Integer, Integer> holes = new BPlusTree<>(4);
+        BPlusTreeMetrics holesMetrics = new BPlusTreeMetrics(holes);
+        for (int key = 0; key < 1000; key += 2) {
+            holes.insert(key, key);
+        }
+        for (int key = 1; key < 1000; key += 2) {
+            holes.insert(key, key);
+        }
+        assertTrue(holesMetrics.getRotations() > 0);
+
+        List<Integer> keys = new ArrayList<>();
+        for (int key = 0; key < 1000; key++) {
+            if (key % 4 != 0) {
+                keys.add(key);
+            }
+        }
+        tree.deleteAll(keys);
+        assertTrue(metrics.getBorrows() + metrics.getFusions() > 0);
+        assertTrue(metrics.getAverageFillFactor() > 0 && metrics.getAverageFillFactor() <= 1);
+        assertTrue(metrics.getNodeCount() > 1);
+
+        metrics.reset();
+        assertEquals(0, metrics.getLeafSplits());
+    }
+
+    @Test
+    public void testBatches() {
+        BPlusTree<Integer, Integer> tree = new BPlusTree<>(4);
+        BPlusTreeMetrics metrics = new BPlusTreeMetrics(tree);
+
+        // a single batch grows the tree from one leaf by several levels
+        Map<Integer, Integer> batch = new TreeMap<>();
+        for (int key = 0; key < 200; key++) {
+            batch.put(key, key);
+        }
+        tree.insertAll(batch.entrySet());
+        assertTrue(tree.getHeight() >= 4);
+        assertEquals(tree.getHeight() - 1, metrics.getRootChanges());
+        assertTrue(metrics.getLeafSplits() >= 200 / 4 - 1);
+
+        List<Integer> keys = new ArrayList<>();
+        for (int key = 0; key < 200; key += 3) {
+            keys.add(key);
+        }
+        tree.deleteAll(keys);
+        tree.deleteAll(keys);
+
+        // batches are timed as a whole, apart from the single operations
+        assertEquals(1, metrics.getInsertAllCount());
+        assertEquals(2, metrics.getDeleteAllCount());
+        assertEquals(0, metrics.getInsertCount());
+        assertEquals(0, metrics.getDeleteCount());
+        assertTrue(metrics.getInsertAllP50Nanos() <= metrics.getInsertAllMaxNanos());
+
+        metrics.reset();
+        assertEquals(0, metrics.getInsertAllCount());
+    }
+
+    @Test
+    public void testLatencies() {
+        BPlusTree<Integer, Integer> tree = new BPlusTree<>(8);
+        BPlusTreeMetrics metrics = new BPlusTreeMetrics(tree);
+
+        for (int key = 0; key < 100; key++) {
+            tree.insert(key, key);
+        }
+        for (int key = 0; key < 300; key++) {
+            tree.search(key);
+        }
+        tree.delete(99);
+
+        assertEquals(100, metrics.getInsertCount());
+        assertEquals(300, metrics.getSearchCount());
+        assertEquals(1, metrics.getDeleteCount());
+        assertTrue(metrics.getSearchP50Nanos() <= metrics.getSearchP99Nanos());
+        assertTrue(metrics.getSearchP99Nanos() <= metrics.getSearchMaxNanos());
+
+        // switched off, the tree records nothing
+        metrics.setEnabled(false);
+        assertFalse(metrics.isEnabled());
+        assertNull(tree.getMetrics());
+        tree.insert(100, 100);
+        assertEquals(100, metrics.getInsertCount());
+    }
+
+    @Test
+    public void testRelaxedRebalancing() {
+        long[] restructurings = new long[2];
+
+        for (int relaxed = 0; relaxed < 2; relaxed++) {
+            BPlusTree<Integer, Integer> tree = new BPlusTree<>(16);
+            if (relaxed == 1) {
+                tree.setMergeThreshold(1);
+            }
+            for (int key = 0; key < 10000; key++) {
+                tree.insert(key, key);
+            }
+
+            BPlusTreeMetrics metrics = new BPlusTreeMetrics(tree);
+            Random random = new Random(0);
+
+            // delete a range of keys then insert it again
+            for (int round = 0; round < 50; round++) {
+                int from = random.nextInt(9800);
+                for (int key = from; key < from + 200; key++) {
+                    assertTrue(tree.delete(key));
+                }
+                for (int key = from; key < from + 200; key++) {
+                    tree.insert(key, key);
+                }
+            }
+
+            for (int key = 0; key < 10000; key++) {
+                assertEquals(Integer.valueOf(key), tree.search(key));
+            }
+
+            restructurings[relaxed] = metrics.getLeafSplits() + metrics.getBorrows() + metrics.getFusions();
+            assertEquals(relaxed == 1, metrics.getDeferredRebalances() > 0);
+        }
+
+        assertTrue(restructurings[1] < restructurings[0]);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testMergeThresholdAboveHalf() {
+        new BPlusTree<Integer, Integer>(16).setMergeThreshold(9);
+    }
+
+    @Test
+    public void testHistogramBuckets() {
+        for (long value : new long[] { 0, 1, 7, 8, 9, 15, 16, 1000, 123456789, Long.MAX_VALUE }) {
+            int bucket = LatencyHistogram.bucketOf(value);
+            assertTrue(value <= LatencyHistogram.upperBoundOf(bucket));
+            // a bucket spans at most one eighth of its values
+            assertTrue(LatencyHistogram.upperBoundOf(bucket) - value <= value / 8);
+        }
+
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (int i = 1; i <= 1000; i++) {
+            histogram.record(i * 1000);
+        }
+        long p50 = histogram.getPercentileNanos(50);
+        assertTrue(p50 >= 500000 && p50 <= 500000 * 9 / 8);
+        assertEquals(1000000, histogram.getPercentileNanos(100));
+    }
+
+    @Test
+    public void testMBean() throws JMException {
+        BPlusTree<Integer, Integer> tree = new BPlusTree<>(4);
+        BPlusTreeMetrics metrics = new BPlusTreeMetrics(tree);
+        ObjectName name = metrics.register("test");
+
+        try {
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            for (int key = 0; key < 100; key++) {
+                tree.insert(key, key);
+            }
+
+            assertEquals(100L, server.getAttribute(name, "InsertCount"));
+            assertEquals(tree.getHeight(), server.getAttribute(name, "Height"));
+        } finally {
+            metrics.unregister();
+        }
+    }
+}
@@ -0,0 +1,137 @@
+package bplustree;
+
+import java.util.function.LongConsumer;
+
+/**
+ * A BPlusTree mapping every key to a set of long values, e.g. the row ids of a
+ * secondary index.
+ *
+ * Storing a repeated key as separate entries of a BPlusTree spreads it over
+ * several leaves, and the descent only reaches one of them. Here every key is
+ * stored once and owns a posting list holding its values sorted, so a key with
+ * hundreds of thousands of values still takes a single leaf slot, and its
+ * values are found by one descent and a binary search.
+ */
+public class BPlusTreeMultimap<TKey extends Comparable<TKey>> {
+    private final BPlusTree<TKey, LongPostingList> tree;
+    private long keyCount;
+    private long size;
+
+    public BPlusTreeMultimap() {
+        this(BPlusTree.DEFAULT_ORDER);
+    }
+
+    public BPlusTreeMultimap(int order) {
+        this.tree = new BPlusTree<>(order);
+    }
+
+    /**
+     * Return the number of distinct keys.
+     */
+    public long keyCount() {
+        return this.keyCount;
+    }
+
+    /**
+     * Return the number of key and value pairs.
+     */
+    public long size() {
+        return this.size;
+    }
+
+    /**
+     * Append a value to the values of key, return false if it was already there.
+     */
+    public boolean put(TKey key, long value) {
+        LongPostingList values = this.tree.search(key);
+
+        if (values == null) {
+            this.tree.insert(key, new LongPostingList(value));
+            this.keyCount += 1;
+        } else if (!values.add(value)) {
+            return false;
+        }
+
+        this.size += 1;
+        return true;
+    }
+
+    /**
+     * Remove a value of key, the key is deleted with its last value.
+     * Return false if the value was not there.
+     */
+    public boolean remove(TKey key, long value) {
+        LongPostingList values = this.tree.search(key);
+
+        if (values == null || !values.remove(value)) {
+            return false;
+        }
+
+        if (values.isEmpty()) {
+            this.tree.delete(key);
+            this.keyCount -= 1;
+        }
+
+        this.size -= 1;
+        return true;
+    }
+
+    /**
+     * Remove key and all its values, return the number of values removed.
+     */
+    public int removeAll(TKey key) {
+        LongPostingList values = this.tree.search(key);
+
+        if (values == null) {
+            return 0;
+        }
+
+        this.tree.delete(key);
+        this.keyCount -= 1;
+        this.size -= values.size();
+
+        return values.size();
+    }
+
+    public boolean containsKey(TKey key) {
+        return this.tree.search(key) != null;
+    }
+
+    public boolean contains(TKey key, long value) {
+        LongPostingList values = this.tree.search(key);
+        return values != null && values.contains(value);
+    }
+
+    /**
+     * Return the number of values of key.
+     */
+    public int count(TKey key) {
+        LongPostingList values = this.tree.search(key);
+        return (values == null) ? 0 : values.size();
+    }
+
+    /**
+     * Return the values of key in ascending order, an empty array if there is none.
+     */
+    public long[] get(TKey key) {
+        LongPostingList values = this.tree.search(key);
+        return (values == null) ? new long[0] : values.toArray();
+    }
+
+    /**
+     * Pass the values of key in ascending order to action, without copying them.
+     */
+    public void forEach(TKey key, LongConsumer action) {
+        LongPostingList values = this.tree.search(key);
+
+        if (values != null) {
+            for (int i = 0; i < values.size(); i++) {
+                action.accept(values.get(i));
+            }
+        }
+    }
+
+    BPlusTree<TKey, LongPostingList> getTree() {
+        return this.tree;
+    }
+}
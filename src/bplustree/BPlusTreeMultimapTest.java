@@ -0,0 +1,84 @@
+package bplustree;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+import org.junit.Test;
+
+public class BPlusTreeMultimapTest {
+    @Test
+    public void testRandomOperations() {
+        BPlusTreeMultimap<Integer> multimap = new BPlusTreeMultimap<>(4);
+        TreeMap<Integer, TreeSet<Long>> expected = new TreeMap<>();
+        Random random = new Random(0);
+        long size = 0;
+
+        for (int i = 0; i < 20000; i++) {
+            // a few hot keys and many rare ones
+            int key = random.nextBoolean() ? random.nextInt(5) : random.nextInt(2000);
+            long value = random.nextInt(500);
+            TreeSet<Long> values = expected.computeIfAbsent(key, k -> new TreeSet<>());
+
+            if (random.nextInt(3) == 0) {
+                assertEquals(values.remove(value), multimap.remove(key, value));
+            } else {
+                assertEquals(values.add(value), multimap.put(key, value));
+            }
+            if (values.isEmpty()) {
+                expected.remove(key);
+            }
+        }
+
+        for (Map.Entry<Integer, TreeSet<Long>> entry : expected.entrySet()) {
+            long[] values = entry.getValue().stream().mapToLong(Long::longValue).toArray();
+            assertArrayEquals(values, multimap.get(entry.getKey()));
+            assertEquals(values.length, multimap.count(entry.getKey()));
+            size += values.length;
+        }
+        assertEquals(expected.size(), multimap.keyCount());
+        assertEquals(size, multimap.size());
+        assertEquals(0, multimap.get(-1).length);
+        assertFalse(multimap.containsKey(-1));
+    }
+
+    @Test
+    public void testLongPostingList() {
+        BPlusTreeMultimap<String> multimap = new BPlusTreeMultimap<>(4);
+        int rows = 300000;
+
+        // every key takes one entry of the tree, whatever the number of its values
+        for (long row = 0; row < rows; row++) {
+            multimap.put(row % 3 == 0 ? "red" : "blue", row);
+        }
+        multimap.put("green", 7);
+        assertEquals(3, multimap.keyCount());
+        assertEquals(1, multimap.getTree().getHeight());
+        assertEquals(rows / 3, multimap.count("red"));
+        assertTrue(multimap.contains("red", 3));
+        assertFalse(multimap.contains("red", 4));
+        assertFalse(multimap.put("blue", 1));
+
+        // values added out of order end up sorted
+        multimap.put("green", 3);
+        multimap.put("green", 5);
+        assertArrayEquals(new long[] { 3, 5, 7 }, multimap.get("green"));
+
+        long[] sum = new long[1];
+        multimap.forEach("red", value -> sum[0] += value);
+        assertEquals(3L * (rows / 3) * (rows / 3 - 1) / 2, sum[0]);
+
+        for (long row = 0; row < rows; row += 3) {
+            assertTrue(multimap.remove("red", row));
+        }
+        assertFalse(multimap.containsKey("red"));
+        assertEquals(2 * rows / 3, multimap.removeAll("blue"));
+        assertEquals(1, multimap.keyCount());
+        assertEquals(3, multimap.size());
+    }
+}
@@ -3,22 +3,33 @@ package bplustree;
 abstract class BPlusTreeNode<TKey extends Comparable<TKey>> {
     // https://www.quora.com/What-does-K-extends-comparable-V-mean-in-Java-in-context-of-making-Binary-Search-Trees
 
-    protected final static int ORDER = 4;
+    protected final BPlusTree<TKey, ?> tree;
+    protected final int order;
     protected Object[] keys;
     protected int keyCount;
-    protected BPlusTreeNode<TKey> parentNode;
-    protected BPlusTreeNode<TKey> leftSibling;
     protected BPlusTreeNode<TKey> rightSibling;
 
-    protected BPlusTreeNode() {
+    // 自上次检查点以来是否被修改过，被修改节点的祖先节点也都是 dirty 的
+    protected boolean dirty;
+
+    protected BPlusTreeNode(BPlusTree<TKey, ?> tree, int order) {
+        this.tree = tree;
+        this.order = order;
         this.keyCount = 0;
-        this.parentNode = null;
-        this.leftSibling = null;
         this.rightSibling = null;
+        this.dirty = true;
     }
 
     public int getOrder() {
-        return ORDER;
+        return this.order;
+    }
+
+    /**
+     * The minimum number of keys a non-root node must hold,
+     * both halves of a split node hold at least this many keys.
+     */
+    protected int getMinKeyCount() {
+        return this.order / 2;
     }
 
     public int getKeyCount() {
@@ -32,40 +43,72 @@ abstract class BPlusTreeNode<TKey extends Comparable<TKey>> {
 
     public void setKey(int index, TKey key) {
         this.keys[index] = key;
+        this.markDirty();
     }
 
-    public BPlusTreeNode<TKey> getParentNode() {
-        return parentNode;
+    /**
+     * Compare the key at index with key. Nodes storing their keys compressed
+     * compare them in place, without building the key.
+     */
+    protected int compareKey(int index, TKey key) {
+        return this.getKey(index).compareTo(key);
     }
 
-    public void setParentNode(BPlusTreeNode<TKey> parentNode) {
-        this.parentNode = parentNode;
+    /**
+     * Move length keys from index from to index to, like System.arraycopy(). The
+     * keys are moved as stored, so shifting the keys of a node builds none of them.
+     */
+    protected void moveKeys(int from, int to, int length) {
+        System.arraycopy(this.keys, from, this.keys, to, length);
+        this.markKeysDirty(to, length);
     }
 
-    public BPlusTreeNode<TKey> getLeftSibling() {
-        if (this.leftSibling != null && this.leftSibling.getParentNode() == this.getParentNode()) {
-            return this.leftSibling;
-        }
-
-        return null;
+    /**
+     * Copy length keys of source from index from on to this node from index to on,
+     * source being a node of the same tree and on the same level.
+     */
+    protected void copyKeysFrom(BPlusTreeNode<TKey> source, int from, int to, int length) {
+        System.arraycopy(source.keys, from, this.keys, to, length);
+        this.markKeysDirty(to, length);
     }
 
-    public void setLeftSibling(BPlusTreeNode<TKey> leftSibling) {
-        this.leftSibling = leftSibling;
+    /**
+     * Mark the node as modified once length keys were stored from index on by
+     * moveKeys() or copyKeysFrom().
+     */
+    protected void markKeysDirty(int index, int length) {
+        this.markDirty();
     }
 
-    public BPlusTreeNode<TKey> getRightSibling() {
-        if (this.rightSibling != null && this.rightSibling.getParentNode() == this.getParentNode()) {
-            return this.rightSibling;
-        }
+    /**
+     * Mark the node as modified since the last checkpoint. Splits, merges,
+     * rotations, borrows and value updates all go through setKey(), moveKeys(),
+     * copyKeysFrom(), setValue() or setChild(), which call it. The ancestors are marked by the descent of the
+     * update, see BPlusTree.findLeafNode(), so an incremental checkpoint only
+     * descends into dirty subtrees.
+     */
+    protected void markDirty() {
+        this.dirty = true;
+    }
 
-        return null;
+    public boolean isDirty() {
+        return this.dirty;
     }
 
     public void setRightSibling(BPlusTreeNode<TKey> rightSibling) {
         this.rightSibling = rightSibling;
     }
 
+    /**
+     * Empty the node once the tree does not reference it anymore, so that it can
+     * be reused by a split, see BPlusTreeNodePool.
+     */
+    protected void clear() {
+        this.keyCount = 0;
+        this.rightSibling = null;
+        this.dirty = true;
+    }
+
     protected int bsearch(TKey key) {
         int first = 0;
         int last = this.getKeyCount();
@@ -74,7 +117,7 @@ abstract class BPlusTreeNode<TKey extends Comparable<TKey>> {
             // 返回 [first, last) 内第一个不小于 key 值的位置
             int mid = first + (last - first) / 2;
 
-            if (this.getKey(mid).compareTo(key) < 0) {
+            if (this.compareKey(mid, key) < 0) {
                 first = mid + 1;
             } else {
                 last = mid;
@@ -97,82 +140,150 @@ abstract class BPlusTreeNode<TKey extends Comparable<TKey>> {
 
     /* The codes below are used to support insertion operation */
     public boolean isOverflow() {
-        return this.keyCount >= this.keys.length;
+        return this.keyCount > this.order;
     }
 
-    public BPlusTreeNode<TKey> handleOverflow() {
+    /**
+     * Split this node, the path leads from the root to its parent.
+     * Return the new root if the root changed.
+     */
+    public BPlusTreeNode<TKey> handleOverflow(BPlusTreePath<TKey> path) {
         int midIndex = this.getKeyCount() / 2;
-        TKey upKey = this.getKey(midIndex);
+        TKey upKey = this.getUpKey(midIndex);
 
         BPlusTreeNode<TKey> newNode = this.split();
+        this.recordSplit(upKey, newNode);
 
-        if (this.getParentNode() == null) {
-            this.setParentNode(new BPlusTreeInternalNode<TKey>());
+        return this.pushUpSibling(upKey, newNode, path);
+    }
+
+    /**
+     * Count and trace the split of newNode off this node, once both hold their keys.
+     */
+    protected void recordSplit(TKey upKey, BPlusTreeNode<TKey> newNode) {
+        BPlusTreeMetrics metrics = this.tree.metrics;
+        if (metrics != null) {
+            metrics.recordSplit(this.getNodeType());
+        }
+        BPlusTreeRecorder recorder = this.tree.recorder;
+        if (recorder != null) {
+            recorder.recordSplit(this, upKey, newNode);
         }
-        newNode.setParentNode(this.getParentNode());
+    }
+
+    /**
+     * Return the key pushed up to the parent node when this node is split at midIndex.
+     */
+    protected TKey getUpKey(int midIndex) {
+        return this.getKey(midIndex);
+    }
 
+    /**
+     * Link a node split off from this node as its right sibling, and push up the
+     * key separating them to the parent node, which is created if this node is the root.
+     * The path leads from the root to the parent, which is popped from it.
+     * Return the new root if the root changed.
+     */
+    protected BPlusTreeNode<TKey> pushUpSibling(TKey upKey, BPlusTreeNode<TKey> newNode, BPlusTreePath<TKey> path) {
         // maintain links of sibling nodes
-        newNode.setLeftSibling(this);
         newNode.setRightSibling(this.rightSibling);
-        if (this.getRightSibling() != null) {
-            this.getRightSibling().setLeftSibling(newNode);
-        }
         this.setRightSibling(newNode);
 
+        if (path.isEmpty()) {
+            // the root is split, a new root is grown above it
+            return this.tree.allocateInternalNode().mergePushUpKey(0, upKey, this, newNode, path);
+        }
+
+        BPlusTreeInternalNode<TKey> parentNode = path.getParent();
+        int index = path.getChildIndex();
+        path.pop();
+
         // push up a key to parent internal node
-        return this.getParentNode().mergePushUpKey(upKey, this, newNode);
+        return parentNode.mergePushUpKey(index, upKey, this, newNode, path);
     }
 
     protected abstract BPlusTreeNode<TKey> split();
 
-    protected abstract BPlusTreeNode<TKey> mergePushUpKey(TKey key, BPlusTreeNode<TKey> leftChild,
-            BPlusTreeNode<TKey> rightChild);
+    protected abstract BPlusTreeNode<TKey> mergePushUpKey(int index, TKey key, BPlusTreeNode<TKey> leftChild,
+            BPlusTreeNode<TKey> rightChild, BPlusTreePath<TKey> path);
 
     /* The codes below are used to support deletion operation */
     public boolean isUnderflow() {
-        return this.getKeyCount() < (this.keys.length / 2);
+        return this.getKeyCount() < this.getMinKeyCount();
     }
 
     public boolean canLendAKey() {
-        return this.getKeyCount() > (this.keys.length / 2);
+        return this.getKeyCount() > this.getMinKeyCount();
     }
 
-    public BPlusTreeNode<TKey> handleUnderflow() {
-        if (this.getParentNode() == null) {
+    /**
+     * Refill this node from a sibling under the same parent, the path leads from
+     * the root to the parent. A borrow leaves the path as is, a fusion pops the
+     * parent from it. Return the new root if the root changed.
+     */
+    public BPlusTreeNode<TKey> handleUnderflow(BPlusTreePath<TKey> path) {
+        if (path.isEmpty()) {
             return null;
         }
 
+        BPlusTreeInternalNode<TKey> parentNode = path.getParent();
+        int index = path.getChildIndex();
+
+        BPlusTreeNode<TKey> leftSibling = (index > 0) ? parentNode.getChild(index - 1) : null;
+        BPlusTreeNode<TKey> rightSibling = (index < parentNode.getKeyCount()) ? parentNode.getChild(index + 1) : null;
+
+        if (this.prefersFusion()) {
+            // a borrowed key would be deleted again soon, fuse as soon as both fit in one node
+            if (leftSibling != null && this.getKeyCount() + leftSibling.getKeyCount() <= this.order) {
+                path.pop();
+                return parentNode.fuseChildren(index - 1, leftSibling, this, path);
+            }
+            if (rightSibling != null && this.getKeyCount() + rightSibling.getKeyCount() <= this.order) {
+                path.pop();
+                return parentNode.fuseChildren(index, this, rightSibling, path);
+            }
+        }
+
         // try to borrow a key from sibling
-        BPlusTreeNode<TKey> leftSibling = this.getLeftSibling();
         if (leftSibling != null && leftSibling.canLendAKey()) {
-            this.getParentNode().transferChildren(this, leftSibling, leftSibling.getKeyCount() - 1);
+            parentNode.transferChildren(index, this, leftSibling, leftSibling.getKeyCount() - 1);
             return null;
         }
 
-        BPlusTreeNode<TKey> rightSibling = this.getRightSibling();
         if (rightSibling != null && rightSibling.canLendAKey()) {
-            this.getParentNode().transferChildren(this, rightSibling, 0);
+            parentNode.transferChildren(index, this, rightSibling, 0);
             return null;
         }
 
         // Can not borrow a key from any sibling, then do fusion with sibling
+        path.pop();
         if (leftSibling != null) {
-            return this.getParentNode().fuseChildren(leftSibling, this);
+            return parentNode.fuseChildren(index - 1, leftSibling, this, path);
         } else {
-            return this.getParentNode().fuseChildren(this, rightSibling);
+            return parentNode.fuseChildren(index, this, rightSibling, path);
         }
     }
 
-    protected abstract void transferChildren(BPlusTreeNode<TKey> borrower, BPlusTreeNode<TKey> lender, int borrowIndex);
+    /**
+     * Return whether an underflowing node is fused with a sibling rather than
+     * borrowing from it whenever both fit in one node.
+     */
+    protected boolean prefersFusion() {
+        return false;
+    }
+
+    protected abstract void transferChildren(int borrowerIndex, BPlusTreeNode<TKey> borrower,
+            BPlusTreeNode<TKey> lender, int borrowIndex);
 
     protected abstract TKey transferFromSibling(TKey sinkKey, BPlusTreeNode<TKey> sibling, int borrowIndex);
 
-    protected abstract BPlusTreeNode<TKey> fuseChildren(BPlusTreeNode<TKey> leftChild, BPlusTreeNode<TKey> rightChild);
+    protected abstract BPlusTreeNode<TKey> fuseChildren(int leftIndex, BPlusTreeNode<TKey> leftChild,
+            BPlusTreeNode<TKey> rightChild, BPlusTreePath<TKey> path);
 
     protected abstract void fuseWithSibling(TKey sinkKey, BPlusTreeNode<TKey> rightSibling);
 
     /* The codes below are used to support rotation operation */
-    protected abstract void rotate(BPlusTreeNode<TKey> leaf);
+    protected abstract void rotate(int index, BPlusTreeNode<TKey> leaf);
 
     protected abstract void rotateToSibling(BPlusTreeNode<TKey> to);
 
@@ -0,0 +1,102 @@
+package bplustree;
+
+/**
+ * The nodes abandoned by the fusions and root collapses of a tree, kept to be
+ * reused by the next splits instead of allocating new nodes and arrays. Under a
+ * steady mix of inserts and deletes, splits and fusions balance out and the
+ * updates stop allocating.
+ *
+ * Each kind of node is kept in its own stack, chained through the rightSibling
+ * links, and at most capacity nodes of each kind are kept so that a large
+ * deletion does not pin the memory of the nodes it removed.
+ */
+final class BPlusTreeNodePool<TKey extends Comparable<TKey>> {
+    private BPlusTreeNode<TKey> leaves;
+    private BPlusTreeNode<TKey> internalNodes;
+    private int leafCount;
+    private int internalNodeCount;
+    private int capacity;
+
+    BPlusTreeNodePool(int capacity) {
+        this.capacity = capacity;
+    }
+
+    int getCapacity() {
+        return this.capacity;
+    }
+
+    void setCapacity(int capacity) {
+        this.capacity = capacity;
+
+        while (this.leafCount > capacity) {
+            this.leaves = this.pop(this.leaves);
+            this.leafCount -= 1;
+        }
+
+        while (this.internalNodeCount > capacity) {
+            this.internalNodes = this.pop(this.internalNodes);
+            this.internalNodeCount -= 1;
+        }
+    }
+
+    private BPlusTreeNode<TKey> pop(BPlusTreeNode<TKey> top) {
+        BPlusTreeNode<TKey> next = top.rightSibling;
+        top.rightSibling = null;
+        return next;
+    }
+
+    /**
+     * Return the number of nodes of the given kind waiting to be reused.
+     */
+    int size(BPlusTreeNodeType type) {
+        return (type == BPlusTreeNodeType.LeafNode) ? this.leafCount : this.internalNodeCount;
+    }
+
+    /**
+     * Return an empty leaf, or null if none is pooled.
+     */
+    BPlusTreeNode<TKey> pollLeaf() {
+        BPlusTreeNode<TKey> node = this.leaves;
+
+        if (node != null) {
+            this.leaves = this.pop(node);
+            this.leafCount -= 1;
+        }
+
+        return node;
+    }
+
+    /**
+     * Return an empty internal node, or null if none is pooled.
+     */
+    BPlusTreeNode<TKey> pollInternalNode() {
+        BPlusTreeNode<TKey> node = this.internalNodes;
+
+        if (node != null) {
+            this.internalNodes = this.pop(node);
+            this.internalNodeCount -= 1;
+        }
+
+        return node;
+    }
+
+    /**
+     * Clear a node which is not referenced by the tree anymore and keep it,
+     * unless the pool of its kind is full.
+     */
+    void release(BPlusTreeNode<TKey> node) {
+        if (node.getNodeType() == BPlusTreeNodeType.LeafNode) {
+            if (this.leafCount < this.capacity) {
+                node.clear();
+                node.rightSibling = this.leaves;
+                this.leaves = node;
+                this.leafCount += 1;
+            }
+        } else if (this.internalNodeCount < this.capacity) {
+            node.clear();
+            node.rightSibling = this.internalNodes;
+            this.internalNodes = node;
+            this.internalNodeCount += 1;
+        }
+    }
+}
@@ -0,0 +1,111 @@
+package bplustree;
+
+import java.util.Arrays;
+
+/**
+ * The internal nodes on the way from the root down to a node, together with the
+ * index of the child taken at each of them. Nodes do not point to their parent,
+ * so updates record the path while descending and propagate splits and fusions
+ * back up along it, popping one level each time they move to the parent.
+ *
+ * A tree reuses a single path for all its updates, which are not thread-safe anyway.
+ */
+final class BPlusTreePath<TKey extends Comparable<TKey>> {
+    private BPlusTreeInternalNode<?>[] nodes;
+    private int[] indexes;
+    private int depth;
+
+    BPlusTreePath() {
+        this.nodes = new BPlusTreeInternalNode<?>[8];
+        this.indexes = new int[8];
+        this.depth = 0;
+    }
+
+    void clear() {
+        // 旧的节点引用留在数组中，由下一次下降覆盖
+        this.depth = 0;
+    }
+
+    void push(BPlusTreeInternalNode<TKey> node, int childIndex) {
+        if (this.depth == this.nodes.length) {
+            this.nodes = Arrays.copyOf(this.nodes, this.depth * 2);
+            this.indexes = Arrays.copyOf(this.indexes, this.depth * 2);
+        }
+
+        this.nodes[this.depth] = node;
+        this.indexes[this.depth] = childIndex;
+        this.depth += 1;
+    }
+
+    void pop() {
+        this.depth -= 1;
+    }
+
+    /**
+     * Return the number of internal nodes on the path, the depth of the node below it.
+     */
+    int getDepth() {
+        return this.depth;
+    }
+
+    /**
+     * Return whether the node below the path is the root.
+     */
+    boolean isEmpty() {
+        return this.depth == 0;
+    }
+
+    /**
+     * Return the parent of the node below the path.
+     */
+    @SuppressWarnings("unchecked")
+    BPlusTreeInternalNode<TKey> getParent() {
+        return (BPlusTreeInternalNode<TKey>) this.nodes[this.depth - 1];
+    }
+
+    /**
+     * Return the index of the node below the path among the children of its parent.
+     */
+    int getChildIndex() {
+        return this.indexes[this.depth - 1];
+    }
+
+    /**
+     * Return whether key is less than the smallest separator greater than the keys
+     * routed to the node below the path, that is whether a key not less than the
+     * keys of that node is routed to it as well. The rightmost node of a level has
+     * no such separator. The separator is compared in place, without building it.
+     */
+    @SuppressWarnings("unchecked")
+    boolean isBelowUpperBound(TKey key) {
+        for (int i = this.depth - 1; i >= 0; i--) {
+            BPlusTreeInternalNode<TKey> node = (BPlusTreeInternalNode<TKey>) this.nodes[i];
+
+            if (this.indexes[i] < node.getKeyCount()) {
+                return node.compareKey(this.indexes[i], key) > 0;
+            }
+        }
+
+        return true;
+    }
+
+    /**
+     * Replace the separator bounding leaf, the node below the path, on the left by
+     * the first key of leaf if it equals key. The leaf is the leftmost one of the
+     * subtree on the right of that separator, so its first key is the smallest key
+     * of the subtree. That key is only built if the separator is replaced.
+     */
+    void replaceLowerBound(TKey key, BPlusTreeNode<TKey> leaf) {
+        for (int i = this.depth - 1; i >= 0; i--) {
+            if (this.indexes[i] > 0) {
+                @SuppressWarnings("unchecked")
+                BPlusTreeInternalNode<TKey> node = (BPlusTreeInternalNode<TKey>) this.nodes[i];
+
+                if (node.compareKey(this.indexes[i] - 1, key) == 0) {
+                    node.setKey(this.indexes[i] - 1, leaf.getKey(0));
+                }
+                return;
+            }
+        }
+    }
+}
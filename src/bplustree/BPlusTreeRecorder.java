@@ -0,0 +1,376 @@
+package bplustree;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Locale;
+
+/**
+ * Record the structural changes of a BPlusTree as a trace of compact deltas:
+ * splits, rotations, borrows, fusions and root changes.
+ *
+ * Every event only copies the keys of the nodes it touched, so recording costs
+ * O(order) per structural change and nothing for the other operations. The
+ * last events are kept in a ring of a fixed capacity, a long replay therefore
+ * runs in bounded memory and leaves the trace of its end, e.g. of the split
+ * storm being debugged:
+ * <pre>
+ * BPlusTreeRecorder recorder = new BPlusTreeRecorder(tree, 1000);
+ * replay(tree);
+ * recorder.writeAnimatedSvg(Paths.get("storm.svg"), 500);
+ * </pre>
+ * The trace is written as a text log, as one small SVG picture per event
+ * showing the touched subtree, or as a single animated SVG of these frames.
+ */
+public class BPlusTreeRecorder {
+    public final static int DEFAULT_CAPACITY = 4096;
+
+    private final static int CAPTION_HEIGHT = 20;
+
+    enum Kind {
+        SPLIT("split"), ROTATION("rotate"), BORROW("borrow"), FUSION("fuse"), ROOT_CHANGE("root");
+
+        final String label;
+
+        Kind(String label) {
+            this.label = label;
+        }
+    }
+
+    /**
+     * A structural change, with the keys of the touched nodes once it is done.
+     * left and right are the two nodes around the separator key, right is null
+     * for a fusion, whose separator sank into left, and for a root change, whose
+     * new root is left.
+     */
+    static final class Event {
+        final long sequence;
+        final long operation;
+        final String operationName;
+        final Object operationKey;
+        final Kind kind;
+        final BPlusTreeNodeType nodeType;
+        final Object key;
+        final Object[] left;
+        final Object[] right;
+
+        Event(long sequence, long operation, String operationName, Object operationKey, Kind kind,
+                BPlusTreeNodeType nodeType, Object key, Object[] left, Object[] right) {
+            this.sequence = sequence;
+            this.operation = operation;
+            this.operationName = operationName;
+            this.operationKey = operationKey;
+            this.kind = kind;
+            this.nodeType = nodeType;
+            this.key = key;
+            this.left = left;
+            this.right = right;
+        }
+    }
+
+    private final BPlusTree<?, ?> tree;
+    private final Event[] events;
+    private long eventCount;
+
+    // the tree operation causing the next events
+    private long operation;
+    private String operationName;
+    private Object operationKey;
+
+    public BPlusTreeRecorder(BPlusTree<?, ?> tree) {
+        this(tree, DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Attach a recorder to the tree keeping the last capacity events, and start recording.
+     */
+    public BPlusTreeRecorder(BPlusTree<?, ?> tree, int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("capacity must be positive: " + capacity);
+        }
+
+        this.tree = tree;
+        this.events = new Event[capacity];
+        this.setEnabled(true);
+    }
+
+    public boolean isEnabled() {
+        return this.tree.recorder == this;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.tree.recorder = enabled ? this : null;
+    }
+
+    public int getCapacity() {
+        return this.events.length;
+    }
+
+    /**
+     * Return the number of events recorded since the last clear(), including the
+     * ones overwritten by later events.
+     */
+    public long getEventCount() {
+        return this.eventCount;
+    }
+
+    /**
+     * Return the number of events kept, the last ones recorded.
+     */
+    public int size() {
+        return (int) Math.min(this.eventCount, this.events.length);
+    }
+
+    public void clear() {
+        Arrays.fill(this.events, null);
+        this.eventCount = 0;
+    }
+
+    /**
+     * Return the i-th event kept, from the oldest one.
+     */
+    Event getEvent(int index) {
+        return this.events[(int) ((this.eventCount - this.size() + index) % this.events.length)];
+    }
+
+    /* The codes below are called by the tree while recording */
+
+    void beginOperation(String name, Object key) {
+        this.operation += 1;
+        this.operationName = name;
+        this.operationKey = key;
+    }
+
+    void recordSplit(BPlusTreeNode<?> node, Object upKey, BPlusTreeNode<?> newNode) {
+        this.record(Kind.SPLIT, node.getNodeType(), upKey, copyKeys(node), copyKeys(newNode));
+    }
+
+    /**
+     * Record a rotation or a borrow between the children around the separator
+     * at index in parent, once the separator is updated.
+     */
+    void recordTransfer(Kind kind, BPlusTreeInternalNode<?> parent, int index) {
+        BPlusTreeNode<?> left = parent.getChild(index);
+
+        this.record(kind, left.getNodeType(), parent.getKey(index), copyKeys(left),
+                copyKeys(parent.getChild(index + 1)));
+    }
+
+    void recordFusion(Object sinkKey, BPlusTreeNode<?> node) {
+        this.record(Kind.FUSION, node.getNodeType(), sinkKey, copyKeys(node), null);
+    }
+
+    void recordRootChange(BPlusTreeNode<?> root) {
+        this.record(Kind.ROOT_CHANGE, root.getNodeType(), null, copyKeys(root), null);
+    }
+
+    private void record(Kind kind, BPlusTreeNodeType nodeType, Object key, Object[] left, Object[] right) {
+        this.events[(int) (this.eventCount % this.events.length)] = new Event(this.eventCount, this.operation,
+                this.operationName, this.operationKey, kind, nodeType, key, left, right);
+        this.eventCount += 1;
+    }
+
+    private static Object[] copyKeys(BPlusTreeNode<?> node) {
+        Object[] keys = new Object[node.getKeyCount()];
+
+        for (int i = 0; i < keys.length; i++) {
+            keys[i] = node.getKey(i);
+        }
+
+        return keys;
+    }
+
+    /* The codes below write the trace */
+
+    public void writeLog(Path file) throws IOException {
+        try (Writer writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            this.writeLog(writer);
+        }
+    }
+
+    /**
+     * Write a line per event kept, e.g.
+     * <pre>
+     * 17 op 42 insert(7): split leaf [5, 6] 7 [7, 8, 9]
+     * </pre>
+     * the event number, the number of the operation causing it, then the keys of
+     * the touched nodes around their separator.
+     */
+    public void writeLog(Writer writer) throws IOException {
+        for (int i = 0; i < this.size(); i++) {
+            writer.write(describe(this.getEvent(i)));
+            writer.write('\n');
+        }
+        writer.flush();
+    }
+
+    /**
+     * Write an SVG picture per event kept into directory, named after the event
+     * number, e.g. frame-000017.svg. Return the number of pictures written.
+     */
+    public int writeFrames(Path directory) throws IOException {
+        Files.createDirectories(directory);
+
+        for (int i = 0; i < this.size(); i++) {
+            Event event = this.getEvent(i);
+            Path file = directory.resolve(String.format(Locale.ROOT, "frame-%06d.svg", event.sequence));
+
+            try (Writer writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+                int width = frameWidth(event);
+                BPlusTreeVisualizer.writeSvgHeader(writer, width, frameHeight(), null);
+                writeFrame(writer, event, width);
+                writer.write("</svg>\n");
+            }
+        }
+
+        return this.size();
+    }
+
+    public void writeAnimatedSvg(Path file, int frameMillis) throws IOException {
+        try (Writer writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            this.writeAnimatedSvg(writer, frameMillis);
+        }
+    }
+
+    /**
+     * Write the events kept as a single SVG document showing them in turn, for
+     * frameMillis each, in a loop.
+     */
+    public void writeAnimatedSvg(Writer writer, int frameMillis) throws IOException {
+        if (frameMillis <= 0) {
+            throw new IllegalArgumentException("frameMillis must be positive: " + frameMillis);
+        }
+
+        int count = this.size();
+        int width = 0;
+        for (int i = 0; i < count; i++) {
+            width = Math.max(width, frameWidth(this.getEvent(i)));
+        }
+
+        BPlusTreeVisualizer.writeSvgHeader(writer, width, frameHeight(), null);
+        for (int i = 0; i < count; i++) {
+            // discrete values hold from their key time to the next one
+            writer.write("<g visibility=\"hidden\"><animate attributeName=\"visibility\" values=\"hidden;visible;hidden\""
+                    + " calcMode=\"discrete\" repeatCount=\"indefinite\" dur=\"");
+            writer.write(Long.toString((long) count * frameMillis));
+            writer.write("ms\" keyTimes=\"0;");
+            writer.write(String.format(Locale.ROOT, "%.6f;%.6f", (double) i / count, (double) (i + 1) / count));
+            writer.write("\"/>\n");
+            writeFrame(writer, this.getEvent(i), width);
+            writer.write("</g>\n");
+        }
+        writer.write("</svg>\n");
+        writer.flush();
+    }
+
+    private static String describe(Event event) {
+        StringBuilder builder = new StringBuilder();
+
+        builder.append(event.sequence).append(" op ").append(event.operation).append(' ')
+                .append(event.operationName).append('(').append(event.operationKey).append("): ")
+                .append(event.kind.label).append(' ')
+                .append(event.nodeType == BPlusTreeNodeType.LeafNode ? "leaf" : "internal").append(' ')
+                .append(Arrays.toString(event.left));
+        if (event.key != null) {
+            builder.append(' ').append(event.key);
+        }
+        if (event.right != null) {
+            builder.append(' ').append(Arrays.toString(event.right));
+        }
+
+        return builder.toString();
+    }
+
+    private static int nodeWidth(Object[] keys) {
+        int width = 0;
+
+        for (Object key : keys) {
+            width += BPlusTreeVisualizer.cellWidth(String.valueOf(key));
+        }
+
+        return Math.max(BPlusTreeVisualizer.MIN_CELL_WIDTH, width);
+    }
+
+    private static int frameWidth(Event event) {
+        int width = nodeWidth(event.left);
+        if (event.right != null) {
+            width += BPlusTreeVisualizer.NODE_GAP + nodeWidth(event.right);
+        }
+
+        int captionWidth = describe(event).length() * BPlusTreeVisualizer.CHAR_WIDTH;
+        return Math.max(width, captionWidth) + 2 * BPlusTreeVisualizer.MARGIN;
+    }
+
+    private static int frameHeight() {
+        return 2 * BPlusTreeVisualizer.MARGIN + CAPTION_HEIGHT + 2 * BPlusTreeVisualizer.NODE_HEIGHT
+                + BPlusTreeVisualizer.LEVEL_GAP;
+    }
+
+    /**
+     * Draw an event: the caption, the separator key above the touched nodes, or
+     * the new root alone.
+     */
+    private static void writeFrame(Writer writer, Event event, int width) throws IOException {
+        final int margin = BPlusTreeVisualizer.MARGIN;
+        String group = event.nodeType == BPlusTreeNodeType.LeafNode ? "<g class=\"leaf\">" : "<g>";
+
+        BPlusTreeVisualizer.writeSvgText(writer, width / 2, margin - 4, null, describe(event));
+
+        int top = margin + CAPTION_HEIGHT;
+        int y = top + BPlusTreeVisualizer.NODE_HEIGHT + BPlusTreeVisualizer.LEVEL_GAP;
+        int leftWidth = nodeWidth(event.left);
+        int nodesWidth = leftWidth + ((event.right == null) ? 0
+                : BPlusTreeVisualizer.NODE_GAP + nodeWidth(event.right));
+        int x = (width - nodesWidth) / 2;
+
+        if (event.key == null) {
+            // a new root has no separator above it
+            y = top;
+        } else {
+            String key = String.valueOf(event.key);
+            int keyWidth = BPlusTreeVisualizer.cellWidth(key);
+            int keyX = (width - keyWidth) / 2;
+
+            writer.write(event.kind == Kind.FUSION ? "<g class=\"more\">" : "<g>");
+            BPlusTreeVisualizer.writeSvgRect(writer, keyX, top, keyWidth);
+            BPlusTreeVisualizer.writeSvgText(writer, width / 2, top, null, key);
+            writer.write("</g>\n");
+
+            // the fused node hangs below the middle of the sunk key
+            int bottom = top + BPlusTreeVisualizer.NODE_HEIGHT;
+            int portX = (event.right == null) ? width / 2 : keyX;
+            BPlusTreeVisualizer.writeSvgLine(writer, portX, bottom, x + leftWidth / 2, y, null);
+            if (event.right != null) {
+                int rightX = x + leftWidth + BPlusTreeVisualizer.NODE_GAP;
+                BPlusTreeVisualizer.writeSvgLine(writer, keyX + keyWidth, bottom,
+                        rightX + nodeWidth(event.right) / 2, y, null);
+            }
+        }
+
+        writer.write(group);
+        writeNode(writer, event.left, x, y);
+        if (event.right != null) {
+            writeNode(writer, event.right, x + leftWidth + BPlusTreeVisualizer.NODE_GAP, y);
+        }
+        writer.write("</g>\n");
+    }
+
+    private static void writeNode(Writer writer, Object[] keys, int left, int y) throws IOException {
+        BPlusTreeVisualizer.writeSvgRect(writer, left, y, nodeWidth(keys));
+
+        int x = left;
+        for (int i = 0; i < keys.length; i++) {
+            String key = String.valueOf(keys[i]);
+            int cellWidth = BPlusTreeVisualizer.cellWidth(key);
+
+            if (i > 0) {
+                BPlusTreeVisualizer.writeSvgLine(writer, x, y, x, y + BPlusTreeVisualizer.NODE_HEIGHT, null);
+            }
+            BPlusTreeVisualizer.writeSvgText(writer, x + cellWidth / 2, y, null, key);
+            x += cellWidth;
+        }
+    }
+}
@@ -0,0 +1,156 @@
+package bplustree;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+import java.util.stream.Stream;
+
+import javax.xml.parsers.DocumentBuilderFactory;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.w3c.dom.Element;
+
+public class BPlusTreeRecorderTest {
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void testEvents() {
+        BPlusTree<Integer, Integer> tree = new BPlusTree<>(4);
+        BPlusTreeMetrics metrics = new BPlusTreeMetrics(tree);
+        BPlusTreeRecorder recorder = new BPlusTreeRecorder(tree, 100000);
+        assertTrue(recorder.isEnabled());
+        assertTrue(tree.getRecorder() == recorder);
+
+        Random random = new Random(0);
+        for (int i = 0; i < 3000; i++) {
+            int key = random.nextInt(2000);
+            if (random.nextInt(3) == 0) {
+                tree.delete(key);
+            } else if (tree.search(key) == null) {
+                tree.insert(key, key);
+            }
+        }
+
+        // batches split a leaf into several ones and fuse leaves emptied at once
+        for (int round = 0; round < 40; round++) {
+            Map<Integer, Integer> batch = new TreeMap<>();
+            List<Integer> deleted = new ArrayList<>();
+            for (int i = 0; i < 60; i++) {
+                int key = random.nextInt(2000);
+                if (tree.search(key) == null) {
+                    batch.put(key, key);
+                } else {
+                    deleted.add(key);
+                }
+            }
+
+            if (round % 2 == 0) {
+                tree.insertAll(batch.entrySet());
+            } else {
+                tree.deleteAll(deleted);
+            }
+        }
+
+        // every structural change counted by the metrics is traced
+        Map<BPlusTreeRecorder.Kind, Integer> counts = new EnumMap<>(BPlusTreeRecorder.Kind.class);
+        for (int i = 0; i < recorder.size(); i++) {
+            BPlusTreeRecorder.Event event = recorder.getEvent(i);
+            assertEquals(i, event.sequence);
+            counts.merge(event.kind, 1, Integer::sum);
+
+            // the separator bounds the keys of the nodes around it
+            if (event.right != null) {
+                Integer key = (Integer) event.key;
+                assertTrue(event.left.length == 0 || (Integer) event.left[event.left.length - 1] < key);
+                assertTrue(event.right.length == 0 || (Integer) event.right[0] >= key);
+            }
+        }
+        assertEquals(recorder.getEventCount(), recorder.size());
+        assertEquals(metrics.getLeafSplits() + metrics.getInternalSplits(), (long) counts.get(BPlusTreeRecorder.Kind.SPLIT));
+        assertEquals(metrics.getRotations(), (long) counts.get(BPlusTreeRecorder.Kind.ROTATION));
+        assertEquals(metrics.getBorrows(), (long) counts.get(BPlusTreeRecorder.Kind.BORROW));
+        assertEquals(metrics.getFusions(), (long) counts.get(BPlusTreeRecorder.Kind.FUSION));
+        assertEquals(metrics.getRootChanges(), (long) counts.get(BPlusTreeRecorder.Kind.ROOT_CHANGE));
+
+        recorder.setEnabled(false);
+        assertNull(tree.getRecorder());
+        tree.insertAll(Collections.singletonMap(5000, 5000).entrySet());
+        assertEquals(recorder.size(), recorder.getEventCount());
+    }
+
+    @Test
+    public void testRing() throws IOException {
+        BPlusTree<Integer, Integer> tree = new BPlusTree<>(4);
+        BPlusTreeRecorder recorder = new BPlusTreeRecorder(tree, 10);
+
+        for (int key = 0; key < 1000; key++) {
+            tree.insert(key, key);
+        }
+        assertTrue(recorder.getEventCount() > 10);
+        assertEquals(10, recorder.size());
+
+        // the last events are kept, from the oldest one
+        StringWriter writer = new StringWriter();
+        recorder.writeLog(writer);
+        String[] lines = writer.toString().split("\n");
+        assertEquals(10, lines.length);
+        for (int i = 0; i < lines.length; i++) {
+            assertTrue(lines[i].startsWith((recorder.getEventCount() - 10 + i) + " op "));
+        }
+        assertTrue(lines[9].contains("insert(999): "));
+
+        recorder.clear();
+        assertEquals(0, recorder.size());
+    }
+
+    @Test
+    public void testFrames() throws Exception {
+        BPlusTree<Integer, Integer> tree = new BPlusTree<>(4);
+        BPlusTreeRecorder recorder = new BPlusTreeRecorder(tree, 50);
+
+        for (int key = 0; key < 200; key++) {
+            tree.insert(key, key);
+        }
+        for (int key = 0; key < 200; key += 2) {
+            tree.delete(key);
+        }
+
+        Path directory = folder.newFolder("frames").toPath();
+        assertEquals(50, recorder.writeFrames(directory));
+        try (Stream<Path> files = Files.list(directory)) {
+            assertEquals(50, files.count());
+        }
+
+        // the animation shows every frame in turn
+        StringWriter writer = new StringWriter();
+        recorder.writeAnimatedSvg(writer, 200);
+        Element svg = DocumentBuilderFactory.newInstance().newDocumentBuilder()
+                .parse(new ByteArrayInputStream(writer.toString().getBytes(StandardCharsets.UTF_8)))
+                .getDocumentElement();
+        assertEquals(50, svg.getElementsByTagName("animate").getLength());
+        assertEquals("10000ms", ((Element) svg.getElementsByTagName("animate").item(0)).getAttribute("dur"));
+        assertFalse(writer.toString().contains("null("));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testInvalidCapacity() {
+        new BPlusTreeRecorder(new BPlusTree<Integer, Integer>(), 0);
+    }
+}
@@ -1,9 +1,40 @@
 package bplustree;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+import org.junit.Rule;
 import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
 
 public class BPlusTreeTest {
+    @Rule
+    public TemporaryFolder pictures = new TemporaryFolder();
+
+    /**
+     * Draw the tree as an SVG picture, kept until the test ends.
+     */
+    private void visualize(BPlusTree<?, ?> tree, String pictureName) throws IOException {
+        Path file = this.pictures.newFile(pictureName + ".svg").toPath();
+        tree.visualize(file);
+        assertTrue(new String(Files.readAllBytes(file), StandardCharsets.UTF_8).startsWith("<svg"));
+    }
+
     @Test
-    public void testRotation() {
+    public void testRotation() throws IOException {
         BPlusTree<Integer, String> tree = new BPlusTree<>();
 
         tree.insert(1, "1");
@@ -13,15 +44,15 @@ public class BPlusTreeTest {
         tree.insert(5, "12345");
         tree.insert(6, "123456");
 
-        tree.visualize("rotation-before");
+        visualize(tree, "rotation-before");
 
         tree.insert(7, "1234567");
 
-        tree.visualize("rotation-after");
+        visualize(tree, "rotation-after");
     }
 
     @Test
-    public void testSplitLeafNode() {
+    public void testSplitLeafNode() throws IOException {
         BPlusTree<Integer, String> tree = new BPlusTree<>();
 
         tree.insert(1, "1");
@@ -29,15 +60,15 @@ public class BPlusTreeTest {
         tree.insert(3, "123");
         tree.insert(4, "1234");
 
-        tree.visualize("splitLeafNode-before");
+        visualize(tree, "splitLeafNode-before");
 
         tree.insert(5, "12345");
 
-        tree.visualize("splitLeafNode-after");
+        visualize(tree, "splitLeafNode-after");
     }
 
     @Test
-    public void testSplitInternalNode() {
+    public void testSplitInternalNode() throws IOException {
         BPlusTree<Integer, String> tree = new BPlusTree<>();
 
         tree.insert(1, "1");
@@ -61,15 +92,15 @@ public class BPlusTreeTest {
         tree.insert(19, "123456789");
         tree.insert(20, "123456789");
 
-        tree.visualize("splitInternalNode-before");
+        visualize(tree, "splitInternalNode-before");
 
         tree.insert(21, "123456789");
 
-        tree.visualize("splitInternalNode-after");
+        visualize(tree, "splitInternalNode-after");
     }
 
     @Test
-    public void testDeleteLeafNode() {
+    public void testDeleteLeafNode() throws IOException {
         BPlusTree<Integer, String> tree = new BPlusTree<>();
 
         tree.insert(1, "1");
@@ -78,15 +109,15 @@ public class BPlusTreeTest {
         tree.insert(4, "1234");
         tree.insert(5, "12345");
 
-        tree.visualize("deleteLeafNode-before");
+        visualize(tree, "deleteLeafNode-before");
 
         tree.delete(5);
 
-        tree.visualize("deleteLeafNode-after");
+        visualize(tree, "deleteLeafNode-after");
     }
 
     @Test
-    public void testDeleteIndexNode() {
+    public void testDeleteIndexNode() throws IOException {
         BPlusTree<Integer, String> tree = new BPlusTree<>();
 
         tree.insert(1, "1");
@@ -95,15 +126,15 @@ public class BPlusTreeTest {
         tree.insert(4, "1234");
         tree.insert(5, "12345");
 
-        tree.visualize("deleteIndexNode-before");
+        visualize(tree, "deleteIndexNode-before");
 
         tree.delete(3);
 
-        tree.visualize("deleteIndexNode-after");
+        visualize(tree, "deleteIndexNode-after");
     }
 
     @Test
-    public void testMergeLeafNode() {
+    public void testMergeLeafNode() throws IOException {
         BPlusTree<Integer, String> tree = new BPlusTree<>();
 
         tree.insert(1, "1");
@@ -112,17 +143,15 @@ public class BPlusTreeTest {
         tree.insert(4, "1234");
         tree.insert(5, "12345");
 
-        tree.visualize("mergeLeafNode-before");
+        visualize(tree, "mergeLeafNode-before");
 
         tree.delete(1);
 
-        tree.visualize("mergeLeafNode-after");
+        visualize(tree, "mergeLeafNode-after");
     }
 
     @Test
-    public void testMergeInternalNode() {
-        // 有 bug，原因是删除索引中的 key 时合并两个子节点，一个子节点声明的空间不够用，需要加倍。
-        // 同时也要更改 underflow, overflow, canlendakey 的标准要改变成利用 order 来判断
+    public void testMergeInternalNode() throws IOException {
         BPlusTree<Integer, String> tree = new BPlusTree<>();
 
         tree.insert(1, "1");
@@ -149,10 +178,350 @@ public class BPlusTreeTest {
         tree.insert(22, "123456789");
         tree.insert(23, "123456789");
 
-        tree.visualize("mergeInternalNode-before");
+        visualize(tree, "mergeInternalNode-before");
+
+        assertTrue(tree.delete(20));
+        assertFalse(tree.delete(20));
+
+        visualize(tree, "mergeInternalNode-after");
+
+        for (int i = 1; i <= 23; i++) {
+            assertEquals(i == 20 ? null : "123456789".substring(0, Math.min(i, 9)), tree.search(i));
+        }
+    }
+
+    @Test
+    public void testDeleteInAnyOrder() {
+        Random random = new Random(0);
+
+        for (int pattern = 0; pattern < 3; pattern++) {
+            BPlusTree<Integer, Integer> tree = new BPlusTree<>(4);
+            TreeMap<Integer, Integer> expected = new TreeMap<>();
+            List<Integer> keys = new ArrayList<>();
+
+            for (int key = 0; key < 5000; key++) {
+                tree.insert(key, key);
+                expected.put(key, key);
+                keys.add(key);
+            }
+
+            // ascending, descending and random deletions
+            if (pattern == 1) {
+                Collections.reverse(keys);
+            } else if (pattern == 2) {
+                Collections.shuffle(keys, random);
+            }
+
+            for (int i = 0; i < keys.size(); i++) {
+                assertTrue(tree.delete(keys.get(i)));
+                expected.remove(keys.get(i));
+
+                if (i % 500 == 0) {
+                    for (int key = 0; key < 5000; key++) {
+                        assertEquals(expected.get(key), tree.search(key));
+                    }
+                }
+            }
+
+            assertEquals(1, tree.getHeight());
+            assertFalse(tree.scan(null, null).hasNext());
+        }
+    }
+
+    @Test
+    public void testRelaxedDeleteAll() {
+        // merge nearly empty leaves only, a mid-range threshold and the strict mode
+        for (int mergeThreshold : new int[] { 1, 2, 4 }) {
+            BPlusTree<Integer, Integer> tree = new BPlusTree<>(8);
+            tree.setMergeThreshold(mergeThreshold);
+            TreeMap<Integer, Integer> expected = new TreeMap<>();
+            Random random = new Random(mergeThreshold);
+
+            for (int key = 0; key < 5000; key++) {
+                tree.insert(key, key);
+                expected.put(key, key);
+            }
+
+            for (int round = 0; round < 200; round++) {
+                List<Integer> keys = new ArrayList<>();
+                int from = random.nextInt(5000);
+                for (int i = 0; i < 100; i++) {
+                    keys.add((from + random.nextInt(300)) % 5000);
+                }
+
+                if (round % 3 == 2) {
+                    Map<Integer, Integer> entries = new HashMap<>();
+                    for (Integer key : keys) {
+                        if (!expected.containsKey(key)) {
+                            entries.put(key, round);
+                        }
+                    }
+                    tree.insertAll(entries.entrySet());
+                    expected.putAll(entries);
+                } else {
+                    List<Integer> present = new ArrayList<>();
+                    for (Integer key : new TreeSet<>(keys)) {
+                        if (expected.remove(key) != null) {
+                            present.add(key);
+                        }
+                    }
+                    tree.deleteAll(present);
+                }
+            }
+
+            checkContents(tree, expected);
+        }
+    }
+
+    @Test
+    public void testMergeThresholdRaisedOnPopulatedTree() {
+        for (boolean batched : new boolean[] { false, true }) {
+            BPlusTree<Integer, Integer> tree = new BPlusTree<>(8);
+            tree.setMergeThreshold(1);
+            TreeMap<Integer, Integer> expected = new TreeMap<>();
+            Random random = new Random(3);
+
+            for (int key = 0; key < 5000; key++) {
+                tree.insert(key, key);
+                expected.put(key, key);
+            }
+
+            // thin out the leaves, most of them stay below the strict minimum
+            for (int key = 0; key < 5000; key++) {
+                if (key % 5 != 0) {
+                    tree.delete(key);
+                    expected.remove(key);
+                }
+            }
+
+            // a leaf below the new minimum may fuse with a sibling below it as well
+            tree.setMergeThreshold(4);
+            for (int round = 0; round < 100 && !expected.isEmpty(); round++) {
+                List<Integer> keys = new ArrayList<>();
+                for (Integer key : expected.subMap(random.nextInt(5000), true, 5000, true).keySet()) {
+                    if (keys.size() == 10) {
+                        break;
+                    }
+                    keys.add(key);
+                }
+
+                if (batched) {
+                    tree.deleteAll(keys);
+                } else {
+                    for (Integer key : keys) {
+                        assertTrue(tree.delete(key));
+                    }
+                }
+                expected.keySet().removeAll(keys);
+            }
+
+            checkContents(tree, expected);
+        }
+    }
+
+    /**
+     * Check that the tree holds exactly the entries expected, in order.
+     */
+    private static void checkContents(BPlusTree<Integer, Integer> tree, TreeMap<Integer, Integer> expected) {
+        List<Integer> keys = new ArrayList<>();
+        for (BPlusTreeCursor<Integer, Integer> cursor = tree.scan(null, null); cursor.hasNext();) {
+            keys.add(cursor.next());
+        }
+        assertEquals(new ArrayList<>(expected.keySet()), keys);
+
+        for (Map.Entry<Integer, Integer> entry : expected.entrySet()) {
+            assertEquals(entry.getValue(), tree.search(entry.getKey()));
+        }
+    }
+
+    @Test
+    public void testConfigurableOrder() {
+        BPlusTree<Integer, String> narrowTree = new BPlusTree<>(4);
+        BPlusTree<Integer, String> wideTree = new BPlusTree<>(64, 32);
+
+        for (int i = 0; i < 10000; i++) {
+            narrowTree.insert(i, String.valueOf(i));
+            wideTree.insert(i, String.valueOf(i));
+        }
+
+        for (int i = 0; i < 10000; i++) {
+            assertEquals(String.valueOf(i), wideTree.search(i));
+        }
 
-        tree.delete(20);
+        assertTrue(wideTree.getHeight() < narrowTree.getHeight());
 
-        tree.visualize("mergeInternalNode-after");
+        BPlusTree<Long, String> autoTree = BPlusTree.autoTuned(Long.class, BPlusTree.PAGE_BYTES);
+        assertTrue(autoTree.getLeafOrder() > BPlusTree.DEFAULT_ORDER);
+    }
+
+    @Test
+    public void testScan() {
+        BPlusTree<Integer, String> tree = new BPlusTree<>();
+
+        for (int i = 0; i < 100; i += 2) {
+            tree.insert(i, String.valueOf(i));
+        }
+
+        BPlusTreeCursor<Integer, String> cursor = tree.scan(10, true, 20, true);
+        for (int i = 10; i <= 20; i += 2) {
+            assertTrue(cursor.hasNext());
+            assertEquals(Integer.valueOf(i), cursor.next());
+            assertEquals(String.valueOf(i), cursor.getValue());
+        }
+        assertFalse(cursor.hasNext());
+
+        cursor = tree.scan(10, false, 20, false);
+        int count = 0;
+        while (cursor.hasNext()) {
+            int key = cursor.next();
+            assertTrue(key > 10 && key < 20);
+            count += 1;
+        }
+        assertEquals(4, count);
+
+        cursor = tree.scan(null, null);
+        count = 0;
+        while (cursor.hasNext()) {
+            assertEquals(Integer.valueOf(count * 2), cursor.next());
+            count += 1;
+        }
+        assertEquals(50, count);
+
+        assertFalse(tree.scan(1000, null).hasNext());
+    }
+
+    @Test
+    public void testBulkLoad() throws IOException {
+        TreeMap<Integer, String> entries = new TreeMap<>();
+        for (int i = 0; i < 10000; i++) {
+            entries.put(i * 2, String.valueOf(i));
+        }
+
+        BPlusTree<Integer, String> insertedTree = new BPlusTree<>(8);
+        for (Map.Entry<Integer, String> entry : entries.entrySet()) {
+            insertedTree.insert(entry.getKey(), entry.getValue());
+        }
+
+        BPlusTree<Integer, String> loadedTree = new BPlusTree<>(8);
+        loadedTree.bulkLoad(entries.entrySet().iterator(), 1.0);
+
+        for (int i = 0; i < 20000; i++) {
+            assertEquals(entries.get(i), loadedTree.search(i));
+        }
+        assertTrue(loadedTree.getHeight() < insertedTree.getHeight());
+
+        // the loaded tree keeps working as a regular tree
+        loadedTree.insert(1, "1");
+        loadedTree.insert(19999, "19999");
+        assertEquals("1", loadedTree.search(1));
+        assertEquals("19999", loadedTree.search(19999));
+
+        BPlusTree<Integer, String> smallTree = new BPlusTree<>();
+        smallTree.bulkLoad(entries.headMap(23).entrySet().iterator(), 0.7);
+        visualize(smallTree, "bulkLoad");
+    }
+
+    @Test
+    public void testBatchInsertAndDelete() {
+        BPlusTree<Integer, String> tree = new BPlusTree<>();
+        TreeMap<Integer, String> expected = new TreeMap<>();
+        Random random = new Random(0);
+
+        for (int round = 0; round < 20; round++) {
+            Map<Integer, String> batch = new HashMap<>();
+            for (int i = 0; i < 200; i++) {
+                int key = random.nextInt(5000);
+                if (!expected.containsKey(key)) {
+                    batch.put(key, String.valueOf(key));
+                }
+            }
+            tree.insertAll(batch.entrySet());
+            expected.putAll(batch);
+
+            List<Integer> deleted = new ArrayList<>();
+            for (int i = 0; i < 100; i++) {
+                deleted.add(random.nextInt(5000));
+            }
+            tree.deleteAll(deleted);
+            expected.keySet().removeAll(deleted);
+
+            for (int key = 0; key < 5000; key++) {
+                assertEquals(expected.get(key), tree.search(key));
+            }
+        }
+    }
+
+    @Test
+    public void testNodePool() {
+        BPlusTree<Integer, Integer> tree = new BPlusTree<>(4);
+        BPlusTreeNodePool<Integer> pool = tree.getNodePool();
+        TreeMap<Integer, Integer> expected = new TreeMap<>();
+
+        for (int key = 0; key < 2000; key++) {
+            tree.insert(key, key);
+            expected.put(key, key);
+        }
+        assertEquals(0, pool.size(BPlusTreeNodeType.LeafNode));
+
+        // the fused leaves and internal nodes are kept, up to the capacity
+        for (int key = 0; key < 2000; key++) {
+            if (key % 4 != 0) {
+                tree.delete(key);
+                expected.remove(key);
+            }
+        }
+        assertEquals(BPlusTree.DEFAULT_NODE_POOL_CAPACITY, pool.size(BPlusTreeNodeType.LeafNode));
+        assertTrue(pool.size(BPlusTreeNodeType.InternalNode) > 0);
+
+        // the splits take their nodes from the pool
+        for (int key = 1; key < 400; key += 2) {
+            tree.insert(key, -key);
+            expected.put(key, -key);
+        }
+        assertTrue(pool.size(BPlusTreeNodeType.LeafNode) < BPlusTree.DEFAULT_NODE_POOL_CAPACITY);
+
+        for (int key = 0; key < 2000; key++) {
+            assertEquals(expected.get(key), tree.search(key));
+        }
+
+        tree.setNodePoolCapacity(0);
+        assertEquals(0, pool.size(BPlusTreeNodeType.LeafNode));
+        assertEquals(0, pool.size(BPlusTreeNodeType.InternalNode));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testNegativeNodePoolCapacity() {
+        new BPlusTree<Integer, Integer>(4).setNodePoolCapacity(-1);
+    }
+
+    @Test
+    public void testWriteToReadFrom() throws IOException {
+        Path file = Files.createTempFile("bplustree", ".checkpoint");
+
+        try {
+            BPlusTree<Integer, String> empty = new BPlusTree<>(5, 7);
+            empty.writeTo(file, BPlusTreeCodec.INTEGER, BPlusTreeCodec.STRING);
+            BPlusTree<Integer, String> loaded = BPlusTree.readFrom(file, BPlusTreeCodec.INTEGER, BPlusTreeCodec.STRING);
+            assertEquals(5, loaded.getLeafOrder());
+            assertEquals(7, loaded.getInternalOrder());
+            assertFalse(loaded.scan(null, null).hasNext());
+
+            BPlusTree<Integer, String> tree = new BPlusTree<>(5, 7);
+            for (int key = 0; key < 3000; key += 3) {
+                tree.insert(key, String.valueOf(key));
+            }
+            tree.writeTo(file, BPlusTreeCodec.INTEGER, BPlusTreeCodec.STRING);
+
+            loaded = BPlusTree.readFrom(file, BPlusTreeCodec.INTEGER, BPlusTreeCodec.STRING);
+            for (int key = 0; key < 3000; key++) {
+                assertEquals(key % 3 == 0 ? String.valueOf(key) : null, loaded.search(key));
+            }
+
+            // the loaded tree can be modified as usual
+            loaded.insert(1, "1");
+            assertEquals("1", loaded.search(1));
+        } finally {
+            Files.delete(file);
+        }
     }
 }
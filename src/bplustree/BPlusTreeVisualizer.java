@@ -0,0 +1,543 @@
+package bplustree;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+/**
+ * Draw a BPlusTree as a Graphviz DOT graph or as an SVG picture.
+ *
+ * The tree is walked depth first and every node is written as soon as it is
+ * reached, so the memory used does not depend on the size of the tree and the
+ * output can go to any Writer. The SVG picture is laid out in Java, without
+ * running Graphviz: leaves are put side by side and every internal node is
+ * centered above its children.
+ *
+ * Large trees can be cut down before they are drawn:
+ * <ul>
+ * <li>setSubtree() draws the subtree below a node on the path to a key;</li>
+ * <li>setMaxDepth() stops after a number of levels;</li>
+ * <li>setKeyRange() only follows the children which may hold keys of a range;</li>
+ * <li>setMaxChildren() samples the children of wide nodes evenly.</li>
+ * </ul>
+ * The children left out are summarized by a marker counting them.
+ */
+public class BPlusTreeVisualizer<TKey extends Comparable<TKey>, TValue> {
+    /* Sizes of the SVG layout, in pixels */
+    final static int CHAR_WIDTH = 7;
+    final static int CELL_PADDING = 5;
+    final static int MIN_CELL_WIDTH = 16;
+    final static int NODE_HEIGHT = 22;
+    final static int NODE_GAP = 10;
+    final static int LEVEL_GAP = 50;
+    final static int MARGIN = 10;
+
+    private final BPlusTree<TKey, TValue> tree;
+    private int maxDepth;
+    private int maxChildren;
+    private TKey subtreeKey;
+    private int subtreeDepth;
+    private TKey from;
+    private TKey to;
+
+    // the children drawn below the node being visited at each depth, reused by every node
+    private int[][] selections;
+
+    // state of the current walk
+    private int nextId;
+    private BPlusTreeNode<TKey> previousLeaf;
+    private int previousLeafId;
+
+    // state of the SVG layout: the next free x of the frontier and the anchors of the children per depth
+    private int cursor;
+    private int bottom;
+    private int previousLeafRight;
+    private int[][] anchors;
+    private int[][] anchorPorts;
+    private int[] borders;
+
+    public BPlusTreeVisualizer(BPlusTree<TKey, TValue> tree) {
+        this.tree = tree;
+        this.maxDepth = Integer.MAX_VALUE;
+        this.maxChildren = Integer.MAX_VALUE;
+        this.subtreeDepth = 0;
+        this.selections = new int[0][];
+        this.anchors = new int[0][];
+        this.anchorPorts = new int[0][];
+        this.borders = new int[0];
+    }
+
+    /**
+     * Draw the levels up to maxDepth below the top node, 0 only draws the top node.
+     */
+    public void setMaxDepth(int maxDepth) {
+        if (maxDepth < 0) {
+            throw new IllegalArgumentException("maxDepth must not be negative: " + maxDepth);
+        }
+
+        this.maxDepth = maxDepth;
+    }
+
+    /**
+     * Draw at most maxChildren children of a node, evenly spread and always
+     * including the first and the last one.
+     */
+    public void setMaxChildren(int maxChildren) {
+        if (maxChildren < 2) {
+            throw new IllegalArgumentException("maxChildren must be at least 2: " + maxChildren);
+        }
+
+        this.maxChildren = maxChildren;
+    }
+
+    /**
+     * Draw the subtree rooted at the node depth levels below the root on the
+     * path to key, or at the leaf if the tree is not that high.
+     */
+    public void setSubtree(TKey key, int depth) {
+        if (depth < 0) {
+            throw new IllegalArgumentException("depth must not be negative: " + depth);
+        }
+
+        this.subtreeKey = key;
+        this.subtreeDepth = depth;
+    }
+
+    /**
+     * Only draw the children which may hold keys in [from, to], a null bound is unbounded.
+     */
+    public void setKeyRange(TKey from, TKey to) {
+        this.from = from;
+        this.to = to;
+    }
+
+    public void writeDot(Path file) throws IOException {
+        try (Writer writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            this.writeDot(writer);
+        }
+    }
+
+    public void writeDot(Writer writer) throws IOException {
+        this.reset();
+
+        writer.write("digraph G {\nnode [shape = record];\n\n");
+        this.writeDotNode(writer, this.findTop(), 0);
+        writer.write("}\n");
+        writer.flush();
+    }
+
+    public void writeSvg(Path file) throws IOException {
+        try (Writer writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            this.writeSvg(writer);
+        }
+    }
+
+    /**
+     * Write the picture as a standalone SVG document. The tree is walked twice,
+     * once to measure the picture, then to draw it.
+     */
+    public void writeSvg(Writer writer) throws IOException {
+        BPlusTreeNode<TKey> top = this.findTop();
+
+        this.reset();
+        this.layoutSvgNode(null, top, 0);
+        int width = this.cursor - NODE_GAP + MARGIN;
+        int height = this.bottom + MARGIN;
+
+        this.reset();
+        writeSvgHeader(writer, width, height, null);
+        this.layoutSvgNode(writer, top, 0);
+        writer.write("</svg>\n");
+        writer.flush();
+    }
+
+    private void reset() {
+        this.nextId = 0;
+        this.previousLeaf = null;
+        this.previousLeafId = -1;
+        this.cursor = MARGIN;
+        this.bottom = 0;
+    }
+
+    @SuppressWarnings("unchecked")
+    private BPlusTreeNode<TKey> findTop() {
+        BPlusTreeNode<TKey> node = this.tree.getRoot();
+
+        for (int depth = 0; depth < this.subtreeDepth && node.getNodeType() != BPlusTreeNodeType.LeafNode; depth++) {
+            int index = (this.subtreeKey == null) ? 0 : node.find(this.subtreeKey);
+            node = ((BPlusTreeInternalNode<TKey>) node).getChild(index);
+        }
+
+        return node;
+    }
+
+    /**
+     * Return whether the children of an internal node at depth are drawn.
+     */
+    private boolean isExpanded(BPlusTreeNode<TKey> node, int depth) {
+        return node.getNodeType() != BPlusTreeNodeType.LeafNode && depth < this.maxDepth;
+    }
+
+    /**
+     * Select the children of node drawn at depth, in ascending order, into
+     * selections[depth] and return their number.
+     */
+    private int selectChildren(BPlusTreeInternalNode<TKey> node, int depth) {
+        if (depth >= this.selections.length) {
+            this.selections = Arrays.copyOf(this.selections, depth + 1);
+            this.anchors = Arrays.copyOf(this.anchors, depth + 1);
+            this.anchorPorts = Arrays.copyOf(this.anchorPorts, depth + 1);
+        }
+
+        int childCount = node.getKeyCount() + 1;
+        if (this.selections[depth] == null || this.selections[depth].length < childCount) {
+            this.selections[depth] = new int[childCount];
+            // a marker may precede every child and follow the last one
+            this.anchors[depth] = new int[2 * childCount + 1];
+            this.anchorPorts[depth] = new int[2 * childCount + 1];
+        }
+
+        // child i holds the keys in [key(i - 1), key(i))
+        int first = 0;
+        int last = node.getKeyCount();
+        while (this.from != null && first < last && node.getKey(first).compareTo(this.from) <= 0) {
+            first += 1;
+        }
+        while (this.to != null && last > first && node.getKey(last - 1).compareTo(this.to) > 0) {
+            last -= 1;
+        }
+
+        int[] selection = this.selections[depth];
+        int span = last - first + 1;
+        int count = Math.min(span, this.maxChildren);
+
+        for (int j = 0; j < count; j++) {
+            selection[j] = (count == span) ? first + j : first + (int) ((long) j * (span - 1) / (count - 1));
+        }
+
+        return count;
+    }
+
+    /* The codes below write the DOT graph */
+
+    @SuppressWarnings("unchecked")
+    private int writeDotNode(Writer writer, BPlusTreeNode<TKey> node, int depth) throws IOException {
+        int id = this.nextId++;
+
+        writer.write(Integer.toString(id));
+        writer.write(" [label=\"");
+        if (node.getNodeType() == BPlusTreeNodeType.LeafNode) {
+            this.writeDotCells(writer, node);
+        } else {
+            writer.write("{{");
+            this.writeDotCells(writer, node);
+            writer.write("}|{");
+            for (int i = 0; i <= node.getKeyCount(); i++) {
+                writer.write(i == 0 ? "<p" : "|<p");
+                writer.write(Integer.toString(i));
+                writer.write(">");
+            }
+            writer.write("}}");
+        }
+        writer.write("\"];\n");
+
+        if (node.getNodeType() == BPlusTreeNodeType.LeafNode) {
+            if (this.previousLeaf != null) {
+                // leaves left out in between are shown by a dashed link
+                this.writeDotEdge(writer, this.previousLeafId, -1, id,
+                        this.previousLeaf.rightSibling == node ? "dir=both, constraint=false"
+                                : "dir=both, constraint=false, style=dashed");
+            }
+            this.previousLeaf = node;
+            this.previousLeafId = id;
+        } else if (this.isExpanded(node, depth)) {
+            BPlusTreeInternalNode<TKey> internalNode = (BPlusTreeInternalNode<TKey>) node;
+            int count = this.selectChildren(internalNode, depth);
+            int[] selection = this.selections[depth];
+            int next = 0;
+
+            for (int j = 0; j < count; j++) {
+                int child = selection[j];
+
+                if (child > next) {
+                    this.writeDotMarker(writer, id, next, child - next);
+                }
+
+                int childId = this.writeDotNode(writer, internalNode.getChild(child), depth + 1);
+                this.writeDotEdge(writer, id, child, childId, null);
+                next = child + 1;
+            }
+
+            if (next <= internalNode.getKeyCount()) {
+                this.writeDotMarker(writer, id, next, internalNode.getKeyCount() + 1 - next);
+            }
+        }
+
+        return id;
+    }
+
+    private void writeDotCells(Writer writer, BPlusTreeNode<TKey> node) throws IOException {
+        for (int i = 0; i < node.getKeyCount(); i++) {
+            writer.write(i == 0 ? "<k" : "|<k");
+            writer.write(Integer.toString(i));
+            writer.write("> ");
+            writeEscaped(writer, String.valueOf(node.getKey(i)), "{}|<>\"\\");
+        }
+    }
+
+    private void writeDotMarker(Writer writer, int parentId, int port, int count) throws IOException {
+        int id = this.nextId++;
+
+        writer.write(Integer.toString(id));
+        writer.write(" [shape=plaintext, label=\"+");
+        writer.write(Integer.toString(count));
+        writer.write("\"];\n");
+        this.writeDotEdge(writer, parentId, port, id, "style=dotted");
+    }
+
+    private void writeDotEdge(Writer writer, int fromId, int port, int toId, String attributes) throws IOException {
+        writer.write(Integer.toString(fromId));
+        if (port >= 0) {
+            writer.write(":p");
+            writer.write(Integer.toString(port));
+            writer.write(":s");
+        }
+        writer.write("->");
+        writer.write(Integer.toString(toId));
+        if (attributes != null) {
+            writer.write(" [");
+            writer.write(attributes);
+            writer.write("]");
+        }
+        writer.write(";\n");
+    }
+
+    /* The codes below lay out and write the SVG picture */
+
+    /**
+     * Write the opening tag of an SVG document and the style shared by its
+     * pictures, extended by the rules in style unless it is null.
+     */
+    static void writeSvgHeader(Writer writer, int width, int height, String style) throws IOException {
+        writer.write("<svg xmlns=\"http://www.w3.org/2000/svg\" width=\"");
+        writer.write(Integer.toString(width));
+        writer.write("\" height=\"");
+        writer.write(Integer.toString(height));
+        writer.write("\" viewBox=\"0 0 ");
+        writer.write(Integer.toString(width));
+        writer.write(" ");
+        writer.write(Integer.toString(height));
+        writer.write("\" font-family=\"monospace\" font-size=\"12\">\n");
+        writer.write("<style>rect{fill:#fff;stroke:#333}line{stroke:#333}text{text-anchor:middle}"
+                + ".leaf rect{fill:#eef5ff}.more{fill:#888}.link{stroke-dasharray:2,3}");
+        if (style != null) {
+            writer.write(style);
+        }
+        writer.write("</style>\n");
+    }
+
+    static int cellWidth(String text) {
+        return Math.max(MIN_CELL_WIDTH, text.length() * CHAR_WIDTH + 2 * CELL_PADDING);
+    }
+
+    private int nodeWidth(BPlusTreeNode<TKey> node) {
+        int width = 0;
+
+        for (int i = 0; i < node.getKeyCount(); i++) {
+            width += cellWidth(String.valueOf(node.getKey(i)));
+        }
+
+        return Math.max(MIN_CELL_WIDTH, width);
+    }
+
+    /**
+     * Place a node and the subtree drawn below it, then write them unless writer
+     * is null. Children are placed first, from left to right, so the node can be
+     * centered above them. Return the x of the top center of the node.
+     */
+    @SuppressWarnings("unchecked")
+    private int layoutSvgNode(Writer writer, BPlusTreeNode<TKey> node, int depth) throws IOException {
+        int y = MARGIN + depth * (NODE_HEIGHT + LEVEL_GAP);
+        int width = this.nodeWidth(node);
+        int left = this.cursor;
+        int anchorCount = 0;
+
+        this.bottom = Math.max(this.bottom, y + NODE_HEIGHT);
+
+        if (this.isExpanded(node, depth)) {
+            BPlusTreeInternalNode<TKey> internalNode = (BPlusTreeInternalNode<TKey>) node;
+            int count = this.selectChildren(internalNode, depth);
+            int next = 0;
+
+            for (int j = 0; j < count; j++) {
+                int child = this.selections[depth][j];
+
+                if (child > next) {
+                    this.addAnchor(depth, anchorCount++, next, this.layoutSvgMarker(writer, child - next, depth + 1));
+                }
+
+                int x = this.layoutSvgNode(writer, internalNode.getChild(child), depth + 1);
+                this.addAnchor(depth, anchorCount++, child, x);
+                next = child + 1;
+            }
+
+            if (next <= internalNode.getKeyCount()) {
+                int x = this.layoutSvgMarker(writer, internalNode.getKeyCount() + 1 - next, depth + 1);
+                this.addAnchor(depth, anchorCount++, next, x);
+            }
+
+            // centered above the children, but never over the nodes on its left
+            int center = (this.anchors[depth][0] + this.anchors[depth][anchorCount - 1]) / 2;
+            left = Math.max(left, center - width / 2);
+        }
+
+        this.cursor = Math.max(this.cursor, left + width + NODE_GAP);
+
+        if (writer != null) {
+            this.writeSvgNode(writer, node, left, y, depth, anchorCount);
+        }
+
+        return left + width / 2;
+    }
+
+    private void addAnchor(int depth, int index, int port, int x) {
+        this.anchors[depth][index] = x;
+        this.anchorPorts[depth][index] = port;
+    }
+
+    private int layoutSvgMarker(Writer writer, int count, int depth) throws IOException {
+        String text = "+" + count;
+        int y = MARGIN + depth * (NODE_HEIGHT + LEVEL_GAP);
+        int width = cellWidth(text);
+        int left = this.cursor;
+
+        this.cursor = left + width + NODE_GAP;
+        this.bottom = Math.max(this.bottom, y + NODE_HEIGHT);
+
+        if (writer != null) {
+            writeSvgText(writer, left + width / 2, y, "more", text);
+        }
+
+        return left + width / 2;
+    }
+
+    private void writeSvgNode(Writer writer, BPlusTreeNode<TKey> node, int left, int y, int depth, int anchorCount)
+            throws IOException {
+        boolean leaf = node.getNodeType() == BPlusTreeNodeType.LeafNode;
+        int width = this.nodeWidth(node);
+
+        if (this.borders.length < node.getKeyCount() + 1) {
+            this.borders = new int[node.getKeyCount() + 1];
+        }
+
+        writer.write(leaf ? "<g class=\"leaf\">" : "<g>");
+        writeSvgRect(writer, left, y, width);
+
+        // the key cells, the pointer to child i leaves from the border before key i
+        int x = left;
+        for (int i = 0; i < node.getKeyCount(); i++) {
+            String key = String.valueOf(node.getKey(i));
+            int cellWidth = cellWidth(key);
+
+            if (i > 0) {
+                writeSvgLine(writer, x, y, x, y + NODE_HEIGHT, null);
+            }
+            writeSvgText(writer, x + cellWidth / 2, y, null, key);
+            this.borders[i] = x;
+            x += cellWidth;
+        }
+        this.borders[node.getKeyCount()] = left + width;
+        writer.write("</g>\n");
+
+        int childY = y + NODE_HEIGHT + LEVEL_GAP;
+        for (int k = 0; k < anchorCount; k++) {
+            int portX = this.borders[this.anchorPorts[depth][k]];
+            writeSvgLine(writer, portX, y + NODE_HEIGHT, this.anchors[depth][k], childY, null);
+        }
+
+        if (leaf) {
+            if (this.previousLeaf != null) {
+                writeSvgLine(writer, this.previousLeafRight, y + NODE_HEIGHT / 2, left, y + NODE_HEIGHT / 2,
+                        this.previousLeaf.rightSibling == node ? null : "link");
+            }
+            this.previousLeaf = node;
+            this.previousLeafRight = left + width;
+        }
+    }
+
+    static void writeSvgRect(Writer writer, int x, int y, int width) throws IOException {
+        writer.write("<rect x=\"");
+        writer.write(Integer.toString(x));
+        writer.write("\" y=\"");
+        writer.write(Integer.toString(y));
+        writer.write("\" width=\"");
+        writer.write(Integer.toString(width));
+        writer.write("\" height=\"");
+        writer.write(Integer.toString(NODE_HEIGHT));
+        writer.write("\"/>");
+    }
+
+    static void writeSvgLine(Writer writer, int x1, int y1, int x2, int y2, String cssClass) throws IOException {
+        writer.write("<line x1=\"");
+        writer.write(Integer.toString(x1));
+        writer.write("\" y1=\"");
+        writer.write(Integer.toString(y1));
+        writer.write("\" x2=\"");
+        writer.write(Integer.toString(x2));
+        writer.write("\" y2=\"");
+        writer.write(Integer.toString(y2));
+        if (cssClass != null) {
+            writer.write("\" class=\"");
+            writer.write(cssClass);
+        }
+        writer.write("\"/>");
+    }
+
+    static void writeSvgText(Writer writer, int x, int y, String cssClass, String text) throws IOException {
+        writer.write("<text x=\"");
+        writer.write(Integer.toString(x));
+        writer.write("\" y=\"");
+        writer.write(Integer.toString(y + NODE_HEIGHT / 2 + 4));
+        if (cssClass != null) {
+            writer.write("\" class=\"");
+            writer.write(cssClass);
+        }
+        writer.write("\">");
+        writeEscaped(writer, text, null);
+        writer.write("</text>");
+    }
+
+    /**
+     * Write text, escaping the characters listed in special with a backslash for
+     * DOT, or as XML entities when special is null.
+     */
+    static void writeEscaped(Writer writer, String text, String special) throws IOException {
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+
+            if (special != null) {
+                if (c == '\n') {
+                    writer.write("\\n");
+                    continue;
+                }
+                if (special.indexOf(c) >= 0) {
+                    writer.write('\\');
+                }
+                writer.write(c);
+            } else if (c == '<') {
+                writer.write("&lt;");
+            } else if (c == '>') {
+                writer.write("&gt;");
+            } else if (c == '&') {
+                writer.write("&amp;");
+            } else if (c == '"') {
+                writer.write("&quot;");
+            } else {
+                writer.write(c);
+            }
+        }
+    }
+}
@@ -0,0 +1,172 @@
+package bplustree;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+import java.util.TreeMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import javax.xml.parsers.DocumentBuilderFactory;
+
+import org.junit.Test;
+import org.w3c.dom.Element;
+import org.w3c.dom.NodeList;
+
+public class BPlusTreeVisualizerTest {
+    @Test
+    public void testDot() throws IOException {
+        BPlusTree<Integer, String> tree = randomTree(500);
+        String dot = dot(new BPlusTreeVisualizer<>(tree));
+
+        assertTrue(dot.startsWith("digraph G {"));
+        assertEquals(countNodes(tree.getRoot(), Integer.MAX_VALUE), count(dot, "\\[label="));
+        assertEquals(0, count(dot, "shape=plaintext"));
+
+        // every node but the root has a parent edge, every leaf but the first a sibling link
+        int leaves = countNodes(tree.getRoot(), Integer.MAX_VALUE) - countInternalNodes(tree.getRoot());
+        assertEquals(countNodes(tree.getRoot(), Integer.MAX_VALUE) - 1, count(dot, ":s->"));
+        assertEquals(leaves - 1, count(dot, "dir=both"));
+
+        for (BPlusTreeCursor<Integer, String> cursor = tree.scan(null, null); cursor.hasNext();) {
+            assertTrue(count(dot, "<k\\d+> " + cursor.next() + "[|\"]") > 0);
+        }
+    }
+
+    @Test
+    public void testCutDown() throws IOException {
+        BPlusTree<Integer, String> tree = randomTree(2000);
+        int height = tree.getHeight();
+
+        BPlusTreeVisualizer<Integer, String> visualizer = new BPlusTreeVisualizer<>(tree);
+        visualizer.setMaxDepth(1);
+        assertEquals(countNodes(tree.getRoot(), 1), count(dot(visualizer), "\\[label="));
+
+        // the sampled children plus the markers account for every child
+        visualizer = new BPlusTreeVisualizer<>(tree);
+        visualizer.setMaxDepth(1);
+        visualizer.setMaxChildren(2);
+        String dot = dot(visualizer);
+        assertEquals(3, count(dot, "\\[label="));
+        assertEquals(tree.getRoot().getKeyCount() - 1, sumMarkers(dot));
+
+        // a key range only follows the path to the leaves holding the range
+        visualizer = new BPlusTreeVisualizer<>(tree);
+        visualizer.setKeyRange(5000, 5000);
+        dot = dot(visualizer);
+        assertEquals(height, count(dot, "\\[label="));
+        assertFalse(dot.contains("dir=both"));
+
+        // the subtree below the root on the path to a key
+        visualizer = new BPlusTreeVisualizer<>(tree);
+        visualizer.setSubtree(5000, 1);
+        BPlusTreeNode<Integer> child = ((BPlusTreeInternalNode<Integer>) tree.getRoot())
+                .getChild(tree.getRoot().find(5000));
+        assertEquals(countNodes(child, Integer.MAX_VALUE), count(dot(visualizer), "\\[label="));
+    }
+
+    @Test
+    public void testSvg() throws Exception {
+        BPlusTree<Integer, String> tree = randomTree(300);
+        BPlusTreeVisualizer<Integer, String> visualizer = new BPlusTreeVisualizer<>(tree);
+        StringWriter writer = new StringWriter();
+        visualizer.writeSvg(writer);
+
+        Element svg = DocumentBuilderFactory.newInstance().newDocumentBuilder()
+                .parse(new ByteArrayInputStream(writer.toString().getBytes(StandardCharsets.UTF_8)))
+                .getDocumentElement();
+        int width = Integer.parseInt(svg.getAttribute("width"));
+        NodeList rects = svg.getElementsByTagName("rect");
+        assertEquals(countNodes(tree.getRoot(), Integer.MAX_VALUE), rects.getLength());
+
+        // the nodes of a level do not overlap and fit in the picture
+        TreeMap<Integer, Integer> rightEdges = new TreeMap<>();
+        for (int i = 0; i < rects.getLength(); i++) {
+            Element rect = (Element) rects.item(i);
+            int x = Integer.parseInt(rect.getAttribute("x"));
+            int y = Integer.parseInt(rect.getAttribute("y"));
+            int right = x + Integer.parseInt(rect.getAttribute("width"));
+
+            assertTrue(right <= width);
+            // nodes are written children first, from left to right within a level
+            Integer previousRight = rightEdges.put(y, right);
+            assertTrue(previousRight == null || previousRight < x);
+        }
+        assertEquals(tree.getHeight(), rightEdges.size());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testInvalidMaxChildren() {
+        new BPlusTreeVisualizer<>(new BPlusTree<Integer, String>()).setMaxChildren(1);
+    }
+
+    private static BPlusTree<Integer, String> randomTree(int size) {
+        BPlusTree<Integer, String> tree = new BPlusTree<>(4);
+        Random random = new Random(0);
+
+        for (int i = 0; i < size; i++) {
+            int key = random.nextInt(10000);
+            tree.insert(key, String.valueOf(key));
+        }
+
+        return tree;
+    }
+
+    private static String dot(BPlusTreeVisualizer<Integer, String> visualizer) throws IOException {
+        StringWriter writer = new StringWriter();
+        visualizer.writeDot(writer);
+        return writer.toString();
+    }
+
+    private static int count(String text, String regex) {
+        Matcher matcher = Pattern.compile(regex).matcher(text);
+        int count = 0;
+
+        while (matcher.find()) {
+            count += 1;
+        }
+
+        return count;
+    }
+
+    private static int sumMarkers(String dot) {
+        Matcher matcher = Pattern.compile("shape=plaintext, label=\"\\+(\\d+)\"").matcher(dot);
+        int sum = 0;
+
+        while (matcher.find()) {
+            sum += Integer.parseInt(matcher.group(1));
+        }
+
+        return sum;
+    }
+
+    private static int countNodes(BPlusTreeNode<Integer> node, int depth) {
+        int count = 1;
+
+        if (node.getNodeType() == BPlusTreeNodeType.InternalNode && depth > 0) {
+            for (int i = 0; i <= node.getKeyCount(); i++) {
+                count += countNodes(((BPlusTreeInternalNode<Integer>) node).getChild(i), depth - 1);
+            }
+        }
+
+        return count;
+    }
+
+    private static int countInternalNodes(BPlusTreeNode<Integer> node) {
+        if (node.getNodeType() == BPlusTreeNodeType.LeafNode) {
+            return 0;
+        }
+
+        int count = 1;
+        for (int i = 0; i <= node.getKeyCount(); i++) {
+            count += countInternalNodes(((BPlusTreeInternalNode<Integer>) node).getChild(i));
+        }
+
+        return count;
+    }
+}
@@ -0,0 +1,47 @@
+package bplustree;
+
+/**
+ * A B+ tree with keys normalized into bytes, e.g. composite keys encoded by a
+ * {@link BinaryKey.Encoder}.
+ *
+ * Every node keeps the prefix shared by its keys and the 8 bytes following it
+ * for each key in a long array, so a node search is a search over primitive
+ * longs, which only reads the bytes of a key when their heads are equal,
+ * instead of comparing the fields of key objects one by one. When a leaf is
+ * split, the separator pushed up is the shortest prefix of its first key which
+ * still separates the two halves, found by Arrays.mismatch().
+ *
+ * @see BinaryKeyHeads
+ *
+ * @param <TValue>
+ *            the data type of the value
+ */
+public class BinaryBPlusTree<TValue> extends BPlusTree<BinaryKey, TValue> {
+
+    public BinaryBPlusTree() {
+        this(DEFAULT_ORDER);
+    }
+
+    public BinaryBPlusTree(int order) {
+        this(order, order);
+    }
+
+    public BinaryBPlusTree(int leafOrder, int internalOrder) {
+        super(leafOrder, internalOrder);
+    }
+
+    @Override
+    BPlusTreeLeafNode<BinaryKey, TValue> createLeafNode() {
+        return new BinaryBPlusTreeLeafNode<TValue>(this);
+    }
+
+    @Override
+    BPlusTreeInternalNode<BinaryKey> createInternalNode() {
+        return new BinaryBPlusTreeInternalNode(this);
+    }
+
+    @Override
+    BinaryKey separatorBetween(BinaryKey leftKey, BinaryKey rightKey) {
+        return BinaryKey.separator(leftKey, rightKey);
+    }
+}
@@ -0,0 +1,63 @@
+package bplustree;
+
+/**
+ * An internal node of BinaryBPlusTree, searching the heads of its separators.
+ */
+class BinaryBPlusTreeInternalNode extends BPlusTreeInternalNode<BinaryKey> {
+    private final BinaryKeyHeads heads;
+
+    BinaryBPlusTreeInternalNode(BPlusTree<BinaryKey, ?> tree) {
+        super(tree);
+        this.heads = new BinaryKeyHeads(this.keys.length);
+    }
+
+    @Override
+    protected void clear() {
+        super.clear();
+        this.heads.clear();
+    }
+
+    @Override
+    public void setKey(int index, BinaryKey key) {
+        super.setKey(index, key);
+        this.heads.set(this.keys, index, key);
+    }
+
+    @Override
+    protected void moveKeys(int from, int to, int length) {
+        super.moveKeys(from, to, length);
+        this.heads.move(from, to, length);
+    }
+
+    @Override
+    protected void copyKeysFrom(BPlusTreeNode<BinaryKey> source, int from, int to, int length) {
+        super.copyKeysFrom(source, from, to, length);
+        for (int i = to; i < to + length; i++) {
+            this.heads.set(this.keys, i, (BinaryKey) this.keys[i]);
+        }
+    }
+
+    @Override
+    protected int bsearch(BinaryKey key) {
+        return this.heads.bsearch(this.keys, this.getKeyCount(), key);
+    }
+
+    @Override
+    public int find(BinaryKey key) {
+        int index = this.bsearch(key);
+
+        if (index < this.getKeyCount() && this.heads.matches(this.keys, index, key)) {
+            // 当 key 恰好为索引值时，key 应该在右孩子的节点上
+            return index + 1;
+        } else {
+            return index;
+        }
+    }
+
+    @Override
+    protected BPlusTreeNode<BinaryKey> split() {
+        BPlusTreeNode<BinaryKey> newNode = super.split();
+        this.heads.recompute(this.keys);
+        return newNode;
+    }
+}
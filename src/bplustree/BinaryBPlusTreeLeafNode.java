@@ -0,0 +1,68 @@
+package bplustree;
+
+/**
+ * A leaf node of BinaryBPlusTree, searching the heads of its keys.
+ */
+class BinaryBPlusTreeLeafNode<TValue> extends BPlusTreeLeafNode<BinaryKey, TValue> {
+    private final BinaryKeyHeads heads;
+
+    BinaryBPlusTreeLeafNode(BPlusTree<BinaryKey, TValue> tree) {
+        super(tree);
+        this.heads = new BinaryKeyHeads(this.keys.length);
+    }
+
+    @Override
+    protected void clear() {
+        super.clear();
+        this.heads.clear();
+    }
+
+    @Override
+    public void setKey(int index, BinaryKey key) {
+        super.setKey(index, key);
+        this.heads.set(this.keys, index, key);
+    }
+
+    @Override
+    protected void moveKeys(int from, int to, int length) {
+        super.moveKeys(from, to, length);
+        this.heads.move(from, to, length);
+    }
+
+    @Override
+    protected void copyKeysFrom(BPlusTreeNode<BinaryKey> source, int from, int to, int length) {
+        super.copyKeysFrom(source, from, to, length);
+        for (int i = to; i < to + length; i++) {
+            this.heads.set(this.keys, i, (BinaryKey) this.keys[i]);
+        }
+    }
+
+    @Override
+    protected int bsearch(BinaryKey key) {
+        return this.heads.bsearch(this.keys, this.getKeyCount(), key);
+    }
+
+    @Override
+    public int find(BinaryKey key) {
+        int index = this.bsearch(key);
+
+        if (index < this.getKeyCount() && this.heads.matches(this.keys, index, key)) {
+            return index;
+        } else {
+            return -1;
+        }
+    }
+
+    @Override
+    protected BPlusTreeNode<BinaryKey> split() {
+        BPlusTreeNode<BinaryKey> newNode = super.split();
+        this.heads.recompute(this.keys);
+        return newNode;
+    }
+
+    @Override
+    protected void fill(Object[] keys, Object[] values, int from, int to) {
+        super.fill(keys, values, from, to);
+        this.heads.recompute(this.keys);
+    }
+}
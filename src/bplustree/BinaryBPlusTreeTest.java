@@ -0,0 +1,173 @@
+package bplustree;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.TreeMap;
+
+import org.junit.Test;
+
+public class BinaryBPlusTreeTest {
+    private final static String[] TENANTS = { "", "a", "a\0", "a\0b", "ab", "b", "été", "zz" };
+
+    private static class Row {
+        final String tenant;
+        final long timestamp;
+        final int id;
+
+        Row(Random random) {
+            this.tenant = TENANTS[random.nextInt(TENANTS.length)];
+            this.timestamp = random.nextInt(3) == 0 ? random.nextLong() : random.nextInt(100) - 50;
+            this.id = random.nextInt();
+        }
+
+        BinaryKey encode(BinaryKey.Encoder encoder) {
+            return encoder.reset().writeString(this.tenant).writeLong(this.timestamp).writeInt(this.id).toKey();
+        }
+    }
+
+    @Test
+    public void testEncodingOrder() {
+        Comparator<Row> comparator = Comparator.<Row, String> comparing(row -> row.tenant)
+                .thenComparingLong(row -> row.timestamp).thenComparingInt(row -> row.id);
+        BinaryKey.Encoder encoder = new BinaryKey.Encoder();
+        Random random = new Random(0);
+
+        for (int i = 0; i < 20000; i++) {
+            Row left = new Row(random);
+            Row right = new Row(random);
+            assertEquals(Integer.signum(comparator.compare(left, right)),
+                    Integer.signum(left.encode(encoder).compareTo(right.encode(encoder))));
+        }
+
+        // keys shorter than the cached prefix
+        assertTrue(BinaryKey.of(new byte[] { 1 }).compareTo(BinaryKey.of(new byte[] { 1, 0 })) < 0);
+        assertTrue(BinaryKey.of(new byte[] { 1, 0, 0, 0, 0, 0, 0, 0, 0 }).compareTo(BinaryKey.of(new byte[] { 1 })) > 0);
+        assertTrue(BinaryKey.of(new byte[] { (byte) 0xFF }).compareTo(BinaryKey.of(new byte[] { 1, 2 })) > 0);
+        assertEquals(0, BinaryKey.of(new byte[] { 1, 2 }).compareTo(BinaryKey.of(new byte[] { 1, 2 })));
+    }
+
+    @Test
+    public void testInsertSearchDelete() {
+        BinaryBPlusTree<Integer> tree = new BinaryBPlusTree<>(5);
+        TreeMap<BinaryKey, Integer> expected = new TreeMap<>();
+        BinaryKey.Encoder encoder = new BinaryKey.Encoder();
+        Random random = new Random(0);
+
+        for (int i = 0; i < 20000; i++) {
+            // few distinct keys, so that deletes hit
+            Row row = new Row(random);
+            BinaryKey key = encoder.reset().writeString(row.tenant).writeLong(row.timestamp % 20).toKey();
+
+            if (expected.containsKey(key)) {
+                tree.delete(key);
+                expected.remove(key);
+            } else {
+                tree.insert(key, i);
+                expected.put(key, i);
+            }
+        }
+
+        List<BinaryKey> keys = new ArrayList<>();
+        for (BPlusTreeCursor<BinaryKey, Integer> cursor = tree.scan(null, null); cursor.hasNext();) {
+            keys.add(cursor.next());
+        }
+        assertEquals(new ArrayList<>(expected.keySet()), keys);
+
+        for (BinaryKey key : expected.keySet()) {
+            assertEquals(expected.get(key), tree.search(key));
+        }
+        assertNull(tree.search(encoder.reset().writeString("missing").toKey()));
+    }
+
+    @Test
+    public void testPrefixScan() {
+        BinaryBPlusTree<Integer> tree = new BinaryBPlusTree<>(4);
+        BinaryKey.Encoder encoder = new BinaryKey.Encoder();
+
+        for (int i = 0; i < 3000; i++) {
+            tree.insert(encoder.reset().writeString(TENANTS[i % TENANTS.length]).writeLong(i).toKey(), i);
+        }
+
+        // the rows of tenant "a" only, not of "a\0" or "ab"
+        BinaryKey tenant = encoder.reset().writeString("a").toKey();
+        int count = 0;
+        for (BPlusTreeCursor<BinaryKey, Integer> cursor = tree.scan(tenant, tenant.prefixEnd()); cursor.hasNext();) {
+            cursor.next();
+            assertEquals(1, cursor.getValue() % TENANTS.length);
+            count += 1;
+        }
+        assertEquals(3000 / TENANTS.length, count);
+        assertNull(BinaryKey.of(new byte[] { (byte) 0xFF, (byte) 0xFF }).prefixEnd());
+
+        // separators are truncated to the first byte telling the halves apart
+        BinaryKey left = encoder.reset().writeString("apple").writeLong(1).toKey();
+        BinaryKey right = encoder.reset().writeString("banana").writeLong(2).toKey();
+        BinaryKey separator = BinaryKey.separator(left, right);
+        assertEquals(1, separator.length());
+        assertTrue(left.compareTo(separator) < 0 && separator.compareTo(right) <= 0);
+        assertEquals(right, BinaryKey.separator(right, right));
+    }
+
+    @Test
+    public void testWriteToReadFrom() throws IOException {
+        BinaryBPlusTree<Integer> tree = new BinaryBPlusTree<>(5, 7);
+        TreeMap<BinaryKey, Integer> expected = new TreeMap<>();
+        BinaryKey.Encoder encoder = new BinaryKey.Encoder();
+        Random random = new Random(2);
+
+        for (int i = 0; i < 5000; i++) {
+            BinaryKey key = new Row(random).encode(encoder);
+            tree.insert(key, i);
+            expected.put(key, i);
+        }
+
+        Path file = Files.createTempFile("bplustree", ".checkpoint");
+        try {
+            tree.writeTo(file, BPlusTreeCodec.BINARY_KEY, BPlusTreeCodec.INTEGER);
+            BinaryBPlusTree<Integer> loaded = BPlusTree.readFrom(file, BPlusTreeCodec.BINARY_KEY,
+                    BPlusTreeCodec.INTEGER, BinaryBPlusTree::new);
+            assertEquals(5, loaded.getLeafOrder());
+            assertEquals(7, loaded.getInternalOrder());
+
+            // the keys are loaded into binary nodes, which search them by their heads
+            BPlusTreeNode<BinaryKey> node = loaded.getRoot();
+            while (node.getNodeType() == BPlusTreeNodeType.InternalNode) {
+                assertTrue(node instanceof BinaryBPlusTreeInternalNode);
+                node = ((BPlusTreeInternalNode<BinaryKey>) node).getChild(0);
+            }
+            assertTrue(node instanceof BinaryBPlusTreeLeafNode);
+
+            List<BinaryKey> keys = new ArrayList<>();
+            for (BPlusTreeCursor<BinaryKey, Integer> cursor = loaded.scan(null, null); cursor.hasNext();) {
+                keys.add(cursor.next());
+            }
+            assertEquals(new ArrayList<>(expected.keySet()), keys);
+            for (BinaryKey key : expected.keySet()) {
+                assertEquals(expected.get(key), loaded.search(key));
+            }
+
+            // the loaded tree can be modified as usual
+            for (int i = 0; i < 1000; i++) {
+                BinaryKey key = new Row(random).encode(encoder);
+                loaded.insert(key, -i);
+                expected.put(key, -i);
+                BinaryKey deleted = expected.firstKey();
+                loaded.delete(deleted);
+                expected.remove(deleted);
+            }
+            for (BinaryKey key : expected.keySet()) {
+                assertEquals(expected.get(key), loaded.search(key));
+            }
+        } finally {
+            Files.delete(file);
+        }
+    }
+}
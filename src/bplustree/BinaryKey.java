@@ -0,0 +1,211 @@
+package bplustree;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * A key normalized into bytes whose unsigned lexicographic order is the order of
+ * the key, e.g. a composite key (tenant, timestamp, id) encoded field by field:
+ * <pre>
+ * BinaryKey.Encoder encoder = new BinaryKey.Encoder();
+ * BinaryKey key = encoder.reset().writeString(tenant).writeLong(timestamp).writeLong(id).toKey();
+ * </pre>
+ * Comparing two keys is then a memcmp instead of a comparison field by field.
+ * The first 8 bytes are also kept as an unsigned long, zero padded, so most
+ * comparisons inside a node are decided by a single long comparison without
+ * reading the bytes.
+ */
+public final class BinaryKey implements Comparable<BinaryKey> {
+    private final static int PREFIX_BYTES = 8;
+
+    private final static VarHandle BIG_ENDIAN_LONG = MethodHandles.byteArrayViewVarHandle(long[].class,
+            ByteOrder.BIG_ENDIAN);
+
+    private final byte[] bytes;
+    private final long prefix;
+
+    private BinaryKey(byte[] bytes) {
+        this.bytes = bytes;
+        this.prefix = head(bytes, 0);
+    }
+
+    /**
+     * Wrap bytes already normalized, which must not be modified afterwards.
+     */
+    public static BinaryKey of(byte[] bytes) {
+        return new BinaryKey(bytes);
+    }
+
+    /**
+     * Return the 8 bytes of bytes from offset on as an unsigned big endian long,
+     * zero padded past the end.
+     */
+    static long head(byte[] bytes, int offset) {
+        if (offset + PREFIX_BYTES <= bytes.length) {
+            return (long) BIG_ENDIAN_LONG.get(bytes, offset);
+        }
+
+        long head = 0;
+        for (int i = offset; i < offset + PREFIX_BYTES; i++) {
+            head = (head << 8) | ((i < bytes.length) ? (bytes[i] & 0xFF) : 0);
+        }
+
+        return head;
+    }
+
+    /**
+     * The bytes of the key, not copied, which must not be modified.
+     */
+    byte[] getBytes() {
+        return this.bytes;
+    }
+
+    public int length() {
+        return this.bytes.length;
+    }
+
+    public byte[] toBytes() {
+        return this.bytes.clone();
+    }
+
+    @Override
+    public int compareTo(BinaryKey other) {
+        if (this.prefix != other.prefix) {
+            return Long.compareUnsigned(this.prefix, other.prefix);
+        }
+
+        // 前 8 个字节相同：较短的 key 若不足 8 个字节，则是另一个 key 的前缀
+        int length = this.bytes.length;
+        int otherLength = other.bytes.length;
+        if (length <= PREFIX_BYTES || otherLength <= PREFIX_BYTES) {
+            return Integer.compare(length, otherLength);
+        }
+
+        return Arrays.compareUnsigned(this.bytes, PREFIX_BYTES, length, other.bytes, PREFIX_BYTES, otherLength);
+    }
+
+    /**
+     * Return the shortest prefix of right which is still greater than left.
+     */
+    static BinaryKey separator(BinaryKey left, BinaryKey right) {
+        int length = Arrays.mismatch(left.bytes, right.bytes) + 1;
+        return (length <= 0 || length >= right.bytes.length) ? right
+                : new BinaryKey(Arrays.copyOf(right.bytes, length));
+    }
+
+    /**
+     * Return the smallest key greater than every key starting with this one, or
+     * null if there is none, e.g. the upper bound of a scan over a prefix.
+     */
+    public BinaryKey prefixEnd() {
+        for (int i = this.bytes.length - 1; i >= 0; i--) {
+            if (this.bytes[i] != (byte) 0xFF) {
+                byte[] end = Arrays.copyOf(this.bytes, i + 1);
+                end[i] += 1;
+                return new BinaryKey(end);
+            }
+        }
+
+        return null;
+    }
+
+    @Override
+    public boolean equals(Object other) {
+        return other instanceof BinaryKey && this.prefix == ((BinaryKey) other).prefix
+                && Arrays.equals(this.bytes, ((BinaryKey) other).bytes);
+    }
+
+    @Override
+    public int hashCode() {
+        return Arrays.hashCode(this.bytes);
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder builder = new StringBuilder(2 * this.bytes.length);
+
+        for (byte b : this.bytes) {
+            builder.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+        }
+
+        return builder.toString();
+    }
+
+    /**
+     * Normalize the fields of a composite key, in order, into a BinaryKey. An
+     * encoder is reused across keys by reset(), so encoding a key only
+     * allocates the key itself.
+     */
+    public static final class Encoder {
+        private byte[] buffer = new byte[32];
+        private int length;
+
+        public Encoder reset() {
+            this.length = 0;
+            return this;
+        }
+
+        /**
+         * Write an int as 4 big endian bytes with the sign bit flipped, so negative
+         * values sort first.
+         */
+        public Encoder writeInt(int value) {
+            this.ensureCapacity(4);
+            int bits = value ^ Integer.MIN_VALUE;
+            for (int shift = 24; shift >= 0; shift -= 8) {
+                this.buffer[this.length++] = (byte) (bits >>> shift);
+            }
+            return this;
+        }
+
+        public Encoder writeLong(long value) {
+            this.ensureCapacity(8);
+            long bits = value ^ Long.MIN_VALUE;
+            for (int shift = 56; shift >= 0; shift -= 8) {
+                this.buffer[this.length++] = (byte) (bits >>> shift);
+            }
+            return this;
+        }
+
+        /**
+         * Write a string as UTF-8, ordered by code points, which differs from
+         * String.compareTo() only for supplementary characters.
+         *
+         * @see #writeBytes(byte[])
+         */
+        public Encoder writeString(String value) {
+            return this.writeBytes(value.getBytes(StandardCharsets.UTF_8));
+        }
+
+        /**
+         * Write a variable length field which may be followed by other fields: a 0
+         * byte is escaped as 0x00 0xFF and the field ends with 0x00 0x01, so a
+         * field sorts before the longer fields it is a prefix of, whatever follows.
+         */
+        public Encoder writeBytes(byte[] value) {
+            this.ensureCapacity(2 * value.length + 2);
+            for (byte b : value) {
+                this.buffer[this.length++] = b;
+                if (b == 0) {
+                    this.buffer[this.length++] = (byte) 0xFF;
+                }
+            }
+            this.buffer[this.length++] = 0;
+            this.buffer[this.length++] = 1;
+            return this;
+        }
+
+        public BinaryKey toKey() {
+            return new BinaryKey(Arrays.copyOf(this.buffer, this.length));
+        }
+
+        private void ensureCapacity(int extra) {
+            if (this.length + extra > this.buffer.length) {
+                this.buffer = Arrays.copyOf(this.buffer, Math.max(2 * this.buffer.length, this.length + extra));
+            }
+        }
+    }
+}
@@ -0,0 +1,145 @@
+package bplustree;
+
+import java.util.Arrays;
+
+/**
+ * The heads of the keys of a BinaryBPlusTree node: the prefix shared by all its
+ * keys, and for every key the 8 bytes following that prefix as a long.
+ *
+ * A search compares the head of the searched key with the heads, which sit in
+ * one primitive array, and only reads the bytes of a key when their heads are
+ * equal. The prefix only shrinks as keys are stored, when a key does not share
+ * it every head is computed again, and recompute() tightens it once the node
+ * lost keys, e.g. after a split.
+ */
+final class BinaryKeyHeads {
+    private final long[] heads;
+    // null until the first key is stored
+    private byte[] prefix;
+
+    BinaryKeyHeads(int capacity) {
+        this.heads = new long[capacity];
+    }
+
+    void clear() {
+        Arrays.fill(this.heads, 0);
+        this.prefix = null;
+    }
+
+    /**
+     * Update the head of keys[index], which was just set to key.
+     */
+    void set(Object[] keys, int index, BinaryKey key) {
+        if (key == null) {
+            this.heads[index] = 0;
+            return;
+        }
+
+        byte[] bytes = key.getBytes();
+        if (this.prefix == null) {
+            this.prefix = bytes;
+        } else {
+            int length = Math.min(this.prefix.length, bytes.length);
+            int mismatch = Arrays.mismatch(this.prefix, 0, length, bytes, 0, length);
+
+            if (mismatch >= 0 || length < this.prefix.length) {
+                // 新 key 不共享当前前缀，缩短前缀并重新计算所有 head
+                this.prefix = Arrays.copyOf(this.prefix, (mismatch >= 0) ? mismatch : length);
+                this.rebuild(keys);
+                return;
+            }
+        }
+
+        this.heads[index] = headOf(bytes, this.prefix.length);
+    }
+
+    /**
+     * Move length heads from index from to index to, as the keys were moved.
+     */
+    void move(int from, int to, int length) {
+        System.arraycopy(this.heads, from, this.heads, to, length);
+    }
+
+    /**
+     * Compute the prefix shared by the keys stored again, then their heads.
+     */
+    void recompute(Object[] keys) {
+        this.prefix = null;
+
+        for (Object key : keys) {
+            if (key == null) {
+                continue;
+            }
+
+            byte[] bytes = ((BinaryKey) key).getBytes();
+            if (this.prefix == null) {
+                this.prefix = bytes;
+            } else {
+                int length = Math.min(this.prefix.length, bytes.length);
+                int mismatch = Arrays.mismatch(this.prefix, 0, length, bytes, 0, length);
+                this.prefix = Arrays.copyOf(this.prefix, (mismatch >= 0) ? mismatch : length);
+            }
+        }
+
+        this.rebuild(keys);
+    }
+
+    private void rebuild(Object[] keys) {
+        for (int i = 0; i < keys.length; i++) {
+            this.heads[i] = (keys[i] == null) ? 0 : headOf(((BinaryKey) keys[i]).getBytes(), this.prefix.length);
+        }
+    }
+
+    /**
+     * Return the head with its sign bit flipped, so heads compare as signed longs.
+     */
+    private static long headOf(byte[] bytes, int offset) {
+        return BinaryKey.head(bytes, offset) ^ Long.MIN_VALUE;
+    }
+
+    /**
+     * Return the position of the first key of keys[0, count) not less than key.
+     */
+    int bsearch(Object[] keys, int count, BinaryKey key) {
+        if (count == 0) {
+            return 0;
+        }
+
+        // a key outside of the prefix is smaller or greater than all the keys
+        byte[] bytes = key.getBytes();
+        int prefixLength = this.prefix.length;
+        int length = Math.min(prefixLength, bytes.length);
+        int mismatch = Arrays.mismatch(this.prefix, 0, length, bytes, 0, length);
+
+        if (mismatch >= 0) {
+            return ((bytes[mismatch] & 0xFF) < (this.prefix[mismatch] & 0xFF)) ? 0 : count;
+        } else if (bytes.length < prefixLength) {
+            return 0;
+        }
+
+        long head = headOf(bytes, prefixLength);
+        int index = LongKeySearch.search(this.heads, count, head);
+
+        // equal heads only tell that the next 8 bytes are equal
+        while (index < count && this.heads[index] == head && ((BinaryKey) keys[index]).compareTo(key) < 0) {
+            index += 1;
+        }
+
+        return index;
+    }
+
+    /**
+     * Return whether keys[index] equals key, reading its bytes only if their heads are equal.
+     */
+    boolean matches(Object[] keys, int index, BinaryKey key) {
+        byte[] bytes = key.getBytes();
+        int prefixLength = this.prefix.length;
+
+        if (bytes.length < prefixLength || Arrays.mismatch(this.prefix, 0, prefixLength, bytes, 0, prefixLength) >= 0
+                || this.heads[index] != headOf(bytes, prefixLength)) {
+            return false;
+        }
+
+        return keys[index].equals(key);
+    }
+}
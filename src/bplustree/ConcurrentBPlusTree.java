@@ -0,0 +1,450 @@
+package bplustree;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+
+/**
+ * A thread-safe B Plus Tree using optimistic lock coupling.
+ *
+ * Every node carries a version latch. Readers never write shared memory: they
+ * descend by reading the version of a node, reading the child pointer, and
+ * validating that the version did not change, restarting from the root if it
+ * did. Writers descend the same way and only take the exclusive latch of the
+ * leaf they modify, and of the node being split together with its parent.
+ *
+ * Full nodes are split eagerly on the way down, so a split never has to
+ * propagate upwards and at most two nodes are latched at a time. Deletes do not
+ * merge underfull nodes, a leaf may become empty and is reused by later inserts.
+ *
+ * In B-link mode (Lehman and Yao) a writer latches one node at a time instead:
+ * it splits the node, publishes the new right node through the sibling link
+ * and the high key, unlatches it, and only then latches the parent to insert
+ * the separator. A descent which meets a node whose high key is not above the
+ * key moves right, so readers never restart from the root during splits.
+ *
+ * Inserting an existing key replaces its value.
+ */
+public class ConcurrentBPlusTree<TKey extends Comparable<TKey>, TValue> {
+    private volatile ConcurrentBPlusTreeNode<TKey> root;
+    private final int leafOrder;
+    private final int internalOrder;
+    private final boolean blink;
+
+    public ConcurrentBPlusTree() {
+        this(BPlusTree.DEFAULT_ORDER);
+    }
+
+    public ConcurrentBPlusTree(int order) {
+        this(order, order);
+    }
+
+    /**
+     * Create a concurrent B Plus Tree whose leaf nodes hold at most leafOrder keys
+     * and whose internal nodes hold at most internalOrder keys.
+     */
+    public ConcurrentBPlusTree(int leafOrder, int internalOrder) {
+        this(leafOrder, internalOrder, false);
+    }
+
+    /**
+     * Create a concurrent B Plus Tree, which runs in B-link mode if blink is true.
+     */
+    public ConcurrentBPlusTree(int leafOrder, int internalOrder, boolean blink) {
+        if (leafOrder < BPlusTree.MIN_ORDER || internalOrder < BPlusTree.MIN_ORDER) {
+            throw new IllegalArgumentException("order must be at least " + BPlusTree.MIN_ORDER + ": leafOrder="
+                    + leafOrder + ", internalOrder=" + internalOrder);
+        }
+
+        this.leafOrder = leafOrder;
+        this.internalOrder = internalOrder;
+        this.blink = blink;
+        this.root = this.createLeafNode();
+    }
+
+    public int getLeafOrder() {
+        return this.leafOrder;
+    }
+
+    public int getInternalOrder() {
+        return this.internalOrder;
+    }
+
+    public boolean isBLink() {
+        return this.blink;
+    }
+
+    public int getHeight() {
+        return this.root.level + 1;
+    }
+
+    ConcurrentBPlusTreeLeafNode<TKey, TValue> createLeafNode() {
+        return new ConcurrentBPlusTreeLeafNode<>(this.leafOrder);
+    }
+
+    ConcurrentBPlusTreeInternalNode<TKey> createInternalNode(int level) {
+        return new ConcurrentBPlusTreeInternalNode<>(this.internalOrder, level);
+    }
+
+    /**
+     * Make a new root above the current root, which was split into node and newNode,
+     * the caller holds the latch of the current root.
+     */
+    private void growRoot(ConcurrentBPlusTreeNode<TKey> node, TKey splitKey, ConcurrentBPlusTreeNode<TKey> newNode) {
+        ConcurrentBPlusTreeInternalNode<TKey> newRoot = this.createInternalNode(node.level + 1);
+        newRoot.keys[0] = splitKey;
+        newRoot.children[0] = node;
+        newRoot.children[1] = newNode;
+        newRoot.keyCount = 1;
+        this.root = newRoot;
+    }
+
+    /**
+     * Search a key value on the tree and return its associated value.
+     */
+    @SuppressWarnings("unchecked")
+    public TValue search(TKey key) {
+        if (this.blink) {
+            return this.searchBLink(key);
+        }
+
+        restart: while (true) {
+            ConcurrentBPlusTreeNode<TKey> node = this.root;
+            long version = node.readLock();
+
+            if (node != this.root) {
+                // the root was split after it was read
+                continue;
+            }
+
+            while (node.getNodeType() != BPlusTreeNodeType.LeafNode) {
+                ConcurrentBPlusTreeInternalNode<TKey> internalNode = (ConcurrentBPlusTreeInternalNode<TKey>) node;
+                ConcurrentBPlusTreeNode<TKey> child = internalNode.getChild(internalNode.find(key));
+
+                if (child == null || !node.validate(version)) {
+                    continue restart;
+                }
+
+                long childVersion = child.readLock();
+
+                // the child may have been split after the pointer was read
+                if (!node.validate(version)) {
+                    continue restart;
+                }
+
+                node = child;
+                version = childVersion;
+            }
+
+            ConcurrentBPlusTreeLeafNode<TKey, TValue> leaf = (ConcurrentBPlusTreeLeafNode<TKey, TValue>) node;
+            int index = leaf.find(key);
+            TValue value = (index == -1) ? null : leaf.getValue(index);
+
+            if (leaf.validate(version)) {
+                return value;
+            }
+        }
+    }
+
+    /**
+     * Insert a key and value pair to the tree, replace the value if the key exists.
+     */
+    @SuppressWarnings("unchecked")
+    public void insert(TKey key, TValue value) {
+        if (this.blink) {
+            this.insertBLink(key, value);
+            return;
+        }
+
+        restart: while (true) {
+            ConcurrentBPlusTreeNode<TKey> node = this.root;
+            long version = node.readLock();
+
+            if (node != this.root) {
+                continue;
+            }
+
+            ConcurrentBPlusTreeInternalNode<TKey> parent = null;
+            long parentVersion = 0;
+
+            while (true) {
+                if (node.isFull()) {
+                    // split eagerly, so the parent of the next node always has room
+                    this.split(parent, parentVersion, node, version);
+                    continue restart;
+                }
+
+                if (node.getNodeType() == BPlusTreeNodeType.LeafNode) {
+                    break;
+                }
+
+                ConcurrentBPlusTreeInternalNode<TKey> internalNode = (ConcurrentBPlusTreeInternalNode<TKey>) node;
+                ConcurrentBPlusTreeNode<TKey> child = internalNode.getChild(internalNode.find(key));
+
+                if (child == null || !node.validate(version)) {
+                    continue restart;
+                }
+
+                long childVersion = child.readLock();
+                if (!node.validate(version)) {
+                    continue restart;
+                }
+
+                parent = internalNode;
+                parentVersion = version;
+                node = child;
+                version = childVersion;
+            }
+
+            long stamp = node.upgradeToWriteLock(version);
+            if (stamp == 0) {
+                continue;
+            }
+
+            ((ConcurrentBPlusTreeLeafNode<TKey, TValue>) node).insert(key, value);
+            node.writeUnlock(stamp);
+            return;
+        }
+    }
+
+    /**
+     * Split a full node, latching it and its parent, the caller restarts afterwards
+     * whether the split succeeded or not.
+     */
+    private void split(ConcurrentBPlusTreeInternalNode<TKey> parent, long parentVersion,
+            ConcurrentBPlusTreeNode<TKey> node, long version) {
+        long parentStamp = 0;
+
+        if (parent != null) {
+            parentStamp = parent.upgradeToWriteLock(parentVersion);
+            if (parentStamp == 0) {
+                return;
+            }
+        }
+
+        long stamp = node.upgradeToWriteLock(version);
+        if (stamp == 0) {
+            if (parent != null) {
+                parent.writeUnlock(parentStamp);
+            }
+            return;
+        }
+
+        if (parent == null && node != this.root) {
+            // another writer made a new root above the node
+            node.writeUnlock(stamp);
+            return;
+        }
+
+        TKey splitKey = node.getSplitKey();
+        ConcurrentBPlusTreeNode<TKey> newNode = node.split();
+
+        if (parent != null) {
+            parent.insertChild(splitKey, newNode);
+        } else {
+            this.growRoot(node, splitKey, newNode);
+        }
+
+        node.writeUnlock(stamp);
+        if (parent != null) {
+            parent.writeUnlock(parentStamp);
+        }
+    }
+
+    /**
+     * Delete a key from the tree, return whether the key was found.
+     */
+    @SuppressWarnings("unchecked")
+    public boolean delete(TKey key) {
+        if (this.blink) {
+            return this.deleteBLink(key);
+        }
+
+        restart: while (true) {
+            ConcurrentBPlusTreeNode<TKey> node = this.root;
+            long version = node.readLock();
+
+            if (node != this.root) {
+                continue;
+            }
+
+            while (node.getNodeType() != BPlusTreeNodeType.LeafNode) {
+                ConcurrentBPlusTreeInternalNode<TKey> internalNode = (ConcurrentBPlusTreeInternalNode<TKey>) node;
+                ConcurrentBPlusTreeNode<TKey> child = internalNode.getChild(internalNode.find(key));
+
+                if (child == null || !node.validate(version)) {
+                    continue restart;
+                }
+
+                long childVersion = child.readLock();
+                if (!node.validate(version)) {
+                    continue restart;
+                }
+
+                node = child;
+                version = childVersion;
+            }
+
+            long stamp = node.upgradeToWriteLock(version);
+            if (stamp == 0) {
+                continue;
+            }
+
+            boolean deleted = ((ConcurrentBPlusTreeLeafNode<TKey, TValue>) node).delete(key);
+            node.writeUnlock(stamp);
+
+            return deleted;
+        }
+    }
+
+    /* The codes below implement the B-link mode */
+
+    /**
+     * Descend to the node on the given level whose range contains key, moving right
+     * past nodes split after their parent was read. The internal nodes passed on the
+     * way are pushed to path, if not null, the node returned is not validated.
+     */
+    private ConcurrentBPlusTreeNode<TKey> descendBLink(TKey key, int level,
+            Deque<ConcurrentBPlusTreeInternalNode<TKey>> path) {
+        ConcurrentBPlusTreeNode<TKey> node = this.root;
+
+        while (true) {
+            long version = node.readLock();
+            ConcurrentBPlusTreeNode<TKey> next;
+            boolean down = false;
+
+            if (!node.covers(key)) {
+                next = node.rightSibling;
+            } else if (node.level == level) {
+                return node;
+            } else {
+                ConcurrentBPlusTreeInternalNode<TKey> internalNode = (ConcurrentBPlusTreeInternalNode<TKey>) node;
+                next = internalNode.getChild(internalNode.find(key));
+                down = true;
+            }
+
+            // read the node again if it changed, there is no need to restart from the root
+            if (next == null || !node.validate(version)) {
+                continue;
+            }
+
+            if (down && path != null) {
+                path.push((ConcurrentBPlusTreeInternalNode<TKey>) node);
+            }
+            node = next;
+        }
+    }
+
+    /**
+     * Latch the node whose range contains key, starting from node and coupling the
+     * latches while moving right.
+     */
+    private ConcurrentBPlusTreeNode<TKey> lockCovering(ConcurrentBPlusTreeNode<TKey> node, TKey key) {
+        node.lock();
+
+        while (!node.covers(key)) {
+            ConcurrentBPlusTreeNode<TKey> next = node.rightSibling;
+            next.lock();
+            node.unlock();
+            node = next;
+        }
+
+        return node;
+    }
+
+    @SuppressWarnings("unchecked")
+    private TValue searchBLink(TKey key) {
+        ConcurrentBPlusTreeNode<TKey> node = this.descendBLink(key, 0, null);
+
+        while (true) {
+            long version = node.readLock();
+
+            if (!node.covers(key)) {
+                ConcurrentBPlusTreeNode<TKey> next = node.rightSibling;
+                if (next != null && node.validate(version)) {
+                    node = next;
+                }
+                continue;
+            }
+
+            ConcurrentBPlusTreeLeafNode<TKey, TValue> leaf = (ConcurrentBPlusTreeLeafNode<TKey, TValue>) node;
+            int index = leaf.find(key);
+            TValue value = (index == -1) ? null : leaf.getValue(index);
+
+            if (leaf.validate(version)) {
+                return value;
+            }
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private void insertBLink(TKey key, TValue value) {
+        Deque<ConcurrentBPlusTreeInternalNode<TKey>> path = new ArrayDeque<>();
+        ConcurrentBPlusTreeNode<TKey> node = this.lockCovering(this.descendBLink(key, 0, path), key);
+        ConcurrentBPlusTreeLeafNode<TKey, TValue> leaf = (ConcurrentBPlusTreeLeafNode<TKey, TValue>) node;
+
+        if (!leaf.isFull() || leaf.find(key) != -1) {
+            leaf.insert(key, value);
+            leaf.unlock();
+            return;
+        }
+
+        TKey splitKey = leaf.getSplitKey();
+        ConcurrentBPlusTreeNode<TKey> newNode = leaf.split();
+        ((ConcurrentBPlusTreeLeafNode<TKey, TValue>) (key.compareTo(splitKey) < 0 ? leaf : newNode)).insert(key, value);
+
+        this.insertSeparator(leaf, splitKey, newNode, path);
+    }
+
+    /**
+     * Insert the separator of a node which was split into its parent, splitting the
+     * parent as well if it is full. The caller holds the latch of node, which is
+     * released before the parent is latched.
+     */
+    private void insertSeparator(ConcurrentBPlusTreeNode<TKey> node, TKey splitKey, ConcurrentBPlusTreeNode<TKey> newNode,
+            Deque<ConcurrentBPlusTreeInternalNode<TKey>> path) {
+        while (true) {
+            if (node == this.root) {
+                // the root only changes while its latch is held
+                this.growRoot(node, splitKey, newNode);
+                node.unlock();
+                return;
+            }
+
+            ConcurrentBPlusTreeInternalNode<TKey> parent = path.poll();
+            int level = node.level + 1;
+            node.unlock();
+
+            if (parent == null) {
+                // the root was split after the descent, look for the new parent
+                parent = (ConcurrentBPlusTreeInternalNode<TKey>) this.descendBLink(splitKey, level, null);
+            }
+            parent = (ConcurrentBPlusTreeInternalNode<TKey>) this.lockCovering(parent, splitKey);
+
+            if (!parent.isFull()) {
+                parent.insertChild(splitKey, newNode);
+                parent.unlock();
+                return;
+            }
+
+            TKey parentSplitKey = parent.getSplitKey();
+            ConcurrentBPlusTreeNode<TKey> newParent = parent.split();
+            ConcurrentBPlusTreeInternalNode<TKey> target = (ConcurrentBPlusTreeInternalNode<TKey>) (splitKey
+                    .compareTo(parentSplitKey) < 0 ? parent : newParent);
+            target.insertChild(splitKey, newNode);
+
+            node = parent;
+            splitKey = parentSplitKey;
+            newNode = newParent;
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private boolean deleteBLink(TKey key) {
+        ConcurrentBPlusTreeNode<TKey> node = this.lockCovering(this.descendBLink(key, 0, null), key);
+
+        boolean deleted = ((ConcurrentBPlusTreeLeafNode<TKey, TValue>) node).delete(key);
+        node.unlock();
+
+        return deleted;
+    }
+}
@@ -0,0 +1,76 @@
+package bplustree;
+
+class ConcurrentBPlusTreeInternalNode<TKey extends Comparable<TKey>> extends ConcurrentBPlusTreeNode<TKey> {
+    protected final Object[] children;
+
+    ConcurrentBPlusTreeInternalNode(int order, int level) {
+        super(order, level);
+        this.children = new Object[order + 1];
+    }
+
+    @SuppressWarnings("unchecked")
+    public ConcurrentBPlusTreeNode<TKey> getChild(int index) {
+        return (ConcurrentBPlusTreeNode<TKey>) this.children[index];
+    }
+
+    @Override
+    public BPlusTreeNodeType getNodeType() {
+        return BPlusTreeNodeType.InternalNode;
+    }
+
+    /**
+     * Return the index of the child which should contain key.
+     */
+    public int find(TKey key) {
+        int index = this.bsearch(key);
+
+        // 当 key 恰好为索引值时，key 应该在右孩子的节点上
+        if (index < this.getKeyCount() && this.compareKey(index, key) == 0) {
+            return index + 1;
+        }
+
+        return index;
+    }
+
+    /**
+     * Insert the separator and the right node produced by the split of one of the
+     * children, the node must not be full.
+     */
+    protected void insertChild(TKey key, ConcurrentBPlusTreeNode<TKey> rightChild) {
+        int keyCount = this.keyCount;
+        int index = this.bsearch(key);
+
+        System.arraycopy(this.keys, index, this.keys, index + 1, keyCount - index);
+        System.arraycopy(this.children, index + 1, this.children, index + 2, keyCount - index);
+
+        this.keys[index] = key;
+        this.children[index + 1] = rightChild;
+        this.keyCount = keyCount + 1;
+    }
+
+    @Override
+    protected TKey getSplitKey() {
+        return this.getKey(this.keyCount / 2);
+    }
+
+    /**
+     * When splits a internal node, the middle key is kicked out
+     * and be pushed to parent node.
+     */
+    @Override
+    protected ConcurrentBPlusTreeNode<TKey> moveUpperHalf() {
+        int keyCount = this.keyCount;
+        int midIndex = keyCount / 2;
+
+        ConcurrentBPlusTreeInternalNode<TKey> newNode = new ConcurrentBPlusTreeInternalNode<>(this.order, this.level);
+
+        System.arraycopy(this.keys, midIndex + 1, newNode.keys, 0, keyCount - midIndex - 1);
+        System.arraycopy(this.children, midIndex + 1, newNode.children, 0, keyCount - midIndex);
+        newNode.keyCount = keyCount - midIndex - 1;
+
+        // keys are left in place, a racing reader must never compare against null
+        this.keyCount = midIndex;
+
+        return newNode;
+    }
+}
@@ -0,0 +1,101 @@
+package bplustree;
+
+class ConcurrentBPlusTreeLeafNode<TKey extends Comparable<TKey>, TValue> extends ConcurrentBPlusTreeNode<TKey> {
+    private final Object[] values;
+
+    ConcurrentBPlusTreeLeafNode(int order) {
+        super(order, 0);
+        this.values = new Object[order];
+    }
+
+    @SuppressWarnings("unchecked")
+    public TValue getValue(int index) {
+        return (TValue) this.values[index];
+    }
+
+    @Override
+    public BPlusTreeNodeType getNodeType() {
+        return BPlusTreeNodeType.LeafNode;
+    }
+
+    /**
+     * Search a key on current node, if found the key then return its position,
+     * otherwise return -1.
+     */
+    public int find(TKey key) {
+        int index = this.bsearch(key);
+
+        if (index < this.getKeyCount() && this.compareKey(index, key) == 0) {
+            return index;
+        }
+
+        return -1;
+    }
+
+    /**
+     * Insert a key and value pair, or replace the value if the key exists,
+     * the node must not be full.
+     */
+    public void insert(TKey key, TValue value) {
+        int keyCount = this.keyCount;
+        int index = this.bsearch(key);
+
+        if (index < keyCount && this.compareKey(index, key) == 0) {
+            this.values[index] = value;
+            return;
+        }
+
+        // move space for the new key
+        System.arraycopy(this.keys, index, this.keys, index + 1, keyCount - index);
+        System.arraycopy(this.values, index, this.values, index + 1, keyCount - index);
+
+        this.keys[index] = key;
+        this.values[index] = value;
+        this.keyCount = keyCount + 1;
+    }
+
+    public boolean delete(TKey key) {
+        int index = this.find(key);
+
+        if (index == -1) {
+            return false;
+        }
+
+        int keyCount = this.keyCount;
+        System.arraycopy(this.keys, index + 1, this.keys, index, keyCount - index - 1);
+        System.arraycopy(this.values, index + 1, this.values, index, keyCount - index - 1);
+        this.values[keyCount - 1] = null;
+        this.keyCount = keyCount - 1;
+
+        return true;
+    }
+
+    @Override
+    protected TKey getSplitKey() {
+        return this.getKey(this.keyCount / 2);
+    }
+
+    /**
+     * When splits a leaf node, the middle key is kept on new node
+     * and be pushed to parent node.
+     */
+    @Override
+    protected ConcurrentBPlusTreeNode<TKey> moveUpperHalf() {
+        int keyCount = this.keyCount;
+        int midIndex = keyCount / 2;
+
+        ConcurrentBPlusTreeLeafNode<TKey, TValue> newNode = new ConcurrentBPlusTreeLeafNode<>(this.order);
+
+        System.arraycopy(this.keys, midIndex, newNode.keys, 0, keyCount - midIndex);
+        System.arraycopy(this.values, midIndex, newNode.values, 0, keyCount - midIndex);
+        newNode.keyCount = keyCount - midIndex;
+
+        // keys are left in place, a racing reader must never compare against null
+        for (int i = midIndex; i < keyCount; i++) {
+            this.values[i] = null;
+        }
+        this.keyCount = midIndex;
+
+        return newNode;
+    }
+}
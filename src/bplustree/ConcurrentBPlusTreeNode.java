@@ -0,0 +1,163 @@
+package bplustree;
+
+import java.util.concurrent.locks.StampedLock;
+
+/**
+ * A node of a ConcurrentBPlusTree guarded by a version latch.
+ * Readers take no lock: they remember the version of the node, read it, and
+ * validate that the version did not change. Writers upgrade the version they
+ * read to an exclusive latch, which fails if the node was modified meanwhile.
+ *
+ * Fields are read while writers may modify them, so reads must stay within the
+ * arrays and only rely on what they read once the version has been validated.
+ * A racing reader may see the count of a node before its keys, e.g. null slots
+ * of a node just created by a split, so keys are compared by compareKey().
+ *
+ * A split keeps the Lehman-Yao links up to date: every node knows its right
+ * sibling on the same level and a high key bounding the keys it covers, so a
+ * descent which reaches a node after it was split can move right.
+ */
+abstract class ConcurrentBPlusTreeNode<TKey extends Comparable<TKey>> {
+    protected final StampedLock latch;
+    protected final int order;
+    protected final int level;
+    protected final Object[] keys;
+    protected int keyCount;
+
+    // 同一层的右兄弟节点，以及本节点 key 的上界（不含），null 表示本节点是这一层最右边的节点
+    protected ConcurrentBPlusTreeNode<TKey> rightSibling;
+    protected TKey highKey;
+
+    // stamp of the exclusive latch taken by lock()
+    private long writeStamp;
+
+    protected ConcurrentBPlusTreeNode(int order, int level) {
+        this.latch = new StampedLock();
+        this.order = order;
+        this.level = level;
+        this.keys = new Object[order];
+        this.keyCount = 0;
+    }
+
+    /* The codes below implement the version latch */
+
+    /**
+     * Return the current version of the node, waiting while a writer holds it.
+     */
+    long readLock() {
+        long version = this.latch.tryOptimisticRead();
+
+        while (version == 0) {
+            Thread.onSpinWait();
+            version = this.latch.tryOptimisticRead();
+        }
+
+        return version;
+    }
+
+    /**
+     * Return whether the node is unchanged since version was read.
+     */
+    boolean validate(long version) {
+        return this.latch.validate(version);
+    }
+
+    /**
+     * Take the exclusive latch if the node is unchanged since version was read,
+     * return the stamp to unlock it, or 0 if the caller has to restart.
+     */
+    long upgradeToWriteLock(long version) {
+        return this.latch.tryConvertToWriteLock(version);
+    }
+
+    void writeUnlock(long stamp) {
+        this.latch.unlockWrite(stamp);
+    }
+
+    /**
+     * Take the exclusive latch, waiting for the current holder.
+     */
+    void lock() {
+        this.writeStamp = this.latch.writeLock();
+    }
+
+    void unlock() {
+        this.latch.unlockWrite(this.writeStamp);
+    }
+
+    /* The codes below are safe to call under an optimistic read */
+
+    public int getKeyCount() {
+        // clamp, a racing reader may see a count which does not match the keys
+        return Math.max(0, Math.min(this.keyCount, this.keys.length));
+    }
+
+    @SuppressWarnings("unchecked")
+    public TKey getKey(int index) {
+        return (TKey) this.keys[index];
+    }
+
+    /**
+     * Compare the key at index with key, a slot still null to a racing reader
+     * compares greater than any key, the version then fails to validate.
+     */
+    @SuppressWarnings("unchecked")
+    int compareKey(int index, TKey key) {
+        TKey slot = (TKey) this.keys[index];
+        return (slot == null) ? 1 : slot.compareTo(key);
+    }
+
+    /**
+     * Return whether key is below the high key, otherwise it moved to a right sibling.
+     */
+    public boolean covers(TKey key) {
+        TKey highKey = this.highKey;
+        return highKey == null || key.compareTo(highKey) < 0;
+    }
+
+    public boolean isFull() {
+        return this.keyCount >= this.order;
+    }
+
+    protected int bsearch(TKey key) {
+        int first = 0;
+        int last = this.getKeyCount();
+
+        while (first < last) {
+            // 返回 [first, last) 内第一个不小于 key 值的位置
+            int mid = (first + last) >>> 1;
+
+            if (this.compareKey(mid, key) < 0) {
+                first = mid + 1;
+            } else {
+                last = mid;
+            }
+        }
+
+        return first;
+    }
+
+    public abstract BPlusTreeNodeType getNodeType();
+
+    /* The codes below need the exclusive latch */
+
+    /**
+     * Move the upper half of the keys to a new right node and return it,
+     * the key separating the two nodes is returned by getSplitKey() before the split.
+     */
+    protected ConcurrentBPlusTreeNode<TKey> split() {
+        TKey splitKey = this.getSplitKey();
+        ConcurrentBPlusTreeNode<TKey> newNode = this.moveUpperHalf();
+
+        newNode.highKey = this.highKey;
+        newNode.rightSibling = this.rightSibling;
+        this.highKey = splitKey;
+        this.rightSibling = newNode;
+
+        return newNode;
+    }
+
+    protected abstract ConcurrentBPlusTreeNode<TKey> moveUpperHalf();
+
+    protected abstract TKey getSplitKey();
+}
@@ -0,0 +1,166 @@
+package bplustree;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.TreeMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.Test;
+
+public class ConcurrentBPlusTreeTest {
+    @Test
+    public void testInsertSearchDelete() {
+        checkInsertSearchDelete(new ConcurrentBPlusTree<Integer, Integer>(3));
+    }
+
+    @Test
+    public void testBLinkInsertSearchDelete() {
+        ConcurrentBPlusTree<Integer, Integer> tree = new ConcurrentBPlusTree<>(3, 3, true);
+        checkInsertSearchDelete(tree);
+        assertTrue(tree.getHeight() > 3);
+    }
+
+    @Test
+    public void testConcurrentStress() throws InterruptedException {
+        checkConcurrentStress(new ConcurrentBPlusTree<Integer, Integer>(4));
+    }
+
+    @Test
+    public void testBLinkConcurrentStress() throws InterruptedException {
+        checkConcurrentStress(new ConcurrentBPlusTree<Integer, Integer>(4, 4, true));
+    }
+
+    @Test
+    public void testTornNode() {
+        // a racing reader sees the count of a node split off before its keys
+        ConcurrentBPlusTreeLeafNode<Integer, Integer> leaf = new ConcurrentBPlusTreeLeafNode<>(4);
+        leaf.insert(1, 1);
+        leaf.insert(3, 3);
+        leaf.keyCount = 3;
+
+        assertEquals(2, leaf.bsearch(5));
+        assertEquals(-1, leaf.find(5));
+        assertEquals(1, leaf.find(3));
+    }
+
+    private void checkInsertSearchDelete(ConcurrentBPlusTree<Integer, Integer> tree) {
+        TreeMap<Integer, Integer> expected = new TreeMap<>();
+        Random random = new Random(0);
+
+        for (int i = 0; i < 20000; i++) {
+            int key = random.nextInt(5000);
+
+            if (random.nextInt(3) == 0) {
+                assertEquals(expected.remove(key) != null, tree.delete(key));
+            } else {
+                tree.insert(key, i);
+                expected.put(key, i);
+            }
+        }
+
+        for (int key = 0; key < 5000; key++) {
+            assertEquals(expected.get(key), tree.search(key));
+        }
+    }
+
+    /**
+     * Writers insert and delete disjoint keys while readers search them,
+     * a key a writer finished inserting must be visible to every reader.
+     */
+    private void checkConcurrentStress(final ConcurrentBPlusTree<Integer, Integer> tree) throws InterruptedException {
+        final int writers = 4;
+        final int readers = 4;
+        final int keysPerWriter = 20000;
+        final AtomicInteger[] progress = new AtomicInteger[writers];
+        final AtomicReference<Throwable> failure = new AtomicReference<>();
+        final CountDownLatch start = new CountDownLatch(1);
+        final CountDownLatch writersDone = new CountDownLatch(writers);
+        List<Thread> threads = new ArrayList<>();
+
+        for (int w = 0; w < writers; w++) {
+            final int writer = w;
+            progress[w] = new AtomicInteger();
+            threads.add(new Thread(() -> {
+                try {
+                    start.await();
+                    for (int i = 0; i < keysPerWriter; i++) {
+                        // interleave the writers, so they split the same nodes
+                        int key = i * writers + writer;
+                        tree.insert(key, -key);
+                        progress[writer].set(i + 1);
+
+                        if (i % 4 == 3) {
+                            // remove every fourth key inserted by this writer
+                            int deleted = (i - 3) * writers + writer;
+                            if (!tree.delete(deleted)) {
+                                throw new AssertionError("key " + deleted + " was not deleted");
+                            }
+                        }
+                    }
+                } catch (Throwable e) {
+                    failure.compareAndSet(null, e);
+                } finally {
+                    writersDone.countDown();
+                }
+            }));
+        }
+
+        for (int r = 0; r < readers; r++) {
+            final long seed = r;
+            threads.add(new Thread(() -> {
+                Random random = new Random(seed);
+                try {
+                    start.await();
+                    while (writersDone.getCount() > 0) {
+                        int writer = random.nextInt(writers);
+                        int inserted = progress[writer].get();
+                        if (inserted == 0) {
+                            continue;
+                        }
+
+                        int i = random.nextInt(inserted);
+                        int key = i * writers + writer;
+                        Integer value = tree.search(key);
+                        // the writer may have moved on and deleted the key meanwhile
+                        boolean deleted = i % 4 == 0 && i + 3 < progress[writer].get();
+                        if (!deleted && !Integer.valueOf(-key).equals(value)) {
+                            throw new AssertionError("key " + key + " is missing, found " + value);
+                        }
+                    }
+                } catch (Throwable e) {
+                    failure.compareAndSet(null, e);
+                }
+            }));
+        }
+
+        for (Thread thread : threads) {
+            thread.start();
+        }
+        start.countDown();
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        if (failure.get() != null) {
+            throw new AssertionError(failure.get());
+        }
+
+        for (int key = 0; key < writers * keysPerWriter; key++) {
+            int i = key / writers;
+            if (i % 4 == 0 && i + 3 < keysPerWriter) {
+                assertNull(tree.search(key));
+                assertFalse(tree.delete(key));
+            } else {
+                assertEquals(Integer.valueOf(-key), tree.search(key));
+            }
+        }
+        assertTrue(tree.delete(writers * keysPerWriter - 1));
+    }
+}
@@ -0,0 +1,136 @@
+package bplustree;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * A BPlusTree whose modifications are made durable by a WriteAheadLog.
+ *
+ * Opening the tree loads the last checkpoint, if any, and rolls it forward by
+ * replaying the log records written after it, so it recovers every modification
+ * which was acknowledged before a crash. insert() and delete() apply the
+ * modification and append it to the log under the lock of the tree, so the log
+ * has the same order as the tree, then wait for the group commit outside of the
+ * lock, so concurrent writers share one fsync.
+ *
+ * The checkpoint lives next to the log file, with the suffix ".checkpoint":
+ * <pre>
+ * | LSN covered by the checkpoint (long) | tree saved by BPlusTree.writeTo() |
+ * </pre>
+ */
+public class DurableBPlusTree<TKey extends Comparable<TKey>, TValue> implements Closeable {
+    private final BPlusTree<TKey, TValue> tree;
+    private final WriteAheadLog<TKey, TValue> log;
+    private final Path checkpointFile;
+    private final BPlusTreeCodec<TKey> keyCodec;
+    private final BPlusTreeCodec<TValue> valueCodec;
+
+    /**
+     * Open the tree logged to logFile, an empty tree of the given order is created
+     * if there is no checkpoint yet.
+     */
+    public DurableBPlusTree(Path logFile, int order, BPlusTreeCodec<TKey> keyCodec, BPlusTreeCodec<TValue> valueCodec)
+            throws IOException {
+        this.checkpointFile = logFile.resolveSibling(logFile.getFileName() + ".checkpoint");
+        this.keyCodec = keyCodec;
+        this.valueCodec = valueCodec;
+
+        long checkpointLsn = 0;
+        if (Files.exists(this.checkpointFile)) {
+            try (FileChannel channel = FileChannel.open(this.checkpointFile, StandardOpenOption.READ)) {
+                ByteBuffer lsn = ByteBuffer.allocate(8);
+                while (lsn.hasRemaining() && channel.read(lsn) >= 0) {
+                }
+                checkpointLsn = lsn.getLong(0);
+                this.tree = BPlusTree.readFrom(channel, keyCodec, valueCodec);
+            }
+        } else {
+            this.tree = new BPlusTree<>(order);
+        }
+
+        this.log = new WriteAheadLog<>(logFile, keyCodec, valueCodec);
+        this.log.replay(this.tree, checkpointLsn);
+    }
+
+    /**
+     * Insert a key and value pair, return once it is durable.
+     */
+    public void insert(TKey key, TValue value) throws IOException {
+        long lsn;
+
+        synchronized (this.tree) {
+            this.tree.insert(key, value);
+            lsn = this.log.appendInsert(key, value);
+        }
+
+        this.log.commit(lsn);
+    }
+
+    /**
+     * Delete a key and its associated value, return once the deletion is durable.
+     */
+    public void delete(TKey key) throws IOException {
+        long lsn;
+
+        synchronized (this.tree) {
+            this.tree.delete(key);
+            lsn = this.log.appendDelete(key);
+        }
+
+        this.log.commit(lsn);
+    }
+
+    /**
+     * Search a key value on the tree and return its associated value.
+     */
+    public TValue search(TKey key) {
+        synchronized (this.tree) {
+            return this.tree.search(key);
+        }
+    }
+
+    /**
+     * Save the tree to the checkpoint file and drop the log records it covers.
+     * Writers are blocked while the checkpoint is written.
+     */
+    public void checkpoint() throws IOException {
+        Path temporaryFile = this.checkpointFile.resolveSibling(this.checkpointFile.getFileName() + ".tmp");
+
+        synchronized (this.tree) {
+            long lsn = this.log.getLsn();
+
+            try (FileChannel channel = FileChannel.open(temporaryFile, StandardOpenOption.CREATE,
+                    StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+                ByteBuffer header = ByteBuffer.allocate(8).putLong(0, lsn);
+                while (header.hasRemaining()) {
+                    channel.write(header);
+                }
+                this.tree.writeTo(channel, this.keyCodec, this.valueCodec);
+                channel.force(true);
+            }
+
+            // the old checkpoint is replaced at once, then the log records before lsn are useless
+            Files.move(temporaryFile, this.checkpointFile, StandardCopyOption.REPLACE_EXISTING,
+                    StandardCopyOption.ATOMIC_MOVE);
+            this.log.truncate();
+        }
+    }
+
+    /**
+     * Return the underlying tree, which must only be read while holding its lock.
+     */
+    public BPlusTree<TKey, TValue> getTree() {
+        return this.tree;
+    }
+
+    @Override
+    public void close() throws IOException {
+        this.log.close();
+    }
+}
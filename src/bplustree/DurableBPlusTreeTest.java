@@ -0,0 +1,135 @@
+package bplustree;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+
+public class DurableBPlusTreeTest {
+    @Test
+    public void testRecovery() throws IOException {
+        Path log = Files.createTempFile("bplustree", ".wal");
+
+        try {
+            try (DurableBPlusTree<Integer, String> tree = open(log)) {
+                for (int key = 0; key < 1000; key++) {
+                    tree.insert(key, "v" + key);
+                }
+                for (int key = 0; key < 1000; key += 2) {
+                    tree.delete(key);
+                }
+            }
+
+            // a record torn by a crash is cut off
+            Files.write(log, new byte[] { 0, 0, 0, 42, 1, 2, 3 }, StandardOpenOption.APPEND);
+
+            try (DurableBPlusTree<Integer, String> tree = open(log)) {
+                for (int key = 0; key < 1000; key++) {
+                    assertEquals(key % 2 == 0 ? null : "v" + key, tree.search(key));
+                }
+                tree.insert(1000, "v1000");
+            }
+
+            try (DurableBPlusTree<Integer, String> tree = open(log)) {
+                assertEquals("v1000", tree.search(1000));
+                assertNull(tree.search(998));
+            }
+        } finally {
+            Files.delete(log);
+        }
+    }
+
+    @Test
+    public void testCheckpoint() throws IOException {
+        Path log = Files.createTempFile("bplustree", ".wal");
+        Path checkpoint = log.resolveSibling(log.getFileName() + ".checkpoint");
+
+        try {
+            try (DurableBPlusTree<Integer, String> tree = open(log)) {
+                for (int key = 0; key < 1000; key++) {
+                    tree.insert(key, "v" + key);
+                }
+                tree.checkpoint();
+                assertEquals(16, Files.size(log));
+
+                // rolled forward from the checkpoint
+                for (int key = 0; key < 500; key++) {
+                    tree.delete(key);
+                }
+                tree.insert(2000, "v2000");
+            }
+
+            try (DurableBPlusTree<Integer, String> tree = open(log)) {
+                for (int key = 0; key < 1000; key++) {
+                    assertEquals(key < 500 ? null : "v" + key, tree.search(key));
+                }
+                assertEquals("v2000", tree.search(2000));
+                tree.checkpoint();
+            }
+
+            try (DurableBPlusTree<Integer, String> tree = open(log)) {
+                assertNull(tree.search(499));
+                assertEquals("v500", tree.search(500));
+                assertEquals("v2000", tree.search(2000));
+            }
+        } finally {
+            Files.delete(log);
+            Files.deleteIfExists(checkpoint);
+        }
+    }
+
+    @Test
+    public void testGroupCommit() throws Exception {
+        Path log = Files.createTempFile("bplustree", ".wal");
+        final int threads = 8;
+        final int keysPerThread = 100;
+
+        try {
+            try (final DurableBPlusTree<Integer, String> tree = open(log)) {
+                List<Thread> writers = new ArrayList<>();
+                final List<Throwable> failures = new ArrayList<>();
+
+                for (int t = 0; t < threads; t++) {
+                    final int thread = t;
+                    writers.add(new Thread(() -> {
+                        try {
+                            for (int i = 0; i < keysPerThread; i++) {
+                                tree.insert(i * threads + thread, "v" + thread);
+                            }
+                        } catch (IOException e) {
+                            synchronized (failures) {
+                                failures.add(e);
+                            }
+                        }
+                    }));
+                }
+
+                for (Thread writer : writers) {
+                    writer.start();
+                }
+                for (Thread writer : writers) {
+                    writer.join();
+                }
+                assertEquals(0, failures.size());
+            }
+
+            try (DurableBPlusTree<Integer, String> tree = open(log)) {
+                for (int key = 0; key < threads * keysPerThread; key++) {
+                    assertEquals("v" + key % threads, tree.search(key));
+                }
+            }
+        } finally {
+            Files.delete(log);
+        }
+    }
+
+    private static DurableBPlusTree<Integer, String> open(Path log) throws IOException {
+        return new DurableBPlusTree<>(log, 8, BPlusTreeCodec.INTEGER, BPlusTreeCodec.STRING);
+    }
+}
@@ -0,0 +1,53 @@
+package bplustree;
+
+/**
+ * A B+ tree mapping primitive long keys to object values.
+ * The keys are stored in long[] arrays, so they are neither boxed nor compared
+ * through compareTo.
+ *
+ * @param <TValue>
+ *            the data type of the value
+ */
+public class LongBPlusTree<TValue> extends AbstractLongBPlusTree<TValue> {
+
+    public LongBPlusTree() {
+        this(BPlusTree.DEFAULT_ORDER);
+    }
+
+    public LongBPlusTree(int order) {
+        this(order, order);
+    }
+
+    public LongBPlusTree(int leafOrder, int internalOrder) {
+        super(leafOrder, internalOrder);
+    }
+
+    @Override
+    LongBPlusTreeLeafNode createLeafNode() {
+        return new LongBPlusTreeObjectLeafNode<TValue>(this);
+    }
+
+    /**
+     * Insert a key and value pair to the B Plus Tree
+     */
+    @SuppressWarnings("unchecked")
+    public void insert(long key, TValue value) {
+        LongBPlusTreeObjectLeafNode<TValue> leafNode = (LongBPlusTreeObjectLeafNode<TValue>) findLeafNode(key);
+        leafNode.insert(key, value);
+
+        afterInsert(leafNode);
+    }
+
+    /**
+     * Search a key value on the tree and return its associated value,
+     * or null if the key is absent.
+     */
+    @SuppressWarnings("unchecked")
+    public TValue search(long key) {
+        LongBPlusTreeObjectLeafNode<TValue> leaf = (LongBPlusTreeObjectLeafNode<TValue>) findLeafNode(key);
+
+        int index = leaf.find(key);
+
+        return (index == -1) ? null : leaf.getValue(index);
+    }
+}
@@ -0,0 +1,97 @@
+package bplustree;
+
+import java.util.NoSuchElementException;
+
+/**
+ * A lazy cursor over a key range of a B+ tree with primitive long keys.
+ * Like BPlusTreeCursor it follows the leaf sibling links, and nextKey()
+ * returns a primitive so a scan neither boxes nor allocates per entry.
+ *
+ * The cursor must not be used after the tree is modified.
+ *
+ * @param <TValue>
+ *            the data type of the value
+ */
+public class LongBPlusTreeCursor<TValue> {
+    private LongBPlusTreeLeafNode leaf;
+    private int index;
+    private final long to;
+    private final boolean toInclusive;
+
+    private LongBPlusTreeLeafNode currentLeaf;
+    private int currentIndex;
+
+    LongBPlusTreeCursor(LongBPlusTreeLeafNode leaf, int index, long to, boolean toInclusive) {
+        this.leaf = leaf;
+        this.index = index;
+        this.to = to;
+        this.toInclusive = toInclusive;
+        this.currentLeaf = null;
+        this.currentIndex = -1;
+
+        this.skipExhaustedLeaves();
+    }
+
+    private void skipExhaustedLeaves() {
+        while (this.leaf != null && this.index >= this.leaf.getKeyCount()) {
+            this.leaf = (LongBPlusTreeLeafNode) this.leaf.rightSibling;
+            this.index = 0;
+        }
+    }
+
+    public boolean hasNext() {
+        if (this.leaf == null) {
+            return false;
+        }
+
+        long key = this.leaf.getKey(this.index);
+        if (key > this.to || (key == this.to && !this.toInclusive)) {
+            // past the upper bound, no need to look at the remaining leaves
+            this.leaf = null;
+            return false;
+        }
+
+        return true;
+    }
+
+    /**
+     * Move to the next entry of the range and return its key.
+     */
+    public long nextKey() {
+        if (!this.hasNext()) {
+            throw new NoSuchElementException();
+        }
+
+        this.currentLeaf = this.leaf;
+        this.currentIndex = this.index;
+
+        this.index += 1;
+        this.skipExhaustedLeaves();
+
+        return this.currentLeaf.getKey(this.currentIndex);
+    }
+
+    /**
+     * Return the value of the entry returned by the last call to nextKey().
+     */
+    @SuppressWarnings("unchecked")
+    public TValue getValue() {
+        this.checkCurrent();
+        return (TValue) this.currentLeaf.getValueObject(this.currentIndex);
+    }
+
+    /**
+     * Return the value of the entry returned by the last call to nextKey()
+     * without boxing, only for trees with primitive long values.
+     */
+    public long getLongValue() {
+        this.checkCurrent();
+        return ((LongBPlusTreeLongLeafNode) this.currentLeaf).getValue(this.currentIndex);
+    }
+
+    private void checkCurrent() {
+        if (this.currentLeaf == null) {
+            throw new IllegalStateException("nextKey() has not been called");
+        }
+    }
+}
@@ -0,0 +1,223 @@
+package bplustree;
+
+class LongBPlusTreeInternalNode extends LongBPlusTreeNode {
+    protected final LongBPlusTreeNode[] children;
+
+    LongBPlusTreeInternalNode(AbstractLongBPlusTree<?> tree) {
+        super(tree, tree.getInternalOrder());
+        this.children = new LongBPlusTreeNode[this.order + 2];
+    }
+
+    public LongBPlusTreeNode getChild(int index) {
+        return this.children[index];
+    }
+
+    public void setChild(int index, LongBPlusTreeNode child) {
+        this.children[index] = child;
+        if (child != null) {
+            child.setParentNode(this);
+        }
+    }
+
+    @Override
+    public BPlusTreeNodeType getNodeType() {
+        return BPlusTreeNodeType.InternalNode;
+    }
+
+    @Override
+    public int find(long key) {
+        int index = this.bsearch(key);
+
+        // 当 key 恰好为索引值时，key 应该在右孩子的节点上
+        return (index < this.getKeyCount() && this.keys[index] == key) ? index + 1 : index;
+    }
+
+    /* The codes below are used to support insertion operation */
+    private void insertAt(int index, long key, LongBPlusTreeNode leftChild, LongBPlusTreeNode rightChild) {
+        // move space for the new key
+        for (int i = this.getKeyCount() + 1; i > index; i--) {
+            this.setChild(i, this.getChild(i - 1));
+        }
+        System.arraycopy(this.keys, index, this.keys, index + 1, this.getKeyCount() - index);
+
+        // insert the new key
+        this.setKey(index, key);
+        this.setChild(index, leftChild);
+        this.setChild(index + 1, rightChild);
+        this.keyCount += 1;
+    }
+
+    /**
+     * When splits a internal node, the middle key is kicked out
+     * and be pushed to parent node.
+     */
+    @Override
+    protected LongBPlusTreeNode split() {
+        int midIndex = this.getKeyCount() / 2;
+
+        LongBPlusTreeInternalNode newNode = this.tree.createInternalNode();
+
+        System.arraycopy(this.keys, midIndex + 1, newNode.keys, 0, this.getKeyCount() - midIndex - 1);
+
+        for (int i = midIndex + 1; i <= this.getKeyCount(); i++) {
+            newNode.setChild(i - midIndex - 1, this.getChild(i));
+            this.children[i] = null;
+        }
+
+        newNode.keyCount = this.getKeyCount() - midIndex - 1;
+        this.keyCount = midIndex;
+
+        return newNode;
+    }
+
+    protected LongBPlusTreeNode mergePushUpKey(long key, LongBPlusTreeNode leftChild, LongBPlusTreeNode rightChild) {
+        // find the target position of the new key
+        int index = this.bsearch(key);
+
+        // insert the new key
+        this.insertAt(index, key, leftChild, rightChild);
+
+        // check whether current node need to be split
+        if (this.isOverflow()) {
+            return this.handleOverflow();
+        } else {
+            return this.getParentNode() == null ? this : null;
+        }
+    }
+
+    /* The codes below are used to support delete operation */
+    protected void deleteAt(int index) {
+        // remove the key at index and the child on its right
+        System.arraycopy(this.keys, index + 1, this.keys, index, this.getKeyCount() - index - 1);
+
+        for (int i = index + 1; i < this.getKeyCount(); i++) {
+            this.setChild(i, this.getChild(i + 1));
+        }
+
+        this.children[this.getKeyCount()] = null;
+        this.keyCount -= 1;
+    }
+
+    private int indexOfChild(LongBPlusTreeNode child) {
+        int index = 0;
+
+        while (index < this.getKeyCount() + 1 && this.getChild(index) != child) {
+            index += 1;
+        }
+
+        return index;
+    }
+
+    protected void transferChildren(LongBPlusTreeNode borrower, LongBPlusTreeNode lender, int borrowIndex) {
+        int borrowerChildIndex = this.indexOfChild(borrower);
+
+        if (borrowerChildIndex == 0 || this.getChild(borrowerChildIndex - 1) != lender) {
+            // borrow a key from right sibling
+            long upKey = borrower.transferFromSibling(this.getKey(borrowerChildIndex), lender, borrowIndex);
+            this.setKey(borrowerChildIndex, upKey);
+        } else {
+            // borrow a key from left sibling
+            long upKey = borrower.transferFromSibling(this.getKey(borrowerChildIndex - 1), lender, borrowIndex);
+            this.setKey(borrowerChildIndex - 1, upKey);
+        }
+    }
+
+    protected LongBPlusTreeNode fuseChildren(LongBPlusTreeNode leftChild, LongBPlusTreeNode rightChild) {
+        int index = this.indexOfChild(leftChild);
+        long sinkKey = this.getKey(index);
+
+        // merge two children and the sink key into the left child node
+        leftChild.fuseWithSibling(sinkKey, rightChild);
+
+        // remove the sink key, keep the left child and abandon the right child
+        this.deleteAt(index);
+
+        // check whether need to propagate borrow or fusion to parent
+        if (this.isUnderflow()) {
+            if (this.getParentNode() == null) {
+                // current node is root, only remove keys or delete the whole root node
+                if (this.getKeyCount() == 0) {
+                    leftChild.setParentNode(null);
+                    return leftChild;
+                } else {
+                    return null;
+                }
+            } else {
+                return this.handleUnderflow();
+            }
+        }
+
+        return null;
+    }
+
+    @Override
+    protected long transferFromSibling(long sinkKey, LongBPlusTreeNode sibling, int borrowIndex) {
+        LongBPlusTreeInternalNode siblingNode = (LongBPlusTreeInternalNode) sibling;
+
+        long upKey;
+
+        if (borrowIndex == 0) {
+            // borrow the first key from right sibling, append it to tail
+            int index = this.getKeyCount();
+            this.setKey(index, sinkKey);
+            this.setChild(index + 1, siblingNode.getChild(0));
+            this.keyCount += 1;
+
+            // remove the first key and the first child of the right sibling
+            upKey = siblingNode.getKey(0);
+            siblingNode.setChild(0, siblingNode.getChild(1));
+            siblingNode.deleteAt(0);
+        } else {
+            // borrow the last key from left sibling, insert it to head
+            this.insertAt(0, sinkKey, siblingNode.getChild(borrowIndex + 1), this.getChild(0));
+            upKey = siblingNode.getKey(borrowIndex);
+            siblingNode.deleteAt(borrowIndex);
+        }
+
+        return upKey;
+    }
+
+    @Override
+    protected void fuseWithSibling(long sinkKey, LongBPlusTreeNode rightSibling) {
+        LongBPlusTreeInternalNode rightSiblingNode = (LongBPlusTreeInternalNode) rightSibling;
+
+        int j = this.getKeyCount();
+        this.setKey(j++, sinkKey);
+
+        System.arraycopy(rightSiblingNode.keys, 0, this.keys, j, rightSiblingNode.getKeyCount());
+
+        for (int i = 0; i < rightSiblingNode.getKeyCount() + 1; i++) {
+            this.setChild(j + i, rightSiblingNode.getChild(i));
+        }
+
+        this.keyCount += 1 + rightSiblingNode.getKeyCount();
+
+        this.setRightSibling(rightSiblingNode.rightSibling);
+        if (rightSiblingNode.rightSibling != null) {
+            rightSiblingNode.rightSibling.setLeftSibling(this);
+        }
+    }
+
+    /*
+     * A rotation occurs when a leaf page is full,
+     * but one of its sibling pages is not full.
+     * Rather than splitting the leaf page, we move a record to its sibling,
+     * adjusting the indices as necessary.
+     */
+    protected void rotate(LongBPlusTreeLeafNode leafNode) {
+        LongBPlusTreeNode leftSibling = leafNode.getLeftSibling();
+        LongBPlusTreeNode rightSibling = leafNode.getRightSibling();
+
+        int index = this.indexOfChild(leafNode);
+
+        if (leftSibling != null && !leftSibling.isFull()) {
+            // Rotate a key to the left
+            leafNode.rotateToSibling((LongBPlusTreeLeafNode) leftSibling);
+            this.setKey(index - 1, leafNode.getKey(0));
+        } else if (rightSibling != null && !rightSibling.isFull()) {
+            // Rotate a key to the right
+            leafNode.rotateToSibling((LongBPlusTreeLeafNode) rightSibling);
+            this.setKey(index, rightSibling.getKey(0));
+        }
+    }
+}
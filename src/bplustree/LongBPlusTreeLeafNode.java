@@ -0,0 +1,160 @@
+package bplustree;
+
+/**
+ * A leaf node with primitive long keys.
+ * The value storage is left to the subclasses, which keep their values in an
+ * array parallel to the keys and move them through moveValues/clearValues,
+ * so that every structural operation is shared between the value types.
+ */
+abstract class LongBPlusTreeLeafNode extends LongBPlusTreeNode {
+
+    protected LongBPlusTreeLeafNode(AbstractLongBPlusTree<?> tree) {
+        super(tree, tree.getLeafOrder());
+    }
+
+    /**
+     * Copy count values starting at from to the values of target starting at to,
+     * target may be this node.
+     */
+    protected abstract void moveValues(int from, LongBPlusTreeLeafNode target, int to, int count);
+
+    /**
+     * Drop the references held by the value slots in [from, to).
+     */
+    protected abstract void clearValues(int from, int to);
+
+    /**
+     * Return the value at index, boxed if the values are primitives.
+     */
+    protected abstract Object getValueObject(int index);
+
+    @Override
+    public BPlusTreeNodeType getNodeType() {
+        return BPlusTreeNodeType.LeafNode;
+    }
+
+    @Override
+    public int find(long key) {
+        int index = this.bsearch(key);
+
+        return (index < this.getKeyCount() && this.keys[index] == key) ? index : -1;
+    }
+
+    /**
+     * Open a slot for key at its sorted position and return the slot index,
+     * the caller stores the value at that index.
+     */
+    protected int insertKey(long key) {
+        int index = this.bsearch(key);
+
+        // move space for the new key
+        System.arraycopy(this.keys, index, this.keys, index + 1, this.getKeyCount() - index);
+        this.moveValues(index, this, index + 1, this.getKeyCount() - index);
+
+        this.setKey(index, key);
+        this.keyCount += 1;
+
+        return index;
+    }
+
+    /**
+     * When splits a leaf node, the middle key is kept on new node
+     * and be pushed to parent node.
+     */
+    @Override
+    protected LongBPlusTreeNode split() {
+        // 分裂当前叶节点
+        int midIndex = this.getKeyCount() / 2;
+        int count = this.getKeyCount() - midIndex;
+
+        LongBPlusTreeLeafNode newNode = this.tree.createLeafNode();
+
+        System.arraycopy(this.keys, midIndex, newNode.keys, 0, count);
+        this.moveValues(midIndex, newNode, 0, count);
+        this.clearValues(midIndex, this.getKeyCount());
+
+        newNode.keyCount = count;
+        this.keyCount = midIndex;
+
+        return newNode;
+    }
+
+    /* The codes below are used to support deletion operation */
+    public boolean delete(long key) {
+        int index = this.find(key);
+
+        if (index == -1) {
+            return false;
+        }
+
+        this.deleteAt(index);
+
+        return true;
+    }
+
+    protected void deleteAt(int index) {
+        System.arraycopy(this.keys, index + 1, this.keys, index, this.getKeyCount() - index - 1);
+        this.moveValues(index + 1, this, index, this.getKeyCount() - index - 1);
+        this.clearValues(this.getKeyCount() - 1, this.getKeyCount());
+        this.keyCount -= 1;
+    }
+
+    @Override
+    protected long transferFromSibling(long sinkKey, LongBPlusTreeNode sibling, int borrowIndex) {
+        LongBPlusTreeLeafNode siblingNode = (LongBPlusTreeLeafNode) sibling;
+
+        if (borrowIndex == 0) {
+            // borrow the first entry of the right sibling, append it to tail
+            this.setKey(this.getKeyCount(), siblingNode.getKey(0));
+            siblingNode.moveValues(0, this, this.getKeyCount(), 1);
+            this.keyCount += 1;
+            siblingNode.deleteAt(0);
+
+            return siblingNode.getKey(0);
+        } else {
+            // borrow the last entry of the left sibling, insert it to head
+            System.arraycopy(this.keys, 0, this.keys, 1, this.getKeyCount());
+            this.moveValues(0, this, 1, this.getKeyCount());
+            this.setKey(0, siblingNode.getKey(borrowIndex));
+            siblingNode.moveValues(borrowIndex, this, 0, 1);
+            this.keyCount += 1;
+            siblingNode.deleteAt(borrowIndex);
+
+            return this.getKey(0);
+        }
+    }
+
+    @Override
+    protected void fuseWithSibling(long sinkKey, LongBPlusTreeNode rightSibling) {
+        // 因为叶节点中肯定包含 sinkKey，所以不用再在叶节点中添加
+        LongBPlusTreeLeafNode siblingLeaf = (LongBPlusTreeLeafNode) rightSibling;
+
+        System.arraycopy(siblingLeaf.keys, 0, this.keys, this.getKeyCount(), siblingLeaf.getKeyCount());
+        siblingLeaf.moveValues(0, this, this.getKeyCount(), siblingLeaf.getKeyCount());
+        this.keyCount += siblingLeaf.getKeyCount();
+
+        this.setRightSibling(siblingLeaf.rightSibling);
+        if (siblingLeaf.rightSibling != null) {
+            siblingLeaf.rightSibling.setLeftSibling(this);
+        }
+    }
+
+    protected void rotateToSibling(LongBPlusTreeLeafNode target) {
+        if (target == this.leftSibling) {
+            // 移到左节点
+            target.setKey(target.getKeyCount(), this.getKey(0));
+            this.moveValues(0, target, target.getKeyCount(), 1);
+            target.keyCount += 1;
+            this.deleteAt(0);
+        } else {
+            // 移到右节点
+            int last = this.getKeyCount() - 1;
+            System.arraycopy(target.keys, 0, target.keys, 1, target.getKeyCount());
+            target.moveValues(0, target, 1, target.getKeyCount());
+            target.setKey(0, this.getKey(last));
+            this.moveValues(last, target, 0, 1);
+            target.keyCount += 1;
+            this.deleteAt(last);
+        }
+    }
+}
@@ -0,0 +1,40 @@
+package bplustree;
+
+/**
+ * A leaf node mapping primitive long keys to primitive long values.
+ */
+class LongBPlusTreeLongLeafNode extends LongBPlusTreeLeafNode {
+    private final long[] values;
+
+    LongBPlusTreeLongLeafNode(AbstractLongBPlusTree<Long> tree) {
+        super(tree);
+        this.values = new long[this.order + 1];
+    }
+
+    public long getValue(int index) {
+        return this.values[index];
+    }
+
+    public void setValue(int index, long value) {
+        this.values[index] = value;
+    }
+
+    public void insert(long key, long value) {
+        this.values[this.insertKey(key)] = value;
+    }
+
+    @Override
+    protected void moveValues(int from, LongBPlusTreeLeafNode target, int to, int count) {
+        System.arraycopy(this.values, from, ((LongBPlusTreeLongLeafNode) target).values, to, count);
+    }
+
+    @Override
+    protected void clearValues(int from, int to) {
+        // primitive values hold no references
+    }
+
+    @Override
+    protected Object getValueObject(int index) {
+        return this.values[index];
+    }
+}
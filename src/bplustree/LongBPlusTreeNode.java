@@ -0,0 +1,167 @@
+package bplustree;
+
+/**
+ * A node of a B+ tree specialized for primitive long keys.
+ * It mirrors BPlusTreeNode, but the keys live in a long[] so they are never boxed
+ * and a binary search probe is a plain comparison instead of a compareTo call.
+ */
+abstract class LongBPlusTreeNode {
+    protected final AbstractLongBPlusTree<?> tree;
+    protected final int order;
+    protected final long[] keys;
+    protected int keyCount;
+    protected LongBPlusTreeInternalNode parentNode;
+    protected LongBPlusTreeNode leftSibling;
+    protected LongBPlusTreeNode rightSibling;
+
+    protected LongBPlusTreeNode(AbstractLongBPlusTree<?> tree, int order) {
+        this.tree = tree;
+        this.order = order;
+        this.keys = new long[order + 1];
+        this.keyCount = 0;
+        this.parentNode = null;
+        this.leftSibling = null;
+        this.rightSibling = null;
+    }
+
+    public int getOrder() {
+        return this.order;
+    }
+
+    protected int getMinKeyCount() {
+        return this.order / 2;
+    }
+
+    public int getKeyCount() {
+        return keyCount;
+    }
+
+    public long getKey(int index) {
+        return this.keys[index];
+    }
+
+    public void setKey(int index, long key) {
+        this.keys[index] = key;
+    }
+
+    public LongBPlusTreeInternalNode getParentNode() {
+        return parentNode;
+    }
+
+    public void setParentNode(LongBPlusTreeInternalNode parentNode) {
+        this.parentNode = parentNode;
+    }
+
+    public LongBPlusTreeNode getLeftSibling() {
+        if (this.leftSibling != null && this.leftSibling.getParentNode() == this.getParentNode()) {
+            return this.leftSibling;
+        }
+
+        return null;
+    }
+
+    public void setLeftSibling(LongBPlusTreeNode leftSibling) {
+        this.leftSibling = leftSibling;
+    }
+
+    public LongBPlusTreeNode getRightSibling() {
+        if (this.rightSibling != null && this.rightSibling.getParentNode() == this.getParentNode()) {
+            return this.rightSibling;
+        }
+
+        return null;
+    }
+
+    public void setRightSibling(LongBPlusTreeNode rightSibling) {
+        this.rightSibling = rightSibling;
+    }
+
+    /**
+     * Return the position of the first key not less than key, see LongKeySearch.
+     */
+    protected int bsearch(long key) {
+        return LongKeySearch.search(this.keys, this.keyCount, key);
+    }
+
+    public abstract BPlusTreeNodeType getNodeType();
+
+    /**
+     * Search a key on current node, if found the key then return its position,
+     * otherwise return -1 for a leaf node,
+     * return the child node index which should contain the key for a internal node.
+     */
+    public abstract int find(long key);
+
+    /* The codes below are used to support insertion operation */
+    public boolean isOverflow() {
+        return this.keyCount > this.order;
+    }
+
+    protected boolean isFull() {
+        return this.keyCount == this.order;
+    }
+
+    public LongBPlusTreeNode handleOverflow() {
+        int midIndex = this.getKeyCount() / 2;
+        long upKey = this.getKey(midIndex);
+
+        LongBPlusTreeNode newNode = this.split();
+
+        if (this.getParentNode() == null) {
+            this.setParentNode(this.tree.createInternalNode());
+        }
+        newNode.setParentNode(this.getParentNode());
+
+        // maintain links of sibling nodes
+        newNode.setLeftSibling(this);
+        newNode.setRightSibling(this.rightSibling);
+        if (this.rightSibling != null) {
+            this.rightSibling.setLeftSibling(newNode);
+        }
+        this.setRightSibling(newNode);
+
+        // push up a key to parent internal node
+        return this.getParentNode().mergePushUpKey(upKey, this, newNode);
+    }
+
+    protected abstract LongBPlusTreeNode split();
+
+    /* The codes below are used to support deletion operation */
+    public boolean isUnderflow() {
+        return this.getKeyCount() < this.getMinKeyCount();
+    }
+
+    public boolean canLendAKey() {
+        return this.getKeyCount() > this.getMinKeyCount();
+    }
+
+    public LongBPlusTreeNode handleUnderflow() {
+        if (this.getParentNode() == null) {
+            return null;
+        }
+
+        // try to borrow a key from sibling
+        LongBPlusTreeNode leftSibling = this.getLeftSibling();
+        if (leftSibling != null && leftSibling.canLendAKey()) {
+            this.getParentNode().transferChildren(this, leftSibling, leftSibling.getKeyCount() - 1);
+            return null;
+        }
+
+        LongBPlusTreeNode rightSibling = this.getRightSibling();
+        if (rightSibling != null && rightSibling.canLendAKey()) {
+            this.getParentNode().transferChildren(this, rightSibling, 0);
+            return null;
+        }
+
+        // Can not borrow a key from any sibling, then do fusion with sibling
+        if (leftSibling != null) {
+            return this.getParentNode().fuseChildren(leftSibling, this);
+        } else {
+            return this.getParentNode().fuseChildren(this, rightSibling);
+        }
+    }
+
+    protected abstract long transferFromSibling(long sinkKey, LongBPlusTreeNode sibling, int borrowIndex);
+
+    protected abstract void fuseWithSibling(long sinkKey, LongBPlusTreeNode rightSibling);
+}
@@ -0,0 +1,43 @@
+package bplustree;
+
+/**
+ * A leaf node mapping primitive long keys to object values.
+ */
+class LongBPlusTreeObjectLeafNode<TValue> extends LongBPlusTreeLeafNode {
+    private final Object[] values;
+
+    LongBPlusTreeObjectLeafNode(AbstractLongBPlusTree<TValue> tree) {
+        super(tree);
+        this.values = new Object[this.order + 1];
+    }
+
+    @SuppressWarnings("unchecked")
+    public TValue getValue(int index) {
+        return (TValue) this.values[index];
+    }
+
+    public void setValue(int index, TValue value) {
+        this.values[index] = value;
+    }
+
+    public void insert(long key, TValue value) {
+        this.values[this.insertKey(key)] = value;
+    }
+
+    @Override
+    protected void moveValues(int from, LongBPlusTreeLeafNode target, int to, int count) {
+        System.arraycopy(this.values, from, ((LongBPlusTreeObjectLeafNode<?>) target).values, to, count);
+    }
+
+    @Override
+    protected void clearValues(int from, int to) {
+        for (int i = from; i < to; i++) {
+            this.values[i] = null;
+        }
+    }
+
+    @Override
+    protected Object getValueObject(int index) {
+        return this.values[index];
+    }
+}
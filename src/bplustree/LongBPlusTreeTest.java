@@ -0,0 +1,66 @@
+package bplustree;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+
+import org.junit.Test;
+
+public class LongBPlusTreeTest {
+    @Test
+    public void testInsertSearchDelete() {
+        LongLongBPlusTree tree = new LongLongBPlusTree(5);
+        TreeMap<Long, Long> expected = new TreeMap<>();
+        Random random = new Random(0);
+
+        for (int i = 0; i < 20000; i++) {
+            long key = random.nextInt(5000) - 2500;
+
+            if (random.nextInt(3) == 0) {
+                tree.delete(key);
+                expected.remove(key);
+            } else if (!expected.containsKey(key)) {
+                tree.insert(key, key * 3);
+                expected.put(key, key * 3);
+            }
+        }
+
+        for (long key = -2500; key < 2500; key++) {
+            Long value = expected.get(key);
+            assertEquals(value == null ? -1 : value.longValue(), tree.search(key, -1));
+            assertEquals(value != null, tree.containsKey(key));
+        }
+
+        LongBPlusTreeCursor<Long> cursor = tree.scan(-100, true, 100, false);
+        for (Map.Entry<Long, Long> entry : expected.subMap(-100L, 100L).entrySet()) {
+            assertTrue(cursor.hasNext());
+            assertEquals(entry.getKey().longValue(), cursor.nextKey());
+            assertEquals(entry.getValue().longValue(), cursor.getLongValue());
+        }
+        assertFalse(cursor.hasNext());
+    }
+
+    @Test
+    public void testObjectValues() {
+        LongBPlusTree<String> tree = new LongBPlusTree<>();
+
+        for (long key = 0; key < 1000; key++) {
+            tree.insert(key, String.valueOf(key));
+        }
+        for (long key = 0; key < 1000; key += 2) {
+            tree.delete(key);
+        }
+
+        for (long key = 0; key < 1000; key++) {
+            if (key % 2 == 0) {
+                assertNull(tree.search(key));
+            } else {
+                assertEquals(String.valueOf(key), tree.search(key));
+            }
+        }
+    }
+}
@@ -0,0 +1,132 @@
+package bplustree;
+
+/**
+ * Search strategies over the sorted long keys of a node, all of them return
+ * the index of the first key in keys[0, count) which is not less than key.
+ *
+ * The classic binary search takes a branch per probe which the CPU cannot
+ * predict, so search() picks the strategy from the size of the node:
+ * <ul>
+ * <li>up to {@link #LINEAR_SCAN_MAX_KEYS} keys, a linear scan counting the
+ * smaller keys, without any data dependent branch;</li>
+ * <li>beyond, a branchless binary search, whose probes compile to conditional
+ * moves.</li>
+ * </ul>
+ * interpolationSearch() suits large nodes of evenly spread keys, it is not
+ * picked by search() since a node cannot tell cheaply whether its keys are.
+ */
+public final class LongKeySearch {
+    public final static int LINEAR_SCAN_MAX_KEYS = 8;
+
+    private LongKeySearch() {
+    }
+
+    public static int search(long[] keys, int count, long key) {
+        if (count <= LINEAR_SCAN_MAX_KEYS) {
+            return linearSearch(keys, 0, count, key);
+        } else {
+            return branchlessSearch(keys, 0, count, key);
+        }
+    }
+
+    public static int binarySearch(long[] keys, int count, long key) {
+        int first = 0;
+        int last = count;
+
+        while (first < last) {
+            // 返回 [first, last) 内第一个不小于 key 值的位置
+            int mid = (first + last) >>> 1;
+
+            if (keys[mid] < key) {
+                first = mid + 1;
+            } else {
+                last = mid;
+            }
+        }
+
+        return first;
+    }
+
+    public static int linearSearch(long[] keys, int count, long key) {
+        return linearSearch(keys, 0, count, key);
+    }
+
+    private static int linearSearch(long[] keys, int from, int to, long key) {
+        // 统计小于 key 的个数，循环次数与数据无关
+        int index = from;
+
+        for (int i = from; i < to; i++) {
+            index += (keys[i] < key) ? 1 : 0;
+        }
+
+        return index;
+    }
+
+    public static int branchlessSearch(long[] keys, int count, long key) {
+        return branchlessSearch(keys, 0, count, key);
+    }
+
+    private static int branchlessSearch(long[] keys, int from, int to, long key) {
+        int length = to - from;
+
+        if (length == 0) {
+            return from;
+        }
+
+        // the result stays in [base, base + length], the loop only depends on length
+        int base = from;
+        while (length > 1) {
+            int half = length >>> 1;
+            base = (keys[base + half] < key) ? base + half : base;
+            length -= half;
+        }
+
+        return base + ((keys[base] < key) ? 1 : 0);
+    }
+
+    /**
+     * Guess the position of the key from the first and last keys, which takes a
+     * few probes when the keys are evenly spread, narrow the range around the
+     * guess, then finish with search(). Skewed keys fall back to the window
+     * left after a couple of guesses.
+     */
+    public static int interpolationSearch(long[] keys, int count, long key) {
+        final int span = LINEAR_SCAN_MAX_KEYS / 2;
+        int low = 0;
+        int high = count;
+
+        for (int guesses = 0; guesses < 2 && high - low > LINEAR_SCAN_MAX_KEYS; guesses++) {
+            long lowKey = keys[low];
+            long highKey = keys[high - 1];
+
+            if (key <= lowKey) {
+                return low;
+            }
+            if (key > highKey) {
+                return high;
+            }
+
+            // lowKey < key <= highKey, so the guess falls in [low, high - 1]
+            double fraction = ((double) key - lowKey) / ((double) highKey - lowKey);
+            int guess = low + (int) (fraction * (high - 1 - low));
+
+            if (keys[guess] < key) {
+                low = guess + 1;
+                if (guess + span < high && keys[guess + span] >= key) {
+                    high = guess + span;
+                }
+            } else {
+                high = guess;
+                if (guess - span >= low && keys[guess - span] < key) {
+                    low = guess - span + 1;
+                }
+            }
+        }
+
+        if (high - low <= LINEAR_SCAN_MAX_KEYS) {
+            return linearSearch(keys, low, high, key);
+        } else {
+            return branchlessSearch(keys, low, high, key);
+        }
+    }
+}
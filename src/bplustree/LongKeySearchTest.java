@@ -0,0 +1,51 @@
+package bplustree;
+import static org.junit.Assert.assertEquals;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import org.junit.Test;
+
+public class LongKeySearchTest {
+    @Test
+    public void testStrategiesAgree() {
+        Random random = new Random(0);
+
+        for (int round = 0; round < 2000; round++) {
+            int count = random.nextInt(600);
+            long[] keys = new long[count + 1];
+
+            for (int i = 0; i < count; i++) {
+                // uniform, skewed and extreme keys
+                switch (round % 3) {
+                    case 0:
+                        keys[i] = random.nextInt(100000);
+                        break;
+                    case 1:
+                        keys[i] = (long) Math.pow(random.nextInt(1000), 4);
+                        break;
+                    default:
+                        keys[i] = random.nextLong();
+                }
+            }
+            Arrays.sort(keys, 0, count);
+
+            for (int probe = 0; probe < 50; probe++) {
+                long key = (count == 0 || random.nextBoolean()) ? random.nextLong()
+                        : keys[random.nextInt(count)] + random.nextInt(3) - 1;
+                int expected = LongKeySearch.binarySearch(keys, count, key);
+
+                assertEquals(expected, LongKeySearch.branchlessSearch(keys, count, key));
+                assertEquals(expected, LongKeySearch.linearSearch(keys, count, key));
+                assertEquals(expected, LongKeySearch.interpolationSearch(keys, count, key));
+                assertEquals(expected, LongKeySearch.search(keys, count, key));
+            }
+
+            if (count > 0) {
+                assertEquals(0, LongKeySearch.search(keys, count, Long.MIN_VALUE));
+                assertEquals(LongKeySearch.binarySearch(keys, count, Long.MAX_VALUE),
+                        LongKeySearch.interpolationSearch(keys, count, Long.MAX_VALUE));
+            }
+        }
+    }
+}
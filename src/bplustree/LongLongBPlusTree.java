@@ -0,0 +1,47 @@
+package bplustree;
+
+/**
+ * A B+ tree mapping primitive long keys to primitive long values.
+ * Neither keys nor values are boxed, a leaf entry costs 16 bytes of array space.
+ */
+public class LongLongBPlusTree extends AbstractLongBPlusTree<Long> {
+
+    public LongLongBPlusTree() {
+        this(BPlusTree.DEFAULT_ORDER);
+    }
+
+    public LongLongBPlusTree(int order) {
+        this(order, order);
+    }
+
+    public LongLongBPlusTree(int leafOrder, int internalOrder) {
+        super(leafOrder, internalOrder);
+    }
+
+    @Override
+    LongBPlusTreeLeafNode createLeafNode() {
+        return new LongBPlusTreeLongLeafNode(this);
+    }
+
+    /**
+     * Insert a key and value pair to the B Plus Tree
+     */
+    public void insert(long key, long value) {
+        LongBPlusTreeLongLeafNode leafNode = (LongBPlusTreeLongLeafNode) findLeafNode(key);
+        leafNode.insert(key, value);
+
+        afterInsert(leafNode);
+    }
+
+    /**
+     * Search a key value on the tree and return its associated value,
+     * or missingValue if the key is absent.
+     */
+    public long search(long key, long missingValue) {
+        LongBPlusTreeLongLeafNode leaf = (LongBPlusTreeLongLeafNode) findLeafNode(key);
+
+        int index = leaf.find(key);
+
+        return (index == -1) ? missingValue : leaf.getValue(index);
+    }
+}
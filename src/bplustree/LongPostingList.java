@@ -0,0 +1,124 @@
+package bplustree;
+
+import java.util.Arrays;
+
+/**
+ * The sorted distinct long values of a key of a BPlusTreeMultimap.
+ *
+ * A single value, the common case of an index over nearly unique keys, is held
+ * inline in a field. A second value moves them into a long array, which grows
+ * by half and shrinks again once it is mostly empty. Values appended in
+ * ascending order, as row ids usually are, only cost a comparison with the
+ * last one, others are placed by a binary search.
+ */
+final class LongPostingList {
+    private final static int INITIAL_CAPACITY = 4;
+
+    private long single;
+    private long[] values;
+    private int size;
+
+    LongPostingList(long value) {
+        this.single = value;
+        this.size = 1;
+    }
+
+    int size() {
+        return this.size;
+    }
+
+    boolean isEmpty() {
+        return this.size == 0;
+    }
+
+    long get(int index) {
+        return (this.values == null) ? this.single : this.values[index];
+    }
+
+    boolean contains(long value) {
+        return this.indexOf(value) >= 0;
+    }
+
+    /**
+     * Return the index of value, or -(insertion point) - 1 if it is missing.
+     */
+    private int indexOf(long value) {
+        if (this.values == null) {
+            if (this.size == 0 || this.single > value) {
+                return -1;
+            }
+            return (this.single == value) ? 0 : -2;
+        }
+
+        return Arrays.binarySearch(this.values, 0, this.size, value);
+    }
+
+    /**
+     * Add value, return false if it is already in the list.
+     */
+    boolean add(long value) {
+        if (this.size == 0) {
+            this.single = value;
+            this.size = 1;
+            return true;
+        }
+
+        int index;
+        if (this.get(this.size - 1) < value) {
+            // 追加在末尾，无需二分查找
+            index = this.size;
+        } else {
+            index = this.indexOf(value);
+            if (index >= 0) {
+                return false;
+            }
+            index = -index - 1;
+        }
+
+        if (this.values == null) {
+            // leave the inline value for an array
+            this.values = new long[INITIAL_CAPACITY];
+            this.values[0] = this.single;
+        } else if (this.size == this.values.length) {
+            this.values = Arrays.copyOf(this.values, this.size + (this.size >> 1));
+        }
+
+        System.arraycopy(this.values, index, this.values, index + 1, this.size - index);
+        this.values[index] = value;
+        this.size += 1;
+
+        return true;
+    }
+
+    /**
+     * Remove value, return false if it is not in the list.
+     */
+    boolean remove(long value) {
+        int index = this.indexOf(value);
+        if (index < 0) {
+            return false;
+        }
+
+        this.size -= 1;
+        if (this.values == null) {
+            return true;
+        }
+
+        System.arraycopy(this.values, index + 1, this.values, index, this.size - index);
+
+        if (this.size <= 1) {
+            // back to the inline value
+            this.single = this.values[0];
+            this.values = null;
+        } else if (this.values.length > INITIAL_CAPACITY && this.size < this.values.length / 4) {
+            this.values = Arrays.copyOf(this.values, Math.max(INITIAL_CAPACITY, this.size * 2));
+        }
+
+        return true;
+    }
+
+    long[] toArray() {
+        return (this.values == null) ? (this.size == 0 ? new long[0] : new long[] { this.single })
+                : Arrays.copyOf(this.values, this.size);
+    }
+}
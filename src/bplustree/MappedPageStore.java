@@ -0,0 +1,174 @@
+package bplustree;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A page store backed by a page file, accessed through memory-mapped segments.
+ * The operating system pages the file in and out, so the tree may be larger than
+ * the memory, and reopening a file only maps it instead of rebuilding the tree.
+ *
+ * Page 0 is the header of the file, the other pages hold the nodes:
+ * <pre>
+ * | magic (long) | page size (int) | page count (int) | free list head (int) | root page (int) |
+ * </pre>
+ * Freed pages form a linked list, each one holding the ID of the next free page
+ * in its first int, so the free list survives a close() as well.
+ *
+ * Pages are written in place, a crash between two flush() calls may leave the
+ * file inconsistent.
+ */
+public class MappedPageStore implements PageStore {
+    public final static int DEFAULT_SEGMENT_BYTES = 64 << 20;
+    private final static long MAGIC = 0x42504c5553545245L;
+
+    /* Offsets of the fields of the header page */
+    private final static int HEADER_MAGIC = 0;
+    private final static int HEADER_PAGE_SIZE = 8;
+    private final static int HEADER_PAGE_COUNT = 12;
+    private final static int HEADER_FREE_LIST = 16;
+    private final static int HEADER_ROOT = 20;
+    private final static int HEADER_BYTES = 24;
+
+    private final FileChannel channel;
+    private final int pageSize;
+    private final int pagesPerSegment;
+    private final List<MappedByteBuffer> segments;
+    private final ByteBuffer header;
+
+    public MappedPageStore(Path file, int pageSize) throws IOException {
+        this(file, pageSize, DEFAULT_SEGMENT_BYTES);
+    }
+
+    /**
+     * Open the page file, or create it if it does not exist. An existing file must
+     * have been created with the same page size.
+     */
+    public MappedPageStore(Path file, int pageSize, int segmentBytes) throws IOException {
+        if (pageSize < HEADER_BYTES || segmentBytes < pageSize) {
+            throw new IllegalArgumentException("invalid page size " + pageSize + " for segments of " + segmentBytes
+                    + " bytes");
+        }
+
+        boolean exists = Files.exists(file) && Files.size(file) > 0;
+
+        this.channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE);
+        this.pageSize = pageSize;
+        this.pagesPerSegment = segmentBytes / pageSize;
+        this.segments = new ArrayList<>();
+
+        this.mapSegment();
+        this.header = this.segments.get(0);
+
+        if (!exists) {
+            this.header.putLong(HEADER_MAGIC, MAGIC);
+            this.header.putInt(HEADER_PAGE_SIZE, pageSize);
+            this.header.putInt(HEADER_PAGE_COUNT, 1);
+            this.header.putInt(HEADER_FREE_LIST, NULL_PAGE);
+            this.header.putInt(HEADER_ROOT, NULL_PAGE);
+        } else if (this.header.getLong(HEADER_MAGIC) != MAGIC || this.header.getInt(HEADER_PAGE_SIZE) != pageSize) {
+            this.channel.close();
+            throw new IOException(file + " is not a page file with " + pageSize + " byte pages");
+        }
+
+        while (this.segments.size() * this.pagesPerSegment < this.getAllocatedPages()) {
+            this.mapSegment();
+        }
+    }
+
+    private void mapSegment() throws IOException {
+        long position = (long) this.segments.size() * this.pagesPerSegment * this.pageSize;
+
+        // mapping past the end of the file grows it
+        MappedByteBuffer segment = this.channel.map(FileChannel.MapMode.READ_WRITE, position,
+                (long) this.pagesPerSegment * this.pageSize);
+        segment.order(ByteOrder.nativeOrder());
+        this.segments.add(segment);
+    }
+
+    private int getAllocatedPages() {
+        return this.header.getInt(HEADER_PAGE_COUNT);
+    }
+
+    @Override
+    public int getPageSize() {
+        return this.pageSize;
+    }
+
+    @Override
+    public int allocatePage() {
+        int freePage = this.header.getInt(HEADER_FREE_LIST);
+
+        if (freePage != NULL_PAGE) {
+            this.header.putInt(HEADER_FREE_LIST, this.buffer(freePage).getInt(this.offset(freePage)));
+            return freePage;
+        }
+
+        int pageId = this.getAllocatedPages();
+
+        if (pageId == this.segments.size() * this.pagesPerSegment) {
+            try {
+                this.mapSegment();
+            } catch (IOException e) {
+                throw new IllegalStateException("failed to grow the page file", e);
+            }
+        }
+
+        this.header.putInt(HEADER_PAGE_COUNT, pageId + 1);
+        return pageId;
+    }
+
+    @Override
+    public void freePage(int pageId) {
+        this.buffer(pageId).putInt(this.offset(pageId), this.header.getInt(HEADER_FREE_LIST));
+        this.header.putInt(HEADER_FREE_LIST, pageId);
+    }
+
+    @Override
+    public ByteBuffer buffer(int pageId) {
+        return this.segments.get(pageId / this.pagesPerSegment);
+    }
+
+    @Override
+    public int offset(int pageId) {
+        return (pageId % this.pagesPerSegment) * this.pageSize;
+    }
+
+    @Override
+    public int getRootPage() {
+        return this.header.getInt(HEADER_ROOT);
+    }
+
+    @Override
+    public void setRootPage(int pageId) {
+        this.header.putInt(HEADER_ROOT, pageId);
+    }
+
+    /**
+     * Force the modified pages of every segment to the file.
+     */
+    @Override
+    public void flush() throws IOException {
+        for (MappedByteBuffer segment : this.segments) {
+            segment.force();
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        this.flush();
+
+        // the segments are unmapped once they are unreachable
+        this.segments.clear();
+        this.channel.close();
+    }
+}
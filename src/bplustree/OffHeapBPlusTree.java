@@ -0,0 +1,575 @@
+package bplustree;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+
+/**
+ * A B+ tree with long keys and long values whose nodes live in the pages of a
+ * PageStore instead of the Java heap.
+ * Nodes are addressed by page IDs, so the garbage collector neither traces nor
+ * copies them, and the heap footprint does not grow with the tree.
+ *
+ * Since pages hold no parent pointers, every operation records the path from the
+ * root to the leaf while descending, and splits, rotations, borrows and fusions
+ * are propagated along that path.
+ *
+ * Layout of a node page:
+ * <pre>
+ * | node type (int) | key count (int) | right sibling (int) | unused (int) |
+ * | keys (long[order + 1]) | values (long[order + 1]) or children (int[order + 2]) |
+ * </pre>
+ */
+public class OffHeapBPlusTree implements Closeable {
+    public final static int DEFAULT_PAGE_SIZE = 4096;
+    private final static int MAX_HEIGHT = 64;
+
+    private final static int LEAF_NODE = 0;
+    private final static int INTERNAL_NODE = 1;
+
+    /* Offsets of the fields of a node page */
+    private final static int NODE_TYPE = 0;
+    private final static int KEY_COUNT = 4;
+    private final static int RIGHT_SIBLING = 8;
+    private final static int KEYS = 16;
+
+    protected final PageStore store;
+    private final int leafOrder;
+    private final int internalOrder;
+    private final int valuesOffset;
+    private final int childrenOffset;
+    protected int root;
+
+    // the path of the last descent, reused by every operation
+    private final int[] pathNodes;
+    private final int[] pathIndexes;
+    private int pathDepth;
+
+    public OffHeapBPlusTree() {
+        this(new SlabPageStore(DEFAULT_PAGE_SIZE));
+    }
+
+    /**
+     * Open the tree stored in the page file, or create an empty one if the file does not exist.
+     *
+     * @see MappedPageStore
+     */
+    public static OffHeapBPlusTree open(Path file) throws IOException {
+        return new OffHeapBPlusTree(new MappedPageStore(file, DEFAULT_PAGE_SIZE));
+    }
+
+    /**
+     * Open the tree held by the given page store, or create an empty one if the store
+     * has no root page yet. The node orders are the largest that fit in a page.
+     */
+    public OffHeapBPlusTree(PageStore store) {
+        this.store = store;
+
+        // a leaf holds order + 1 keys and values, an internal node order + 1 keys and order + 2 children
+        this.leafOrder = (store.getPageSize() - KEYS) / 16 - 1;
+        this.internalOrder = (store.getPageSize() - KEYS - 8) / 12 - 1;
+
+        if (this.leafOrder < BPlusTree.MIN_ORDER || this.internalOrder < BPlusTree.MIN_ORDER) {
+            throw new IllegalArgumentException("page size " + store.getPageSize() + " is too small");
+        }
+
+        this.valuesOffset = KEYS + (this.leafOrder + 1) * 8;
+        this.childrenOffset = KEYS + (this.internalOrder + 1) * 8;
+        this.pathNodes = new int[MAX_HEIGHT];
+        this.pathIndexes = new int[MAX_HEIGHT];
+
+        this.root = store.getRootPage();
+        if (this.root == PageStore.NULL_PAGE) {
+            this.setRoot(this.createNode(LEAF_NODE));
+        }
+    }
+
+    public int getLeafOrder() {
+        return leafOrder;
+    }
+
+    public int getInternalOrder() {
+        return internalOrder;
+    }
+
+    /**
+     * Return the number of levels of the tree, a tree with a single leaf has height 1.
+     */
+    public int getHeight() {
+        int height = 1;
+
+        for (int node = this.root; !this.isLeaf(node); height++) {
+            node = this.getChild(node, 0);
+        }
+
+        return height;
+    }
+
+    private void setRoot(int root) {
+        this.root = root;
+        this.store.setRootPage(root);
+    }
+
+    /**
+     * Write the modified pages to the page store's durable storage, if it has any.
+     */
+    public void flush() throws IOException {
+        this.store.flush();
+    }
+
+    /* The codes below access the fields of a node page */
+    private int createNode(int nodeType) {
+        int node = this.store.allocatePage();
+        ByteBuffer buffer = this.store.buffer(node);
+        int base = this.store.offset(node);
+
+        buffer.putInt(base + NODE_TYPE, nodeType);
+        buffer.putInt(base + KEY_COUNT, 0);
+        buffer.putInt(base + RIGHT_SIBLING, PageStore.NULL_PAGE);
+
+        return node;
+    }
+
+    boolean isLeaf(int node) {
+        return this.store.buffer(node).getInt(this.store.offset(node) + NODE_TYPE) == LEAF_NODE;
+    }
+
+    int getKeyCount(int node) {
+        return this.store.buffer(node).getInt(this.store.offset(node) + KEY_COUNT);
+    }
+
+    private void setKeyCount(int node, int keyCount) {
+        this.store.buffer(node).putInt(this.store.offset(node) + KEY_COUNT, keyCount);
+    }
+
+    int getRightSibling(int node) {
+        return this.store.buffer(node).getInt(this.store.offset(node) + RIGHT_SIBLING);
+    }
+
+    private void setRightSibling(int node, int rightSibling) {
+        this.store.buffer(node).putInt(this.store.offset(node) + RIGHT_SIBLING, rightSibling);
+    }
+
+    long getKey(int node, int index) {
+        return this.store.buffer(node).getLong(this.store.offset(node) + KEYS + (index << 3));
+    }
+
+    private void setKey(int node, int index, long key) {
+        this.store.buffer(node).putLong(this.store.offset(node) + KEYS + (index << 3), key);
+    }
+
+    long getValue(int node, int index) {
+        return this.store.buffer(node).getLong(this.store.offset(node) + this.valuesOffset + (index << 3));
+    }
+
+    private void setValue(int node, int index, long value) {
+        this.store.buffer(node).putLong(this.store.offset(node) + this.valuesOffset + (index << 3), value);
+    }
+
+    int getChild(int node, int index) {
+        return this.store.buffer(node).getInt(this.store.offset(node) + this.childrenOffset + (index << 2));
+    }
+
+    private void setChild(int node, int index, int child) {
+        this.store.buffer(node).putInt(this.store.offset(node) + this.childrenOffset + (index << 2), child);
+    }
+
+    /**
+     * Copy count slots of width bytes, overlapping ranges of the same node are handled.
+     */
+    private void copySlots(int from, int fromOffset, int to, int toOffset, int count, int width) {
+        ByteBuffer source = this.store.buffer(from);
+        ByteBuffer target = this.store.buffer(to);
+        int sourceBase = this.store.offset(from) + fromOffset;
+        int targetBase = this.store.offset(to) + toOffset;
+        int bytes = count * width;
+
+        if (source == target && sourceBase < targetBase) {
+            for (int i = bytes - width; i >= 0; i -= width) {
+                copySlot(source, sourceBase + i, target, targetBase + i, width);
+            }
+        } else {
+            for (int i = 0; i < bytes; i += width) {
+                copySlot(source, sourceBase + i, target, targetBase + i, width);
+            }
+        }
+    }
+
+    private static void copySlot(ByteBuffer source, int sourceIndex, ByteBuffer target, int targetIndex, int width) {
+        if (width == 8) {
+            target.putLong(targetIndex, source.getLong(sourceIndex));
+        } else {
+            target.putInt(targetIndex, source.getInt(sourceIndex));
+        }
+    }
+
+    private void moveKeys(int from, int fromIndex, int to, int toIndex, int count) {
+        this.copySlots(from, KEYS + (fromIndex << 3), to, KEYS + (toIndex << 3), count, 8);
+    }
+
+    private void moveEntries(int from, int fromIndex, int to, int toIndex, int count) {
+        this.moveKeys(from, fromIndex, to, toIndex, count);
+        this.copySlots(from, this.valuesOffset + (fromIndex << 3), to, this.valuesOffset + (toIndex << 3), count, 8);
+    }
+
+    private void moveChildren(int from, int fromIndex, int to, int toIndex, int count) {
+        this.copySlots(from, this.childrenOffset + (fromIndex << 2), to, this.childrenOffset + (toIndex << 2), count, 4);
+    }
+
+    int bsearch(int node, long key) {
+        ByteBuffer buffer = this.store.buffer(node);
+        int keys = this.store.offset(node) + KEYS;
+        int first = 0;
+        int last = buffer.getInt(this.store.offset(node) + KEY_COUNT);
+
+        while (first < last) {
+            // 返回 [first, last) 内第一个不小于 key 值的位置
+            int mid = (first + last) >>> 1;
+
+            if (buffer.getLong(keys + (mid << 3)) < key) {
+                first = mid + 1;
+            } else {
+                last = mid;
+            }
+        }
+
+        return first;
+    }
+
+    private int findInLeaf(int leaf, long key) {
+        int index = this.bsearch(leaf, key);
+
+        return (index < this.getKeyCount(leaf) && this.getKey(leaf, index) == key) ? index : -1;
+    }
+
+    /**
+     * Descend to the leaf which should contain key, recording the path.
+     */
+    int findLeafNode(long key) {
+        int node = this.root;
+        int depth = 0;
+
+        while (!this.isLeaf(node)) {
+            int index = this.bsearch(node, key);
+
+            // 当 key 恰好为索引值时，key 应该在右孩子的节点上
+            if (index < this.getKeyCount(node) && this.getKey(node, index) == key) {
+                index += 1;
+            }
+
+            this.pathNodes[depth] = node;
+            this.pathIndexes[depth] = index;
+            depth += 1;
+
+            node = this.getChild(node, index);
+        }
+
+        this.pathDepth = depth;
+        return node;
+    }
+
+    int findFirstLeafNode() {
+        int node = this.root;
+
+        while (!this.isLeaf(node)) {
+            node = this.getChild(node, 0);
+        }
+
+        return node;
+    }
+
+    public boolean containsKey(long key) {
+        return this.findInLeaf(this.findLeafNode(key), key) != -1;
+    }
+
+    /**
+     * Search a key value on the tree and return its associated value,
+     * or missingValue if the key is absent.
+     */
+    public long search(long key, long missingValue) {
+        int leaf = this.findLeafNode(key);
+        int index = this.findInLeaf(leaf, key);
+
+        return (index == -1) ? missingValue : this.getValue(leaf, index);
+    }
+
+    /**
+     * Insert a key and value pair to the B Plus Tree
+     */
+    public void insert(long key, long value) {
+        int leaf = this.findLeafNode(key);
+        int depth = this.pathDepth;
+        int keyCount = this.getKeyCount(leaf);
+        int index = this.bsearch(leaf, key);
+
+        // a page has room for order + 1 entries, so the leaf may overflow by one
+        this.moveEntries(leaf, index, leaf, index + 1, keyCount - index);
+        this.setKey(leaf, index, key);
+        this.setValue(leaf, index, value);
+        this.setKeyCount(leaf, keyCount + 1);
+
+        if (keyCount + 1 > this.leafOrder && !(depth > 0 && this.rotate(leaf, depth))) {
+            this.splitLeaf(leaf, depth);
+        }
+    }
+
+    /*
+     * Rather than splitting a full leaf, move an entry to a sibling under the
+     * same parent which is not full, the left sibling is checked first.
+     */
+    private boolean rotate(int leaf, int depth) {
+        int parent = this.pathNodes[depth - 1];
+        int index = this.pathIndexes[depth - 1];
+        int keyCount = this.getKeyCount(leaf);
+
+        if (index > 0) {
+            int left = this.getChild(parent, index - 1);
+            int leftKeyCount = this.getKeyCount(left);
+
+            if (leftKeyCount < this.leafOrder) {
+                this.moveEntries(leaf, 0, left, leftKeyCount, 1);
+                this.setKeyCount(left, leftKeyCount + 1);
+                this.moveEntries(leaf, 1, leaf, 0, keyCount - 1);
+                this.setKeyCount(leaf, keyCount - 1);
+                this.setKey(parent, index - 1, this.getKey(leaf, 0));
+                return true;
+            }
+        }
+
+        if (index < this.getKeyCount(parent)) {
+            int right = this.getChild(parent, index + 1);
+            int rightKeyCount = this.getKeyCount(right);
+
+            if (rightKeyCount < this.leafOrder) {
+                this.moveEntries(right, 0, right, 1, rightKeyCount);
+                this.moveEntries(leaf, keyCount - 1, right, 0, 1);
+                this.setKeyCount(right, rightKeyCount + 1);
+                this.setKeyCount(leaf, keyCount - 1);
+                this.setKey(parent, index, this.getKey(right, 0));
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    private void splitLeaf(int leaf, int depth) {
+        int keyCount = this.getKeyCount(leaf);
+        int midIndex = keyCount / 2;
+        int newLeaf = this.createNode(LEAF_NODE);
+
+        this.moveEntries(leaf, midIndex, newLeaf, 0, keyCount - midIndex);
+        this.setKeyCount(newLeaf, keyCount - midIndex);
+        this.setKeyCount(leaf, midIndex);
+
+        this.setRightSibling(newLeaf, this.getRightSibling(leaf));
+        this.setRightSibling(leaf, newLeaf);
+
+        this.pushUpKey(depth, this.getKey(newLeaf, 0), newLeaf);
+    }
+
+    /**
+     * Insert the separator and the new right node produced by a split at the given
+     * depth into the parent, splitting ancestors as long as they overflow.
+     */
+    private void pushUpKey(int depth, long upKey, int rightNode) {
+        while (depth > 0) {
+            int parent = this.pathNodes[depth - 1];
+            int index = this.pathIndexes[depth - 1];
+            int keyCount = this.getKeyCount(parent);
+
+            this.moveKeys(parent, index, parent, index + 1, keyCount - index);
+            this.moveChildren(parent, index + 1, parent, index + 2, keyCount - index);
+            this.setKey(parent, index, upKey);
+            this.setChild(parent, index + 1, rightNode);
+            this.setKeyCount(parent, keyCount + 1);
+
+            if (keyCount + 1 <= this.internalOrder) {
+                return;
+            }
+
+            // the middle key is kicked out and pushed to the grandparent
+            int total = keyCount + 1;
+            int midIndex = total / 2;
+            int newNode = this.createNode(INTERNAL_NODE);
+
+            upKey = this.getKey(parent, midIndex);
+            this.moveKeys(parent, midIndex + 1, newNode, 0, total - midIndex - 1);
+            this.moveChildren(parent, midIndex + 1, newNode, 0, total - midIndex);
+            this.setKeyCount(newNode, total - midIndex - 1);
+            this.setKeyCount(parent, midIndex);
+
+            rightNode = newNode;
+            depth -= 1;
+        }
+
+        // the root was split, grow a new root
+        int newRoot = this.createNode(INTERNAL_NODE);
+        this.setKey(newRoot, 0, upKey);
+        this.setChild(newRoot, 0, this.root);
+        this.setChild(newRoot, 1, rightNode);
+        this.setKeyCount(newRoot, 1);
+        this.setRoot(newRoot);
+    }
+
+    /**
+     * Delete a key and its associated value from the tree.
+     */
+    public void delete(long key) {
+        int leaf = this.findLeafNode(key);
+        int index = this.findInLeaf(leaf, key);
+
+        if (index == -1) {
+            return;
+        }
+
+        int keyCount = this.getKeyCount(leaf);
+        this.moveEntries(leaf, index + 1, leaf, index, keyCount - index - 1);
+        this.setKeyCount(leaf, keyCount - 1);
+
+        this.handleUnderflow(leaf, this.pathDepth);
+    }
+
+    /**
+     * Borrow a key from a sibling under the same parent, or fuse with it and
+     * propagate the underflow of the parent up the recorded path.
+     */
+    private void handleUnderflow(int node, int depth) {
+        while (depth > 0) {
+            boolean leaf = this.isLeaf(node);
+            int minKeyCount = (leaf ? this.leafOrder : this.internalOrder) / 2;
+
+            if (this.getKeyCount(node) >= minKeyCount) {
+                return;
+            }
+
+            int parent = this.pathNodes[depth - 1];
+            int index = this.pathIndexes[depth - 1];
+            int left = index > 0 ? this.getChild(parent, index - 1) : PageStore.NULL_PAGE;
+            int right = index < this.getKeyCount(parent) ? this.getChild(parent, index + 1) : PageStore.NULL_PAGE;
+
+            if (left != PageStore.NULL_PAGE && this.getKeyCount(left) > minKeyCount) {
+                this.borrowFromLeft(parent, index, left, node, leaf);
+                return;
+            }
+
+            if (right != PageStore.NULL_PAGE && this.getKeyCount(right) > minKeyCount) {
+                this.borrowFromRight(parent, index, node, right, leaf);
+                return;
+            }
+
+            if (left != PageStore.NULL_PAGE) {
+                this.fuse(parent, index - 1, left, node, leaf);
+            } else {
+                this.fuse(parent, index, node, right, leaf);
+            }
+
+            node = parent;
+            depth -= 1;
+        }
+
+        // current node is root, delete the whole root node once it has no key
+        if (!this.isLeaf(this.root) && this.getKeyCount(this.root) == 0) {
+            int oldRoot = this.root;
+            this.setRoot(this.getChild(oldRoot, 0));
+            this.store.freePage(oldRoot);
+        }
+    }
+
+    private void borrowFromLeft(int parent, int index, int left, int node, boolean leaf) {
+        int leftKeyCount = this.getKeyCount(left);
+        int keyCount = this.getKeyCount(node);
+
+        if (leaf) {
+            this.moveEntries(node, 0, node, 1, keyCount);
+            this.moveEntries(left, leftKeyCount - 1, node, 0, 1);
+            this.setKey(parent, index - 1, this.getKey(node, 0));
+        } else {
+            // the separator sinks into the node and the last key of the left sibling rises
+            this.moveKeys(node, 0, node, 1, keyCount);
+            this.moveChildren(node, 0, node, 1, keyCount + 1);
+            this.setKey(node, 0, this.getKey(parent, index - 1));
+            this.setChild(node, 0, this.getChild(left, leftKeyCount));
+            this.setKey(parent, index - 1, this.getKey(left, leftKeyCount - 1));
+        }
+
+        this.setKeyCount(left, leftKeyCount - 1);
+        this.setKeyCount(node, keyCount + 1);
+    }
+
+    private void borrowFromRight(int parent, int index, int node, int right, boolean leaf) {
+        int rightKeyCount = this.getKeyCount(right);
+        int keyCount = this.getKeyCount(node);
+
+        if (leaf) {
+            this.moveEntries(right, 0, node, keyCount, 1);
+            this.moveEntries(right, 1, right, 0, rightKeyCount - 1);
+            this.setKey(parent, index, this.getKey(right, 0));
+        } else {
+            // the separator sinks into the node and the first key of the right sibling rises
+            this.setKey(node, keyCount, this.getKey(parent, index));
+            this.setChild(node, keyCount + 1, this.getChild(right, 0));
+            this.setKey(parent, index, this.getKey(right, 0));
+            this.moveKeys(right, 1, right, 0, rightKeyCount - 1);
+            this.moveChildren(right, 1, right, 0, rightKeyCount);
+        }
+
+        this.setKeyCount(right, rightKeyCount - 1);
+        this.setKeyCount(node, keyCount + 1);
+    }
+
+    /**
+     * Merge right into left, remove their separator from the parent and free the right page.
+     */
+    private void fuse(int parent, int separatorIndex, int left, int right, boolean leaf) {
+        int leftKeyCount = this.getKeyCount(left);
+        int rightKeyCount = this.getKeyCount(right);
+
+        if (leaf) {
+            this.moveEntries(right, 0, left, leftKeyCount, rightKeyCount);
+            this.setKeyCount(left, leftKeyCount + rightKeyCount);
+            this.setRightSibling(left, this.getRightSibling(right));
+        } else {
+            this.setKey(left, leftKeyCount, this.getKey(parent, separatorIndex));
+            this.moveKeys(right, 0, left, leftKeyCount + 1, rightKeyCount);
+            this.moveChildren(right, 0, left, leftKeyCount + 1, rightKeyCount + 1);
+            this.setKeyCount(left, leftKeyCount + 1 + rightKeyCount);
+        }
+
+        this.store.freePage(right);
+
+        int parentKeyCount = this.getKeyCount(parent);
+        this.moveKeys(parent, separatorIndex + 1, parent, separatorIndex, parentKeyCount - separatorIndex - 1);
+        this.moveChildren(parent, separatorIndex + 2, parent, separatorIndex + 1, parentKeyCount - separatorIndex - 1);
+        this.setKeyCount(parent, parentKeyCount - 1);
+    }
+
+    /**
+     * Scan the keys between from and to in ascending order.
+     */
+    public OffHeapBPlusTreeCursor scan(long from, boolean fromInclusive, long to, boolean toInclusive) {
+        int leaf = this.findLeafNode(from);
+        int index = this.bsearch(leaf, from);
+
+        if (!fromInclusive) {
+            while (index < this.getKeyCount(leaf) && this.getKey(leaf, index) == from) {
+                index += 1;
+            }
+        }
+
+        return new OffHeapBPlusTreeCursor(this, leaf, index, to, toInclusive);
+    }
+
+    /**
+     * Scan all the keys of the tree in ascending order.
+     */
+    public OffHeapBPlusTreeCursor scan() {
+        return new OffHeapBPlusTreeCursor(this, this.findFirstLeafNode(), 0, Long.MAX_VALUE, true);
+    }
+
+    @Override
+    public void close() throws IOException {
+        this.store.close();
+    }
+}
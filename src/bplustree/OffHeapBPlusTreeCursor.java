@@ -0,0 +1,82 @@
+package bplustree;
+
+import java.util.NoSuchElementException;
+
+/**
+ * A lazy cursor over a key range of an OffHeapBPlusTree,
+ * it follows the right sibling page IDs of the leaf pages.
+ *
+ * The cursor must not be used after the tree is modified.
+ */
+public class OffHeapBPlusTreeCursor {
+    private final OffHeapBPlusTree tree;
+    private int leaf;
+    private int index;
+    private final long to;
+    private final boolean toInclusive;
+
+    private int currentLeaf;
+    private int currentIndex;
+
+    OffHeapBPlusTreeCursor(OffHeapBPlusTree tree, int leaf, int index, long to, boolean toInclusive) {
+        this.tree = tree;
+        this.leaf = leaf;
+        this.index = index;
+        this.to = to;
+        this.toInclusive = toInclusive;
+        this.currentLeaf = PageStore.NULL_PAGE;
+        this.currentIndex = -1;
+
+        this.skipExhaustedLeaves();
+    }
+
+    private void skipExhaustedLeaves() {
+        while (this.leaf != PageStore.NULL_PAGE && this.index >= this.tree.getKeyCount(this.leaf)) {
+            this.leaf = this.tree.getRightSibling(this.leaf);
+            this.index = 0;
+        }
+    }
+
+    public boolean hasNext() {
+        if (this.leaf == PageStore.NULL_PAGE) {
+            return false;
+        }
+
+        long key = this.tree.getKey(this.leaf, this.index);
+        if (key > this.to || (key == this.to && !this.toInclusive)) {
+            // past the upper bound, no need to look at the remaining leaves
+            this.leaf = PageStore.NULL_PAGE;
+            return false;
+        }
+
+        return true;
+    }
+
+    /**
+     * Move to the next entry of the range and return its key.
+     */
+    public long nextKey() {
+        if (!this.hasNext()) {
+            throw new NoSuchElementException();
+        }
+
+        this.currentLeaf = this.leaf;
+        this.currentIndex = this.index;
+
+        this.index += 1;
+        this.skipExhaustedLeaves();
+
+        return this.tree.getKey(this.currentLeaf, this.currentIndex);
+    }
+
+    /**
+     * Return the value of the entry returned by the last call to nextKey().
+     */
+    public long getValue() {
+        if (this.currentLeaf == PageStore.NULL_PAGE) {
+            throw new IllegalStateException("nextKey() has not been called");
+        }
+
+        return this.tree.getValue(this.currentLeaf, this.currentIndex);
+    }
+}
@@ -0,0 +1,102 @@
+package bplustree;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+
+import org.junit.Test;
+
+public class OffHeapBPlusTreeTest {
+    @Test
+    public void testInsertSearchDelete() throws IOException {
+        // small pages give a deep tree, so that splits, borrows and fusions all happen
+        SlabPageStore store = new SlabPageStore(128, 4096);
+        TreeMap<Long, Long> expected = new TreeMap<>();
+        Random random = new Random(0);
+
+        try (OffHeapBPlusTree tree = new OffHeapBPlusTree(store)) {
+            for (int i = 0; i < 20000; i++) {
+                long key = random.nextInt(5000) - 2500;
+
+                if (random.nextInt(3) == 0) {
+                    tree.delete(key);
+                    expected.remove(key);
+                } else if (!expected.containsKey(key)) {
+                    tree.insert(key, key * 3);
+                    expected.put(key, key * 3);
+                }
+            }
+
+            for (long key = -2500; key < 2500; key++) {
+                Long value = expected.get(key);
+                assertEquals(value == null ? -1 : value.longValue(), tree.search(key, -1));
+            }
+
+            OffHeapBPlusTreeCursor cursor = tree.scan(-100, false, 100, true);
+            for (Map.Entry<Long, Long> entry : expected.subMap(-100L, false, 100L, true).entrySet()) {
+                assertTrue(cursor.hasNext());
+                assertEquals(entry.getKey().longValue(), cursor.nextKey());
+                assertEquals(entry.getValue().longValue(), cursor.getValue());
+            }
+            assertFalse(cursor.hasNext());
+
+            // deleted nodes give their pages back to the store
+            for (Long key : expected.keySet()) {
+                tree.delete(key);
+            }
+            assertEquals(1, tree.getHeight());
+            assertEquals(1, store.getPageCount());
+        }
+    }
+
+    @Test
+    public void testMappedPageFile() throws IOException {
+        Path file = Files.createTempFile("bplustree", ".pages");
+        TreeMap<Long, Long> expected = new TreeMap<>();
+        Random random = new Random(0);
+
+        try {
+            // small segments, so the file grows by mapping several of them
+            try (OffHeapBPlusTree tree = new OffHeapBPlusTree(new MappedPageStore(file, 128, 4096))) {
+                for (int i = 0; i < 5000; i++) {
+                    long key = random.nextInt(10000);
+                    if (!expected.containsKey(key)) {
+                        tree.insert(key, -key);
+                        expected.put(key, -key);
+                    }
+                }
+            }
+
+            // reopening maps the file, then the tree is modified again
+            try (OffHeapBPlusTree tree = new OffHeapBPlusTree(new MappedPageStore(file, 128, 4096))) {
+                for (long key = 0; key < 10000; key++) {
+                    Long value = expected.get(key);
+                    assertEquals(value == null ? 1 : value.longValue(), tree.search(key, 1));
+                }
+
+                for (long key = 0; key < 10000; key += 3) {
+                    tree.delete(key);
+                    expected.remove(key);
+                }
+            }
+
+            try (OffHeapBPlusTree tree = new OffHeapBPlusTree(new MappedPageStore(file, 128, 4096))) {
+                OffHeapBPlusTreeCursor cursor = tree.scan();
+                for (Map.Entry<Long, Long> entry : expected.entrySet()) {
+                    assertTrue(cursor.hasNext());
+                    assertEquals(entry.getKey().longValue(), cursor.nextKey());
+                    assertEquals(entry.getValue().longValue(), cursor.getValue());
+                }
+                assertFalse(cursor.hasNext());
+            }
+        } finally {
+            Files.delete(file);
+        }
+    }
+}
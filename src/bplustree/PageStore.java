@@ -0,0 +1,50 @@
+package bplustree;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+/**
+ * A store of fixed-size pages holding the nodes of an OffHeapBPlusTree.
+ * A page is identified by an int page ID and lives at offset(pageId) in the
+ * buffer returned by buffer(pageId), so nodes are addressed without Java references.
+ */
+public interface PageStore extends Closeable {
+    int NULL_PAGE = -1;
+
+    int getPageSize();
+
+    /**
+     * Return the ID of a free page, reusing freed pages first.
+     */
+    int allocatePage();
+
+    /**
+     * Give back a page which is no longer referenced by the tree.
+     */
+    void freePage(int pageId);
+
+    /**
+     * Return the buffer holding the page, the page starts at offset(pageId).
+     */
+    ByteBuffer buffer(int pageId);
+
+    int offset(int pageId);
+
+    /**
+     * Return the root page saved by setRootPage(), or NULL_PAGE if the store holds
+     * no tree yet. Only persistent stores remember it across a close().
+     */
+    default int getRootPage() {
+        return NULL_PAGE;
+    }
+
+    default void setRootPage(int pageId) {
+    }
+
+    /**
+     * Write the modified pages to durable storage, if the store has any.
+     */
+    default void flush() throws IOException {
+    }
+}
@@ -0,0 +1,182 @@
+package bplustree;
+
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * A persistent (copy-on-write) B Plus Tree.
+ *
+ * Nodes are immutable: insert and delete copy the path from the root to the
+ * modified leaf, plus the siblings touched by a split or a merge, and publish
+ * the new root with a compare-and-set, retrying if another writer won the race.
+ * snapshot() therefore returns a point-in-time view in constant time, and its
+ * readers need no coordination with writers at all. Nodes which are no longer
+ * reachable from the current root nor from a snapshot are reclaimed by the
+ * garbage collector.
+ *
+ * Nodes have no parent pointers nor sibling links, since those would force a
+ * copy of the whole tree on every modification, so scans keep the descent path
+ * on a stack instead. Inserting an existing key replaces its value.
+ */
+public class PersistentBPlusTree<TKey extends Comparable<TKey>, TValue> {
+    private final AtomicReference<PersistentBPlusTreeNode<TKey>> root;
+    private final int leafOrder;
+    private final int internalOrder;
+
+    public PersistentBPlusTree() {
+        this(BPlusTree.DEFAULT_ORDER);
+    }
+
+    public PersistentBPlusTree(int order) {
+        this(order, order);
+    }
+
+    /**
+     * Create a persistent B Plus Tree whose leaf nodes hold at most leafOrder keys
+     * and whose internal nodes hold at most internalOrder keys.
+     */
+    public PersistentBPlusTree(int leafOrder, int internalOrder) {
+        if (leafOrder < BPlusTree.MIN_ORDER || internalOrder < BPlusTree.MIN_ORDER) {
+            throw new IllegalArgumentException("order must be at least " + BPlusTree.MIN_ORDER + ": leafOrder="
+                    + leafOrder + ", internalOrder=" + internalOrder);
+        }
+
+        this.leafOrder = leafOrder;
+        this.internalOrder = internalOrder;
+        this.root = new AtomicReference<>(new PersistentBPlusTreeLeafNode<TKey, TValue>(new Object[0], new Object[0]));
+    }
+
+    public int getLeafOrder() {
+        return this.leafOrder;
+    }
+
+    public int getInternalOrder() {
+        return this.internalOrder;
+    }
+
+    /**
+     * Return an immutable view of the tree as it is now, later modifications of
+     * the tree are not visible through it.
+     */
+    public PersistentBPlusTreeSnapshot<TKey, TValue> snapshot() {
+        return new PersistentBPlusTreeSnapshot<>(this.root.get());
+    }
+
+    /**
+     * Search a key value on the tree and return its associated value.
+     */
+    public TValue search(TKey key) {
+        return this.snapshot().search(key);
+    }
+
+    /**
+     * Scan the keys between from and to in ascending order, on a snapshot taken
+     * when the scan starts.
+     *
+     * @see PersistentBPlusTreeSnapshot#scan(Comparable, boolean, Comparable, boolean)
+     */
+    public PersistentBPlusTreeCursor<TKey, TValue> scan(TKey from, boolean fromInclusive, TKey to, boolean toInclusive) {
+        return this.snapshot().scan(from, fromInclusive, to, toInclusive);
+    }
+
+    public int getHeight() {
+        return this.snapshot().getHeight();
+    }
+
+    /**
+     * Insert a key and value pair to the tree, replace the value if the key exists.
+     */
+    public void insert(TKey key, TValue value) {
+        while (true) {
+            PersistentBPlusTreeNode<TKey> root = this.root.get();
+            PersistentBPlusTreeNode<TKey> newRoot = this.insert(root, key, value);
+
+            if (this.isOverflow(newRoot)) {
+                newRoot = new PersistentBPlusTreeInternalNode<>(new Object[] { newRoot.getSplitKey() },
+                        new Object[] { newRoot.lowerHalf(), newRoot.upperHalf() });
+            }
+
+            if (this.root.compareAndSet(root, newRoot)) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Return a copy of node holding the key, which may hold one key too many.
+     */
+    @SuppressWarnings("unchecked")
+    private PersistentBPlusTreeNode<TKey> insert(PersistentBPlusTreeNode<TKey> node, TKey key, TValue value) {
+        if (node.getNodeType() == BPlusTreeNodeType.LeafNode) {
+            return ((PersistentBPlusTreeLeafNode<TKey, TValue>) node).insert(key, value);
+        }
+
+        PersistentBPlusTreeInternalNode<TKey> internalNode = (PersistentBPlusTreeInternalNode<TKey>) node;
+        int index = internalNode.find(key);
+        PersistentBPlusTreeNode<TKey> child = this.insert(internalNode.getChild(index), key, value);
+
+        if (this.isOverflow(child)) {
+            return internalNode.withSplitChild(index, child);
+        }
+
+        return internalNode.withChild(index, child);
+    }
+
+    /**
+     * Delete a key and its associated value from the tree, return whether the key was found.
+     */
+    public boolean delete(TKey key) {
+        while (true) {
+            PersistentBPlusTreeNode<TKey> root = this.root.get();
+            PersistentBPlusTreeNode<TKey> newRoot = this.delete(root, key);
+
+            if (newRoot == root) {
+                return false;
+            }
+
+            if (newRoot.getNodeType() == BPlusTreeNodeType.InternalNode && newRoot.getKeyCount() == 0) {
+                // the last two children of the root were fused
+                newRoot = ((PersistentBPlusTreeInternalNode<TKey>) newRoot).getChild(0);
+            }
+
+            if (this.root.compareAndSet(root, newRoot)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Return a copy of node without the key, or node itself if the key does not exist.
+     */
+    @SuppressWarnings("unchecked")
+    private PersistentBPlusTreeNode<TKey> delete(PersistentBPlusTreeNode<TKey> node, TKey key) {
+        if (node.getNodeType() == BPlusTreeNodeType.LeafNode) {
+            return ((PersistentBPlusTreeLeafNode<TKey, TValue>) node).delete(key);
+        }
+
+        PersistentBPlusTreeInternalNode<TKey> internalNode = (PersistentBPlusTreeInternalNode<TKey>) node;
+        int index = internalNode.find(key);
+        PersistentBPlusTreeNode<TKey> child = internalNode.getChild(index);
+        PersistentBPlusTreeNode<TKey> newChild = this.delete(child, key);
+
+        if (newChild == child) {
+            return node;
+        }
+
+        internalNode = internalNode.withChild(index, newChild);
+
+        if (newChild.getKeyCount() < this.getOrder(newChild) / 2) {
+            // fuse the child with a sibling, or borrow from it if they do not fit in one node
+            return internalNode.withFusedChildren(index > 0 ? index - 1 : index, this.getOrder(newChild));
+        }
+
+        return internalNode;
+    }
+
+    private int getOrder(PersistentBPlusTreeNode<TKey> node) {
+        return node.getNodeType() == BPlusTreeNodeType.LeafNode ? this.leafOrder : this.internalOrder;
+    }
+
+    private boolean isOverflow(PersistentBPlusTreeNode<TKey> node) {
+        return node.getKeyCount() > this.getOrder(node);
+    }
+}
@@ -0,0 +1,144 @@
+package bplustree;
+
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * A lazy cursor over a key range of a PersistentBPlusTree snapshot.
+ * The nodes have no sibling links, so the cursor keeps the internal nodes of the
+ * path to the current leaf on a stack and climbs it to reach the next leaf.
+ * The snapshot never changes, so the cursor stays valid while the tree is modified.
+ */
+public class PersistentBPlusTreeCursor<TKey extends Comparable<TKey>, TValue> implements Iterator<TKey> {
+    private final PersistentBPlusTreeInternalNode<TKey>[] path;
+    private final int[] pathIndexes;
+    private int depth;
+
+    private PersistentBPlusTreeLeafNode<TKey, TValue> leaf;
+    private int index;
+    private final TKey to;
+    private final boolean toInclusive;
+
+    private PersistentBPlusTreeLeafNode<TKey, TValue> currentLeaf;
+    private int currentIndex;
+
+    @SuppressWarnings("unchecked")
+    PersistentBPlusTreeCursor(PersistentBPlusTreeNode<TKey> root, int height, TKey from, boolean fromInclusive, TKey to,
+            boolean toInclusive) {
+        this.path = (PersistentBPlusTreeInternalNode<TKey>[]) new PersistentBPlusTreeInternalNode<?>[height - 1];
+        this.pathIndexes = new int[height - 1];
+        this.depth = 0;
+        this.to = to;
+        this.toInclusive = toInclusive;
+        this.currentLeaf = null;
+        this.currentIndex = -1;
+
+        PersistentBPlusTreeNode<TKey> node = root;
+        while (node.getNodeType() == BPlusTreeNodeType.InternalNode) {
+            PersistentBPlusTreeInternalNode<TKey> internalNode = (PersistentBPlusTreeInternalNode<TKey>) node;
+            int childIndex = (from == null) ? 0 : internalNode.find(from);
+
+            this.path[this.depth] = internalNode;
+            this.pathIndexes[this.depth] = childIndex;
+            this.depth += 1;
+            node = internalNode.getChild(childIndex);
+        }
+
+        this.leaf = (PersistentBPlusTreeLeafNode<TKey, TValue>) node;
+        this.index = (from == null) ? 0 : this.leaf.bsearch(from);
+
+        if (from != null && !fromInclusive && this.index < this.leaf.getKeyCount()
+                && this.leaf.getKey(this.index).compareTo(from) == 0) {
+            this.index += 1;
+        }
+
+        this.skipExhaustedLeaves();
+    }
+
+    @SuppressWarnings("unchecked")
+    private void skipExhaustedLeaves() {
+        while (this.leaf != null && this.index >= this.leaf.getKeyCount()) {
+            // climb to the lowest ancestor which has a child on the right
+            while (this.depth > 0 && this.pathIndexes[this.depth - 1] + 1 >= this.path[this.depth - 1].getChildCount()) {
+                this.depth -= 1;
+            }
+
+            if (this.depth == 0) {
+                this.leaf = null;
+                return;
+            }
+
+            this.pathIndexes[this.depth - 1] += 1;
+            PersistentBPlusTreeNode<TKey> node = this.path[this.depth - 1].getChild(this.pathIndexes[this.depth - 1]);
+
+            // then descend to the leftmost leaf below it
+            while (node.getNodeType() == BPlusTreeNodeType.InternalNode) {
+                this.path[this.depth] = (PersistentBPlusTreeInternalNode<TKey>) node;
+                this.pathIndexes[this.depth] = 0;
+                this.depth += 1;
+                node = ((PersistentBPlusTreeInternalNode<TKey>) node).getChild(0);
+            }
+
+            this.leaf = (PersistentBPlusTreeLeafNode<TKey, TValue>) node;
+            this.index = 0;
+        }
+    }
+
+    @Override
+    public boolean hasNext() {
+        if (this.leaf == null) {
+            return false;
+        }
+
+        if (this.to != null) {
+            int cmp = this.leaf.getKey(this.index).compareTo(this.to);
+
+            if (cmp > 0 || (cmp == 0 && !this.toInclusive)) {
+                this.leaf = null;
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    /**
+     * Move to the next entry of the range and return its key.
+     */
+    @Override
+    public TKey next() {
+        if (!this.hasNext()) {
+            throw new NoSuchElementException();
+        }
+
+        this.currentLeaf = this.leaf;
+        this.currentIndex = this.index;
+
+        this.index += 1;
+        this.skipExhaustedLeaves();
+
+        return this.currentLeaf.getKey(this.currentIndex);
+    }
+
+    /**
+     * Return the key of the entry returned by the last call to next().
+     */
+    public TKey getKey() {
+        this.checkCurrent();
+        return this.currentLeaf.getKey(this.currentIndex);
+    }
+
+    /**
+     * Return the value of the entry returned by the last call to next().
+     */
+    public TValue getValue() {
+        this.checkCurrent();
+        return this.currentLeaf.getValue(this.currentIndex);
+    }
+
+    private void checkCurrent() {
+        if (this.currentLeaf == null) {
+            throw new IllegalStateException("next() has not been called");
+        }
+    }
+}
@@ -0,0 +1,103 @@
+package bplustree;
+
+class PersistentBPlusTreeInternalNode<TKey extends Comparable<TKey>> extends PersistentBPlusTreeNode<TKey> {
+    private final Object[] children;
+
+    PersistentBPlusTreeInternalNode(Object[] keys, Object[] children) {
+        super(keys);
+        this.children = children;
+    }
+
+    @SuppressWarnings("unchecked")
+    public PersistentBPlusTreeNode<TKey> getChild(int index) {
+        return (PersistentBPlusTreeNode<TKey>) this.children[index];
+    }
+
+    public int getChildCount() {
+        return this.children.length;
+    }
+
+    @Override
+    public BPlusTreeNodeType getNodeType() {
+        return BPlusTreeNodeType.InternalNode;
+    }
+
+    /**
+     * Return the index of the child which should contain key.
+     */
+    public int find(TKey key) {
+        int index = this.bsearch(key);
+
+        // 当 key 恰好为索引值时，key 应该在右孩子的节点上
+        if (index < this.getKeyCount() && this.getKey(index).compareTo(key) == 0) {
+            return index + 1;
+        }
+
+        return index;
+    }
+
+    /**
+     * Return a copy whose child at index is replaced by child.
+     */
+    public PersistentBPlusTreeInternalNode<TKey> withChild(int index, PersistentBPlusTreeNode<TKey> child) {
+        return new PersistentBPlusTreeInternalNode<>(this.keys, replaceAt(this.children, index, child));
+    }
+
+    /**
+     * Return a copy whose child at index is replaced by the two halves of child.
+     */
+    public PersistentBPlusTreeInternalNode<TKey> withSplitChild(int index, PersistentBPlusTreeNode<TKey> child) {
+        Object[] children = replaceAt(this.children, index, child.lowerHalf());
+        children = insertAt(children, index + 1, child.upperHalf());
+
+        return new PersistentBPlusTreeInternalNode<>(insertAt(this.keys, index, child.getSplitKey()), children);
+    }
+
+    /**
+     * Return a copy whose children at index and index + 1 are replaced by one child
+     * holding all their entries, or by two evenly filled children if they do not fit
+     * in one node of the given order.
+     */
+    public PersistentBPlusTreeInternalNode<TKey> withFusedChildren(int index, int order) {
+        PersistentBPlusTreeNode<TKey> fused = this.getChild(index).concat(this.getKey(index), this.getChild(index + 1));
+
+        if (fused.getKeyCount() > order) {
+            Object[] children = replaceAt(this.children, index, fused.lowerHalf());
+            children = replaceAt(children, index + 1, fused.upperHalf());
+            return new PersistentBPlusTreeInternalNode<>(replaceAt(this.keys, index, fused.getSplitKey()), children);
+        }
+
+        return new PersistentBPlusTreeInternalNode<>(deleteAt(this.keys, index),
+                replaceAt(deleteAt(this.children, index + 1), index, fused));
+    }
+
+    @Override
+    protected TKey getSplitKey() {
+        return this.getKey(this.getKeyCount() / 2);
+    }
+
+    /**
+     * When splits a internal node, the middle key is kicked out
+     * and be pushed to parent node.
+     */
+    @Override
+    protected PersistentBPlusTreeNode<TKey> lowerHalf() {
+        int midIndex = this.getKeyCount() / 2;
+        return new PersistentBPlusTreeInternalNode<>(range(this.keys, 0, midIndex),
+                range(this.children, 0, midIndex + 1));
+    }
+
+    @Override
+    protected PersistentBPlusTreeNode<TKey> upperHalf() {
+        int midIndex = this.getKeyCount() / 2;
+        return new PersistentBPlusTreeInternalNode<>(range(this.keys, midIndex + 1, this.getKeyCount()),
+                range(this.children, midIndex + 1, this.children.length));
+    }
+
+    @Override
+    protected PersistentBPlusTreeNode<TKey> concat(TKey separator, PersistentBPlusTreeNode<TKey> rightSibling) {
+        PersistentBPlusTreeInternalNode<?> right = (PersistentBPlusTreeInternalNode<?>) rightSibling;
+        return new PersistentBPlusTreeInternalNode<>(join(this.keys, separator, right.keys),
+                join(this.children, null, right.children));
+    }
+}
@@ -0,0 +1,94 @@
+package bplustree;
+
+class PersistentBPlusTreeLeafNode<TKey extends Comparable<TKey>, TValue> extends PersistentBPlusTreeNode<TKey> {
+    private final Object[] values;
+
+    PersistentBPlusTreeLeafNode(Object[] keys, Object[] values) {
+        super(keys);
+        this.values = values;
+    }
+
+    @SuppressWarnings("unchecked")
+    public TValue getValue(int index) {
+        return (TValue) this.values[index];
+    }
+
+    @Override
+    public BPlusTreeNodeType getNodeType() {
+        return BPlusTreeNodeType.LeafNode;
+    }
+
+    /**
+     * Search a key on current node, if found the key then return its position,
+     * otherwise return -1.
+     */
+    public int find(TKey key) {
+        int index = this.bsearch(key);
+
+        if (index < this.getKeyCount() && this.getKey(index).compareTo(key) == 0) {
+            return index;
+        }
+
+        return -1;
+    }
+
+    /**
+     * Return a copy holding the key and value pair, which replaces the value if
+     * the key exists.
+     */
+    public PersistentBPlusTreeLeafNode<TKey, TValue> insert(TKey key, TValue value) {
+        int index = this.bsearch(key);
+
+        if (index < this.getKeyCount() && this.getKey(index).compareTo(key) == 0) {
+            return new PersistentBPlusTreeLeafNode<>(this.keys, replaceAt(this.values, index, value));
+        }
+
+        return new PersistentBPlusTreeLeafNode<>(insertAt(this.keys, index, key), insertAt(this.values, index, value));
+    }
+
+    /**
+     * Return a copy without the key, or this node if the key does not exist.
+     */
+    public PersistentBPlusTreeLeafNode<TKey, TValue> delete(TKey key) {
+        int index = this.find(key);
+
+        if (index == -1) {
+            return this;
+        }
+
+        return new PersistentBPlusTreeLeafNode<>(deleteAt(this.keys, index), deleteAt(this.values, index));
+    }
+
+    @Override
+    protected TKey getSplitKey() {
+        return this.getKey(this.getKeyCount() / 2);
+    }
+
+    /**
+     * When splits a leaf node, the middle key is kept on new node
+     * and be pushed to parent node.
+     */
+    @Override
+    protected PersistentBPlusTreeNode<TKey> lowerHalf() {
+        int midIndex = this.getKeyCount() / 2;
+        return new PersistentBPlusTreeLeafNode<>(range(this.keys, 0, midIndex), range(this.values, 0, midIndex));
+    }
+
+    @Override
+    protected PersistentBPlusTreeNode<TKey> upperHalf() {
+        int midIndex = this.getKeyCount() / 2;
+        int keyCount = this.getKeyCount();
+        return new PersistentBPlusTreeLeafNode<>(range(this.keys, midIndex, keyCount),
+                range(this.values, midIndex, keyCount));
+    }
+
+    /**
+     * The separator is not kept, the right sibling starts with it anyway.
+     */
+    @Override
+    protected PersistentBPlusTreeNode<TKey> concat(TKey separator, PersistentBPlusTreeNode<TKey> rightSibling) {
+        PersistentBPlusTreeLeafNode<?, ?> right = (PersistentBPlusTreeLeafNode<?, ?>) rightSibling;
+        return new PersistentBPlusTreeLeafNode<>(join(this.keys, null, right.keys),
+                join(this.values, null, right.values));
+    }
+}
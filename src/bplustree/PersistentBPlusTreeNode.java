@@ -0,0 +1,101 @@
+package bplustree;
+
+/**
+ * An immutable node of a PersistentBPlusTree.
+ * A modification never changes a node, it returns a copy instead, so any root
+ * which was ever published stays a consistent version of the tree.
+ * The arrays are sized to the number of keys and may hold one key more than the
+ * order, in which case the parent splits the node while copying itself.
+ */
+abstract class PersistentBPlusTreeNode<TKey extends Comparable<TKey>> {
+    protected final Object[] keys;
+
+    protected PersistentBPlusTreeNode(Object[] keys) {
+        this.keys = keys;
+    }
+
+    public int getKeyCount() {
+        return this.keys.length;
+    }
+
+    @SuppressWarnings("unchecked")
+    public TKey getKey(int index) {
+        return (TKey) this.keys[index];
+    }
+
+    public abstract BPlusTreeNodeType getNodeType();
+
+    protected int bsearch(TKey key) {
+        int first = 0;
+        int last = this.keys.length;
+
+        while (first < last) {
+            // 返回 [first, last) 内第一个不小于 key 值的位置
+            int mid = (first + last) >>> 1;
+
+            if (this.getKey(mid).compareTo(key) < 0) {
+                first = mid + 1;
+            } else {
+                last = mid;
+            }
+        }
+
+        return first;
+    }
+
+    /**
+     * Return the key separating the two halves of this node.
+     */
+    protected abstract TKey getSplitKey();
+
+    /**
+     * Return copies of the lower and the upper half of this node.
+     */
+    protected abstract PersistentBPlusTreeNode<TKey> lowerHalf();
+
+    protected abstract PersistentBPlusTreeNode<TKey> upperHalf();
+
+    /**
+     * Return a node holding the entries of this node, the separator and the
+     * entries of the right sibling.
+     */
+    protected abstract PersistentBPlusTreeNode<TKey> concat(TKey separator, PersistentBPlusTreeNode<TKey> rightSibling);
+
+    static Object[] insertAt(Object[] array, int index, Object value) {
+        Object[] copy = new Object[array.length + 1];
+        System.arraycopy(array, 0, copy, 0, index);
+        copy[index] = value;
+        System.arraycopy(array, index, copy, index + 1, array.length - index);
+        return copy;
+    }
+
+    static Object[] deleteAt(Object[] array, int index) {
+        Object[] copy = new Object[array.length - 1];
+        System.arraycopy(array, 0, copy, 0, index);
+        System.arraycopy(array, index + 1, copy, index, array.length - index - 1);
+        return copy;
+    }
+
+    static Object[] replaceAt(Object[] array, int index, Object value) {
+        Object[] copy = array.clone();
+        copy[index] = value;
+        return copy;
+    }
+
+    static Object[] range(Object[] array, int from, int to) {
+        Object[] copy = new Object[to - from];
+        System.arraycopy(array, from, copy, 0, to - from);
+        return copy;
+    }
+
+    static Object[] join(Object[] left, Object separator, Object[] right) {
+        int length = left.length + right.length + (separator == null ? 0 : 1);
+        Object[] copy = new Object[length];
+        System.arraycopy(left, 0, copy, 0, left.length);
+        if (separator != null) {
+            copy[left.length] = separator;
+        }
+        System.arraycopy(right, 0, copy, length - right.length, right.length);
+        return copy;
+    }
+}
@@ -0,0 +1,60 @@
+package bplustree;
+
+/**
+ * An immutable point-in-time view of a PersistentBPlusTree.
+ * It holds the root the tree had when the snapshot was taken, so it can be read
+ * from any number of threads while the tree is modified.
+ */
+public class PersistentBPlusTreeSnapshot<TKey extends Comparable<TKey>, TValue> {
+    private final PersistentBPlusTreeNode<TKey> root;
+
+    PersistentBPlusTreeSnapshot(PersistentBPlusTreeNode<TKey> root) {
+        this.root = root;
+    }
+
+    /**
+     * Search a key value on the snapshot and return its associated value.
+     */
+    @SuppressWarnings("unchecked")
+    public TValue search(TKey key) {
+        PersistentBPlusTreeNode<TKey> node = this.root;
+
+        while (node.getNodeType() == BPlusTreeNodeType.InternalNode) {
+            PersistentBPlusTreeInternalNode<TKey> internalNode = (PersistentBPlusTreeInternalNode<TKey>) node;
+            node = internalNode.getChild(internalNode.find(key));
+        }
+
+        PersistentBPlusTreeLeafNode<TKey, TValue> leaf = (PersistentBPlusTreeLeafNode<TKey, TValue>) node;
+        int index = leaf.find(key);
+
+        return (index == -1) ? null : leaf.getValue(index);
+    }
+
+    /**
+     * Scan the keys between from and to in ascending order.
+     *
+     * @param from
+     *            the lower bound, null to scan from the first key
+     * @param fromInclusive
+     *            whether a key equal to from is part of the range
+     * @param to
+     *            the upper bound, null to scan to the last key
+     * @param toInclusive
+     *            whether a key equal to to is part of the range
+     */
+    public PersistentBPlusTreeCursor<TKey, TValue> scan(TKey from, boolean fromInclusive, TKey to, boolean toInclusive) {
+        return new PersistentBPlusTreeCursor<>(this.root, this.getHeight(), from, fromInclusive, to, toInclusive);
+    }
+
+    public int getHeight() {
+        int height = 1;
+        PersistentBPlusTreeNode<TKey> node = this.root;
+
+        while (node.getNodeType() == BPlusTreeNodeType.InternalNode) {
+            node = ((PersistentBPlusTreeInternalNode<TKey>) node).getChild(0);
+            height += 1;
+        }
+
+        return height;
+    }
+}
@@ -0,0 +1,84 @@
+package bplustree;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+
+import org.junit.Test;
+
+public class PersistentBPlusTreeTest {
+    @Test
+    public void testInsertSearchDelete() {
+        PersistentBPlusTree<Integer, Integer> tree = new PersistentBPlusTree<>(3);
+        TreeMap<Integer, Integer> expected = new TreeMap<>();
+        Random random = new Random(0);
+
+        for (int i = 0; i < 20000; i++) {
+            int key = random.nextInt(2000);
+
+            if (random.nextInt(3) == 0) {
+                assertEquals(expected.remove(key) != null, tree.delete(key));
+            } else {
+                tree.insert(key, i);
+                expected.put(key, i);
+            }
+        }
+
+        for (int key = 0; key < 2000; key++) {
+            assertEquals(expected.get(key), tree.search(key));
+        }
+
+        checkScan(expected.subMap(100, true, 900, false), tree.scan(100, true, 900, false));
+        checkScan(expected, tree.scan(null, true, null, true));
+
+        for (int key = 0; key < 2000; key++) {
+            tree.delete(key);
+        }
+        assertEquals(1, tree.getHeight());
+        assertFalse(tree.scan(null, true, null, true).hasNext());
+    }
+
+    @Test
+    public void testSnapshot() {
+        PersistentBPlusTree<Integer, String> tree = new PersistentBPlusTree<>(4);
+        for (int key = 0; key < 1000; key++) {
+            tree.insert(key, "a" + key);
+        }
+
+        PersistentBPlusTreeSnapshot<Integer, String> snapshot = tree.snapshot();
+        PersistentBPlusTreeCursor<Integer, String> cursor = snapshot.scan(null, true, null, true);
+
+        // modify the tree while the snapshot is scanned
+        for (int key = 0; key < 1000; key += 2) {
+            tree.delete(key);
+            tree.insert(key + 1, "b" + key);
+            tree.insert(key + 1000, "b" + key);
+        }
+
+        for (int key = 0; key < 1000; key++) {
+            assertTrue(cursor.hasNext());
+            assertEquals(Integer.valueOf(key), cursor.next());
+            assertEquals("a" + key, cursor.getValue());
+            assertEquals("a" + key, snapshot.search(key));
+        }
+        assertFalse(cursor.hasNext());
+
+        assertNull(tree.search(0));
+        assertEquals("b0", tree.search(1));
+        assertEquals("b998", tree.search(1998));
+        assertNull(snapshot.search(1998));
+    }
+
+    private static <TValue> void checkScan(Map<Integer, TValue> expected, PersistentBPlusTreeCursor<Integer, TValue> cursor) {
+        for (Map.Entry<Integer, TValue> entry : expected.entrySet()) {
+            assertTrue(cursor.hasNext());
+            assertEquals(entry.getKey(), cursor.next());
+            assertEquals(entry.getValue(), cursor.getValue());
+        }
+        assertFalse(cursor.hasNext());
+    }
+}
@@ -0,0 +1,96 @@
+package bplustree;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A page store carving pages out of large direct ByteBuffer slabs.
+ * The heap only holds one ByteBuffer per slab and the free list,
+ * so the number of heap objects does not grow with the number of nodes.
+ */
+public class SlabPageStore implements PageStore {
+    public final static int DEFAULT_SLAB_BYTES = 16 << 20;
+
+    private final int pageSize;
+    private final int pagesPerSlab;
+    private final List<ByteBuffer> slabs;
+    private int pageCount;
+
+    // freed page IDs, used as a stack
+    private int[] freePages;
+    private int freePageCount;
+
+    public SlabPageStore(int pageSize) {
+        this(pageSize, DEFAULT_SLAB_BYTES);
+    }
+
+    public SlabPageStore(int pageSize, int slabBytes) {
+        if (pageSize <= 0 || slabBytes < pageSize) {
+            throw new IllegalArgumentException("invalid page size " + pageSize + " for slabs of " + slabBytes + " bytes");
+        }
+
+        this.pageSize = pageSize;
+        this.pagesPerSlab = slabBytes / pageSize;
+        this.slabs = new ArrayList<>();
+        this.pageCount = 0;
+        this.freePages = new int[64];
+        this.freePageCount = 0;
+    }
+
+    @Override
+    public int getPageSize() {
+        return this.pageSize;
+    }
+
+    /**
+     * Return the number of pages in use.
+     */
+    public int getPageCount() {
+        return this.pageCount - this.freePageCount;
+    }
+
+    @Override
+    public int allocatePage() {
+        if (this.freePageCount > 0) {
+            return this.freePages[--this.freePageCount];
+        }
+
+        if (this.pageCount == this.slabs.size() * this.pagesPerSlab) {
+            ByteBuffer slab = ByteBuffer.allocateDirect(this.pagesPerSlab * this.pageSize);
+            this.slabs.add(slab.order(ByteOrder.nativeOrder()));
+        }
+
+        return this.pageCount++;
+    }
+
+    @Override
+    public void freePage(int pageId) {
+        if (this.freePageCount == this.freePages.length) {
+            int[] freePages = new int[this.freePages.length * 2];
+            System.arraycopy(this.freePages, 0, freePages, 0, this.freePageCount);
+            this.freePages = freePages;
+        }
+
+        this.freePages[this.freePageCount++] = pageId;
+    }
+
+    @Override
+    public ByteBuffer buffer(int pageId) {
+        return this.slabs.get(pageId / this.pagesPerSlab);
+    }
+
+    @Override
+    public int offset(int pageId) {
+        return (pageId % this.pagesPerSlab) * this.pageSize;
+    }
+
+    @Override
+    public void close() {
+        // the direct buffers are released once the slabs are unreachable
+        this.slabs.clear();
+        this.pageCount = 0;
+        this.freePageCount = 0;
+    }
+}
@@ -0,0 +1,43 @@
+package bplustree;
+
+/**
+ * A B+ tree with String keys sharing long prefixes, e.g. URLs or paths.
+ *
+ * Every node stores the prefix shared by its keys once and only keeps the
+ * suffixes, and searches compare the suffixes in place, skipping the shared
+ * prefix. When a leaf is split, the separator pushed up is the shortest prefix
+ * of its first key which still separates the two halves (suffix truncation), so
+ * the internal nodes hold short separators.
+ *
+ * @param <TValue>
+ *            the data type of the value
+ */
+public class StringBPlusTree<TValue> extends BPlusTree<String, TValue> {
+
+    public StringBPlusTree() {
+        this(DEFAULT_ORDER);
+    }
+
+    public StringBPlusTree(int order) {
+        this(order, order);
+    }
+
+    public StringBPlusTree(int leafOrder, int internalOrder) {
+        super(leafOrder, internalOrder);
+    }
+
+    @Override
+    BPlusTreeLeafNode<String, TValue> createLeafNode() {
+        return new StringBPlusTreeLeafNode<TValue>(this);
+    }
+
+    @Override
+    BPlusTreeInternalNode<String> createInternalNode() {
+        return new StringBPlusTreeInternalNode(this);
+    }
+
+    @Override
+    String separatorBetween(String leftKey, String rightKey) {
+        return StringKeys.separator(leftKey, rightKey);
+    }
+}
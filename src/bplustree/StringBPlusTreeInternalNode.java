@@ -0,0 +1,85 @@
+package bplustree;
+
+/**
+ * An internal node of StringBPlusTree, storing the prefix shared by its
+ * separators once.
+ */
+class StringBPlusTreeInternalNode extends BPlusTreeInternalNode<String> implements StringKeys.StringKeysNode {
+    // null until the first key is stored
+    private String prefix;
+
+    StringBPlusTreeInternalNode(BPlusTree<String, ?> tree) {
+        super(tree);
+    }
+
+    @Override
+    protected void clear() {
+        super.clear();
+        this.prefix = null;
+    }
+
+    @Override
+    public String getPrefix() {
+        return this.prefix;
+    }
+
+    @Override
+    public void setPrefix(String prefix) {
+        this.prefix = prefix;
+    }
+
+    @Override
+    public Object[] getSuffixes() {
+        return this.keys;
+    }
+
+    @Override
+    public String getKey(int index) {
+        Object suffix = this.keys[index];
+        return (suffix == null) ? null : this.prefix.concat((String) suffix);
+    }
+
+    @Override
+    public void setKey(int index, String key) {
+        super.setKey(index, (key == null) ? null : StringKeys.compress(this, key));
+    }
+
+    @Override
+    protected int compareKey(int index, String key) {
+        return StringKeys.compare(this.prefix, this.keys[index], key);
+    }
+
+    @Override
+    protected void copyKeysFrom(BPlusTreeNode<String> source, int from, int to, int length) {
+        StringKeys.copy((StringKeys.StringKeysNode) source, from, this, to, length);
+        this.markKeysDirty(to, length);
+    }
+
+    @Override
+    protected int bsearch(String key) {
+        return StringKeys.bsearch(this.keys, this.getKeyCount(), this.prefix, key);
+    }
+
+    @Override
+    public int find(String key) {
+        int index = this.bsearch(key);
+
+        if (index >= this.getKeyCount()) {
+            return index;
+        } else if (StringKeys.equals(this.prefix, this.keys[index], key)) {
+            // 当 key 恰好为索引值时，key 应该在右孩子的节点上
+            return index + 1;
+        } else {
+            return index;
+        }
+    }
+
+    @Override
+    protected BPlusTreeNode<String> split() {
+        BPlusTreeNode<String> newNode = super.split();
+        // both halves start with the prefix of the whole node, which may grow
+        StringKeys.recompress(this, this.getKeyCount());
+        StringKeys.recompress((StringKeys.StringKeysNode) newNode, newNode.getKeyCount());
+        return newNode;
+    }
+}
@@ -0,0 +1,103 @@
+package bplustree;
+
+import java.util.Arrays;
+
+/**
+ * A leaf node of StringBPlusTree, storing the prefix shared by its keys once.
+ */
+class StringBPlusTreeLeafNode<TValue> extends BPlusTreeLeafNode<String, TValue> implements StringKeys.StringKeysNode {
+    // null until the first key is stored
+    private String prefix;
+
+    StringBPlusTreeLeafNode(BPlusTree<String, TValue> tree) {
+        super(tree);
+    }
+
+    @Override
+    protected void clear() {
+        super.clear();
+        this.prefix = null;
+    }
+
+    @Override
+    public String getPrefix() {
+        return this.prefix;
+    }
+
+    @Override
+    public void setPrefix(String prefix) {
+        this.prefix = prefix;
+    }
+
+    @Override
+    public Object[] getSuffixes() {
+        return this.keys;
+    }
+
+    @Override
+    public String getKey(int index) {
+        Object suffix = this.keys[index];
+        return (suffix == null) ? null : this.prefix.concat((String) suffix);
+    }
+
+    @Override
+    public void setKey(int index, String key) {
+        super.setKey(index, (key == null) ? null : StringKeys.compress(this, key));
+    }
+
+    @Override
+    protected int compareKey(int index, String key) {
+        return StringKeys.compare(this.prefix, this.keys[index], key);
+    }
+
+    @Override
+    protected void copyKeysFrom(BPlusTreeNode<String> source, int from, int to, int length) {
+        StringKeys.copy((StringKeys.StringKeysNode) source, from, this, to, length);
+        this.markKeysDirty(to, length);
+    }
+
+    @Override
+    protected int bsearch(String key) {
+        return StringKeys.bsearch(this.keys, this.getKeyCount(), this.prefix, key);
+    }
+
+    @Override
+    public int find(String key) {
+        int index = this.bsearch(key);
+
+        if (index < this.getKeyCount() && StringKeys.equals(this.prefix, this.keys[index], key)) {
+            return index;
+        } else {
+            return -1;
+        }
+    }
+
+    @Override
+    protected BPlusTreeNode<String> split() {
+        BPlusTreeNode<String> newNode = super.split();
+        // both halves start with the prefix of the whole node, which may grow
+        StringKeys.recompress(this, this.getKeyCount());
+        StringKeys.recompress((StringKeys.StringKeysNode) newNode, newNode.getKeyCount());
+        return newNode;
+    }
+
+    @SuppressWarnings("unchecked")
+    @Override
+    protected void fill(Object[] keys, Object[] values, int from, int to) {
+        int count = to - from;
+
+        // the node is refilled from scratch, so the prefix is computed again
+        Arrays.fill(this.keys, null);
+        this.prefix = null;
+
+        for (int i = 0; i < count; i++) {
+            this.setKey(i, (String) keys[from + i]);
+            this.setValue(i, (TValue) values[from + i]);
+        }
+        for (int i = count; i < this.getKeyCount(); i++) {
+            this.setValue(i, null);
+        }
+
+        this.keyCount = count;
+    }
+}
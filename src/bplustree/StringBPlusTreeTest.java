@@ -0,0 +1,156 @@
+package bplustree;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.TreeMap;
+
+import org.junit.Test;
+
+public class StringBPlusTreeTest {
+    private static String url(Random random) {
+        StringBuilder url = new StringBuilder(random.nextBoolean() ? "https://example.com/" : "https://example.org/");
+
+        for (int i = random.nextInt(4); i > 0; i--) {
+            url.append("part").append(random.nextInt(20)).append('/');
+        }
+
+        return url.toString();
+    }
+
+    @Test
+    public void testInsertSearchDelete() {
+        StringBPlusTree<Integer> tree = new StringBPlusTree<>(5);
+        TreeMap<String, Integer> expected = new TreeMap<>();
+        Random random = new Random(0);
+
+        for (int i = 0; i < 20000; i++) {
+            String key = url(random);
+
+            if (expected.containsKey(key)) {
+                tree.delete(key);
+                expected.remove(key);
+            } else {
+                tree.insert(key, i);
+                expected.put(key, i);
+            }
+        }
+
+        List<String> keys = new ArrayList<>();
+        for (BPlusTreeCursor<String, Integer> cursor = tree.scan(null, null); cursor.hasNext();) {
+            keys.add(cursor.next());
+        }
+        assertEquals(new ArrayList<>(expected.keySet()), keys);
+
+        for (int i = 0; i < 1000; i++) {
+            String key = url(random);
+            assertEquals(expected.get(key), tree.search(key));
+        }
+    }
+
+    @Test
+    public void testBatchesAndBoundedScan() {
+        StringBPlusTree<Integer> tree = new StringBPlusTree<>(4);
+        TreeMap<String, Integer> expected = new TreeMap<>();
+        Random random = new Random(1);
+
+        // batches fuse and refill leaves whose prefixes differ
+        for (int round = 0; round < 300; round++) {
+            TreeMap<String, Integer> batch = new TreeMap<>();
+            List<String> deleted = new ArrayList<>();
+            for (int i = 0; i < 20; i++) {
+                String key = url(random);
+                if (expected.containsKey(key)) {
+                    deleted.add(key);
+                } else {
+                    batch.put(key, round);
+                }
+            }
+
+            if (round % 2 == 0) {
+                tree.insertAll(batch.entrySet());
+                expected.putAll(batch);
+            } else {
+                tree.deleteAll(deleted);
+                expected.keySet().removeAll(deleted);
+            }
+        }
+
+        String from = "https://example.com/part1";
+        String to = "https://example.org/part1/";
+        List<String> keys = new ArrayList<>();
+        for (BPlusTreeCursor<String, Integer> cursor = tree.scan(from, to); cursor.hasNext();) {
+            keys.add(cursor.next());
+        }
+        assertEquals(new ArrayList<>(expected.subMap(from, to).keySet()), keys);
+
+        // advance() walks the same entries without building their keys
+        int count = 0;
+        for (BPlusTreeCursor<String, Integer> cursor = tree.scan(from, to); cursor.advance();) {
+            assertEquals(expected.get(keys.get(count)), cursor.getValue());
+            count += 1;
+        }
+        assertEquals(keys.size(), count);
+    }
+
+    @Test
+    public void testPrefixCompression() {
+        StringBPlusTree<Integer> tree = new StringBPlusTree<>(8);
+
+        for (int i = 0; i < 1000; i++) {
+            tree.insert(String.format("https://example.com/items/%04d", i), i);
+        }
+        assertEquals(Integer.valueOf(123), tree.search("https://example.com/items/0123"));
+
+        // the leaves keep the shared prefix once, the separators are truncated
+        BPlusTreeInternalNode<String> parent = (BPlusTreeInternalNode<String>) tree.getRoot();
+        while (parent.getChild(0).getNodeType() == BPlusTreeNodeType.InternalNode) {
+            parent = (BPlusTreeInternalNode<String>) parent.getChild(0);
+        }
+
+        StringBPlusTreeLeafNode<?> leaf = (StringBPlusTreeLeafNode<?>) parent.getChild(1);
+        assertTrue(leaf.getPrefix().startsWith("https://example.com/items/0"));
+        assertTrue(((String) leaf.getSuffixes()[0]).length() <= 3);
+
+        String separator = parent.getKey(0);
+        String lastKey = parent.getChild(0).getKey(parent.getChild(0).getKeyCount() - 1);
+        assertTrue(separator.compareTo(lastKey) > 0);
+        assertTrue(separator.compareTo(leaf.getKey(0)) <= 0);
+        assertTrue(leaf.getKey(0).startsWith(separator));
+    }
+
+    @Test
+    public void testWriteToReadFrom() throws IOException {
+        StringBPlusTree<Integer> tree = new StringBPlusTree<>(8);
+        for (int i = 0; i < 1000; i++) {
+            tree.insert(String.format("https://example.com/items/%04d", i), i);
+        }
+
+        Path file = Files.createTempFile("bplustree", ".checkpoint");
+        try {
+            tree.writeTo(file, BPlusTreeCodec.STRING, BPlusTreeCodec.INTEGER);
+            StringBPlusTree<Integer> loaded = BPlusTree.readFrom(file, BPlusTreeCodec.STRING,
+                    BPlusTreeCodec.INTEGER, StringBPlusTree::new);
+
+            // the bulk loaded leaves are compressed as well
+            BPlusTreeNode<String> node = loaded.getRoot();
+            while (node.getNodeType() == BPlusTreeNodeType.InternalNode) {
+                node = ((BPlusTreeInternalNode<String>) node).getChild(0);
+            }
+            assertTrue(((StringBPlusTreeLeafNode<?>) node).getPrefix().startsWith("https://example.com/items/0"));
+
+            for (int i = 0; i < 1000; i++) {
+                assertEquals(Integer.valueOf(i), loaded.search(String.format("https://example.com/items/%04d", i)));
+            }
+            loaded.delete("https://example.com/items/0123");
+            assertEquals(null, loaded.search("https://example.com/items/0123"));
+        } finally {
+            Files.delete(file);
+        }
+    }
+}
@@ -0,0 +1,209 @@
+package bplustree;
+
+/**
+ * Helpers of the prefix compressed nodes of StringBPlusTree. A node stores the
+ * prefix shared by all its keys once, and only the suffixes of the keys in its
+ * keys array, so the searches compare the suffixes in place.
+ */
+final class StringKeys {
+    private StringKeys() {
+    }
+
+    static int commonPrefixLength(String a, String b) {
+        int length = Math.min(a.length(), b.length());
+        int i = 0;
+
+        while (i < length && a.charAt(i) == b.charAt(i)) {
+            i++;
+        }
+
+        return i;
+    }
+
+    /**
+     * Return the shortest key in (left, right], the prefix of right one character
+     * longer than the prefix it shares with left (suffix truncation).
+     */
+    static String separator(String left, String right) {
+        int length = commonPrefixLength(left, right) + 1;
+        return length >= right.length() ? right : right.substring(0, length);
+    }
+
+    /**
+     * Compare a suffix with key from offset on, like String.compareTo().
+     */
+    static int compareSuffix(String suffix, String key, int offset) {
+        int length = Math.min(suffix.length(), key.length() - offset);
+
+        for (int i = 0; i < length; i++) {
+            char a = suffix.charAt(i);
+            char b = key.charAt(offset + i);
+            if (a != b) {
+                return a - b;
+            }
+        }
+
+        return suffix.length() - (key.length() - offset);
+    }
+
+    /**
+     * Return the position of the first key not less than key, the keys being
+     * prefix followed by the suffixes [0, count).
+     */
+    static int bsearch(Object[] suffixes, int count, String prefix, String key) {
+        int prefixLength = (prefix == null) ? 0 : prefix.length();
+        int mismatch = (prefix == null) ? 0 : commonPrefixLength(prefix, key);
+
+        if (mismatch < prefixLength) {
+            // key does not start with the prefix, so it is less or greater than all keys
+            return (mismatch == key.length() || key.charAt(mismatch) < prefix.charAt(mismatch)) ? 0 : count;
+        }
+
+        int first = 0;
+        int last = count;
+
+        while (first < last) {
+            int mid = first + (last - first) / 2;
+
+            if (compareSuffix((String) suffixes[mid], key, prefixLength) < 0) {
+                first = mid + 1;
+            } else {
+                last = mid;
+            }
+        }
+
+        return first;
+    }
+
+    /**
+     * Compare the key made of prefix and suffix with key, like String.compareTo(),
+     * without building it.
+     */
+    static int compare(String prefix, Object suffix, String key) {
+        int prefixLength = (prefix == null) ? 0 : prefix.length();
+        int mismatch = (prefix == null) ? 0 : commonPrefixLength(prefix, key);
+
+        if (mismatch < prefixLength) {
+            return (mismatch == key.length()) ? 1 : prefix.charAt(mismatch) - key.charAt(mismatch);
+        }
+
+        return compareSuffix((String) suffix, key, prefixLength);
+    }
+
+    static boolean equals(String prefix, Object suffix, String key) {
+        String suffixString = (String) suffix;
+        int prefixLength = (prefix == null) ? 0 : prefix.length();
+
+        return key.length() == prefixLength + suffixString.length()
+                && (prefix == null || key.startsWith(prefix)) && key.startsWith(suffixString, prefixLength);
+    }
+
+    /**
+     * Return the suffix of key to store under prefix, after shortening the prefix
+     * and prepending the dropped part to every stored suffix if key does not start
+     * with it.
+     */
+    static String compress(StringKeysNode node, String key) {
+        String prefix = node.getPrefix();
+
+        if (prefix == null) {
+            node.setPrefix(key);
+            return "";
+        }
+
+        if (!key.startsWith(prefix)) {
+            prefix = shrinkPrefix(node, commonPrefixLength(prefix, key));
+        }
+
+        return key.substring(prefix.length());
+    }
+
+    /**
+     * Shorten the prefix of node to length characters, prepending the dropped part
+     * to every stored suffix, and return the new prefix.
+     */
+    private static String shrinkPrefix(StringKeysNode node, int length) {
+        String prefix = node.getPrefix();
+        String dropped = prefix.substring(length);
+        Object[] suffixes = node.getSuffixes();
+
+        // slots past the key count may still hold suffixes while keys are shifted
+        for (int i = 0; i < suffixes.length; i++) {
+            if (suffixes[i] != null) {
+                suffixes[i] = dropped.concat((String) suffixes[i]);
+            }
+        }
+
+        prefix = prefix.substring(0, length);
+        node.setPrefix(prefix);
+        return prefix;
+    }
+
+    /**
+     * Copy length keys of source from index from on to target from index to on.
+     * The suffixes are copied as they are when both nodes share their prefix, as
+     * the halves of a split do, otherwise only the part of the source prefix
+     * missing from the target prefix is prepended to them.
+     */
+    static void copy(StringKeysNode source, int from, StringKeysNode target, int to, int length) {
+        if (length == 0) {
+            return;
+        }
+
+        String sourcePrefix = source.getPrefix();
+        String prefix = target.getPrefix();
+
+        if (prefix == null) {
+            prefix = sourcePrefix;
+            target.setPrefix(prefix);
+        } else if (!sourcePrefix.startsWith(prefix)) {
+            prefix = shrinkPrefix(target, commonPrefixLength(prefix, sourcePrefix));
+        }
+
+        Object[] sourceSuffixes = source.getSuffixes();
+        Object[] suffixes = target.getSuffixes();
+        if (prefix.length() == sourcePrefix.length()) {
+            System.arraycopy(sourceSuffixes, from, suffixes, to, length);
+            return;
+        }
+
+        String missing = sourcePrefix.substring(prefix.length());
+        for (int i = 0; i < length; i++) {
+            suffixes[to + i] = missing.concat((String) sourceSuffixes[from + i]);
+        }
+    }
+
+    /**
+     * Grow the prefix to the prefix shared by the first and the last of the count
+     * sorted keys, e.g. once the upper half of the keys moved to a new node.
+     */
+    static void recompress(StringKeysNode node, int count) {
+        Object[] suffixes = node.getSuffixes();
+
+        if (count == 0) {
+            return;
+        }
+
+        String first = (String) suffixes[0];
+        int grown = commonPrefixLength(first, (String) suffixes[count - 1]);
+        if (grown == 0) {
+            return;
+        }
+
+        node.setPrefix(node.getPrefix().concat(first.substring(0, grown)));
+        for (int i = 0; i < count; i++) {
+            suffixes[i] = ((String) suffixes[i]).substring(grown);
+        }
+    }
+
+    /**
+     * A node whose keys are stored as a prefix and suffixes.
+     */
+    interface StringKeysNode {
+        String getPrefix();
+
+        void setPrefix(String prefix);
+
+        Object[] getSuffixes();
+    }
+}
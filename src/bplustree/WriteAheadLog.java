@@ -0,0 +1,295 @@
+package bplustree;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.CRC32;
+
+/**
+ * An append-only log of the logical operations applied to a BPlusTree.
+ *
+ * append() buffers a record and returns its log sequence number (LSN), the
+ * position of the end of the record counted from the first record ever
+ * appended, so LSNs keep growing when truncate() drops the records covered by a
+ * checkpoint. commit(lsn) returns once the record is durable: the first
+ * committing thread writes and forces every buffered record, while the threads
+ * committing meanwhile wait and are served by the next single write and fsync
+ * (group commit).
+ *
+ * Layout of the file:
+ * <pre>
+ * | magic (long) | LSN of the start of the file (long) | records ... |
+ * record: | payload length (int) | CRC32 of the payload (int) | operation (byte) | key | value |
+ * </pre>
+ * A record torn by a crash fails its checksum, replay() stops there and cuts it off.
+ */
+public class WriteAheadLog<TKey extends Comparable<TKey>, TValue> implements Closeable {
+    private final static long MAGIC = 0x42504c5357414c31L;
+    private final static int HEADER_BYTES = 16;
+    private final static int RECORD_HEADER_BYTES = 8;
+
+    /* Operations of a record */
+    private final static byte INSERT = 1;
+    private final static byte DELETE = 2;
+
+    private final FileChannel channel;
+    private final OutputStream channelOutput;
+    private final BPlusTreeCodec<TKey> keyCodec;
+    private final BPlusTreeCodec<TValue> valueCodec;
+
+    // the payload of the record being appended, reused under the lock
+    private final ByteArrayOutputStream record;
+    private final DataOutputStream recordOutput;
+    private final CRC32 checksum;
+
+    // records appended but not written yet, swapped with spare by the committing thread
+    private ByteArrayOutputStream pending;
+    private ByteArrayOutputStream spare;
+    private long appendedLsn;
+    private long durableLsn;
+    private boolean flushing;
+    private IOException failure;
+
+    // LSN of the first record in the file
+    private long baseLsn;
+
+    /**
+     * Open the log file, creating it if it does not exist. Call replay() before
+     * appending to a log which already holds records.
+     */
+    public WriteAheadLog(Path file, BPlusTreeCodec<TKey> keyCodec, BPlusTreeCodec<TValue> valueCodec)
+            throws IOException {
+        this.channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE);
+        this.channelOutput = Channels.newOutputStream(this.channel);
+        this.keyCodec = keyCodec;
+        this.valueCodec = valueCodec;
+        this.record = new ByteArrayOutputStream();
+        this.recordOutput = new DataOutputStream(this.record);
+        this.checksum = new CRC32();
+        this.pending = new ByteArrayOutputStream();
+        this.spare = new ByteArrayOutputStream();
+        this.flushing = false;
+
+        if (this.channel.size() < HEADER_BYTES) {
+            this.writeHeader(0);
+        } else {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+            this.channel.read(header, 0);
+            if (header.getLong(0) != MAGIC) {
+                this.channel.close();
+                throw new IOException(file + " is not a write-ahead log");
+            }
+            this.baseLsn = header.getLong(8);
+        }
+
+        this.channel.position(this.channel.size());
+        this.appendedLsn = this.baseLsn + this.channel.size() - HEADER_BYTES;
+        this.durableLsn = this.appendedLsn;
+    }
+
+    /**
+     * Empty the file and make baseLsn the LSN of its first record.
+     */
+    private void writeHeader(long baseLsn) throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES).putLong(0, MAGIC).putLong(8, baseLsn);
+
+        // a crash after the truncation leaves no record behind the old header,
+        // replay() moves the LSN past the checkpoint in that case
+        this.channel.truncate(HEADER_BYTES);
+        this.channel.write(header, 0);
+        this.channel.force(true);
+        this.channel.position(HEADER_BYTES);
+        this.baseLsn = baseLsn;
+    }
+
+    /**
+     * Apply every complete record of the log to the tree, in the order they were
+     * appended, and cut off a record torn by a crash.
+     */
+    public void replay(BPlusTree<TKey, TValue> tree) throws IOException {
+        this.replay(tree, 0);
+    }
+
+    /**
+     * Apply the complete records whose LSN is greater than fromLsn, i.e. the ones
+     * not covered by a checkpoint taken at fromLsn, and cut off a torn record.
+     */
+    public void replay(BPlusTree<TKey, TValue> tree, long fromLsn) throws IOException {
+        DataInputStream in = new DataInputStream(
+                new BufferedInputStream(Channels.newInputStream(this.channel.position(HEADER_BYTES))));
+        long position = HEADER_BYTES;
+        long size = this.channel.size();
+
+        while (position + RECORD_HEADER_BYTES <= size) {
+            int length = in.readInt();
+            int crc = in.readInt();
+
+            if (length < 1 || position + RECORD_HEADER_BYTES + length > size) {
+                break;
+            }
+
+            byte[] payload = new byte[length];
+            in.readFully(payload);
+
+            this.checksum.reset();
+            this.checksum.update(payload, 0, length);
+            if ((int) this.checksum.getValue() != crc) {
+                break;
+            }
+
+            position += RECORD_HEADER_BYTES + length;
+            if (this.baseLsn + position - HEADER_BYTES <= fromLsn) {
+                continue;
+            }
+
+            DataInputStream recordInput = new DataInputStream(new ByteArrayInputStream(payload));
+            byte operation = recordInput.readByte();
+            TKey key = this.keyCodec.read(recordInput);
+
+            if (operation == INSERT) {
+                tree.insert(key, this.valueCodec.read(recordInput));
+            } else {
+                tree.delete(key);
+            }
+        }
+
+        this.channel.truncate(position);
+        this.channel.position(position);
+        this.appendedLsn = this.baseLsn + position - HEADER_BYTES;
+        this.durableLsn = this.appendedLsn;
+
+        if (this.appendedLsn < fromLsn) {
+            // every record is covered by the checkpoint
+            this.writeHeader(fromLsn);
+            this.appendedLsn = fromLsn;
+            this.durableLsn = fromLsn;
+        }
+    }
+
+    /**
+     * Drop every record once a checkpoint covers them, the caller must make sure
+     * no record is appended meanwhile. LSNs continue from the current one.
+     */
+    public synchronized void truncate() throws IOException {
+        this.commit(this.appendedLsn);
+        this.writeHeader(this.appendedLsn);
+    }
+
+    /**
+     * Buffer the insertion of a key and value pair, return its LSN.
+     */
+    public long appendInsert(TKey key, TValue value) throws IOException {
+        return this.append(INSERT, key, value);
+    }
+
+    /**
+     * Buffer the deletion of a key, return its LSN.
+     */
+    public long appendDelete(TKey key) throws IOException {
+        return this.append(DELETE, key, null);
+    }
+
+    private synchronized long append(byte operation, TKey key, TValue value) throws IOException {
+        this.record.reset();
+        this.recordOutput.writeByte(operation);
+        this.keyCodec.write(key, this.recordOutput);
+        if (operation == INSERT) {
+            this.valueCodec.write(value, this.recordOutput);
+        }
+
+        this.checksum.reset();
+        this.checksum.update(this.record.toByteArray());
+
+        DataOutputStream out = new DataOutputStream(this.pending);
+        out.writeInt(this.record.size());
+        out.writeInt((int) this.checksum.getValue());
+        this.record.writeTo(out);
+
+        this.appendedLsn += RECORD_HEADER_BYTES + this.record.size();
+        return this.appendedLsn;
+    }
+
+    /**
+     * Wait until the record with the given LSN, and every record before it, is durable.
+     */
+    public void commit(long lsn) throws IOException {
+        ByteArrayOutputStream batch;
+        long batchLsn;
+
+        synchronized (this) {
+            while (true) {
+                if (this.failure != null) {
+                    throw new IOException("the write-ahead log failed", this.failure);
+                }
+                if (this.durableLsn >= lsn) {
+                    return;
+                }
+                if (!this.flushing) {
+                    break;
+                }
+
+                try {
+                    this.wait();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new InterruptedIOException("interrupted while waiting for the group commit");
+                }
+            }
+
+            // become the leader of the next group
+            this.flushing = true;
+            batch = this.pending;
+            batchLsn = this.appendedLsn;
+            this.pending = this.spare;
+        }
+
+        IOException failure = null;
+        try {
+            batch.writeTo(this.channelOutput);
+            this.channel.force(false);
+        } catch (IOException e) {
+            failure = e;
+        }
+
+        synchronized (this) {
+            batch.reset();
+            this.spare = batch;
+            this.flushing = false;
+            if (failure == null) {
+                this.durableLsn = batchLsn;
+            } else {
+                this.failure = failure;
+            }
+            this.notifyAll();
+        }
+
+        if (failure != null) {
+            throw failure;
+        }
+    }
+
+    /**
+     * Return the LSN of the last record appended.
+     */
+    public synchronized long getLsn() {
+        return this.appendedLsn;
+    }
+
+    @Override
+    public void close() throws IOException {
+        this.commit(this.getLsn());
+        this.channel.close();
+    }
+}